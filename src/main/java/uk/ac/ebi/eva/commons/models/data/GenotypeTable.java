@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import org.opencb.biodata.models.feature.Genotype;
+
+/**
+ * Table of the most common genotypes, built once when the class is loaded: the haploid and diploid genotypes, phased
+ * or not, whose alleles are missing or have an index up to {@link #MAX_ALLELE}, such as "0/0", "0|1", "./." or "1".
+ * <p>
+ * The code of a genotype in the table is computed from its characters, without creating a String, and gives its
+ * canonical String and its parsed {@link Genotype}. As the table is never modified, it can be read from any thread
+ * without locks. Genotypes that are not in the table are created and parsed as usual.
+ */
+public final class GenotypeTable {
+
+    /**
+     * Code of the genotypes that are not in the table.
+     */
+    public static final int NOT_IN_TABLE = -1;
+
+    /**
+     * Highest allele index of the genotypes in the table.
+     */
+    public static final int MAX_ALLELE = 3;
+
+    private static final char MISSING_ALLELE = '.';
+
+    private static final char UNPHASED_SEPARATOR = '/';
+
+    private static final char PHASED_SEPARATOR = '|';
+
+    /**
+     * Missing allele, and the alleles from 0 to MAX_ALLELE
+     */
+    private static final int NUM_ALLELES = MAX_ALLELE + 2;
+
+    private static final int NUM_SEPARATORS = 2;
+
+    private static final String[] GENOTYPES;
+
+    private static final Genotype[] PARSED_GENOTYPES;
+
+    static {
+        int numGenotypes = NUM_ALLELES + NUM_SEPARATORS * NUM_ALLELES * NUM_ALLELES;
+        GENOTYPES = new String[numGenotypes];
+        PARSED_GENOTYPES = new Genotype[numGenotypes];
+        char[] separators = {UNPHASED_SEPARATOR, PHASED_SEPARATOR};
+        for (int first = 0; first < NUM_ALLELES; first++) {
+            addGenotype(String.valueOf(getAlleleCharacter(first)));
+            for (char separator : separators) {
+                for (int second = 0; second < NUM_ALLELES; second++) {
+                    addGenotype(String.valueOf(new char[]{getAlleleCharacter(first), separator,
+                            getAlleleCharacter(second)}));
+                }
+            }
+        }
+    }
+
+    private GenotypeTable() {
+    }
+
+    private static void addGenotype(String genotype) {
+        int code = getCode(genotype);
+        GENOTYPES[code] = genotype;
+        PARSED_GENOTYPES[code] = new Genotype(genotype);
+    }
+
+    private static char getAlleleCharacter(int alleleCode) {
+        return alleleCode == 0 ? MISSING_ALLELE : (char) ('0' + alleleCode - 1);
+    }
+
+    private static int getAlleleCode(char allele) {
+        if (allele == MISSING_ALLELE) {
+            return 0;
+        }
+        int index = allele - '0';
+        return (index >= 0 && index <= MAX_ALLELE) ? index + 1 : NOT_IN_TABLE;
+    }
+
+    private static int getSeparatorCode(char separator) {
+        switch (separator) {
+            case UNPHASED_SEPARATOR:
+                return 0;
+            case PHASED_SEPARATOR:
+                return 1;
+            default:
+                return NOT_IN_TABLE;
+        }
+    }
+
+    public static int getCode(CharSequence genotype) {
+        return getCode(genotype, 0, genotype.length());
+    }
+
+    /**
+     * @return the code of the genotype written in text[start, end), or {@link #NOT_IN_TABLE}
+     */
+    public static int getCode(CharSequence text, int start, int end) {
+        switch (end - start) {
+            case 1:
+                return getAlleleCode(text.charAt(start));
+            case 3:
+                int first = getAlleleCode(text.charAt(start));
+                int separator = getSeparatorCode(text.charAt(start + 1));
+                int second = getAlleleCode(text.charAt(start + 2));
+                if (first == NOT_IN_TABLE || separator == NOT_IN_TABLE || second == NOT_IN_TABLE) {
+                    return NOT_IN_TABLE;
+                }
+                return NUM_ALLELES + (separator * NUM_ALLELES + first) * NUM_ALLELES + second;
+            default:
+                return NOT_IN_TABLE;
+        }
+    }
+
+    /**
+     * @return the canonical instance of the genotype written in text[start, end) if it is in the table, or an
+     * interned String otherwise
+     */
+    public static String getGenotype(CharSequence text, int start, int end) {
+        int code = getCode(text, start, end);
+        if (code == NOT_IN_TABLE) {
+            return text.subSequence(start, end).toString().intern();
+        }
+        return GENOTYPES[code];
+    }
+
+    public static String getGenotype(String genotype) {
+        int code = getCode(genotype);
+        return code == NOT_IN_TABLE ? genotype.intern() : GENOTYPES[code];
+    }
+
+    /**
+     * @return the parsed genotype, without reference nor alternate alleles. The instances in the table are shared, so
+     * they must not be modified.
+     */
+    public static Genotype getParsedGenotype(String genotype) {
+        int code = getCode(genotype);
+        return code == NOT_IN_TABLE ? new Genotype(genotype) : PARSED_GENOTYPES[code];
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Data of all the samples of a {@link VariantSourceEntry}, stored by columns instead of as a map per sample.
+ * <p>
+ * The FORMAT keys are kept once for all the samples. Genotypes, usually the only field of big cohorts, are encoded
+ * as a code per sample in a primitive array, and the distinct genotypes are kept in a small dictionary. The values of
+ * the other fields are only allocated for the samples that have them.
+ * <p>
+ * As a list, every sample is seen as a map of (field name, field value), such as (GT, 0/1), which is created when it
+ * is requested. Changes in those maps are not stored.
+ */
+public class SamplesData extends AbstractList<Map<String, String>> {
+
+    public static final String GENOTYPE_KEY = "GT";
+
+    /**
+     * Code of the samples that don't have a genotype.
+     */
+    public static final int NO_GENOTYPE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<String> keys;
+
+    private int genotypeKeyIndex;
+
+    private final List<String> genotypes;
+
+    private final Map<String, Integer> genotypeCodes;
+
+    private int[] sampleGenotypeCodes;
+
+    /**
+     * Values of the fields other than the genotype, by sample and key. The whole array, and the row of a sample, are
+     * null until a value is set.
+     */
+    private String[][] otherValues;
+
+    private int numSamples;
+
+    public SamplesData() {
+        this.keys = new ArrayList<>();
+        this.genotypeKeyIndex = -1;
+        this.genotypes = new ArrayList<>();
+        this.genotypeCodes = new HashMap<>();
+        this.sampleGenotypeCodes = new int[INITIAL_CAPACITY];
+        this.otherValues = null;
+        this.numSamples = 0;
+    }
+
+    public SamplesData(List<Map<String, String>> samplesData) {
+        this();
+        for (Map<String, String> sampleData : samplesData) {
+            addSample(sampleData);
+        }
+    }
+
+    /**
+     * @return the index of the key, that will be added if it is new. The genotype key is recognised ignoring the case.
+     */
+    public int addKey(String key) {
+        int keyIndex = keys.indexOf(key);
+        if (keyIndex == -1) {
+            keys.add(key);
+            keyIndex = keys.size() - 1;
+            if (genotypeKeyIndex == -1 && GENOTYPE_KEY.equalsIgnoreCase(key)) {
+                genotypeKeyIndex = keyIndex;
+            }
+        }
+        return keyIndex;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public boolean isGenotypeKey(int keyIndex) {
+        return keyIndex == genotypeKeyIndex;
+    }
+
+    /**
+     * Adds a sample without any value.
+     *
+     * @return the index of the sample
+     */
+    public int addSample() {
+        if (numSamples == sampleGenotypeCodes.length) {
+            sampleGenotypeCodes = Arrays.copyOf(sampleGenotypeCodes, 2 * sampleGenotypeCodes.length);
+            if (otherValues != null) {
+                otherValues = Arrays.copyOf(otherValues, sampleGenotypeCodes.length);
+            }
+        }
+        sampleGenotypeCodes[numSamples] = NO_GENOTYPE;
+        modCount++;
+        return numSamples++;
+    }
+
+    /**
+     * Copies the data of the samples replacing every distinct genotype by the result of a function, such as the
+     * genotypes of other alternate of a multiallelic variant. The function is called once per distinct genotype, and
+     * the codes of the samples are remapped without parsing their genotypes again.
+     *
+     * @param genotypeMapping function that returns the new genotype, or null if there is no genotype
+     * @return the copy, which doesn't share any changes with these data
+     */
+    public SamplesData copyWithGenotypes(UnaryOperator<String> genotypeMapping) {
+        SamplesData copy = new SamplesData();
+        copy.keys.addAll(keys);
+        copy.genotypeKeyIndex = genotypeKeyIndex;
+
+        int[] codeMapping = new int[genotypes.size()];
+        for (int code = 0; code < genotypes.size(); code++) {
+            String genotype = genotypeMapping.apply(genotypes.get(code));
+            if (genotype == null) {
+                codeMapping[code] = NO_GENOTYPE;
+            } else {
+                codeMapping[code] = copy.addGenotype(genotype);
+            }
+        }
+
+        copy.sampleGenotypeCodes = new int[Math.max(numSamples, INITIAL_CAPACITY)];
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            int code = sampleGenotypeCodes[sampleIndex];
+            copy.sampleGenotypeCodes[sampleIndex] = code == NO_GENOTYPE ? NO_GENOTYPE : codeMapping[code];
+        }
+        if (otherValues != null) {
+            copy.otherValues = new String[copy.sampleGenotypeCodes.length][];
+            for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+                String[] sampleValues = otherValues[sampleIndex];
+                copy.otherValues[sampleIndex] = sampleValues == null ? null : sampleValues.clone();
+            }
+        }
+        copy.numSamples = numSamples;
+        return copy;
+    }
+
+    public int addSample(Map<String, String> sampleData) {
+        int sampleIndex = addSample();
+        for (Map.Entry<String, String> field : sampleData.entrySet()) {
+            setValue(sampleIndex, addKey(field.getKey()), field.getValue());
+        }
+        return sampleIndex;
+    }
+
+    public void setValue(int sampleIndex, int keyIndex, String value) {
+        checkSample(sampleIndex);
+        if (keyIndex == genotypeKeyIndex) {
+            setGenotype(sampleIndex, value);
+            return;
+        }
+        if (otherValues == null) {
+            otherValues = new String[sampleGenotypeCodes.length][];
+        }
+        String[] sampleValues = otherValues[sampleIndex];
+        if (sampleValues == null) {
+            sampleValues = new String[keys.size()];
+        } else if (sampleValues.length < keys.size()) {
+            sampleValues = Arrays.copyOf(sampleValues, keys.size());
+        }
+        sampleValues[keyIndex] = value;
+        otherValues[sampleIndex] = sampleValues;
+    }
+
+    private void setGenotype(int sampleIndex, String genotype) {
+        if (genotype == null) {
+            sampleGenotypeCodes[sampleIndex] = NO_GENOTYPE;
+            return;
+        }
+        sampleGenotypeCodes[sampleIndex] = addGenotype(genotype);
+    }
+
+    /**
+     * @return the code of the genotype, that will be added to the dictionary if it is new
+     */
+    private int addGenotype(String genotype) {
+        Integer code = genotypeCodes.get(genotype);
+        if (code == null) {
+            code = genotypes.size();
+            genotypes.add(genotype);
+            genotypeCodes.put(genotype, code);
+        }
+        return code;
+    }
+
+    public String getValue(int sampleIndex, String key) {
+        checkSample(sampleIndex);
+        int keyIndex = keys.indexOf(key);
+        return keyIndex == -1 ? null : getValue(sampleIndex, keyIndex);
+    }
+
+    private String getValue(int sampleIndex, int keyIndex) {
+        if (keyIndex == genotypeKeyIndex) {
+            return getGenotype(sampleIndex);
+        }
+        if (otherValues == null || otherValues[sampleIndex] == null || keyIndex >= otherValues[sampleIndex].length) {
+            return null;
+        }
+        return otherValues[sampleIndex][keyIndex];
+    }
+
+    /**
+     * @return the position of the genotype of the sample in {@link #getGenotypes()}, or {@link #NO_GENOTYPE}
+     */
+    public int getGenotypeCode(int sampleIndex) {
+        checkSample(sampleIndex);
+        return sampleGenotypeCodes[sampleIndex];
+    }
+
+    public String getGenotype(int sampleIndex) {
+        int code = getGenotypeCode(sampleIndex);
+        return code == NO_GENOTYPE ? null : genotypes.get(code);
+    }
+
+    /**
+     * @return the distinct genotypes of the samples, indexed by their code
+     */
+    public List<String> getGenotypes() {
+        return genotypes;
+    }
+
+    private void checkSample(int sampleIndex) {
+        if (sampleIndex < 0 || sampleIndex >= numSamples) {
+            throw new IndexOutOfBoundsException("Sample " + sampleIndex + " out of " + numSamples);
+        }
+    }
+
+    @Override
+    public Map<String, String> get(int sampleIndex) {
+        checkSample(sampleIndex);
+        Map<String, String> sampleData = new TreeMap<>();
+        for (int keyIndex = 0; keyIndex < keys.size(); keyIndex++) {
+            String value = getValue(sampleIndex, keyIndex);
+            if (value != null) {
+                sampleData.put(keys.get(keyIndex), value);
+            }
+        }
+        return sampleData;
+    }
+
+    @Override
+    public boolean add(Map<String, String> sampleData) {
+        addSample(sampleData);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return numSamples;
+    }
+}
@@ -16,10 +16,8 @@
  */
 package uk.ac.ebi.eva.commons.models.data;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -50,11 +48,10 @@ public class VariantSourceEntry {
     private String format;
 
     /**
-     * Genotypes and other sample-related information. The keys are the names
-     * of the samples. The values are pairs (field name, field value), such as
-     * (GT, A/C).
+     * Genotypes and other sample-related information, stored by columns. Each
+     * sample is seen as pairs (field name, field value), such as (GT, A/C).
      */
-    private List<Map<String, String>> samplesData;
+    private SamplesData samplesData;
 
     /**
      * Statistics of the genomic variation, such as its alleles/genotypes count
@@ -85,7 +82,7 @@ public class VariantSourceEntry {
         this.secondaryAlternates = secondaryAlternates;
         this.format = format;
 
-        this.samplesData = new ArrayList<>();
+        this.samplesData = new SamplesData();
         this.attributes = new LinkedHashMap<>();
         this.cohortStats = new LinkedHashMap<>();
     }
@@ -122,14 +119,21 @@ public class VariantSourceEntry {
         this.format = format;
     }
 
-    public List<Map<String, String>> getSamplesData() {
+    public SamplesData getSamplesData() {
         return samplesData;
     }
 
+    public void setSamplesData(SamplesData samplesData) {
+        this.samplesData = samplesData;
+    }
+
     public String getSampleData(int sampleIndex, String field) {
-        return getSampleData(sampleIndex).get(field.toUpperCase());
+        return samplesData.getValue(sampleIndex, field.toUpperCase());
     }
 
+    /**
+     * @return a copy of the information of the sample; changes in it are not stored
+     */
     public Map<String, String> getSampleData(int sampleIndex) {
         return samplesData.get(sampleIndex);
     }
@@ -141,8 +145,7 @@ public class VariantSourceEntry {
      * @return The index where the sample was inserted
      */
     public int addSampleData(Map<String, String> sampleData) {
-        this.samplesData.add(sampleData);
-        return this.samplesData.size() - 1;
+        return this.samplesData.addSample(sampleData);
     }
 
     public VariantStats getStats() {
@@ -402,6 +402,17 @@ public class VariantStats {
 
     public VariantStats calculate(List<Map<String, String>> samplesData, Map<String, String> attributes,
                                   Pedigree pedigree) {
+        return calculate(new SamplesData(samplesData), attributes, pedigree);
+    }
+
+    /**
+     * Calculates the statistics reading the genotypes of the samples directly from their codes, so every distinct
+     * genotype is parsed only once, and all the samples without genotype share the same missing genotype.
+     * <p>
+     * The genotypes of {@link GenotypeTable} are not used here, because these ones are built with the reference and
+     * alternate alleles of the variant.
+     */
+    public VariantStats calculate(SamplesData samplesData, Map<String, String> attributes, Pedigree pedigree) {
         int[] allelesCount = new int[2];
         int totalAllelesCount = 0, totalGenotypesCount = 0;
 
@@ -415,8 +426,25 @@ public class VariantStats {
             this.setMendelianErrors(0);
         }
 
-        for (Map<String, String> sample : samplesData) {
-            Genotype g = new Genotype(sample.get("GT"), this.getRefAllele(), this.getAltAllele());
+        List<String> genotypes = samplesData.getGenotypes();
+        Genotype[] parsedGenotypes = new Genotype[genotypes.size()];
+        for (int code = 0; code < parsedGenotypes.length; code++) {
+            parsedGenotypes[code] = new Genotype(genotypes.get(code), this.getRefAllele(), this.getAltAllele());
+        }
+
+        Genotype missingGenotype = null;
+
+        for (int i = 0; i < samplesData.size(); i++) {
+            int code = samplesData.getGenotypeCode(i);
+            Genotype g;
+            if (code != SamplesData.NO_GENOTYPE) {
+                g = parsedGenotypes[code];
+            } else {
+                if (missingGenotype == null) {
+                    missingGenotype = new Genotype(null, this.getRefAllele(), this.getAltAllele());
+                }
+                g = missingGenotype;
+            }
             this.addGenotype(g);
 
             // Check missing alleles and genotypes
@@ -15,6 +15,8 @@
  */
 package uk.ac.ebi.eva.commons.models.mongo.entity.projections;
 
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Field;
 import uk.ac.ebi.eva.commons.models.data.Variant;
@@ -130,4 +132,38 @@ public class SimplifiedVariant {
     public Set<HgvsMongo> getHgvs() {
         return hgvs;
     }
+
+    /**
+     * Builds the document of this variant without reflection, with the same fields that the
+     * {@link org.springframework.data.mongodb.core.convert.MappingMongoConverter} would write, skipping the null ones.
+     */
+    public BasicDBObject toDBObject() {
+        BasicDBObject document = new BasicDBObject("_id", id);
+        if (variantType != null) {
+            document.append(TYPE_FIELD, variantType.name());
+        }
+        if (chromosome != null) {
+            document.append(CHROMOSOME_FIELD, chromosome);
+        }
+        document.append(START_FIELD, start);
+        document.append(END_FIELD, end);
+        document.append(LENGTH_FIELD, length);
+        if (reference != null) {
+            document.append(REFERENCE_FIELD, reference);
+        }
+        if (alternate != null) {
+            document.append(ALTERNATE_FIELD, alternate);
+        }
+        if (at != null) {
+            document.append(AT_FIELD, at.toDBObject());
+        }
+        if (hgvs != null) {
+            BasicDBList hgvsList = new BasicDBList();
+            for (HgvsMongo hgvsMongo : hgvs) {
+                hgvsList.add(hgvsMongo.toDBObject());
+            }
+            document.append(HGVS_FIELD, hgvsList);
+        }
+        return document;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
 
+import com.mongodb.BasicDBObject;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 /**
@@ -40,4 +41,18 @@ public class HgvsMongo {
         this.type = type;
         this.name = name;
     }
+
+    /**
+     * @return the document of this HGVS name, as the mapping converter would write it
+     */
+    public BasicDBObject toDBObject() {
+        BasicDBObject document = new BasicDBObject();
+        if (type != null) {
+            document.append(TYPE_FIELD, type);
+        }
+        if (name != null) {
+            document.append(NAME_FIELD, name);
+        }
+        return document;
+    }
 }
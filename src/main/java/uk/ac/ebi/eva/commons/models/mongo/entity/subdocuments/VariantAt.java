@@ -15,6 +15,8 @@
  */
 package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
 
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.HashSet;
@@ -39,4 +41,13 @@ public class VariantAt {
         chunkIds.add(chunkSmall);
         chunkIds.add(chunkBig);
     }
+
+    /**
+     * @return the document of this field, as the mapping converter would write it
+     */
+    public BasicDBObject toDBObject() {
+        BasicDBList chunkIdsList = new BasicDBList();
+        chunkIdsList.addAll(chunkIds);
+        return new BasicDBObject(CHUNK_IDS_FIELD, chunkIdsList);
+    }
 }
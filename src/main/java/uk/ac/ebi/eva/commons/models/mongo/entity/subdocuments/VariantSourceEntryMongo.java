@@ -15,13 +15,17 @@
  */
 package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
 
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import org.opencb.biodata.models.feature.Genotype;
 import org.springframework.data.mongodb.core.mapping.Field;
+import uk.ac.ebi.eva.commons.models.data.GenotypeTable;
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
 import uk.ac.ebi.eva.utils.CompressionHelper;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -84,12 +88,17 @@ public class VariantSourceEntryMongo {
 
     public VariantSourceEntryMongo(String fileId, String studyId, String[] alternates, Map<String, String>
             attributes, String format, List<Map<String, String>> samplesData) {
+        this(fileId, studyId, alternates, attributes, format, new SamplesData(samplesData));
+    }
+
+    public VariantSourceEntryMongo(String fileId, String studyId, String[] alternates, Map<String, String>
+            attributes, String format, SamplesData samplesData) {
         this(fileId, studyId, alternates, attributes);
         this.format = format;
         this.samp = buildSampleData(samplesData);
     }
 
-    private BasicDBObject buildSampleData(List<Map<String, String>> samplesData) {
+    private BasicDBObject buildSampleData(SamplesData samplesData) {
         Map<Genotype, List<Integer>> genotypeCodes = classifySamplesByGenotype(samplesData);
 
         // Get the most common genotype
@@ -125,21 +134,33 @@ public class VariantSourceEntryMongo {
         return longestList;
     }
 
-    private Map<Genotype, List<Integer>> classifySamplesByGenotype(List<Map<String, String>> samplesData) {
+    /**
+     * Parses every distinct genotype once, and then groups the samples by the code of their genotype. Different codes
+     * whose genotypes are equal share the same list, so the samples are still listed in order.
+     */
+    private Map<Genotype, List<Integer>> classifySamplesByGenotype(SamplesData samplesData) {
         Map<Genotype, List<Integer>> genotypeCodes = new HashMap<>();
 
+        List<String> genotypes = samplesData.getGenotypes();
+        List<List<Integer>> samplesByCode = new ArrayList<>(genotypes.size());
+        for (String genotype : genotypes) {
+            Genotype g = GenotypeTable.getParsedGenotype(genotype);
+            List<Integer> samplesWithGenotype = genotypeCodes.get(g);
+            if (samplesWithGenotype == null) {
+                samplesWithGenotype = new ArrayList<>();
+                genotypeCodes.put(g, samplesWithGenotype);
+            }
+            samplesByCode.add(samplesWithGenotype);
+        }
+
         for (int i = 0; i < samplesData.size(); i++) {
-            String genotype = samplesData.get(i).get("GT");
-            if (genotype != null) {
-                Genotype g = new Genotype(genotype);
-                List<Integer> samplesWithGenotype = genotypeCodes.get(g);
-                if (samplesWithGenotype == null) {
-                    samplesWithGenotype = new ArrayList<>();
-                    genotypeCodes.put(g, samplesWithGenotype);
-                }
-                samplesWithGenotype.add(i);
+            int code = samplesData.getGenotypeCode(i);
+            if (code != SamplesData.NO_GENOTYPE) {
+                samplesByCode.get(code).add(i);
             }
         }
+        // a genotype may not be used anymore if the genotype of its samples was replaced
+        genotypeCodes.values().removeIf(List::isEmpty);
         return genotypeCodes;
     }
 
@@ -148,14 +169,8 @@ public class VariantSourceEntryMongo {
         for (Map.Entry<String, String> entry : attributes.entrySet()) {
             Object value = entry.getValue();
             if (entry.getKey().equals("src")) {
-                String[] fields = entry.getValue().split("\t");
-                StringBuilder sb = new StringBuilder();
-                sb.append(fields[0]);
-                for (int i = 1; i < fields.length && i < 8; i++) {
-                    sb.append("\t").append(fields[i]);
-                }
                 try {
-                    value = CompressionHelper.gzip(sb.toString());
+                    value = CompressionHelper.gzip(getFirst8Columns(entry.getValue()));
                 } catch (IOException ex) {
                     Logger.getLogger(VariantSourceEntryMongo.class.getName()).log(Level.SEVERE, null, ex);
                 }
@@ -170,4 +185,45 @@ public class VariantSourceEntryMongo {
         return attrs;
     }
 
+    /**
+     * The source line is usually already cut by the variant factory, so it's only copied if it has sample columns
+     */
+    private String getFirst8Columns(String line) {
+        int end = -1;
+        for (int i = 0; i < 8; i++) {
+            end = line.indexOf('\t', end + 1);
+            if (end == -1) {
+                return line;
+            }
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * @return the document of this file, as the mapping converter would write it
+     */
+    public BasicDBObject toDBObject() {
+        BasicDBObject document = new BasicDBObject();
+        if (fileId != null) {
+            document.append(FILEID_FIELD, fileId);
+        }
+        if (studyId != null) {
+            document.append(STUDYID_FIELD, studyId);
+        }
+        if (alternates != null) {
+            BasicDBList alternatesList = new BasicDBList();
+            Collections.addAll(alternatesList, alternates);
+            document.append(ALTERNATES_FIELD, alternatesList);
+        }
+        if (attrs != null) {
+            document.append(ATTRIBUTES_FIELD, attrs);
+        }
+        if (format != null) {
+            document.append(FORMAT_FIELD, format);
+        }
+        if (samp != null) {
+            document.append(SAMPLES_FIELD, samp);
+        }
+        return document;
+    }
 }
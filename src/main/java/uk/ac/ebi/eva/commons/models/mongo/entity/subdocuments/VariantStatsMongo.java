@@ -15,6 +15,7 @@
  */
 package uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments;
 
+import com.mongodb.BasicDBObject;
 import org.opencb.biodata.models.feature.Genotype;
 import org.springframework.data.mongodb.core.mapping.Field;
 import uk.ac.ebi.eva.commons.models.data.VariantStats;
@@ -143,4 +144,30 @@ public class VariantStatsMongo {
     public Map<String, Integer> getNumGt() {
         return numGt;
     }
+
+    /**
+     * @return the document of these statistics, as the mapping converter would write it
+     */
+    public BasicDBObject toDBObject() {
+        BasicDBObject document = new BasicDBObject();
+        appendIfNotNull(document, STUDY_ID, studyId);
+        appendIfNotNull(document, FILE_ID, fileId);
+        appendIfNotNull(document, COHORT_ID, cohortId);
+        document.append(MAF_FIELD, maf);
+        document.append(MGF_FIELD, mgf);
+        appendIfNotNull(document, MAFALLELE_FIELD, mafAllele);
+        appendIfNotNull(document, MGFGENOTYPE_FIELD, mgfGenotype);
+        document.append(MISSALLELE_FIELD, missingAlleles);
+        document.append(MISSGENOTYPE_FIELD, missingGenotypes);
+        if (numGt != null) {
+            document.append(NUMGT_FIELD, new BasicDBObject(numGt));
+        }
+        return document;
+    }
+
+    private static void appendIfNotNull(BasicDBObject document, String field, Object value) {
+        if (value != null) {
+            document.append(field, value);
+        }
+    }
 }
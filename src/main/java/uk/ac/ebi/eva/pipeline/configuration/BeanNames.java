@@ -23,6 +23,7 @@ public class BeanNames {
 
     public static final String GENE_READER = "gene-reader";
     public static final String VARIANTS_READER = "variants-reader";
+    public static final String VEP_ANNOTATION_READER = "vep-annotation-reader";
     public static final String VARIANT_ANNOTATION_READER = "variant-annotation-reader";
     public static final String VARIANT_READER = "variant-reader";
 
@@ -33,6 +34,17 @@ public class BeanNames {
     public static final String COMPOSITE_ANNOTATION_VARIANT_WRITER = "composite-annotation-variant-writer";
     public static final String VARIANT_WRITER = "variant-writer";
 
+    public static final String VEP_ANNOTATION_TASK_EXECUTOR = "vep-annotation-task-executor";
+    public static final String VEP_ANNOTATION_COMPLETION_POLICY = "vep-annotation-completion-policy";
+    public static final String VEP_ANNOTATION_PARTITIONER = "vep-annotation-partitioner";
+    public static final String VEP_ANNOTATION_PARTITIONS_TASK_EXECUTOR = "vep-annotation-partitions-task-executor";
+    public static final String LOAD_VARIANTS_PARTITIONER = "load-variants-partitioner";
+    public static final String LOAD_VARIANTS_PARTITIONS_TASK_EXECUTOR = "load-variants-partitions-task-executor";
+    public static final String VCF_LIST_PARTITIONER = "vcf-list-partitioner";
+    public static final String VCF_LIST_PARTITIONS_TASK_EXECUTOR = "vcf-list-partitions-task-executor";
+    public static final String CREATE_VARIANTS_INDEXES_TASKLET = "create-variants-indexes-tasklet";
+    public static final String CREATE_ANNOTATIONS_INDEXES_TASKLET = "create-annotations-indexes-tasklet";
+
     public static final String ANNOTATION_SKIP_STEP_DECIDER = "annotation-skip-step-decider";
     public static final String STATISTICS_SKIP_STEP_DECIDER = "statistics-skip-step-decider";
 
@@ -41,15 +53,22 @@ public class BeanNames {
     public static final String PARALLEL_STATISTICS_AND_ANNOTATION = "parallel-statistics-and-annotation-flow";
     public static final String CALCULATE_STATISTICS_FLOW = "calculate-statistics-flow";
     public static final String CALCULATE_STATISTICS_OPTIONAL_FLOW = "calculate-statistics-optional-flow";
+    public static final String LOAD_VARIANTS_FLOW = "load-variants-flow";
 
     public static final String LOAD_VEP_ANNOTATION_STEP = "load-vep-annotation-step";
     public static final String CALCULATE_STATISTICS_STEP = "calculate-statistics-step";
     public static final String CREATE_DATABASE_INDEXES_STEP = "create-database-indexes-step";
+    public static final String CREATE_VARIANTS_INDEXES_STEP = "create-variants-indexes-step";
+    public static final String CREATE_ANNOTATIONS_INDEXES_STEP = "create-annotations-indexes-step";
     public static final String LOAD_GENES_STEP = "load-genes-step";
     public static final String GENERATE_VEP_ANNOTATION_STEP = "generate-vep-annotation";
+    public static final String GENERATE_VEP_ANNOTATION_PARTITIONED_STEP = "generate-vep-annotation-partitioned";
     public static final String LOAD_STATISTICS_STEP = "load-statistics-step";
     public static final String LOAD_VARIANTS_STEP = "load-variants-step";
+    public static final String LOAD_VARIANTS_PARTITIONED_STEP = "load-variants-partitioned-step";
     public static final String LOAD_FILE_STEP = "load-file-step";
+    public static final String LOAD_VCF_LIST_VARIANTS_STEP = "load-vcf-list-variants-step";
+    public static final String LOAD_VCF_LIST_FILES_STEP = "load-vcf-list-files-step";
     public static final String DROP_VARIANTS_BY_STUDY_STEP = "drop-variants-by-study-step";
     public static final String PULL_FILES_AND_STATISTICS_BY_STUDY_STEP = "pull-files-and-statistics-by-study-step";
     public static final String DROP_FILES_BY_STUDY_STEP = "drop-files-by-study-step";
@@ -59,6 +78,7 @@ public class BeanNames {
     public static final String ANNOTATE_VARIANTS_JOB = "annotate-variants-job";
     public static final String INIT_DATABASE_JOB = "init-database-job";
     public static final String GENOTYPED_VCF_JOB = "genotyped-vcf-job";
+    public static final String GENOTYPED_VCF_BATCH_JOB = "genotyped-vcf-batch-job";
     public static final String CALCULATE_STATISTICS_JOB = "calculate-statistics-job";
     public static final String DROP_STUDY_JOB = "drop-study-job";
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VcfListPartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VCF_LIST_PARTITIONER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VCF_LIST_PARTITIONS_TASK_EXECUTOR;
+
+/**
+ * Spring configuration to inject the partitioner and the bounded task executor shared by the steps that process every
+ * VCF of a list in its own partition.
+ */
+@Configuration
+public class VcfListPartitionerConfiguration {
+
+    @Bean(VCF_LIST_PARTITIONER)
+    @StepScope
+    public Partitioner vcfListPartitioner(InputParameters inputParameters) {
+        return new VcfListPartitioner(inputParameters.getVcfList());
+    }
+
+    @Bean(VCF_LIST_PARTITIONS_TASK_EXECUTOR)
+    @StepScope
+    public TaskExecutor vcfListPartitionsTaskExecutor(InputParameters inputParameters) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("vcf-list-partition-");
+        taskExecutor.setConcurrencyLimit(Math.max(inputParameters.getVcfListThreads(), 1));
+        return taskExecutor;
+    }
+
+}
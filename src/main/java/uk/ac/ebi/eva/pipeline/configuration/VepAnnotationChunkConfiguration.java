@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import uk.ac.ebi.eva.pipeline.configuration.io.readers.VariantsMongoReaderConfiguration;
+import uk.ac.ebi.eva.pipeline.io.NearbyVariantsCompletionPolicy;
+import uk.ac.ebi.eva.pipeline.io.readers.SynchronizedPeekableItemStreamReader;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANTS_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_COMPLETION_POLICY;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_READER;
+
+/**
+ * Spring configuration of how the variants to annotate are grouped in chunks before sending them to VEP.
+ * <p>
+ * The reader is thread safe, as the chunks can be annotated concurrently. If the variants are read in locus order,
+ * full chunks are extended with the next variants while they are close to the previous one, up to twice the chunk
+ * size. Otherwise, the chunks have the configured chunk size.
+ */
+@Configuration
+@Import({VariantsMongoReaderConfiguration.class, ChunkSizeCompletionPolicyConfiguration.class})
+public class VepAnnotationChunkConfiguration {
+
+    @Bean(VEP_ANNOTATION_READER)
+    @StepScope
+    public SynchronizedPeekableItemStreamReader<EnsemblVariant> vepAnnotationReader(
+            @Qualifier(VARIANTS_READER) ItemStreamReader<EnsemblVariant> variantsReader) {
+        return new SynchronizedPeekableItemStreamReader<>(variantsReader);
+    }
+
+    @Bean(VEP_ANNOTATION_COMPLETION_POLICY)
+    @StepScope
+    public CompletionPolicy vepAnnotationCompletionPolicy(
+            AnnotationParameters annotationParameters, ChunkSizeParameters chunkSizeParameters,
+            SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            @Qualifier(VEP_ANNOTATION_READER) SynchronizedPeekableItemStreamReader<EnsemblVariant> reader) {
+        if (annotationParameters.getLocusOrder()) {
+            return new NearbyVariantsCompletionPolicy(chunkSizeCompletionPolicy, reader,
+                    annotationParameters.getCoalesceDistance(), chunkSizeParameters.getChunkSize());
+        }
+        return chunkSizeCompletionPolicy;
+    }
+}
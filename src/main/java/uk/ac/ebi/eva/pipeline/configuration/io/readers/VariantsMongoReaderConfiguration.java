@@ -16,6 +16,7 @@
 package uk.ac.ebi.eva.pipeline.configuration.io.readers;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.core.MongoOperations;
@@ -23,12 +24,15 @@ import org.springframework.data.mongodb.core.MongoOperations;
 import uk.ac.ebi.eva.pipeline.io.readers.VariantsMongoReader;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANTS_READER;
 
 /**
- * Configuration to inject a VariantsMongoReader bean that reads from a mongo database in the pipeline
+ * Configuration to inject a VariantsMongoReader bean that reads from a mongo database in the pipeline. If the step
+ * is a partition by chromosome, only the variants of that chromosome are read. If the annotation is done in locus
+ * order, the variants are read sorted by chromosome and start.
  */
 @Configuration
 public class VariantsMongoReaderConfiguration {
@@ -38,7 +42,10 @@ public class VariantsMongoReaderConfiguration {
     public VariantsMongoReader variantsMongoReader(MongoOperations mongoOperations,
                                                    DatabaseParameters databaseParameters,
                                                    InputParameters inputParameters,
-                                                   AnnotationParameters annotationParameters) {
+                                                   AnnotationParameters annotationParameters,
+                                                   @Value("#{stepExecutionContext['"
+                                                           + ExecutionContextParametersNames.CHROMOSOME + "']?:''}")
+                                                           String chromosome) {
         // to overwrite annotation we have to bring all variants (non annotated and annotated)
         boolean excludeAnnotated = !annotationParameters.getOverwriteAnnotation();
 
@@ -49,7 +56,9 @@ public class VariantsMongoReaderConfiguration {
                 annotationParameters.getVepCacheVersion(),
                 inputParameters.getStudyId(),
                 inputParameters.getVcfId(),
-                excludeAnnotated);
+                excludeAnnotated,
+                chromosome,
+                annotationParameters.getLocusOrder());
         variantsMongoReader.setSaveState(false);
         return variantsMongoReader;
     }
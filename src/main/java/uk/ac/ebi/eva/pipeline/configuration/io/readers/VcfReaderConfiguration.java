@@ -19,13 +19,19 @@ package uk.ac.ebi.eva.pipeline.configuration.io.readers;
 import org.opencb.biodata.models.variant.VariantSource;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.mappers.SourceLinePolicy;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
 import uk.ac.ebi.eva.pipeline.io.readers.AggregatedVcfReader;
+import uk.ac.ebi.eva.pipeline.io.readers.ParallelVcfReader;
 import uk.ac.ebi.eva.pipeline.io.readers.UnwindingItemStreamReader;
+import uk.ac.ebi.eva.pipeline.io.readers.VcfRangeReader;
 import uk.ac.ebi.eva.pipeline.io.readers.VcfReader;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
 
 import java.io.File;
@@ -34,14 +40,40 @@ import java.io.IOException;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANT_READER;
 
 /**
- * Configuration to inject a VcfReader as a Variant Reader bean.
+ * Configuration to inject a VcfReader, a ParallelVcfReader or a VcfRangeReader, as a Variant Reader bean.
  */
 @Configuration
 public class VcfReaderConfiguration {
 
+    /**
+     * With more than one parsing thread, the lines read by the VcfReader are parsed by a {@link ParallelVcfReader}
+     * with the same line mapper.
+     * <p>
+     * In a partition of the load variants step, only the range of the file assigned to the partition is read, by a
+     * {@link VcfRangeReader} with the same line mapper. The partitions already run concurrently, so the lines of a
+     * range are parsed in the thread that reads them.
+     */
     @Bean(VARIANT_READER)
     @StepScope
-    public ItemStreamReader<Variant> unwindingReader(VcfReader vcfReader) {
+    public ItemStreamReader<Variant> unwindingReader(VcfReader vcfReader, InputParameters parameters,
+                                                     @Value("#{stepExecutionContext['"
+                                                             + ExecutionContextParametersNames.VCF_START_OFFSET
+                                                             + "']?:null}") Long startOffset,
+                                                     @Value("#{stepExecutionContext['"
+                                                             + ExecutionContextParametersNames.VCF_END_OFFSET
+                                                             + "']?:null}") Long endOffset)
+            throws IOException {
+        if (startOffset != null && endOffset != null) {
+            return new UnwindingItemStreamReader<>(new VcfRangeReader(vcfReader.getLineMapper(),
+                                                                      new File(parameters.getVcf()), startOffset,
+                                                                      endOffset));
+        }
+        int parsingThreads = parameters.getVcfParsingThreads();
+        if (parsingThreads > 1) {
+            return new UnwindingItemStreamReader<>(new ParallelVcfReader(vcfReader.getLineMapper(),
+                                                                         new File(parameters.getVcf()),
+                                                                         parsingThreads));
+        }
         return new UnwindingItemStreamReader<>(vcfReader);
     }
 
@@ -59,12 +91,13 @@ public class VcfReaderConfiguration {
         String studyId = parameters.getStudyId();
         File vcfFile = new File(parameters.getVcf());
         VariantSource.Aggregation vcfAggregation = parameters.getVcfAggregation();
+        SourceLinePolicy sourceLinePolicy = parameters.getVcfSourceLine();
 
         if (VariantSource.Aggregation.NONE.equals(vcfAggregation)) {
-            return new VcfReader(fileId, studyId, vcfFile);
+            return new VcfReader(new VcfLineMapper(fileId, studyId, sourceLinePolicy), vcfFile);
         } else {
             return new AggregatedVcfReader(fileId, studyId, vcfAggregation, parameters.getAggregatedMappingFile(),
-                    vcfFile);
+                    sourceLinePolicy, vcfFile);
         }
     }
 
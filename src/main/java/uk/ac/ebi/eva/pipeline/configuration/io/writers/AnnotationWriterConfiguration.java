@@ -36,6 +36,7 @@ public class AnnotationWriterConfiguration {
     @Profile(Application.VARIANT_ANNOTATION_MONGO_PROFILE)
     public ItemWriter<Annotation> annotationItemWriter(MongoOperations mongoOperations,
                                                        DatabaseParameters databaseParameters) {
-        return new AnnotationMongoWriter(mongoOperations, databaseParameters.getCollectionAnnotationsName());
+        return new AnnotationMongoWriter(mongoOperations, databaseParameters.getCollectionAnnotationsName(),
+                                         !databaseParameters.isDeferIndexes());
     }
 }
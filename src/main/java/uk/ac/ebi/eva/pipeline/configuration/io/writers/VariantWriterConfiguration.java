@@ -18,7 +18,7 @@ package uk.ac.ebi.eva.pipeline.configuration.io.writers;
 
 import org.opencb.biodata.models.variant.VariantSource;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -37,8 +37,9 @@ public class VariantWriterConfiguration {
     @Bean(VARIANT_WRITER)
     @StepScope
     @Profile(Application.VARIANT_WRITER_MONGO_PROFILE)
-    public ItemWriter<Variant> variantMongoWriter(InputParameters inputParameters, MongoOperations mongoOperations,
-                                                  DatabaseParameters databaseParameters) {
+    public ItemStreamWriter<Variant> variantMongoWriter(InputParameters inputParameters,
+                                                        MongoOperations mongoOperations,
+                                                        DatabaseParameters databaseParameters) {
         boolean includeSamples, includeStats;
         if (VariantSource.Aggregation.NONE.equals(inputParameters.getVcfAggregation())) {
             includeSamples = true;
@@ -48,8 +49,12 @@ public class VariantWriterConfiguration {
             includeStats = true;
         }
 
-        return new VariantMongoWriter(databaseParameters.getCollectionVariantsName(), mongoOperations, includeStats,
-                includeSamples);
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(databaseParameters.getCollectionVariantsName(),
+                mongoOperations, includeStats, includeSamples, !databaseParameters.isDeferIndexes());
+        variantMongoWriter.setVerifyEncoding(databaseParameters.isVerifyEncoding());
+        variantMongoWriter.setMaxBulksInFlight(databaseParameters.getBulksInFlight());
+        variantMongoWriter.setInsertNewVariants(databaseParameters.isInsertNewVariants());
+        return variantMongoWriter;
     }
 
 }
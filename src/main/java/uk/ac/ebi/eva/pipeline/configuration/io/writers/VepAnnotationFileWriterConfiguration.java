@@ -17,26 +17,113 @@
 package uk.ac.ebi.eva.pipeline.configuration.io.writers;
 
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoOperations;
 
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.configuration.ChunkSizeCompletionPolicyConfiguration;
+import uk.ac.ebi.eva.pipeline.io.VepAnnotationStreamer;
+import uk.ac.ebi.eva.pipeline.io.VepChunkSizeController;
+import uk.ac.ebi.eva.pipeline.io.writers.CachedVepAnnotationWriter;
+import uk.ac.ebi.eva.pipeline.io.writers.PooledVepAnnotationFileWriter;
 import uk.ac.ebi.eva.pipeline.io.writers.VepAnnotationFileWriter;
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 import uk.ac.ebi.eva.pipeline.parameters.ChunkSizeParameters;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.ANNOTATION_IN_VARIANT_WRITER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.COMPOSITE_ANNOTATION_VARIANT_WRITER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_TASK_EXECUTOR;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_WRITER;
 
 @Configuration
+@Import({AnnotationCompositeWriterConfiguration.class, ChunkSizeCompletionPolicyConfiguration.class})
 public class VepAnnotationFileWriterConfiguration {
 
+    /**
+     * If the step is a partition, the annotations are written into the output shard of the partition. If the
+     * annotations are streamed, they are written into the database and the output file is not created. If the
+     * annotation cache is enabled, only the variants without a stored annotation are sent to VEP, unless the
+     * annotations are being overwritten. If the chunk size is adaptive, the writer reports the VEP timings to a
+     * {@link VepChunkSizeController} that tunes the chunk size of the step.
+     */
     @Bean(VEP_ANNOTATION_WRITER)
     @StepScope
-    public ItemWriter<EnsemblVariant> vepAnnotationFileWriter(AnnotationParameters annotationParameters,
-                                                              ChunkSizeParameters chunkSizeParameters) {
-        return new VepAnnotationFileWriter(annotationParameters, chunkSizeParameters.getChunkSize(),
-                annotationParameters.getTimeout());
+    public ItemStreamWriter<EnsemblVariant> vepAnnotationFileWriter(
+            AnnotationParameters annotationParameters, ChunkSizeParameters chunkSizeParameters,
+            DatabaseParameters databaseParameters, MongoOperations mongoOperations,
+            SimpleCompletionPolicy chunkSizeCompletionPolicy,
+            @Value("#{stepExecutionContext['" + ExecutionContextParametersNames.VEP_OUTPUT + "']?:''}")
+                    String vepOutputShard,
+            @Qualifier(COMPOSITE_ANNOTATION_VARIANT_WRITER) ItemWriter<Annotation> annotationWriter,
+            @Qualifier(ANNOTATION_IN_VARIANT_WRITER) ItemWriter<Annotation> annotationInVariantWriter) {
+        String vepOutput = vepOutputShard.isEmpty() ? annotationParameters.getVepOutput() : vepOutputShard;
+        VepAnnotationStreamer annotationStreamer = null;
+        if (annotationParameters.getStreaming()) {
+            annotationStreamer = new VepAnnotationStreamer(annotationWriter, annotationParameters.getVepVersion(),
+                    annotationParameters.getVepCacheVersion());
+        }
+
+        VepChunkSizeController chunkSizeController = null;
+        if (annotationParameters.getVepAdaptiveChunkSize()) {
+            chunkSizeController = new VepChunkSizeController(chunkSizeCompletionPolicy,
+                    chunkSizeParameters.getChunkSize(), annotationParameters.getVepMinChunkSize(),
+                    annotationParameters.getVepMaxChunkSize());
+        }
+
+        ItemStreamWriter<EnsemblVariant> vepAnnotationWriter;
+        if (annotationParameters.getVepNumWorkers() > 0) {
+            // the buffer size of the workers can't change, so chunks of any size are padded to multiples of the minimum
+            int workerBufferSize = chunkSizeController == null ? chunkSizeParameters.getChunkSize()
+                    : chunkSizeController.getMinChunkSize();
+            PooledVepAnnotationFileWriter pooledWriter = new PooledVepAnnotationFileWriter(annotationParameters,
+                    workerBufferSize, annotationParameters.getTimeout(), annotationParameters.getVepNumWorkers(),
+                    vepOutput, annotationStreamer);
+            pooledWriter.setChunkSizeController(chunkSizeController);
+            vepAnnotationWriter = pooledWriter;
+        } else {
+            VepAnnotationFileWriter fileWriter = new VepAnnotationFileWriter(annotationParameters,
+                    chunkSizeParameters.getChunkSize(), annotationParameters.getTimeout(), vepOutput,
+                    annotationStreamer);
+            fileWriter.setChunkSizeController(chunkSizeController);
+            vepAnnotationWriter = fileWriter;
+        }
+
+        if (annotationParameters.getCache() && !annotationParameters.getOverwriteAnnotation()) {
+            return new CachedVepAnnotationWriter(vepAnnotationWriter, annotationInVariantWriter, mongoOperations,
+                    databaseParameters.getCollectionAnnotationsName(), annotationParameters.getVepVersion(),
+                    annotationParameters.getVepCacheVersion());
+        }
+        return vepAnnotationWriter;
+    }
+
+    /**
+     * Chunks are annotated sequentially unless there is a pool of VEP workers. In that case, each worker can annotate a
+     * chunk concurrently with the others.
+     */
+    @Bean(VEP_ANNOTATION_TASK_EXECUTOR)
+    @StepScope
+    public TaskExecutor vepAnnotationTaskExecutor(AnnotationParameters annotationParameters) {
+        int numWorkers = annotationParameters.getVepNumWorkers();
+        if (numWorkers > 0) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("vep-annotation-");
+            taskExecutor.setConcurrencyLimit(numWorkers);
+            return taskExecutor;
+        } else {
+            return new SyncTaskExecutor();
+        }
     }
 
 }
@@ -32,15 +32,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
 
+import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.LoadVariantsFlowConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.AnnotationFlowOptionalConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadFileStepConfiguration;
-import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.NewJobIncrementer;
 import uk.ac.ebi.eva.pipeline.parameters.validation.job.AggregatedVcfJobParametersValidator;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.AGGREGATED_VCF_JOB;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_FILE_STEP;
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_FLOW;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_OPTIONAL_FLOW;
 
 /**
@@ -53,7 +53,7 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_OPTI
  */
 @Configuration
 @EnableBatchProcessing
-@Import({LoadVariantsStepConfiguration.class, LoadFileStepConfiguration.class, AnnotationFlowOptionalConfiguration.class})
+@Import({LoadVariantsFlowConfiguration.class, LoadFileStepConfiguration.class, AnnotationFlowOptionalConfiguration.class})
 public class AggregatedVcfJobConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(AggregatedVcfJobConfiguration.class);
@@ -63,8 +63,8 @@ public class AggregatedVcfJobConfiguration {
     private Flow annotationFlowOptional;
 
     @Autowired
-    @Qualifier(LOAD_VARIANTS_STEP)
-    private Step variantLoaderStep;
+    @Qualifier(LOAD_VARIANTS_FLOW)
+    private Flow loadVariantsFlow;
 
     @Autowired
     @Qualifier(LOAD_FILE_STEP)
@@ -80,7 +80,7 @@ public class AggregatedVcfJobConfiguration {
                 .incrementer(new NewJobIncrementer())
                 .validator(new AggregatedVcfJobParametersValidator());
         FlowJobBuilder builder = jobBuilder
-                .flow(variantLoaderStep)
+                .start(loadVariantsFlow)
                 .next(loadFileStep)
                 .next(annotationFlowOptional)
                 .end();
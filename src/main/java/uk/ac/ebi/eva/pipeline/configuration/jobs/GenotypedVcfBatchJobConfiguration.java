@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.builder.FlowJobBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Scope;
+
+import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.ParallelStatisticsAndAnnotationFlowConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CreateVariantsIndexesStepConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVcfListFilesStepConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVcfListVariantsStepConfiguration;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.DeferredIndexesDecider;
+import uk.ac.ebi.eva.pipeline.parameters.NewJobIncrementer;
+import uk.ac.ebi.eva.pipeline.parameters.validation.job.GenotypedVcfBatchJobParametersValidator;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_VARIANTS_INDEXES_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENOTYPED_VCF_BATCH_JOB;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VCF_LIST_FILES_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VCF_LIST_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PARALLEL_STATISTICS_AND_ANNOTATION;
+
+/**
+ * Pipeline workflow for a list of VCFs of the same study and file ID, such as a VCF per chromosome, in a single job
+ * execution. Every VCF is loaded in its own partition, and the metadata of every VCF is written separately, but the
+ * statistics and the annotation are calculated once for all of them:
+ * <p>
+ * |--> (optionalStatisticsFlow: statsCreate --> statsLoad)
+ * load (per VCF) --> (create indexes) --> load file (per VCF) -+
+ * |--> (optionalAnnotationFlow: variantsAnnotGenerateInput --> (annotationCreate --> annotationLoad))
+ * <p>
+ * Steps in () are optional
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({LoadVcfListVariantsStepConfiguration.class, CreateVariantsIndexesStepConfiguration.class,
+        LoadVcfListFilesStepConfiguration.class, ParallelStatisticsAndAnnotationFlowConfiguration.class})
+public class GenotypedVcfBatchJobConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenotypedVcfBatchJobConfiguration.class);
+
+    @Autowired
+    @Qualifier(PARALLEL_STATISTICS_AND_ANNOTATION)
+    private Flow parallelStatisticsAndAnnotation;
+
+    @Autowired
+    @Qualifier(LOAD_VCF_LIST_VARIANTS_STEP)
+    private Step loadVcfListVariantsStep;
+
+    @Autowired
+    @Qualifier(CREATE_VARIANTS_INDEXES_STEP)
+    private Step createVariantsIndexesStep;
+
+    @Autowired
+    @Qualifier(LOAD_VCF_LIST_FILES_STEP)
+    private Step loadVcfListFilesStep;
+
+    @Bean(GENOTYPED_VCF_BATCH_JOB)
+    @Scope("prototype")
+    public Job genotypedVcfBatchJob(JobBuilderFactory jobBuilderFactory) {
+        logger.debug("Building '" + GENOTYPED_VCF_BATCH_JOB + "'");
+
+        JobBuilder jobBuilder = jobBuilderFactory
+                .get(GENOTYPED_VCF_BATCH_JOB)
+                .incrementer(new NewJobIncrementer())
+                .validator(new GenotypedVcfBatchJobParametersValidator());
+        FlowJobBuilder builder = jobBuilder
+                .flow(loadVcfListVariantsStep)
+                .next(createVariantsIndexesFlow())
+                .next(loadVcfListFilesStep)
+                .next(parallelStatisticsAndAnnotation)
+                .end();
+
+        return builder.build();
+    }
+
+    private Flow createVariantsIndexesFlow() {
+        DeferredIndexesDecider deferredIndexesDecider = new DeferredIndexesDecider();
+
+        return new FlowBuilder<Flow>(GENOTYPED_VCF_BATCH_JOB + "-indexes")
+                .start(deferredIndexesDecider).on(DeferredIndexesDecider.DEFERRED)
+                .to(createVariantsIndexesStep)
+                .from(deferredIndexesDecider).on(DeferredIndexesDecider.NOT_DEFERRED)
+                .end(BatchStatus.COMPLETED.toString())
+                .build();
+    }
+
+}
@@ -32,15 +32,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
 
+import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.LoadVariantsFlowConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.flows.ParallelStatisticsAndAnnotationFlowConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadFileStepConfiguration;
-import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.NewJobIncrementer;
 import uk.ac.ebi.eva.pipeline.parameters.validation.job.GenotypedVcfJobParametersValidator;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENOTYPED_VCF_JOB;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_FILE_STEP;
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_FLOW;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PARALLEL_STATISTICS_AND_ANNOTATION;
 
 /**
@@ -54,7 +54,7 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.PARALLEL_STATISTICS
  */
 @Configuration
 @EnableBatchProcessing
-@Import({LoadVariantsStepConfiguration.class, LoadFileStepConfiguration.class, ParallelStatisticsAndAnnotationFlowConfiguration.class})
+@Import({LoadVariantsFlowConfiguration.class, LoadFileStepConfiguration.class, ParallelStatisticsAndAnnotationFlowConfiguration.class})
 public class GenotypedVcfJobConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(GenotypedVcfJobConfiguration.class);
@@ -64,8 +64,8 @@ public class GenotypedVcfJobConfiguration {
     private Flow parallelStatisticsAndAnnotation;
 
     @Autowired
-    @Qualifier(LOAD_VARIANTS_STEP)
-    private Step variantLoaderStep;
+    @Qualifier(LOAD_VARIANTS_FLOW)
+    private Flow loadVariantsFlow;
 
     @Autowired
     @Qualifier(LOAD_FILE_STEP)
@@ -81,7 +81,7 @@ public class GenotypedVcfJobConfiguration {
                 .incrementer(new NewJobIncrementer())
                 .validator(new GenotypedVcfJobParametersValidator());
         FlowJobBuilder builder = jobBuilder
-                .flow(variantLoaderStep)
+                .start(loadVariantsFlow)
                 .next(loadFileStep)
                 .next(parallelStatisticsAndAnnotation)
                 .end();
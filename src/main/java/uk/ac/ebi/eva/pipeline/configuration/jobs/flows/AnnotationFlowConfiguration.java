@@ -26,11 +26,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CreateAnnotationsIndexesStepConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.GenerateVepAnnotationPartitionedStepConfiguration;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.DeferredIndexesDecider;
 import uk.ac.ebi.eva.pipeline.jobs.deciders.EmptyVepOutputDecider;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.VepAnnotationPartitionsDecider;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVepAnnotationStepConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.AnnotationMetadataStepConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.GenerateVepAnnotationStepConfiguration;
 
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_ANNOTATIONS_INDEXES_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_PARTITIONED_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_ANNOTATION_METADATA_STEP;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VEP_ANNOTATION_STEP;
@@ -40,17 +46,29 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_FLOW
  * Configuration class that describes flow process in the annotation process.
  * <p>
  * This flow generates a vep input file, then if this file contains results then it starts the annotation process.
- * In the case that the file is empty this flow process ends.
+ * In the case that the file is empty this flow process ends. If the annotations are streamed into the database while
+ * they are generated, or all of them were already stored, there is no file to load and only the annotation metadata is
+ * written. In every case, if the indexes of the annotations collection were deferred, they are created before writing
+ * the metadata.
+ * <p>
+ * The file is generated in a single step, or in a partitioned step with a partition per chromosome if the number of
+ * partitions is specified.
  */
 @Configuration
 @EnableBatchProcessing
-@Import({GenerateVepAnnotationStepConfiguration.class, LoadVepAnnotationStepConfiguration.class, AnnotationMetadataStepConfiguration.class})
+@Import({GenerateVepAnnotationStepConfiguration.class, GenerateVepAnnotationPartitionedStepConfiguration.class,
+        LoadVepAnnotationStepConfiguration.class, AnnotationMetadataStepConfiguration.class,
+        CreateAnnotationsIndexesStepConfiguration.class})
 public class AnnotationFlowConfiguration {
 
     @Autowired
     @Qualifier(GENERATE_VEP_ANNOTATION_STEP)
     private Step generateVepAnnotationStep;
 
+    @Autowired
+    @Qualifier(GENERATE_VEP_ANNOTATION_PARTITIONED_STEP)
+    private Step generateVepAnnotationPartitionedStep;
+
     @Autowired
     @Qualifier(LOAD_VEP_ANNOTATION_STEP)
     private Step annotationLoadStep;
@@ -59,18 +77,50 @@ public class AnnotationFlowConfiguration {
     @Qualifier(LOAD_ANNOTATION_METADATA_STEP)
     private Step annotationMetadataStep;
 
+    @Autowired
+    @Qualifier(CREATE_ANNOTATIONS_INDEXES_STEP)
+    private Step createAnnotationsIndexesStep;
+
     @Bean(VEP_ANNOTATION_FLOW)
     public Flow vepAnnotationFlow() {
         EmptyVepOutputDecider emptyVepOutputDecider = new EmptyVepOutputDecider();
+        Flow createAnnotationsIndexesFlow = createAnnotationsIndexesFlow();
 
         return new FlowBuilder<Flow>(VEP_ANNOTATION_FLOW)
-                .start(generateVepAnnotationStep)
+                .start(generateVepAnnotationFlow())
                 .next(emptyVepOutputDecider).on(EmptyVepOutputDecider.CONTINUE_FLOW)
                 .to(annotationLoadStep)
+                .next(createAnnotationsIndexesFlow)
                 .next(annotationMetadataStep)
+                .from(emptyVepOutputDecider).on(EmptyVepOutputDecider.ANNOTATIONS_STREAMED)
+                .to(createAnnotationsIndexesFlow)
+                .from(emptyVepOutputDecider).on(EmptyVepOutputDecider.ANNOTATIONS_CACHED)
+                .to(createAnnotationsIndexesFlow)
                 .from(emptyVepOutputDecider).on(EmptyVepOutputDecider.STOP_FLOW)
                 .end(BatchStatus.COMPLETED.toString())
                 .build();
     }
 
+    private Flow createAnnotationsIndexesFlow() {
+        DeferredIndexesDecider deferredIndexesDecider = new DeferredIndexesDecider();
+
+        return new FlowBuilder<Flow>(VEP_ANNOTATION_FLOW + "-indexes")
+                .start(deferredIndexesDecider).on(DeferredIndexesDecider.DEFERRED)
+                .to(createAnnotationsIndexesStep)
+                .from(deferredIndexesDecider).on(DeferredIndexesDecider.NOT_DEFERRED)
+                .end(BatchStatus.COMPLETED.toString())
+                .build();
+    }
+
+    private Flow generateVepAnnotationFlow() {
+        VepAnnotationPartitionsDecider partitionsDecider = new VepAnnotationPartitionsDecider();
+
+        return new FlowBuilder<Flow>(VEP_ANNOTATION_FLOW + "-generate")
+                .start(partitionsDecider).on(VepAnnotationPartitionsDecider.NOT_PARTITIONED)
+                .to(generateVepAnnotationStep)
+                .from(partitionsDecider).on(VepAnnotationPartitionsDecider.PARTITIONED)
+                .to(generateVepAnnotationPartitionedStep)
+                .build();
+    }
+
 }
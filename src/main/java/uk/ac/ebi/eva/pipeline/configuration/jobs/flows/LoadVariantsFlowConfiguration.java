@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.flows;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.CreateVariantsIndexesStepConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsPartitionedStepConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfiguration;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.DeferredIndexesDecider;
+import uk.ac.ebi.eva.pipeline.jobs.deciders.LoadVariantsPartitionsDecider;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_VARIANTS_INDEXES_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_FLOW;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_PARTITIONED_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+
+/**
+ * Configuration class that describes the flow that loads the variants of a VCF.
+ * <p>
+ * The variants are loaded in a single step, or in several partitions of the file concurrently if the number of
+ * partitions is specified. If the indexes of the variants collection were deferred, they are created afterwards.
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({LoadVariantsStepConfiguration.class, LoadVariantsPartitionedStepConfiguration.class,
+        CreateVariantsIndexesStepConfiguration.class})
+public class LoadVariantsFlowConfiguration {
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_STEP)
+    private Step loadVariantsStep;
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_PARTITIONED_STEP)
+    private Step loadVariantsPartitionedStep;
+
+    @Autowired
+    @Qualifier(CREATE_VARIANTS_INDEXES_STEP)
+    private Step createVariantsIndexesStep;
+
+    @Bean(LOAD_VARIANTS_FLOW)
+    public Flow loadVariantsFlow() {
+        LoadVariantsPartitionsDecider partitionsDecider = new LoadVariantsPartitionsDecider();
+        Flow createVariantsIndexesFlow = createVariantsIndexesFlow();
+
+        return new FlowBuilder<Flow>(LOAD_VARIANTS_FLOW)
+                .start(partitionsDecider).on(LoadVariantsPartitionsDecider.NOT_PARTITIONED)
+                .to(loadVariantsStep)
+                .next(createVariantsIndexesFlow)
+                .from(partitionsDecider).on(LoadVariantsPartitionsDecider.PARTITIONED)
+                .to(loadVariantsPartitionedStep)
+                .next(createVariantsIndexesFlow)
+                .build();
+    }
+
+    private Flow createVariantsIndexesFlow() {
+        DeferredIndexesDecider deferredIndexesDecider = new DeferredIndexesDecider();
+
+        return new FlowBuilder<Flow>(LOAD_VARIANTS_FLOW + "-indexes")
+                .start(deferredIndexesDecider).on(DeferredIndexesDecider.DEFERRED)
+                .to(createVariantsIndexesStep)
+                .from(deferredIndexesDecider).on(DeferredIndexesDecider.NOT_DEFERRED)
+                .end(BatchStatus.COMPLETED.toString())
+                .build();
+    }
+
+}
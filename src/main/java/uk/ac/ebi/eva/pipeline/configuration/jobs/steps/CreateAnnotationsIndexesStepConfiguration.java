@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.writers.AnnotationMongoWriter;
+import uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.CreateIndexesTasklet;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+import uk.ac.ebi.eva.utils.TaskletUtils;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_ANNOTATIONS_INDEXES_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.CREATE_ANNOTATIONS_INDEXES_TASKLET;
+
+/**
+ * Configuration class that injects a step that creates the indexes of the annotations collection with a
+ * {@link CreateIndexesTasklet}. It is run after loading the VEP annotation, so they can be built once instead of being
+ * maintained during the load when the annotations writer is told to defer them.
+ */
+@Configuration
+@EnableBatchProcessing
+public class CreateAnnotationsIndexesStepConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateAnnotationsIndexesStepConfiguration.class);
+
+    @Autowired
+    @Qualifier(CREATE_ANNOTATIONS_INDEXES_TASKLET)
+    private Tasklet createAnnotationsIndexesTasklet;
+
+    @Bean(CREATE_ANNOTATIONS_INDEXES_TASKLET)
+    @StepScope
+    public Tasklet createAnnotationsIndexesTasklet(MongoOperations mongoOperations,
+                                                   DatabaseParameters databaseParameters) {
+        return new CreateIndexesTasklet(mongoOperations, databaseParameters.getCollectionAnnotationsName(),
+                                        AnnotationMongoWriter.getIndexes());
+    }
+
+    @Bean(CREATE_ANNOTATIONS_INDEXES_STEP)
+    public TaskletStep createAnnotationsIndexesStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+        logger.debug("Building '" + CREATE_ANNOTATIONS_INDEXES_STEP + "'");
+        return TaskletUtils.generateStep(stepBuilderFactory, CREATE_ANNOTATIONS_INDEXES_STEP,
+                                         createAnnotationsIndexesTasklet, jobOptions.isAllowStartIfComplete());
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.ChromosomePartitioner;
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VepAnnotationShardsAggregator;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.pipeline.parameters.DatabaseParameters;
+import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_PARTITIONED_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_PARTITIONER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_PARTITIONS_TASK_EXECUTOR;
+
+/**
+ * This step creates a file with variant annotations, like {@link GenerateVepAnnotationStepConfiguration}, but
+ * annotating each chromosome (or group of small chromosomes) in a different partition, so that several chromosomes
+ * are annotated concurrently by their own VEP processes.
+ * <p>
+ * Input: mongo collection with the variants. Only non-annotated variants will be retrieved.
+ * <p>
+ * Output: file with the list of annotated variants, merged from the output shards of the partitions in chromosome
+ * order when all of them have finished.
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({GenerateVepAnnotationStepConfiguration.class})
+public class GenerateVepAnnotationPartitionedStepConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerateVepAnnotationPartitionedStepConfiguration.class);
+
+    @Autowired
+    @Qualifier(GENERATE_VEP_ANNOTATION_STEP)
+    private Step generateVepAnnotationStep;
+
+    @Autowired
+    @Qualifier(VEP_ANNOTATION_PARTITIONER)
+    private Partitioner chromosomePartitioner;
+
+    @Autowired
+    @Qualifier(VEP_ANNOTATION_PARTITIONS_TASK_EXECUTOR)
+    private TaskExecutor partitionsTaskExecutor;
+
+    @Bean(GENERATE_VEP_ANNOTATION_PARTITIONED_STEP)
+    public Step generateVepAnnotationPartitionedStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+        logger.debug("Building '" + GENERATE_VEP_ANNOTATION_PARTITIONED_STEP + "'");
+
+        return stepBuilderFactory.get(GENERATE_VEP_ANNOTATION_PARTITIONED_STEP)
+                .partitioner(GENERATE_VEP_ANNOTATION_STEP, chromosomePartitioner)
+                .step(generateVepAnnotationStep)
+                .taskExecutor(partitionsTaskExecutor)
+                .aggregator(new VepAnnotationShardsAggregator())
+                .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                .build();
+    }
+
+    @Bean(VEP_ANNOTATION_PARTITIONER)
+    @StepScope
+    public Partitioner chromosomePartitioner(MongoOperations mongoOperations, DatabaseParameters databaseParameters,
+                                             AnnotationParameters annotationParameters) {
+        return new ChromosomePartitioner(
+                mongoOperations,
+                databaseParameters.getCollectionVariantsName(),
+                Math.max(annotationParameters.getVepNumPartitions(), 1),
+                annotationParameters.getVepOutput());
+    }
+
+    @Bean(VEP_ANNOTATION_PARTITIONS_TASK_EXECUTOR)
+    @StepScope
+    public TaskExecutor partitionsTaskExecutor(AnnotationParameters annotationParameters) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("vep-annotation-partition-");
+        taskExecutor.setConcurrencyLimit(Math.max(annotationParameters.getVepNumPartitions(), 1));
+        return taskExecutor;
+    }
+}
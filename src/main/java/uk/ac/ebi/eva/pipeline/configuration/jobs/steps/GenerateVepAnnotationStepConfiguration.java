@@ -21,16 +21,16 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.item.ItemStreamReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.repeat.CompletionPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
 
-import uk.ac.ebi.eva.pipeline.configuration.ChunkSizeCompletionPolicyConfiguration;
-import uk.ac.ebi.eva.pipeline.configuration.io.readers.VariantsMongoReaderConfiguration;
+import uk.ac.ebi.eva.pipeline.configuration.VepAnnotationChunkConfiguration;
 import uk.ac.ebi.eva.pipeline.configuration.io.writers.VepAnnotationFileWriterConfiguration;
 import uk.ac.ebi.eva.pipeline.io.readers.AnnotationFlatFileReader;
 import uk.ac.ebi.eva.pipeline.listeners.StepProgressListener;
@@ -38,7 +38,9 @@ import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
 
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.GENERATE_VEP_ANNOTATION_STEP;
-import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VARIANTS_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_COMPLETION_POLICY;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_READER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_TASK_EXECUTOR;
 import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_WRITER;
 
 /**
@@ -48,34 +50,51 @@ import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VEP_ANNOTATION_WRIT
  * <p>
  * Output: file with the list of annotated variants, in a format written by VEP, readable with
  * {@link AnnotationFlatFileReader}
+ * <p>
+ * If a pool of VEP workers is configured, the chunks are annotated concurrently by the workers, so the order of the
+ * annotations in the file may differ from the order of the variants in the database.
  */
 @Configuration
 @EnableBatchProcessing
-@Import({VariantsMongoReaderConfiguration.class, VepAnnotationFileWriterConfiguration.class,
-        ChunkSizeCompletionPolicyConfiguration.class})
+@Import({VepAnnotationChunkConfiguration.class, VepAnnotationFileWriterConfiguration.class})
 public class GenerateVepAnnotationStepConfiguration {
 
     private static final Logger logger = LoggerFactory.getLogger(GenerateVepAnnotationStepConfiguration.class);
 
+    /**
+     * Upper bound of chunks processed at the same time. The actual number is limited by the task executor, which
+     * depends on the number of VEP workers.
+     */
+    private static final int MAX_CONCURRENT_CHUNKS = 64;
+
     @Autowired
-    @Qualifier(VARIANTS_READER)
+    @Qualifier(VEP_ANNOTATION_READER)
     private ItemStreamReader<EnsemblVariant> nonAnnotatedVariantsReader;
 
+    @Autowired
+    @Qualifier(VEP_ANNOTATION_COMPLETION_POLICY)
+    private CompletionPolicy vepAnnotationCompletionPolicy;
+
     @Autowired
     @Qualifier(VEP_ANNOTATION_WRITER)
-    private ItemWriter<EnsemblVariant> vepAnnotationWriter;
+    private ItemStreamWriter<EnsemblVariant> vepAnnotationWriter;
+
+    @Autowired
+    @Qualifier(VEP_ANNOTATION_TASK_EXECUTOR)
+    private TaskExecutor vepAnnotationTaskExecutor;
 
     @Bean(GENERATE_VEP_ANNOTATION_STEP)
-    public Step generateVepAnnotationStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions,
-            SimpleCompletionPolicy chunkSizeCompletionPolicy) {
+    public Step generateVepAnnotationStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
         logger.debug("Building '" + GENERATE_VEP_ANNOTATION_STEP + "'");
 
         return stepBuilderFactory.get(GENERATE_VEP_ANNOTATION_STEP)
-                .<EnsemblVariant, EnsemblVariant>chunk(chunkSizeCompletionPolicy)
+                .<EnsemblVariant, EnsemblVariant>chunk(vepAnnotationCompletionPolicy)
                 .reader(nonAnnotatedVariantsReader)
                 .writer(vepAnnotationWriter)
                 .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
                 .listener(new StepProgressListener())
+                .taskExecutor(vepAnnotationTaskExecutor)
+                .throttleLimit(MAX_CONCURRENT_CHUNKS)
                 .build();
     }
 }
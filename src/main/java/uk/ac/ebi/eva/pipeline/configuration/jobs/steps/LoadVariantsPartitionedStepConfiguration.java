@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import uk.ac.ebi.eva.pipeline.jobs.steps.partitioners.VcfRangePartitioner;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_PARTITIONED_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_PARTITIONER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_PARTITIONS_TASK_EXECUTOR;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+
+/**
+ * This step loads the variants of a VCF, like {@link LoadVariantsStepConfiguration}, but splitting a BGZF-compressed
+ * VCF into ranges of lines, that are loaded concurrently in different partitions, each one with its own reader and
+ * writer.
+ * <p>
+ * Every partition saves its own progress, so if the step is restarted only the partitions that didn't finish are
+ * run again, from their last committed line.
+ * <p>
+ * Input: VCF file, and optionally its tabix or CSI index
+ * Output: variants loaded into mongodb
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({LoadVariantsStepConfiguration.class})
+public class LoadVariantsPartitionedStepConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadVariantsPartitionedStepConfiguration.class);
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_STEP)
+    private Step loadVariantsStep;
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_PARTITIONER)
+    private Partitioner vcfRangePartitioner;
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_PARTITIONS_TASK_EXECUTOR)
+    private TaskExecutor partitionsTaskExecutor;
+
+    @Bean(LOAD_VARIANTS_PARTITIONED_STEP)
+    public Step loadVariantsPartitionedStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+        logger.debug("Building '" + LOAD_VARIANTS_PARTITIONED_STEP + "'");
+
+        return stepBuilderFactory.get(LOAD_VARIANTS_PARTITIONED_STEP)
+                .partitioner(LOAD_VARIANTS_STEP, vcfRangePartitioner)
+                .step(loadVariantsStep)
+                .taskExecutor(partitionsTaskExecutor)
+                .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                .build();
+    }
+
+    @Bean(LOAD_VARIANTS_PARTITIONER)
+    @StepScope
+    public Partitioner vcfRangePartitioner(InputParameters inputParameters) {
+        return new VcfRangePartitioner(inputParameters.getVcf(), Math.max(inputParameters.getVcfNumPartitions(), 1));
+    }
+
+    @Bean(LOAD_VARIANTS_PARTITIONS_TASK_EXECUTOR)
+    @StepScope
+    public TaskExecutor partitionsTaskExecutor(InputParameters inputParameters) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("load-variants-partition-");
+        taskExecutor.setConcurrencyLimit(Math.max(inputParameters.getVcfNumPartitions(), 1));
+        return taskExecutor;
+    }
+}
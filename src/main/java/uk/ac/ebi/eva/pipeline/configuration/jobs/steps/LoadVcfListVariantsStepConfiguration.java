@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs.steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+
+import uk.ac.ebi.eva.pipeline.configuration.VcfListPartitionerConfiguration;
+import uk.ac.ebi.eva.pipeline.parameters.JobOptions;
+
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.LOAD_VCF_LIST_VARIANTS_STEP;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VCF_LIST_PARTITIONER;
+import static uk.ac.ebi.eva.pipeline.configuration.BeanNames.VCF_LIST_PARTITIONS_TASK_EXECUTOR;
+
+/**
+ * This step loads the variants of every VCF of a list, like {@link LoadVariantsStepConfiguration}, but each VCF in
+ * its own partition, with its own reader and writer. Up to {@code input.vcf.list.threads} VCFs are loaded concurrently.
+ * <p>
+ * Input: list of VCF files
+ * Output: variants loaded into mongodb
+ */
+@Configuration
+@EnableBatchProcessing
+@Import({LoadVariantsStepConfiguration.class, VcfListPartitionerConfiguration.class})
+public class LoadVcfListVariantsStepConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadVcfListVariantsStepConfiguration.class);
+
+    @Autowired
+    @Qualifier(LOAD_VARIANTS_STEP)
+    private Step loadVariantsStep;
+
+    @Autowired
+    @Qualifier(VCF_LIST_PARTITIONER)
+    private Partitioner vcfListPartitioner;
+
+    @Autowired
+    @Qualifier(VCF_LIST_PARTITIONS_TASK_EXECUTOR)
+    private TaskExecutor partitionsTaskExecutor;
+
+    @Bean(LOAD_VCF_LIST_VARIANTS_STEP)
+    public Step loadVcfListVariantsStep(StepBuilderFactory stepBuilderFactory, JobOptions jobOptions) {
+        logger.debug("Building '" + LOAD_VCF_LIST_VARIANTS_STEP + "'");
+
+        return stepBuilderFactory.get(LOAD_VCF_LIST_VARIANTS_STEP)
+                .partitioner(LOAD_VARIANTS_STEP, vcfListPartitioner)
+                .step(loadVariantsStep)
+                .taskExecutor(partitionsTaskExecutor)
+                .allowStartIfComplete(jobOptions.isAllowStartIfComplete())
+                .build();
+    }
+}
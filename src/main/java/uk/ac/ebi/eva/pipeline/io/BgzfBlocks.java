@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression and decompression of BGZF blocks, shared by {@link BgzfOutputStream} and {@link BgzfInputStream}.
+ * <p>
+ * A BGZF file is a series of gzip members of up to 64 KB each, whose header has an extra subfield with the size of the
+ * compressed member, so they can be compressed and decompressed independently, and any gzip reader can still read the
+ * whole file. The blocks are compressed and decompressed in a thread pool shared by all the streams.
+ *
+ * @see <a href="https://samtools.github.io/hts-specs/SAMv1.pdf">BGZF specification, section 4.1</a>
+ */
+class BgzfBlocks {
+
+    /**
+     * Maximum uncompressed bytes in a block, small enough so that the block fits in 64 KB even if it can't be
+     * compressed.
+     */
+    static final int MAX_BLOCK_DATA_SIZE = 0xff00;
+
+    static final int MAX_BLOCK_SIZE = 0x10000;
+
+    static final int BLOCK_HEADER_SIZE = 18;
+
+    private static final int BLOCK_FOOTER_SIZE = 8;
+
+    private static final int GZIP_ID1 = 0x1f;
+
+    private static final int GZIP_ID2 = 0x8b;
+
+    private static final int GZIP_CM_DEFLATE = 8;
+
+    private static final int GZIP_FLG_FEXTRA = 4;
+
+    private static final int GZIP_OS_UNKNOWN = 0xff;
+
+    private static final int BGZF_XLEN = 6;
+
+    private static final int BGZF_SI1 = 'B';
+
+    private static final int BGZF_SI2 = 'C';
+
+    private static final int BGZF_SLEN = 2;
+
+    /**
+     * Empty block that marks the end of a BGZF file.
+     */
+    static final byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43, 0x02, 0x00,
+            0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    private static ExecutorService sharedExecutor;
+
+    private BgzfBlocks() {
+    }
+
+    static synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger(0);
+            sharedExecutor = Executors.newFixedThreadPool(getNumThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "bgzf-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sharedExecutor;
+    }
+
+    static int getNumThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return true if the file starts with a BGZF block. Empty or plain gzip files return false.
+     */
+    static boolean isBgzf(File file) throws IOException {
+        byte[] header = new byte[BLOCK_HEADER_SIZE];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int read = 0;
+            while (read < header.length) {
+                int readNow = inputStream.read(header, read, header.length - read);
+                if (readNow == -1) {
+                    return false;
+                }
+                read += readNow;
+            }
+        }
+        return getBlockSize(header) != -1;
+    }
+
+    /**
+     * @return the size of the whole compressed block, or -1 if the header is not the header of a BGZF block
+     */
+    static int getBlockSize(byte[] header) {
+        if (unsignedByte(header, 0) != GZIP_ID1 || unsignedByte(header, 1) != GZIP_ID2
+                || unsignedByte(header, 2) != GZIP_CM_DEFLATE || (unsignedByte(header, 3) & GZIP_FLG_FEXTRA) == 0
+                || unsignedShort(header, 10) != BGZF_XLEN || unsignedByte(header, 12) != BGZF_SI1
+                || unsignedByte(header, 13) != BGZF_SI2 || unsignedShort(header, 14) != BGZF_SLEN) {
+            return -1;
+        }
+        return unsignedShort(header, 16) + 1;
+    }
+
+    static byte[] compress(byte[] data, int length, int compressionLevel) {
+        byte[] compressed = new byte[MAX_BLOCK_SIZE];
+        int compressedLength = deflate(data, length, compressionLevel, compressed);
+        if (compressedLength < 0) {
+            // incompressible data is bigger once deflated, but always fits if it is stored
+            compressedLength = deflate(data, length, Deflater.NO_COMPRESSION, compressed);
+        }
+        int blockSize = BLOCK_HEADER_SIZE + compressedLength + BLOCK_FOOTER_SIZE;
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+
+        byte[] block = new byte[blockSize];
+        block[0] = (byte) GZIP_ID1;
+        block[1] = (byte) GZIP_ID2;
+        block[2] = GZIP_CM_DEFLATE;
+        block[3] = GZIP_FLG_FEXTRA;
+        // bytes 4 to 8 are the modification time and the extra flags, left as 0
+        block[9] = (byte) GZIP_OS_UNKNOWN;
+        putUnsignedShort(block, 10, BGZF_XLEN);
+        block[12] = BGZF_SI1;
+        block[13] = BGZF_SI2;
+        putUnsignedShort(block, 14, BGZF_SLEN);
+        putUnsignedShort(block, 16, blockSize - 1);
+        System.arraycopy(compressed, 0, block, BLOCK_HEADER_SIZE, compressedLength);
+        putInt(block, blockSize - BLOCK_FOOTER_SIZE, (int) crc.getValue());
+        putInt(block, blockSize - 4, length);
+        return block;
+    }
+
+    /**
+     * @return the compressed length, or -1 if it doesn't fit in a block
+     */
+    private static int deflate(byte[] data, int length, int compressionLevel, byte[] compressed) {
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            int maxLength = MAX_BLOCK_SIZE - BLOCK_HEADER_SIZE - BLOCK_FOOTER_SIZE;
+            int compressedLength = deflater.deflate(compressed, 0, maxLength);
+            return deflater.finished() ? compressedLength : -1;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] decompress(byte[] block, int blockSize) throws IOException {
+        int dataLength = getInt(block, blockSize - 4);
+        int expectedCrc = getInt(block, blockSize - BLOCK_FOOTER_SIZE);
+        byte[] data = new byte[dataLength];
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(block, BLOCK_HEADER_SIZE, blockSize - BLOCK_HEADER_SIZE - BLOCK_FOOTER_SIZE);
+            int inflated = 0;
+            while (inflated < dataLength && !inflater.finished()) {
+                int inflatedNow = inflater.inflate(data, inflated, dataLength - inflated);
+                if (inflatedNow == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += inflatedNow;
+            }
+            if (inflated != dataLength) {
+                throw new IOException("Corrupted BGZF block: expected " + dataLength + " bytes but inflated "
+                                              + inflated);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted BGZF block", e);
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, dataLength);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Corrupted BGZF block: CRC doesn't match");
+        }
+        return data;
+    }
+
+    private static int unsignedByte(byte[] bytes, int offset) {
+        return bytes[offset] & 0xff;
+    }
+
+    private static int unsignedShort(byte[] bytes, int offset) {
+        return unsignedByte(bytes, offset) | (unsignedByte(bytes, offset + 1) << 8);
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return unsignedShort(bytes, offset) | (unsignedShort(bytes, offset + 2) << 16);
+    }
+
+    private static void putUnsignedShort(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        putUnsignedShort(bytes, offset, value);
+        putUnsignedShort(bytes, offset + 2, value >>> 16);
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads BGZF files, decompressing the next blocks concurrently while the current one is being read.
+ * <p>
+ * The position in the file can be saved with {@link #getVirtualOffset()} and restored with {@link #seek(long)}, without
+ * decompressing anything before it. As in the BGZF specification, a virtual offset is the address of the compressed
+ * block in the file, shifted 16 bits to the left, plus the offset inside the uncompressed block.
+ */
+public class BgzfInputStream extends InputStream {
+
+    private static final int OFFSET_IN_BLOCK_BITS = 16;
+
+    private static final int OFFSET_IN_BLOCK_MASK = 0xffff;
+
+    private static final byte NEWLINE = '\n';
+
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final RandomAccessFile file;
+
+    private final ExecutorService executor;
+
+    private final int maxReadAheadBlocks;
+
+    private final Deque<Future<Block>> pendingBlocks;
+
+    private boolean allBlocksSubmitted;
+
+    private Block currentBlock;
+
+    private int positionInBlock;
+
+    private long nextBlockAddress;
+
+    private byte[] lineBuffer;
+
+    private static class Block {
+
+        final long address;
+
+        final int compressedSize;
+
+        final byte[] data;
+
+        Block(long address, int compressedSize, byte[] data) {
+            this.address = address;
+            this.compressedSize = compressedSize;
+            this.data = data;
+        }
+    }
+
+    public BgzfInputStream(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.executor = BgzfBlocks.getSharedExecutor();
+        this.maxReadAheadBlocks = 2 * BgzfBlocks.getNumThreads();
+        this.pendingBlocks = new ArrayDeque<>();
+        this.allBlocksSubmitted = false;
+        this.currentBlock = null;
+        this.positionInBlock = 0;
+        this.nextBlockAddress = 0;
+        this.lineBuffer = new byte[1024];
+    }
+
+    public static boolean isBgzf(File file) throws IOException {
+        return BgzfBlocks.isBgzf(file);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBlockHasData()) {
+            return -1;
+        }
+        return currentBlock.data[positionInBlock++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureBlockHasData()) {
+            return -1;
+        }
+        int read = Math.min(length, currentBlock.data.length - positionInBlock);
+        System.arraycopy(currentBlock.data, positionInBlock, bytes, offset, read);
+        positionInBlock += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return currentBlock == null ? 0 : currentBlock.data.length - positionInBlock;
+    }
+
+    /**
+     * Reads a line of UTF-8 text, scanning the decompressed blocks directly.
+     *
+     * @return the line without the line terminator, or null at the end of the file
+     */
+    public String readLine() throws IOException {
+        int lineLength = 0;
+        while (ensureBlockHasData()) {
+            byte[] data = currentBlock.data;
+            int end = positionInBlock;
+            while (end < data.length && data[end] != NEWLINE) {
+                end++;
+            }
+            if (lineLength == 0 && end < data.length) {
+                // the whole line is in the block, so it doesn't need to be copied
+                String line = decodeLine(data, positionInBlock, end - positionInBlock);
+                positionInBlock = end + 1;
+                return line;
+            }
+            lineLength = appendToLine(lineLength, data, positionInBlock, end - positionInBlock);
+            positionInBlock = Math.min(end + 1, data.length);
+            if (end < data.length) {
+                return decodeLine(lineBuffer, 0, lineLength);
+            }
+        }
+        return lineLength == 0 ? null : decodeLine(lineBuffer, 0, lineLength);
+    }
+
+    private int appendToLine(int lineLength, byte[] data, int offset, int length) {
+        if (lineLength + length > lineBuffer.length) {
+            lineBuffer = Arrays.copyOf(lineBuffer, Math.max(2 * lineBuffer.length, lineLength + length));
+        }
+        System.arraycopy(data, offset, lineBuffer, lineLength, length);
+        return lineLength + length;
+    }
+
+    private String decodeLine(byte[] bytes, int offset, int length) {
+        if (length > 0 && bytes[offset + length - 1] == CARRIAGE_RETURN) {
+            length--;
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return position of the next byte to be read, that can be used later in {@link #seek(long)}
+     */
+    public long getVirtualOffset() {
+        if (currentBlock == null) {
+            return nextBlockAddress << OFFSET_IN_BLOCK_BITS;
+        }
+        if (positionInBlock == currentBlock.data.length) {
+            return (currentBlock.address + currentBlock.compressedSize) << OFFSET_IN_BLOCK_BITS;
+        }
+        return (currentBlock.address << OFFSET_IN_BLOCK_BITS) | positionInBlock;
+    }
+
+    /**
+     * @return address in the compressed file of the block that a virtual offset points into
+     */
+    public static long getBlockAddress(long virtualOffset) {
+        return virtualOffset >>> OFFSET_IN_BLOCK_BITS;
+    }
+
+    /**
+     * Moves to a position previously returned by {@link #getVirtualOffset()}, discarding any block read in advance.
+     */
+    public void seek(long virtualOffset) throws IOException {
+        long blockAddress = getBlockAddress(virtualOffset);
+        int offsetInBlock = (int) (virtualOffset & OFFSET_IN_BLOCK_MASK);
+
+        cancelPendingBlocks();
+        file.seek(blockAddress);
+        allBlocksSubmitted = false;
+        currentBlock = null;
+        positionInBlock = 0;
+        nextBlockAddress = blockAddress;
+
+        if (offsetInBlock > 0) {
+            if (!nextBlock() || offsetInBlock > currentBlock.data.length) {
+                throw new IOException("Virtual offset " + virtualOffset + " is not inside a BGZF block");
+            }
+            positionInBlock = offsetInBlock;
+        }
+    }
+
+    private boolean ensureBlockHasData() throws IOException {
+        while (currentBlock == null || positionInBlock == currentBlock.data.length) {
+            if (!nextBlock()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextBlock() throws IOException {
+        submitBlocks();
+        if (pendingBlocks.isEmpty()) {
+            return false;
+        }
+        try {
+            currentBlock = pendingBlocks.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing a BGZF block");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not decompress a BGZF block", e.getCause());
+        }
+        positionInBlock = 0;
+        nextBlockAddress = currentBlock.address + currentBlock.compressedSize;
+        return true;
+    }
+
+    /**
+     * Reads compressed blocks from the file and submits them to be decompressed, until there are enough blocks in
+     * advance or the file ends.
+     */
+    private void submitBlocks() throws IOException {
+        while (!allBlocksSubmitted && pendingBlocks.size() < maxReadAheadBlocks) {
+            long address = file.getFilePointer();
+            byte[] block = new byte[BgzfBlocks.MAX_BLOCK_SIZE];
+            int headerRead = readFully(block, 0, BgzfBlocks.BLOCK_HEADER_SIZE);
+            if (headerRead == 0) {
+                allBlocksSubmitted = true;
+                return;
+            }
+            if (headerRead < BgzfBlocks.BLOCK_HEADER_SIZE) {
+                throw new EOFException("Truncated BGZF block at address " + address);
+            }
+            int blockSize = BgzfBlocks.getBlockSize(block);
+            if (blockSize < BgzfBlocks.BLOCK_HEADER_SIZE) {
+                throw new IOException("Not a BGZF block at address " + address);
+            }
+            int remaining = blockSize - BgzfBlocks.BLOCK_HEADER_SIZE;
+            if (readFully(block, BgzfBlocks.BLOCK_HEADER_SIZE, remaining) < remaining) {
+                throw new EOFException("Truncated BGZF block at address " + address);
+            }
+            pendingBlocks.add(executor.submit(
+                    () -> new Block(address, blockSize, BgzfBlocks.decompress(block, blockSize))));
+        }
+    }
+
+    private int readFully(byte[] bytes, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int readNow = file.read(bytes, offset + read, length - read);
+            if (readNow == -1) {
+                break;
+            }
+            read += readNow;
+        }
+        return read;
+    }
+
+    private void cancelPendingBlocks() {
+        for (Future<Block> pendingBlock : pendingBlocks) {
+            pendingBlock.cancel(false);
+        }
+        pendingBlocks.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        cancelPendingBlocks();
+        file.close();
+    }
+}
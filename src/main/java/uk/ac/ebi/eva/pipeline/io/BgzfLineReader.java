@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Adapts a {@link BgzfInputStream} to the {@link BufferedReader} that Spring Batch flat file readers expect, reading
+ * the lines straight from the decompressed blocks.
+ * <p>
+ * Single characters are read from the same lines, each one followed by '\n' whatever its original terminator was, so
+ * that {@link #readLine()} and the character reads can be mixed. Marks are not supported.
+ */
+public class BgzfLineReader extends BufferedReader {
+
+    private final BgzfInputStream inputStream;
+
+    /**
+     * Line with its terminator, whose characters from {@link #positionInPendingLine} have not been read yet. It is
+     * null when all the characters of the last line have been read.
+     */
+    private String pendingLine;
+
+    private int positionInPendingLine;
+
+    private long pendingLineVirtualOffset;
+
+    public BgzfLineReader(BgzfInputStream inputStream) {
+        super(new StringReader(""), 1);
+        this.inputStream = inputStream;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (pendingLine == null) {
+            return inputStream.readLine();
+        }
+        String line = pendingLine.substring(positionInPendingLine, pendingLine.length() - 1);
+        pendingLine = null;
+        return line;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensurePendingLine()) {
+            return -1;
+        }
+        char c = pendingLine.charAt(positionInPendingLine);
+        consume(1);
+        return c;
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < length && ensurePendingLine()) {
+            int copied = Math.min(length - read, pendingLine.length() - positionInPendingLine);
+            pendingLine.getChars(positionInPendingLine, positionInPendingLine + copied, chars, offset + read);
+            consume(copied);
+            read += copied;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    /**
+     * @return false at the end of the file, true if {@link #pendingLine} has characters to read
+     */
+    private boolean ensurePendingLine() throws IOException {
+        if (pendingLine != null) {
+            return true;
+        }
+        long virtualOffset = inputStream.getVirtualOffset();
+        String line = inputStream.readLine();
+        if (line == null) {
+            return false;
+        }
+        pendingLine = line + '\n';
+        positionInPendingLine = 0;
+        pendingLineVirtualOffset = virtualOffset;
+        return true;
+    }
+
+    private void consume(int chars) {
+        positionInPendingLine += chars;
+        if (positionInPendingLine == pendingLine.length()) {
+            pendingLine = null;
+        }
+    }
+
+    @Override
+    public long skip(long chars) throws IOException {
+        if (chars < 0) {
+            throw new IllegalArgumentException("skip value is negative");
+        }
+        long skipped = 0;
+        while (skipped < chars && ensurePendingLine()) {
+            int consumed = (int) Math.min(chars - skipped, pendingLine.length() - positionInPendingLine);
+            consume(consumed);
+            skipped += consumed;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return pendingLine != null || inputStream.available() > 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+
+    /**
+     * @return virtual offset of the first line not completely read yet, that can be used later in {@link #seek(long)}
+     */
+    public long getVirtualOffset() {
+        return pendingLine == null ? inputStream.getVirtualOffset() : pendingLineVirtualOffset;
+    }
+
+    public void seek(long virtualOffset) throws IOException {
+        pendingLine = null;
+        inputStream.seek(virtualOffset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        pendingLine = null;
+        inputStream.close();
+    }
+}
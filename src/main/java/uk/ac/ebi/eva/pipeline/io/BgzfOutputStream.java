@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Writes BGZF files, compressing several blocks concurrently.
+ * <p>
+ * The written bytes are split into blocks, and every full block is compressed in a thread pool while the next one is
+ * being filled. The compressed blocks are written in order by the thread that writes into this stream, which only
+ * waits when there are too many blocks pending to be written. The result can be read by any gzip reader, or by a
+ * {@link BgzfInputStream}.
+ */
+public class BgzfOutputStream extends OutputStream {
+
+    private final OutputStream outputStream;
+
+    private final int compressionLevel;
+
+    private final ExecutorService executor;
+
+    private final int maxPendingBlocks;
+
+    private final Deque<Future<byte[]>> pendingBlocks;
+
+    private byte[] buffer;
+
+    private int count;
+
+    private boolean closed;
+
+    /**
+     * @param compressionLevel from 0 to 9, or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @param blockDataSize uncompressed bytes in each block, limited to {@link BgzfBlocks#MAX_BLOCK_DATA_SIZE}
+     */
+    public BgzfOutputStream(OutputStream outputStream, int compressionLevel, int blockDataSize) {
+        if (blockDataSize <= 0) {
+            throw new IllegalArgumentException("blockDataSize (" + blockDataSize + ") must be greater than 0");
+        }
+        this.outputStream = outputStream;
+        this.compressionLevel = compressionLevel;
+        this.executor = BgzfBlocks.getSharedExecutor();
+        this.maxPendingBlocks = 2 * BgzfBlocks.getNumThreads();
+        this.pendingBlocks = new ArrayDeque<>();
+        this.buffer = new byte[Math.min(blockDataSize, BgzfBlocks.MAX_BLOCK_DATA_SIZE)];
+        this.count = 0;
+        this.closed = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            submitBlock();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (count == buffer.length) {
+                submitBlock();
+            }
+            int copied = Math.min(length, buffer.length - count);
+            System.arraycopy(bytes, offset, buffer, count, copied);
+            count += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        byte[] data = buffer;
+        int length = count;
+        pendingBlocks.add(executor.submit(() -> BgzfBlocks.compress(data, length, compressionLevel)));
+        buffer = new byte[buffer.length];
+        count = 0;
+        while (pendingBlocks.size() > maxPendingBlocks) {
+            writeFirstPendingBlock();
+        }
+    }
+
+    private void writeFirstPendingBlock() throws IOException {
+        try {
+            outputStream.write(pendingBlocks.poll().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing a BGZF block");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compress a BGZF block", e.getCause());
+        }
+    }
+
+    /**
+     * Compresses the bytes written so far, even if they don't fill a block, and writes all the pending blocks.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (count > 0) {
+            submitBlock();
+        }
+        while (!pendingBlocks.isEmpty()) {
+            writeFirstPendingBlock();
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the pending blocks and the empty block that marks the end of the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            outputStream.write(BgzfBlocks.EOF_BLOCK);
+        } finally {
+            for (Future<byte[]> pendingBlock : pendingBlocks) {
+                pendingBlock.cancel(false);
+            }
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Splits a BGZF file into ranges of whole lines that can be read independently, seeking with
+ * {@link BgzfInputStream#seek(long)} to the virtual offset where each one starts.
+ * <p>
+ * If there is a tabix (.tbi) or CSI (.csi) index next to the file, the ranges start at the records whose offsets are
+ * in the index. Otherwise, they start at the first line that begins inside a BGZF block, so only one block per range
+ * has to be decompressed. The ranges are chosen so that all of them have about the same compressed size.
+ *
+ * @see <a href="https://samtools.github.io/hts-specs/tabix.pdf">tabix index format</a>
+ * @see <a href="https://samtools.github.io/hts-specs/CSIv1.pdf">CSI index format</a>
+ */
+public class BgzfRangeSplitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BgzfRangeSplitter.class);
+
+    public static final String TABIX_EXTENSION = ".tbi";
+
+    public static final String CSI_EXTENSION = ".csi";
+
+    private static final byte[] TABIX_MAGIC = {'T', 'B', 'I', 1};
+
+    private static final byte[] CSI_MAGIC = {'C', 'S', 'I', 1};
+
+    private static final int TABIX_DEPTH = 5;
+
+    private static final int OFFSET_IN_BLOCK_BITS = 16;
+
+    private final File file;
+
+    public BgzfRangeSplitter(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the virtual offsets where every range starts, in order, the first one being 0. Each range ends where
+     * the next one starts, and the last one at the end of the file. There may be fewer ranges than requested if the
+     * file is small, or if the index doesn't have enough offsets.
+     */
+    public List<Long> split(int numRanges) throws IOException {
+        if (numRanges <= 0) {
+            throw new IllegalArgumentException("numRanges (" + numRanges + ") must be greater than 0");
+        }
+        File index = findIndex();
+        if (index != null) {
+            logger.debug("Splitting {} using the offsets in the index {}", file, index);
+            return chooseStarts(readIndexOffsets(index), numRanges);
+        }
+        logger.debug("Splitting {} at BGZF block boundaries", file);
+        return alignToLines(chooseStarts(readBlockOffsets(), numRanges));
+    }
+
+    private File findIndex() {
+        for (String extension : new String[]{TABIX_EXTENSION, CSI_EXTENSION}) {
+            File index = new File(file.getPath() + extension);
+            if (index.isFile()) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes, for each range but the first one, the first candidate after the compressed position where the range
+     * would start if the file was split evenly.
+     */
+    private List<Long> chooseStarts(List<Long> candidates, int numRanges) {
+        long fileLength = file.length();
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        int candidate = 0;
+        for (int i = 1; i < numRanges; i++) {
+            long target = (fileLength * i / numRanges) << OFFSET_IN_BLOCK_BITS;
+            while (candidate < candidates.size()
+                    && (candidates.get(candidate) < target || candidates.get(candidate) <= last(starts))) {
+                candidate++;
+            }
+            if (candidate == candidates.size()) {
+                break;
+            }
+            starts.add(candidates.get(candidate));
+        }
+        return starts;
+    }
+
+    private static long last(List<Long> offsets) {
+        return offsets.get(offsets.size() - 1);
+    }
+
+    /**
+     * @return the virtual offsets of the start of all the BGZF blocks, reading only their headers
+     */
+    private List<Long> readBlockOffsets() throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        byte[] header = new byte[BgzfBlocks.BLOCK_HEADER_SIZE];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long address = 0;
+            long fileLength = randomAccessFile.length();
+            while (address < fileLength) {
+                randomAccessFile.seek(address);
+                randomAccessFile.readFully(header);
+                int blockSize = BgzfBlocks.getBlockSize(header);
+                if (blockSize < BgzfBlocks.BLOCK_HEADER_SIZE) {
+                    throw new IOException("Not a BGZF block at address " + address + " of " + file);
+                }
+                offsets.add(address << OFFSET_IN_BLOCK_BITS);
+                address += blockSize;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated BGZF block in " + file, e);
+        }
+        return offsets;
+    }
+
+    /**
+     * Moves every start after the end of the line that is being read there, unless it's the start of the file. If a
+     * line is so long that it crosses the next starts, or if there is no line after, the ranges are merged.
+     */
+    private List<Long> alignToLines(List<Long> blockStarts) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        try (BgzfInputStream inputStream = new BgzfInputStream(file)) {
+            for (Long blockStart : blockStarts.subList(1, blockStarts.size())) {
+                if (blockStart <= last(starts)) {
+                    continue;
+                }
+                inputStream.seek(blockStart);
+                int read;
+                do {
+                    read = inputStream.read();
+                } while (read != -1 && read != '\n');
+                long lineStart = inputStream.getVirtualOffset();
+                if (read == -1 || inputStream.read() == -1) {
+                    break;
+                }
+                starts.add(lineStart);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * @return the sorted virtual offsets where the chunks of the bins in a tabix or CSI index begin, all of them at
+     * the start of a record
+     */
+    private List<Long> readIndexOffsets(File index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(readAll(index)).order(ByteOrder.LITTLE_ENDIAN);
+        TreeSet<Long> offsets = new TreeSet<>();
+        try {
+            byte[] magic = new byte[TABIX_MAGIC.length];
+            buffer.get(magic);
+            boolean csi;
+            int depth;
+            if (Arrays.equals(magic, TABIX_MAGIC)) {
+                csi = false;
+                depth = TABIX_DEPTH;
+                int numReferences = buffer.getInt();
+                // format, sequence column, begin column, end column, meta character and lines to skip
+                skip(buffer, 6 * Integer.BYTES);
+                skip(buffer, buffer.getInt());
+                readReferences(buffer, numReferences, csi, depth, offsets);
+            } else if (Arrays.equals(magic, CSI_MAGIC)) {
+                csi = true;
+                skip(buffer, Integer.BYTES);
+                depth = buffer.getInt();
+                skip(buffer, buffer.getInt());
+                int numReferences = buffer.getInt();
+                readReferences(buffer, numReferences, csi, depth, offsets);
+            } else {
+                throw new IOException("Unknown index format in " + index);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated index " + index, e);
+        }
+        return new ArrayList<>(offsets);
+    }
+
+    private void readReferences(ByteBuffer buffer, int numReferences, boolean csi, int depth, TreeSet<Long> offsets) {
+        // the pseudo-bin doesn't have chunks, but the count of records in the reference
+        int pseudoBin = ((1 << ((depth + 1) * 3)) - 1) / 7 + 1;
+        for (int reference = 0; reference < numReferences; reference++) {
+            int numBins = buffer.getInt();
+            for (int bin = 0; bin < numBins; bin++) {
+                int binNumber = buffer.getInt();
+                if (csi) {
+                    skip(buffer, Long.BYTES);
+                }
+                int numChunks = buffer.getInt();
+                for (int chunk = 0; chunk < numChunks; chunk++) {
+                    long chunkBegin = buffer.getLong();
+                    skip(buffer, Long.BYTES);
+                    if (binNumber != pseudoBin) {
+                        offsets.add(chunkBegin);
+                    }
+                }
+            }
+            if (!csi) {
+                // the linear index
+                skip(buffer, buffer.getInt() * Long.BYTES);
+            }
+        }
+    }
+
+    private static void skip(ByteBuffer buffer, int bytes) {
+        if (bytes < 0 || bytes > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + bytes);
+    }
+
+    private static byte[] readAll(File index) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (BgzfInputStream inputStream = new BgzfInputStream(index)) {
+            byte[] buffer = new byte[BgzfBlocks.MAX_BLOCK_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toByteArray();
+    }
+}
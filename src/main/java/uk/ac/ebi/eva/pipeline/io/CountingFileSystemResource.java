@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * File resource that keeps track of how many bytes of the file have been read through the last stream it opened, so
+ * that the progress of a step can be measured against the size of the file.
+ */
+public class CountingFileSystemResource extends FileSystemResource {
+
+    private volatile CountingInputStream lastInputStream;
+
+    public CountingFileSystemResource(File file) {
+        super(file);
+    }
+
+    public CountingFileSystemResource(String path) {
+        super(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        lastInputStream = new CountingInputStream(super.getInputStream());
+        return lastInputStream;
+    }
+
+    /**
+     * @return bytes of the file read through the last stream returned by {@link #getInputStream()}, or 0 if no
+     * stream was opened yet
+     */
+    public long getBytesRead() {
+        CountingInputStream inputStream = lastInputStream;
+        return inputStream == null ? 0 : inputStream.getCount();
+    }
+}
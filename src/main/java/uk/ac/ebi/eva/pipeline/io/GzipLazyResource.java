@@ -15,8 +15,6 @@
  */
 package uk.ac.ebi.eva.pipeline.io;
 
-import org.springframework.core.io.FileSystemResource;
-
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,8 +27,20 @@ import java.util.zip.GZIPInputStream;
  * It's lazy because otherwise it will try to open the file on creation. The creation may be at the start of the
  * runtime if this class is used to create beans for autowiring, and at the start of the application it's
  * possible that the file doesn't exist yet.
+ * <p>
+ * BGZF files, like the ones written by {@link BgzfOutputStream}, are read with a {@link BgzfInputStream}, which
+ * decompresses several blocks in parallel. Other gzip files are decompressed with large buffers in a background
+ * thread, using a {@link ReadAheadInputStream}.
+ * <p>
+ * {@link #getBytesRead()} counts the compressed bytes consumed, not the decompressed ones, so it can be compared with
+ * the size of the file. For plain gzip files, the bytes are the ones consumed by the reader of the stream, not the ones
+ * already decompressed ahead by the background thread.
  */
-public class GzipLazyResource extends FileSystemResource {
+public class GzipLazyResource extends CountingFileSystemResource {
+
+    private volatile BgzfInputStream lastBgzfInputStream;
+
+    private volatile ReadAheadInputStream lastReadAheadInputStream;
 
     public GzipLazyResource(File file) {
         super(file);
@@ -42,7 +52,29 @@ public class GzipLazyResource extends FileSystemResource {
 
     @Override
     public InputStream getInputStream() throws IOException {
-        return new GZIPInputStream(super.getInputStream());
+        if (BgzfInputStream.isBgzf(getFile())) {
+            lastReadAheadInputStream = null;
+            lastBgzfInputStream = new BgzfInputStream(getFile());
+            return lastBgzfInputStream;
+        }
+        lastBgzfInputStream = null;
+        lastReadAheadInputStream = new ReadAheadInputStream(
+                new GZIPInputStream(super.getInputStream(), ReadAheadInputStream.DEFAULT_BUFFER_SIZE),
+                super::getBytesRead);
+        return lastReadAheadInputStream;
+    }
+
+    @Override
+    public long getBytesRead() {
+        BgzfInputStream bgzfInputStream = lastBgzfInputStream;
+        if (bgzfInputStream != null) {
+            return BgzfInputStream.getBlockAddress(bgzfInputStream.getVirtualOffset());
+        }
+        ReadAheadInputStream readAheadInputStream = lastReadAheadInputStream;
+        if (readAheadInputStream != null) {
+            return readAheadInputStream.getSourcePosition();
+        }
+        return super.getBytesRead();
     }
 
 }
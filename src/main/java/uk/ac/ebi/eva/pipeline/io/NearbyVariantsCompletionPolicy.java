@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+
+import uk.ac.ebi.eva.pipeline.io.readers.SynchronizedPeekableItemStreamReader;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+
+/**
+ * Completion policy that keeps adding variants to a full chunk while the next variant is close to the last one, so
+ * that VEP annotates nearby variants together and reuses the regions of its cache that it has already loaded.
+ * <p>
+ * The variants must be read sorted by chromosome and position. A chunk is complete when the wrapped policy says so
+ * and the next variant is in another chromosome or further than the maximum distance, or when the chunk has been
+ * extended with the maximum number of extra variants.
+ * <p>
+ * An error reading the next variant fails the chunk, as it would if the step had read that variant itself.
+ */
+public class NearbyVariantsCompletionPolicy extends CompletionPolicySupport {
+
+    public static final int DEFAULT_MAX_DISTANCE = 10000;
+
+    private final CompletionPolicy chunkSizePolicy;
+
+    private final SynchronizedPeekableItemStreamReader<EnsemblVariant> reader;
+
+    private final int maxDistance;
+
+    private final int maxExtraVariants;
+
+    private static class NearbyVariantsContext extends RepeatContextSupport {
+
+        private final RepeatContext chunkSizeContext;
+
+        private int extraVariants;
+
+        NearbyVariantsContext(RepeatContext parent, RepeatContext chunkSizeContext) {
+            super(parent);
+            this.chunkSizeContext = chunkSizeContext;
+            this.extraVariants = 0;
+        }
+    }
+
+    /**
+     * @param chunkSizePolicy decides the minimum size of the chunks
+     * @param reader reader of the step, used to compare the last variant of the chunk with the next one
+     * @param maxDistance maximum distance in bases between two variants for them to be considered nearby
+     * @param maxExtraVariants maximum number of variants added to a chunk that the chunk size policy considers complete
+     */
+    public NearbyVariantsCompletionPolicy(CompletionPolicy chunkSizePolicy,
+                                          SynchronizedPeekableItemStreamReader<EnsemblVariant> reader,
+                                          int maxDistance, int maxExtraVariants) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maximum distance (" + maxDistance + ") must not be negative");
+        }
+        this.chunkSizePolicy = chunkSizePolicy;
+        this.reader = reader;
+        this.maxDistance = maxDistance;
+        this.maxExtraVariants = maxExtraVariants;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new NearbyVariantsContext(parent, chunkSizePolicy.start(parent));
+    }
+
+    @Override
+    public void update(RepeatContext context) {
+        super.update(context);
+        chunkSizePolicy.update(((NearbyVariantsContext) context).chunkSizeContext);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        NearbyVariantsContext nearbyVariantsContext = (NearbyVariantsContext) context;
+        if (!chunkSizePolicy.isComplete(nearbyVariantsContext.chunkSizeContext)) {
+            return false;
+        }
+        if (nearbyVariantsContext.extraVariants >= maxExtraVariants || !isNextVariantNearby()) {
+            return true;
+        }
+        nearbyVariantsContext.extraVariants++;
+        return false;
+    }
+
+    private boolean isNextVariantNearby() {
+        EnsemblVariant last = reader.getLastRead();
+        EnsemblVariant next;
+        try {
+            next = reader.peek();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NonTransientResourceException("Could not read the variant after " + last, e);
+        }
+        return last != null && next != null && last.getChr().equals(next.getChr())
+                && next.getStart() - last.getEnd() <= maxDistance;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Reads another stream in a background thread, a few large buffers in advance, so that the work done by that stream
+ * (usually decompressing) overlaps with the work done with the bytes already read.
+ * <p>
+ * Errors of the other stream are thrown by the next read after the bytes read before the error. The background
+ * thread is stopped when this stream is closed.
+ * <p>
+ * The other stream may be reading yet another source, such as the compressed file under a decompressing stream. If the
+ * position in that source is given, {@link #getSourcePosition()} estimates how much of the source has been consumed
+ * by the reader of this stream, not by the background thread: every buffer remembers the source position after it
+ * was filled, and the position is interpolated inside the buffer being read.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_BUFFERS_AHEAD = 4;
+
+    private static final Buffer END_OF_STREAM = new Buffer(new byte[0], 0);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final InputStream inputStream;
+
+    private final int bufferSize;
+
+    private final LongSupplier sourcePosition;
+
+    private final BlockingQueue<Buffer> buffers;
+
+    private final Thread readerThread;
+
+    private volatile IOException readError;
+
+    private volatile boolean closing;
+
+    private volatile byte[] currentBuffer;
+
+    private volatile int positionInBuffer;
+
+    private volatile long currentBufferSourceStart;
+
+    private volatile long currentBufferSourceEnd;
+
+    private boolean ended;
+
+    /**
+     * A buffer read from the other stream, and the position in the source after reading it
+     */
+    private static class Buffer {
+
+        final byte[] data;
+
+        final long sourceEnd;
+
+        Buffer(byte[] data, long sourceEnd) {
+            this.data = data;
+            this.sourceEnd = sourceEnd;
+        }
+    }
+
+    public ReadAheadInputStream(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFERS_AHEAD, null);
+    }
+
+    /**
+     * @param sourcePosition position in the source of the other stream, read in the background thread
+     */
+    public ReadAheadInputStream(InputStream inputStream, LongSupplier sourcePosition) {
+        this(inputStream, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFERS_AHEAD, sourcePosition);
+    }
+
+    public ReadAheadInputStream(InputStream inputStream, int bufferSize, int buffersAhead) {
+        this(inputStream, bufferSize, buffersAhead, null);
+    }
+
+    public ReadAheadInputStream(InputStream inputStream, int bufferSize, int buffersAhead,
+                                LongSupplier sourcePosition) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize (" + bufferSize + ") must be greater than 0");
+        }
+        if (buffersAhead <= 0) {
+            throw new IllegalArgumentException("buffersAhead (" + buffersAhead + ") must be greater than 0");
+        }
+        this.inputStream = inputStream;
+        this.sourcePosition = sourcePosition;
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(buffersAhead);
+        this.currentBuffer = END_OF_STREAM.data;
+        this.positionInBuffer = 0;
+        this.currentBufferSourceStart = 0;
+        this.currentBufferSourceEnd = 0;
+        this.ended = false;
+        this.closing = false;
+        this.readerThread = new Thread(this::readAhead, "read-ahead-" + threadCount.incrementAndGet());
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    private void readAhead() {
+        try {
+            int read;
+            do {
+                byte[] buffer = new byte[bufferSize];
+                read = fill(buffer);
+                if (read > 0) {
+                    long sourceEnd = sourcePosition == null ? 0 : sourcePosition.getAsLong();
+                    buffers.put(new Buffer(read < bufferSize ? Arrays.copyOf(buffer, read) : buffer, sourceEnd));
+                }
+            } while (read == bufferSize && !closing);
+        } catch (IOException e) {
+            readError = e;
+        } catch (InterruptedException e) {
+            // the stream is being closed
+            return;
+        }
+        try {
+            buffers.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            // the stream is being closed
+        }
+    }
+
+    private int fill(byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int readNow = inputStream.read(buffer, read, buffer.length - read);
+            if (readNow == -1) {
+                break;
+            }
+            read += readNow;
+        }
+        return read;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBufferHasData()) {
+            return -1;
+        }
+        return currentBuffer[positionInBuffer++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureBufferHasData()) {
+            return -1;
+        }
+        int read = Math.min(length, currentBuffer.length - positionInBuffer);
+        System.arraycopy(currentBuffer, positionInBuffer, bytes, offset, read);
+        positionInBuffer += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return currentBuffer.length - positionInBuffer;
+    }
+
+    private boolean ensureBufferHasData() throws IOException {
+        if (closing) {
+            throw new IOException("Stream closed");
+        }
+        if (positionInBuffer < currentBuffer.length) {
+            return true;
+        }
+        if (ended) {
+            return false;
+        }
+        Buffer buffer;
+        try {
+            buffer = buffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the stream to be read");
+        }
+        if (buffer == END_OF_STREAM) {
+            currentBuffer = END_OF_STREAM.data;
+            positionInBuffer = 0;
+            currentBufferSourceStart = currentBufferSourceEnd;
+            ended = true;
+            if (readError != null) {
+                throw new IOException("Could not read the stream", readError);
+            }
+            return false;
+        }
+        // the position is reset before the buffer is replaced, so that getSourcePosition never sees a full buffer
+        positionInBuffer = 0;
+        currentBufferSourceStart = currentBufferSourceEnd;
+        currentBufferSourceEnd = buffer.sourceEnd;
+        currentBuffer = buffer.data;
+        return true;
+    }
+
+    /**
+     * @return estimation of the position in the source up to which the bytes have been read from this stream, or 0 if
+     * the source position was not given in the constructor. It can be called from any thread, but then it may be off
+     * by a buffer while a new one is being taken.
+     */
+    public long getSourcePosition() {
+        byte[] buffer = currentBuffer;
+        long sourceStart = currentBufferSourceStart;
+        long sourceEnd = currentBufferSourceEnd;
+        if (buffer.length == 0) {
+            return sourceEnd;
+        }
+        int position = Math.min(positionInBuffer, buffer.length);
+        long interpolated = sourceStart + (sourceEnd - sourceStart) * position / buffer.length;
+        return Math.max(sourceStart, Math.min(interpolated, sourceEnd));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        try {
+            readerThread.interrupt();
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the stream");
+        } finally {
+            buffers.clear();
+            inputStream.close();
+        }
+    }
+}
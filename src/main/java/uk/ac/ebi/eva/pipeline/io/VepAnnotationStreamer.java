@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemWriter;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parses the lines written by VEP into {@link Annotation}s and sends them to an annotation writer, so that the
+ * annotations are loaded without writing and reading the VEP output file.
+ * <p>
+ * The lines can be parsed as VEP writes them, from the thread that reads its output, but the annotations are only
+ * written when {@link #writePendingAnnotations()} is called, because the writers are step scoped and have to be used
+ * from the threads of the step. The thread that sends the variants to VEP is expected to call it regularly, so that
+ * the pending annotations don't pile up, and they are written in batches of at most
+ * {@link #MAX_ANNOTATIONS_PER_WRITE}.
+ * <p>
+ * Like the step that loads the VEP output file, lines that can't be parsed are skipped, up to
+ * {@link #MAX_SKIPPED_LINES}.
+ */
+public class VepAnnotationStreamer {
+    private static final Logger logger = LoggerFactory.getLogger(VepAnnotationStreamer.class);
+
+    static final int MAX_SKIPPED_LINES = 50;
+
+    static final int MAX_ANNOTATIONS_PER_WRITE = 1000;
+
+    private final ItemWriter<Annotation> annotationWriter;
+
+    private final AnnotationLineMapper lineMapper;
+
+    private final AtomicLong parsedLines;
+
+    private final AtomicLong skippedLines;
+
+    private final AtomicLong writtenAnnotations;
+
+    private List<Annotation> pendingAnnotations;
+
+    public VepAnnotationStreamer(ItemWriter<Annotation> annotationWriter, String vepVersion, String vepCacheVersion) {
+        this.annotationWriter = annotationWriter;
+        this.lineMapper = new AnnotationLineMapper(vepVersion, vepCacheVersion);
+        this.parsedLines = new AtomicLong(0);
+        this.skippedLines = new AtomicLong(0);
+        this.writtenAnnotations = new AtomicLong(0);
+        this.pendingAnnotations = new ArrayList<>();
+    }
+
+    /**
+     * Parses a line of the VEP output and keeps the annotation until the next call to
+     * {@link #writePendingAnnotations()}. Comment lines are ignored.
+     */
+    public void addLine(String line) throws ItemStreamException {
+        Annotation annotation = parse(line);
+        if (annotation != null) {
+            synchronized (this) {
+                pendingAnnotations.add(annotation);
+            }
+        }
+    }
+
+    /**
+     * Writes the annotations parsed by previous calls to {@link #addLine(String)}.
+     */
+    public void writePendingAnnotations() throws ItemStreamException {
+        List<Annotation> annotations;
+        synchronized (this) {
+            if (pendingAnnotations.isEmpty()) {
+                return;
+            }
+            annotations = pendingAnnotations;
+            pendingAnnotations = new ArrayList<>();
+        }
+        for (int start = 0; start < annotations.size(); start += MAX_ANNOTATIONS_PER_WRITE) {
+            write(annotations.subList(start, Math.min(start + MAX_ANNOTATIONS_PER_WRITE, annotations.size())));
+        }
+    }
+
+    /**
+     * Parses and writes the annotations of a chunk in the current thread.
+     */
+    public void writeLines(List<String> lines) throws ItemStreamException {
+        List<Annotation> annotations = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            Annotation annotation = parse(line);
+            if (annotation != null) {
+                annotations.add(annotation);
+            }
+        }
+        write(annotations);
+    }
+
+    private Annotation parse(String line) {
+        if (line.isEmpty() || line.charAt(0) == '#') {
+            return null;
+        }
+        long lineNumber = parsedLines.incrementAndGet();
+        try {
+            return lineMapper.mapLine(line, (int) lineNumber);
+        } catch (Exception e) {
+            long skipped = skippedLines.incrementAndGet();
+            if (skipped > MAX_SKIPPED_LINES) {
+                throw new ItemStreamException("More than " + MAX_SKIPPED_LINES
+                                                      + " lines of the VEP output could not be parsed", e);
+            }
+            logger.warn("Skipping a line of the VEP output that could not be parsed: " + line, e);
+            return null;
+        }
+    }
+
+    private void write(List<Annotation> annotations) {
+        if (annotations.isEmpty()) {
+            return;
+        }
+        try {
+            annotationWriter.write(annotations);
+        } catch (Exception e) {
+            throw new ItemStreamException("Could not write " + annotations.size() + " annotations", e);
+        }
+        writtenAnnotations.addAndGet(annotations.size());
+    }
+
+    public long getWrittenAnnotations() {
+        return writtenAnnotations.get();
+    }
+
+    public long getSkippedLines() {
+        return skippedLines.get();
+    }
+
+    public void logCounters() {
+        logger.info("Annotations written = {}, VEP output lines skipped = {}", getWrittenAnnotations(),
+                    getSkippedLines());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tunes the size of the chunks sent to VEP, which is also the VEP buffer size, according to the measured throughput.
+ * <p>
+ * The VEP writers report how long it took to annotate every chunk. After {@link #CHUNKS_PER_ROUND} chunks, the
+ * throughput in variants per second is compared with the one of the previous round: if it improved, the chunk size
+ * keeps changing in the same direction, and otherwise the direction is reversed. The chunk size is multiplied or
+ * divided by {@link #GROWTH_FACTOR}, always within the configured bounds, and is set in the completion policy of the
+ * step, so it applies to the next chunks that are read.
+ */
+public class VepChunkSizeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(VepChunkSizeController.class);
+
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 100;
+
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 10000;
+
+    static final int CHUNKS_PER_ROUND = 3;
+
+    static final double GROWTH_FACTOR = 1.5;
+
+    private final SimpleCompletionPolicy completionPolicy;
+
+    private final int minChunkSize;
+
+    private final int maxChunkSize;
+
+    private volatile int chunkSize;
+
+    private boolean growing;
+
+    private double previousThroughput;
+
+    private int roundChunks;
+
+    private long roundVariants;
+
+    private long roundNanos;
+
+    /**
+     * @param completionPolicy policy of the step, whose chunk size will be modified
+     * @param initialChunkSize first chunk size, moved within the bounds if it is outside them
+     */
+    public VepChunkSizeController(SimpleCompletionPolicy completionPolicy, int initialChunkSize, int minChunkSize,
+                                  int maxChunkSize) {
+        if (minChunkSize <= 0) {
+            throw new IllegalArgumentException("minimum chunk size (" + minChunkSize + ") must be greater than 0");
+        }
+        if (minChunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("minimum chunk size (" + minChunkSize
+                                                       + ") must not be greater than the maximum (" + maxChunkSize
+                                                       + ")");
+        }
+        this.completionPolicy = completionPolicy;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.growing = true;
+        this.previousThroughput = -1;
+        setChunkSize(clamp(initialChunkSize));
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    /**
+     * Records how long VEP took to annotate a chunk, and changes the chunk size at the end of every round. Can be
+     * called concurrently by the threads of the step.
+     */
+    public synchronized void recordChunk(int variants, long elapsedNanos) {
+        if (variants == 0) {
+            return;
+        }
+        logger.debug("VEP annotated {} variants in {} ms ({} variants/s) with chunk size {}", variants,
+                     TimeUnit.NANOSECONDS.toMillis(elapsedNanos), (long) getThroughput(variants, elapsedNanos),
+                     chunkSize);
+
+        roundChunks++;
+        roundVariants += variants;
+        roundNanos += elapsedNanos;
+        if (roundChunks < CHUNKS_PER_ROUND) {
+            return;
+        }
+
+        double throughput = getThroughput(roundVariants, roundNanos);
+        if (previousThroughput >= 0 && throughput < previousThroughput) {
+            growing = !growing;
+        }
+        int nextChunkSize = getNextChunkSize();
+        if (nextChunkSize == chunkSize) {
+            // a bound has been reached, so the only way to keep exploring is going back
+            growing = !growing;
+            nextChunkSize = getNextChunkSize();
+        }
+        logger.info("VEP annotated {} variants in {} chunks of size {} in {} ms ({} variants/s, previously {}), "
+                            + "next chunk size is {}", roundVariants, roundChunks, chunkSize,
+                    TimeUnit.NANOSECONDS.toMillis(roundNanos), (long) throughput, (long) previousThroughput,
+                    nextChunkSize);
+
+        previousThroughput = throughput;
+        roundChunks = 0;
+        roundVariants = 0;
+        roundNanos = 0;
+        setChunkSize(nextChunkSize);
+    }
+
+    private double getThroughput(long variants, long elapsedNanos) {
+        return variants * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+
+    private int getNextChunkSize() {
+        double nextChunkSize = growing ? Math.ceil(chunkSize * GROWTH_FACTOR) : Math.floor(chunkSize / GROWTH_FACTOR);
+        return clamp((int) Math.min(nextChunkSize, Integer.MAX_VALUE));
+    }
+
+    private int clamp(int size) {
+        return Math.max(minChunkSize, Math.min(maxChunkSize, size));
+    }
+
+    private void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        completionPolicy.setChunkSize(chunkSize);
+    }
+}
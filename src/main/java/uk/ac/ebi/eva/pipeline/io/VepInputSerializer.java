@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.ebi.eva.pipeline.io;
+
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes variants in the VEP input format (the ensembl default format) into a byte buffer that is reused between
+ * chunks, so that a whole chunk can be sent to VEP in a single write:
+ * {@code
+ * 20	60343	60343	G/A	+
+ * }
+ * The text fields are expected to be ASCII, as chromosome names and alleles are, and the coordinates are written as
+ * ASCII digits without building intermediate Strings.
+ * <p>
+ * Not thread safe; use one instance per writer.
+ */
+public class VepInputSerializer {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+
+    private static final int MAX_INT_DIGITS = 11;
+
+    private byte[] buffer;
+
+    private int length;
+
+    public VepInputSerializer() {
+        buffer = new byte[INITIAL_CAPACITY];
+        length = 0;
+    }
+
+    /**
+     * Replaces the content of the buffer with the given variants, one per line.
+     */
+    public void serialize(List<? extends EnsemblVariant> variants) {
+        reset();
+        for (EnsemblVariant variant : variants) {
+            append(variant);
+        }
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    public void append(EnsemblVariant variant) {
+        appendColumns(variant);
+        appendBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Appends the variant with an extra column that VEP will use as identifier of the variant in its output.
+     */
+    public void append(EnsemblVariant variant, String identifier) {
+        appendColumns(variant);
+        appendByte('\t');
+        appendAscii(identifier);
+        appendBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * @return the internal buffer. Only the first {@link #getLength()} bytes are valid
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    private void appendColumns(EnsemblVariant variant) {
+        appendAscii(variant.getChr());
+        appendByte('\t');
+        appendInt(variant.getStart());
+        appendByte('\t');
+        appendInt(variant.getEnd());
+        appendByte('\t');
+        appendAscii(variant.getReference());
+        appendByte('/');
+        appendAscii(variant.getAlternate());
+        appendByte('\t');
+        appendAscii(variant.getStrand());
+    }
+
+    private void appendAscii(String text) {
+        int textLength = text.length();
+        ensureCapacity(textLength);
+        for (int i = 0; i < textLength; i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void appendInt(int value) {
+        ensureCapacity(MAX_INT_DIGITS);
+        if (value == Integer.MIN_VALUE) {
+            appendAscii(Integer.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int position = length + digits - 1; position >= length; position--) {
+            buffer[position] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void appendByte(char ascii) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) ascii;
+    }
+
+    private void appendBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int extraBytes) {
+        if (length + extraBytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extraBytes));
+        }
+    }
+}
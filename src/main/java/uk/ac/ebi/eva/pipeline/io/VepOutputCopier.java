@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+/**
+ * Copies the output of VEP into another stream without decoding it into lines of text.
+ * <p>
+ * The bytes are read in blocks, and each block is only scanned for the newlines and the '#' that start the header
+ * lines, so that the header can be skipped when the output is appended to a file that already has it. The rest of the
+ * bytes are written as they were read.
+ */
+public class VepOutputCopier {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte NEWLINE = '\n';
+
+    private static final byte COMMENT = '#';
+
+    private final byte[] buffer;
+
+    private long copiedLines;
+
+    private byte[] lastLine;
+
+    /**
+     * @param bufferSize size in bytes of the blocks read from VEP. The buffer is reused for every block.
+     */
+    public VepOutputCopier(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize (" + bufferSize + ") must be strictly greater than 0");
+        }
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Opens a file to append compressed VEP output. The file is written in BGZF blocks that are compressed in parallel,
+     * and can still be read as a regular gzip file.
+     *
+     * @param compressionLevel from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param bufferSize size in bytes of the blocks that are compressed at once, up to 65280 bytes
+     */
+    public static OutputStream openCompressedOutput(String path, boolean append, int compressionLevel,
+                                                    int bufferSize) throws IOException {
+        return new BgzfOutputStream(new FileOutputStream(path, append), compressionLevel, bufferSize);
+    }
+
+    /**
+     * Read the whole input stream and write it into the output stream.
+     *
+     * @param inputStream must be closed externally
+     * @param outputStream must be closed externally
+     * @param skipComments if false, will write all lines starting with '#', if true, will not write any.
+     * @param onBlockRead called after writing every block, to signal that the input is still active
+     * @return number of lines written, including the comments if they are not skipped.
+     */
+    public long copy(InputStream inputStream, OutputStream outputStream, boolean skipComments,
+                     Runnable onBlockRead) throws IOException {
+        copiedLines = 0;
+        lastLine = null;
+        boolean atLineStart = true;
+        boolean inComment = false;
+
+        int read = inputStream.read(buffer);
+        while (read != -1) {
+            boolean blockStartsALine = atLineStart;
+            int blockStart = 0;
+            for (int i = 0; i < read; i++) {
+                byte current = buffer[i];
+                if (atLineStart && skipComments && current == COMMENT) {
+                    outputStream.write(buffer, blockStart, i - blockStart);
+                    inComment = true;
+                }
+                atLineStart = current == NEWLINE;
+                if (atLineStart) {
+                    if (inComment) {
+                        inComment = false;
+                        blockStart = i + 1;
+                    } else {
+                        copiedLines++;
+                    }
+                }
+            }
+            if (!inComment) {
+                outputStream.write(buffer, blockStart, read - blockStart);
+            }
+            keepLastLine(read, blockStartsALine);
+            onBlockRead.run();
+            read = inputStream.read(buffer);
+        }
+        if (!atLineStart && !inComment) {
+            // later copies may append to the same output, so the last line must be terminated
+            outputStream.write(NEWLINE);
+            copiedLines++;
+        }
+
+        outputStream.flush();
+        return copiedLines;
+    }
+
+    /**
+     * Keeps the last complete line of the block if it is entirely contained in it. The rest of lines are not decoded.
+     */
+    private void keepLastLine(int read, boolean blockStartsALine) {
+        int end = read - 1;
+        while (end >= 0 && buffer[end] != NEWLINE) {
+            end--;
+        }
+        if (end <= 0) {
+            return;
+        }
+        int start = end - 1;
+        while (start >= 0 && buffer[start] != NEWLINE) {
+            start--;
+        }
+        if ((start >= 0 || blockStartsALine) && end - start > 1) {
+            byte[] line = new byte[end - start - 1];
+            System.arraycopy(buffer, start + 1, line, 0, line.length);
+            lastLine = line;
+        }
+    }
+
+    /**
+     * @return last line written by VEP in the last copy, if it fitted in a single block, or null otherwise.
+     */
+    public String getLastLine() {
+        return lastLine == null ? null : new String(lastLine, StandardCharsets.UTF_8);
+    }
+
+    public long getCopiedLines() {
+        return copiedLines;
+    }
+}
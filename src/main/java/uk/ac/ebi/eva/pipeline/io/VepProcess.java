@@ -25,23 +25,16 @@ import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * Class that launches a VEP process (@see <a href="http://www.ensembl.org/info/docs/tools/vep/index.html">VEP</a>)
@@ -64,18 +57,34 @@ import java.util.zip.GZIPOutputStream;
  * 20_60479_C/T	20:60479	T	-	-	-	intergenic_variant	-	-	-	-	-	rs149529999	GMAF=T:0.0018;AFR_MAF=T:0.01;AMR_MAF=T:0.0028
  * ..
  * }
+ * <p>
+ * If a {@link VepAnnotationStreamer} is provided, the annotations are parsed as VEP writes them, and are written into
+ * the database instead of into the file. They are written from the thread that uses this class, after every write or
+ * flush, and every {@link #STREAMED_ANNOTATIONS_WRITE_INTERVAL_MILLIS} milliseconds while waiting for VEP to finish.
+ * Otherwise, the output is copied into the file without decoding it, by a {@link VepOutputCopier}.
+ * <p>
+ * The standard error of VEP is redirected to a file while the process runs, so that VEP never blocks writing errors or
+ * warnings. The file is kept only if the process fails or if VEP wrote something into it.
  */
 public class VepProcess {
     private static final Logger logger = LoggerFactory.getLogger(VepProcess.class);
 
     private static final boolean APPEND = true;
 
+    static final long STREAMED_ANNOTATIONS_WRITE_INTERVAL_MILLIS = 1000;
+
     private AnnotationParameters annotationParameters;
 
     private int chunkSize;
 
     private final Long timeoutInSeconds;
 
+    private final String vepOutput;
+
+    private final File errorLog;
+
+    private final VepAnnotationStreamer annotationStreamer;
+
     private Process process;
 
     private OutputStream processStandardInput;
@@ -86,7 +95,25 @@ public class VepProcess {
 
     private AtomicLong outputIdleSince;
 
+    private final VepWriteWatchdog watchdog;
+
     public VepProcess(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, annotationParameters.getVepOutput());
+    }
+
+    /**
+     * @param vepOutput file where the annotations are appended, instead of the one defined by the annotation parameters
+     */
+    public VepProcess(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
+                      String vepOutput) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, vepOutput, null);
+    }
+
+    /**
+     * @param annotationStreamer if not null, receives the annotations instead of the file vepOutput
+     */
+    public VepProcess(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
+                      String vepOutput, VepAnnotationStreamer annotationStreamer) {
         if (timeoutInSeconds <= 0) {
             throw new IllegalArgumentException(
                     "timeout (" + timeoutInSeconds + " seconds) must be strictly greater than 0");
@@ -94,11 +121,38 @@ public class VepProcess {
         this.annotationParameters = annotationParameters;
         this.chunkSize = chunkSize;
         this.timeoutInSeconds = timeoutInSeconds;
+        this.vepOutput = vepOutput;
+        this.errorLog = new File(vepOutput + ".errors.txt");
+        this.annotationStreamer = annotationStreamer;
         this.outputIdleSince = new AtomicLong(System.currentTimeMillis());
+        this.watchdog = VepWriteWatchdog.getSharedInstance();
     }
 
     public void open() throws ItemStreamException {
-        ProcessBuilder processBuilder = new ProcessBuilder("perl",
+        ProcessBuilder processBuilder = new ProcessBuilder(buildCommand(annotationParameters, chunkSize));
+        processBuilder.redirectError(ProcessBuilder.Redirect.appendTo(errorLog));
+
+        logger.trace("Starting VEP annotation with parameters = {}", Arrays.toString(processBuilder.command().toArray()));
+
+        try {
+            process = processBuilder.start();
+        } catch (IOException e) {
+            throw new ItemStreamException(e);
+        }
+
+        processStandardInput = new BufferedOutputStream(process.getOutputStream());
+        if (annotationStreamer == null) {
+            captureOutput(process, vepOutput);
+        } else {
+            streamOutput(process);
+        }
+    }
+
+    /**
+     * @param bufferSize number of variants that VEP reads from the input before annotating and writing them.
+     */
+    static List<String> buildCommand(AnnotationParameters annotationParameters, int bufferSize) {
+        return Arrays.asList("perl",
                 annotationParameters.getVepPath(),
                 "--cache",
                 "--cache_version", annotationParameters.getVepCacheVersion(),
@@ -106,29 +160,15 @@ public class VepProcess {
                 "--species", annotationParameters.getVepCacheSpecies(),
                 "--fasta", annotationParameters.getInputFasta(),
                 "--fork", Integer.toString(annotationParameters.getVepNumForks()),
-                "--buffer_size", Integer.toString(chunkSize),
+                "--buffer_size", Integer.toString(bufferSize),
                 "-o", "STDOUT",
                 "--force_overwrite",
                 "--offline",
                 "--everything",
                 "--format", "ensembl"
         );
-
-        logger.trace("Starting VEP annotation with parameters = {}", Arrays.toString(processBuilder.command().toArray()));
-
-        try {
-            process = processBuilder.start();
-        } catch (IOException e) {
-            throw new ItemStreamException(e);
-        }
-
-        processStandardInput = new BufferedOutputStream(process.getOutputStream());
-        String vepOutputPath = annotationParameters.getVepOutput();
-
-        captureOutput(process, vepOutputPath);
     }
 
-
     private void captureOutput(Process process, String vepOutputPath) {
         writingOk = new AtomicBoolean(false);
         outputCaptureThread = new Thread(() -> {
@@ -137,9 +177,14 @@ public class VepProcess {
             // if vepOutput exists, the header (the comments) is already written, and the header should appear only once
             boolean skipComments = new File(vepOutputPath).exists();
 
-            try (OutputStreamWriter writer = getOutputStreamWriter(vepOutputPath);
-                    BufferedReader processStandardOutput = getBufferedReader(process)) {
-                writtenLines = copyVepOutput(processStandardOutput, writer, skipComments);
+            VepOutputCopier copier = new VepOutputCopier(annotationParameters.getVepOutputBufferSize());
+            try (OutputStream output = VepOutputCopier.openCompressedOutput(
+                    vepOutputPath, APPEND, annotationParameters.getVepOutputCompressionLevel(),
+                    annotationParameters.getVepOutputBufferSize());
+                    InputStream processStandardOutput = process.getInputStream()) {
+                writtenLines = copier.copy(processStandardOutput, output, skipComments,
+                                           () -> outputIdleSince.set(System.currentTimeMillis()));
+                logCoordinates(copier.getLastLine(), writtenLines);
                 writingOk.set(true);
             } catch (IOException e) {
                 logger.error("Writing the VEP output to " + vepOutputPath + " failed. ", e);
@@ -150,37 +195,36 @@ public class VepProcess {
         outputCaptureThread.start();
     }
 
+    private void streamOutput(Process process) {
+        writingOk = new AtomicBoolean(false);
+        outputCaptureThread = new Thread(() -> {
+            long parsedLines = 0;
+            try (BufferedReader processStandardOutput = getBufferedReader(process)) {
+                parsedLines = streamVepOutput(processStandardOutput);
+                writingOk.set(true);
+            } catch (IOException | ItemStreamException e) {
+                logger.error("Parsing the VEP output failed. ", e);
+            }
+            logger.trace("Finished parsing VEP output ({} lines parsed)", parsedLines);
+        });
+        logger.trace("Starting parsing VEP output");
+        outputCaptureThread.start();
+    }
+
     private BufferedReader getBufferedReader(Process process) {
         return new BufferedReader(new InputStreamReader(process.getInputStream()));
     }
 
-    private OutputStreamWriter getOutputStreamWriter(String vepOutputPath) throws IOException {
-        return new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(vepOutputPath, APPEND)));
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
     }
 
-    public void write(byte[] bytes) throws IOException {
+    public void write(byte[] bytes, int offset, int length) throws IOException {
         if (!isOpen()) {
             throw new IllegalStateException("Process must be initialized (hint: call open() before write())");
         }
-        tryWithTimeout(() -> {
-            processStandardInput.write(bytes);
-            return null;
-        });
-    }
-
-    private void tryWithTimeout(Callable<Void> callable) {
-        ExecutorService executorService = Executors.newSingleThreadExecutor();
-        Future<Void> future = executorService.submit(callable);
-        try {
-            future.get(timeoutInSeconds, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            throw new ItemStreamException("Error writing to VEP: timeout reached", e);
-        } catch (Exception e) {
-            throw new ItemStreamException("Error writing to VEP", e);
-        } finally {
-            executorService.shutdown();
-            executorService.shutdownNow();
-        }
+        watchdog.write(process, timeoutInSeconds, () -> processStandardInput.write(bytes, offset, length));
+        writeStreamedAnnotations();
     }
 
     public boolean isOpen() {
@@ -191,10 +235,14 @@ public class VepProcess {
         if (!isOpen()) {
             throw new IllegalStateException("Process must be initialized (hint: call open() before flush())");
         }
-        tryWithTimeout(() -> {
-            processStandardInput.flush();
-            return null;
-        });
+        watchdog.write(process, timeoutInSeconds, processStandardInput::flush);
+        writeStreamedAnnotations();
+    }
+
+    private void writeStreamedAnnotations() {
+        if (annotationStreamer != null) {
+            annotationStreamer.writePendingAnnotations();
+        }
     }
 
     /**
@@ -207,20 +255,20 @@ public class VepProcess {
                 flushProcessStdin();
                 waitUntilProcessEnds(timeoutInSeconds);
                 checkExitStatus();
+                deleteEmptyErrorLog();
                 checkOutputWritingStatus();
+                writeStreamedAnnotations();
             } finally {
                 process = null;
                 logger.trace("VEP process finished");
+                watchdog.logCounters();
             }
         }
     }
 
     private void flushProcessStdin() {
         try {
-            tryWithTimeout(() -> {
-                processStandardInput.flush();
-                return null;
-            });
+            watchdog.write(process, timeoutInSeconds, processStandardInput::flush);
             processStandardInput.close();
         } catch (IOException e) {
             logger.error("Could not close stream for VEP's stdin", e);
@@ -233,7 +281,7 @@ public class VepProcess {
             boolean processWroteDuringWait;
             do {
                 long beforeWaiting = System.currentTimeMillis();
-                finished = process.waitFor(timeoutInSeconds, TimeUnit.SECONDS);
+                finished = waitForProcess(timeoutInSeconds);
                 processWroteDuringWait = beforeWaiting < outputIdleSince.get();
                 if (processWroteDuringWait && !finished) {
                     logger.debug("Extending the timeout, as the process wrote more lines (it's still active)");
@@ -252,27 +300,51 @@ public class VepProcess {
         }
     }
 
+    /**
+     * @return whether the process ended before the timeout. Meanwhile, the streamed annotations are written regularly,
+     * so that they don't pile up while VEP annotates the rest of the variants.
+     */
+    private boolean waitForProcess(long timeoutInSeconds) throws InterruptedException {
+        if (annotationStreamer == null) {
+            return process.waitFor(timeoutInSeconds, TimeUnit.SECONDS);
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutInSeconds);
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            if (process.waitFor(Math.min(remaining, STREAMED_ANNOTATIONS_WRITE_INTERVAL_MILLIS),
+                                TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            writeStreamedAnnotations();
+        }
+        return !process.isAlive();
+    }
+
     private void checkExitStatus() {
         int exitValue = process.exitValue();
         if (exitValue != 0) {
             String timestamp = Long.toString(System.currentTimeMillis());
-            String backupVepOutput = annotationParameters.getVepOutput().replaceFirst("tsv\\.gz$",
+            String backupVepOutput = vepOutput.replaceFirst("tsv\\.gz$",
                     timestamp + ".tsv.gz");
 
-            String errorLog = backupVepOutput + ".errors.txt";
-            try {
-                connectStreams(process.getErrorStream(), new FileOutputStream(errorLog));
-            } catch (IOException e) {
-                throw new ItemStreamException("VEP exited with code " + exitValue
-                        + " but the file to dump the errors could not be created: " + errorLog,
-                        e);
+            File backupErrorLog = new File(backupVepOutput + ".errors.txt");
+            if (!errorLog.renameTo(backupErrorLog)) {
+                backupErrorLog = errorLog;
             }
-            boolean renamed = new File(annotationParameters.getVepOutput()).renameTo(new File(backupVepOutput));
+            boolean renamed = new File(vepOutput).renameTo(new File(backupVepOutput));
             if (renamed) {
                 logger.info("Failed VEP output saved to " + backupVepOutput);
             }
             throw new ItemStreamException("Error while running VEP (exit status " + exitValue + "). See "
-                    + errorLog + " for the errors description from VEP.");
+                    + backupErrorLog + " for the errors description from VEP.");
+        }
+    }
+
+    private void deleteEmptyErrorLog() {
+        if (errorLog.length() == 0) {
+            errorLog.delete();
+        } else {
+            logger.warn("VEP finished successfully but wrote some errors or warnings, see {}", errorLog);
         }
     }
 
@@ -293,44 +365,28 @@ public class VepProcess {
     }
 
     /**
-     * Read the whole VEP output from the input stream and write it into the output stream,
-     * logging the coordinates once per chunk.
+     * Read the whole VEP output from the input stream and send every line to the annotation streamer.
      *
      * @param reader must be closed externally
-     * @param writer must be closed externally
-     * @param skipComments if false, will write all lines starting with '#', if true, will not write any.
-     * @return written lines.
+     * @return parsed lines, including the header.
      */
-    private long copyVepOutput(BufferedReader reader, OutputStreamWriter writer, boolean skipComments)
-            throws IOException {
-        long writtenLines = 0;
+    private long streamVepOutput(BufferedReader reader) throws IOException {
+        long parsedLines = 0;
 
-        String line = getNextLine(reader, skipComments);
+        String line = reader.readLine();
         String lastLine = line;
         while (line != null) {
-            writer.write(line);
-            writer.write('\n');
-            writtenLines++;
+            annotationStreamer.addLine(line);
+            parsedLines++;
 
             lastLine = line;
-            line = getNextLine(reader, skipComments);
+            line = reader.readLine();
         }
 
-        writer.flush();
         outputIdleSince.set(System.currentTimeMillis());
-        logCoordinates(lastLine, writtenLines);
+        logCoordinates(lastLine, parsedLines);
 
-        return writtenLines;
-    }
-
-    private String getNextLine(BufferedReader reader, boolean skipComments) throws IOException {
-        String line = reader.readLine();
-        if (skipComments) {
-            while (line != null && isComment(line)) {
-                line = reader.readLine();
-            }
-        }
-        return line;
+        return parsedLines;
     }
 
     private boolean isComment(String line) {
@@ -338,8 +394,10 @@ public class VepProcess {
     }
 
     private void logCoordinates(String line, long chunkSize) {
-        if (chunkSize == 0 || line == null) {
+        if (chunkSize == 0) {
             logger.warn("VEP didn't write any annotations, this might be a symptom of a previous error");
+        } else if (line == null) {
+            logger.trace("VEP wrote {} more lines", chunkSize);
         } else if (isComment(line)) {
             logger.trace("VEP wrote {} more lines (still writing the header)", chunkSize);
         } else {
@@ -348,23 +406,4 @@ public class VepProcess {
         }
     }
 
-    /**
-     * Read the whole input stream and write it into the output stream.
-     * This method blocks until input data is available, the end of the stream is detected, or an exception is thrown.
-     * @return written bytes.
-     */
-    private long connectStreams(InputStream inputStream, OutputStream outputStream) throws IOException {
-        int read = inputStream.read();
-        long written = 0;
-        while (read != -1) {
-            written++;
-            outputStream.write(read);
-            read = inputStream.read();
-        }
-
-        outputStream.close();
-        inputStream.close();
-        return written;
-    }
-
 }
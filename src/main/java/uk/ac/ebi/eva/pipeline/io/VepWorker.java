@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A VEP process that is kept alive to annotate several chunks of variants, one at a time. Owned by a
+ * {@link VepWorkerPool}.
+ * <p>
+ * The input of each chunk must end with marker lines whose identifier column (see {@link VepWorkerPool}) is the
+ * marker of the chunk, so that the first marker line VEP writes tells that every variant of the chunk has been
+ * annotated. The annotations of the marker lines are discarded.
+ */
+class VepWorker {
+    private static final Logger logger = LoggerFactory.getLogger(VepWorker.class);
+
+    private final int id;
+
+    private final List<String> command;
+
+    private final File errorLog;
+
+    private final long timeoutInSeconds;
+
+    private final VepWorkerPool pool;
+
+    private final VepWriteWatchdog watchdog;
+
+    private final VepInputSerializer inputSerializer;
+
+    private Process process;
+
+    private OutputStream processStandardInput;
+
+    private Thread outputCaptureThread;
+
+    private volatile PendingChunk pendingChunk;
+
+    /**
+     * The process whose input was closed by {@link #close()}, the only one whose remaining output doesn't belong to a
+     * chunk that failed and is going to be retried.
+     */
+    private volatile Process closedProcess;
+
+    private volatile long outputIdleSince;
+
+    VepWorker(int id, List<String> command, File errorLog, long timeoutInSeconds, VepWorkerPool pool) {
+        this.id = id;
+        this.command = command;
+        this.errorLog = errorLog;
+        this.timeoutInSeconds = timeoutInSeconds;
+        this.pool = pool;
+        this.watchdog = VepWriteWatchdog.getSharedInstance();
+        this.inputSerializer = new VepInputSerializer();
+    }
+
+    int getId() {
+        return id;
+    }
+
+    /**
+     * @return the buffer to serialize the chunks for this worker, which is reused between chunks
+     */
+    VepInputSerializer getInputSerializer() {
+        return inputSerializer;
+    }
+
+    void start() {
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectError(ProcessBuilder.Redirect.appendTo(errorLog));
+        logger.trace("Starting VEP worker {} with parameters = {}", id, Arrays.toString(command.toArray()));
+        try {
+            process = processBuilder.start();
+        } catch (IOException e) {
+            throw new ItemStreamException("VEP worker " + id + " could not be started", e);
+        }
+        processStandardInput = new BufferedOutputStream(process.getOutputStream());
+        outputIdleSince = System.currentTimeMillis();
+
+        Process startedProcess = process;
+        outputCaptureThread = new Thread(() -> captureOutput(startedProcess), "vep-output-" + id);
+        outputCaptureThread.start();
+    }
+
+    /**
+     * A worker is healthy if its VEP process is running and its output is being read. Any other state means that VEP
+     * crashed or was killed, and the worker has to be restarted before receiving more variants.
+     */
+    boolean isHealthy() {
+        return process != null && process.isAlive() && outputCaptureThread.isAlive();
+    }
+
+    void restart() {
+        kill();
+        start();
+    }
+
+    /**
+     * Sends a chunk to VEP and waits until it has been annotated. The process is killed if it doesn't write anything
+     * during the timeout, and whenever the chunk can't be annotated, so that the partial output of the chunk is
+     * discarded before the chunk is retried.
+     *
+     * @return the header and the annotation lines of the variants in the chunk
+     * @throws ItemStreamException if the process crashed or reached the timeout; the worker must be restarted
+     */
+    ChunkAnnotations annotate(String marker, VepInputSerializer input) throws ItemStreamException {
+        PendingChunk chunk = new PendingChunk(marker);
+        pendingChunk = chunk;
+        outputIdleSince = System.currentTimeMillis();
+        try {
+            watchdog.write(process, timeoutInSeconds, () -> {
+                processStandardInput.write(input.getBuffer(), 0, input.getLength());
+                processStandardInput.flush();
+            });
+            while (!chunk.done.await(timeoutInSeconds, TimeUnit.SECONDS)) {
+                if (!outputCaptureThread.isAlive()) {
+                    break;
+                }
+                if (System.currentTimeMillis() - outputIdleSince > TimeUnit.SECONDS.toMillis(timeoutInSeconds)) {
+                    throw new ItemStreamException("VEP worker " + id + " has been idle for more than the timeout ("
+                                                          + timeoutInSeconds + " seconds). The process has been killed.");
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new ItemStreamException("Interrupted while waiting for VEP worker " + id, e);
+        } finally {
+            if (chunk.annotations == null) {
+                // the output of the chunk has to be read while the chunk is pending, otherwise it would be taken as
+                // the output that VEP writes when its input is closed
+                kill();
+            }
+            pendingChunk = null;
+        }
+
+        if (chunk.annotations == null) {
+            throw new ItemStreamException("VEP worker " + id + " finished before annotating the chunk " + marker
+                                                  + ". See " + errorLog + " for the errors description from VEP.");
+        }
+        return chunk.annotations;
+    }
+
+    private void captureOutput(Process process) {
+        List<String> header = new ArrayList<>();
+        List<String> annotations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                outputIdleSince = System.currentTimeMillis();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.charAt(0) == '#') {
+                    header.add(line);
+                } else if (VepWorkerPool.isMarker(line)) {
+                    PendingChunk chunk = pendingChunk;
+                    if (chunk != null && chunk.isMarkedBy(line)) {
+                        // the rest of the marker lines of this chunk will be ignored
+                        pendingChunk = null;
+                        chunk.complete(new ChunkAnnotations(header, annotations));
+                        header = new ArrayList<>();
+                        annotations = new ArrayList<>();
+                    }
+                } else {
+                    annotations.add(line);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Reading the output of VEP worker " + id + " failed. ", e);
+        }
+
+        if (process == closedProcess && !annotations.isEmpty()) {
+            // VEP may write the last lines when its input is closed
+            pool.addRemainingAnnotations(new ChunkAnnotations(header, annotations));
+        }
+        PendingChunk chunk = pendingChunk;
+        if (chunk != null) {
+            chunk.done.countDown();
+        }
+    }
+
+    /**
+     * Closes the input of VEP and waits for it to finish, while the remaining output is written.
+     */
+    void close() {
+        if (process == null) {
+            return;
+        }
+        try {
+            closedProcess = process;
+            processStandardInput.close();
+            boolean finished = process.waitFor(timeoutInSeconds, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroy();
+                throw new ItemStreamException("VEP worker " + id + " did not finish during the timeout ("
+                                                      + timeoutInSeconds + " seconds). The process has been killed.");
+            }
+            outputCaptureThread.join(TimeUnit.SECONDS.toMillis(timeoutInSeconds));
+            int exitValue = process.exitValue();
+            if (exitValue != 0) {
+                throw new ItemStreamException("Error while running VEP worker " + id + " (exit status " + exitValue
+                                                      + "). See " + errorLog
+                                                      + " for the errors description from VEP.");
+            }
+        } catch (IOException e) {
+            logger.error("Could not close stream for the stdin of VEP worker " + id, e);
+        } catch (InterruptedException e) {
+            throw new ItemStreamException("Interrupted while waiting for VEP worker " + id + " to finish", e);
+        } finally {
+            process = null;
+            if (errorLog.length() == 0) {
+                errorLog.delete();
+            }
+        }
+    }
+
+    private void kill() {
+        if (process != null) {
+            logger.warn("Killing VEP worker {}", id);
+            process.destroyForcibly();
+            try {
+                process.waitFor(timeoutInSeconds, TimeUnit.SECONDS);
+                outputCaptureThread.join(TimeUnit.SECONDS.toMillis(timeoutInSeconds));
+            } catch (InterruptedException e) {
+                throw new ItemStreamException("Interrupted while killing VEP worker " + id, e);
+            } finally {
+                process = null;
+            }
+        }
+    }
+
+    private static class PendingChunk {
+        private final String marker;
+
+        private final CountDownLatch done;
+
+        private volatile ChunkAnnotations annotations;
+
+        PendingChunk(String marker) {
+            this.marker = marker;
+            this.done = new CountDownLatch(1);
+        }
+
+        boolean isMarkedBy(String line) {
+            return line.startsWith(marker) && (line.length() == marker.length() || line.charAt(marker.length()) == '\t');
+        }
+
+        void complete(ChunkAnnotations annotations) {
+            this.annotations = annotations;
+            done.countDown();
+        }
+    }
+
+    static class ChunkAnnotations {
+        private final List<String> header;
+
+        private final List<String> annotations;
+
+        ChunkAnnotations(List<String> header, List<String> annotations) {
+            this.header = header;
+            this.annotations = annotations;
+        }
+
+        List<String> getHeader() {
+            return header;
+        }
+
+        List<String> getAnnotations() {
+            return annotations;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamException;
+
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of long-lived VEP processes (@see <a href="http://www.ensembl.org/info/docs/tools/vep/index.html">VEP</a>).
+ * <p>
+ * Starting VEP requires loading its cache, which may take longer than annotating a chunk, so instead of launching
+ * a {@link VepProcess} per chunk, the workers of this pool are started once and receive chunks through their standard
+ * input, and several chunks can be annotated concurrently by different workers.
+ * <p>
+ * VEP only writes the annotations when it has read a whole buffer of variants, so every chunk is padded with copies
+ * of its last variant up to a multiple of the VEP buffer size, using the identifier column of the ensembl input
+ * format to tag them as the end of the chunk:
+ * {@code
+ * 20	60343	60343	G/A	+
+ * 20	60419	60419	A/G	+
+ * 20	60419	60419	A/G	+	EVA_CHUNK_END_17
+ * }
+ * VEP writes that identifier as the first column of the output, so the annotation of a chunk is finished when the
+ * first marker line is read from the output. Marker lines are not written into the annotation file.
+ * <p>
+ * Before a chunk is sent, the worker is checked and restarted if its process has died; and if the worker crashes or
+ * stays idle for longer than the timeout, the process is restarted and the chunk is sent again, up to
+ * {@link #MAX_ATTEMPTS} times.
+ * <p>
+ * If a {@link VepAnnotationStreamer} is provided, the annotations of every chunk are written into the database instead
+ * of into the output file.
+ */
+public class VepWorkerPool {
+    private static final Logger logger = LoggerFactory.getLogger(VepWorkerPool.class);
+
+    static final String MARKER_PREFIX = "EVA_CHUNK_END_";
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final boolean APPEND = true;
+
+    private final AnnotationParameters annotationParameters;
+
+    private final int chunkSize;
+
+    private final long timeoutInSeconds;
+
+    private final int numWorkers;
+
+    private final String vepOutput;
+
+    private final VepAnnotationStreamer annotationStreamer;
+
+    private final List<VepWorker> workers;
+
+    private final BlockingQueue<VepWorker> idleWorkers;
+
+    private final AtomicLong chunkCount;
+
+    private boolean open;
+
+    private Writer output;
+
+    private boolean headerWritten;
+
+    /**
+     * @param vepOutput file where the annotations are appended
+     */
+    public VepWorkerPool(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
+                         int numWorkers, String vepOutput) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, numWorkers, vepOutput, null);
+    }
+
+    /**
+     * @param vepOutput path used to name the error logs of the workers; no annotations are written there
+     * @param annotationStreamer writes the annotations of every chunk into the database
+     */
+    public VepWorkerPool(AnnotationParameters annotationParameters, int chunkSize, Long timeoutInSeconds,
+                         int numWorkers, String vepOutput, VepAnnotationStreamer annotationStreamer) {
+        if (timeoutInSeconds <= 0) {
+            throw new IllegalArgumentException(
+                    "timeout (" + timeoutInSeconds + " seconds) must be strictly greater than 0");
+        }
+        if (numWorkers <= 0) {
+            throw new IllegalArgumentException("number of workers (" + numWorkers + ") must be greater than 0");
+        }
+        this.annotationParameters = annotationParameters;
+        this.chunkSize = chunkSize;
+        this.timeoutInSeconds = timeoutInSeconds;
+        this.numWorkers = numWorkers;
+        this.vepOutput = vepOutput;
+        this.annotationStreamer = annotationStreamer;
+        this.workers = new ArrayList<>(numWorkers);
+        this.idleWorkers = new LinkedBlockingQueue<>();
+        this.chunkCount = new AtomicLong(0);
+    }
+
+    public void open() throws ItemStreamException {
+        if (annotationStreamer == null) {
+            openOutput();
+        }
+
+        // one extra line per buffer guarantees that every chunk ends with at least one marker
+        List<String> command = VepProcess.buildCommand(annotationParameters, chunkSize + 1);
+        for (int i = 0; i < numWorkers; i++) {
+            VepWorker worker = new VepWorker(i, command, new File(vepOutput + ".worker" + i + ".errors.txt"),
+                                             timeoutInSeconds, this);
+            worker.start();
+            workers.add(worker);
+            idleWorkers.add(worker);
+        }
+        open = true;
+        logger.info("Started {} VEP workers", numWorkers);
+    }
+
+    private void openOutput() {
+        // if vepOutput exists, the header (the comments) is already written, and the header should appear only once
+        headerWritten = new File(vepOutput).exists();
+        try {
+            output = new OutputStreamWriter(VepOutputCopier.openCompressedOutput(
+                    vepOutput, APPEND, annotationParameters.getVepOutputCompressionLevel(),
+                    annotationParameters.getVepOutputBufferSize()));
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not open the VEP output file " + vepOutput, e);
+        }
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Annotates the variants with the first idle worker, and blocks until the annotations are written. Can be called
+     * concurrently, and at most as many chunks as workers will be annotated at the same time.
+     */
+    public void annotate(List<? extends EnsemblVariant> variants) throws ItemStreamException {
+        if (!isOpen()) {
+            throw new IllegalStateException("Pool must be initialized (hint: call open() before annotate())");
+        }
+        if (variants.isEmpty()) {
+            return;
+        }
+        String marker = MARKER_PREFIX + chunkCount.incrementAndGet();
+
+        VepWorker.ChunkAnnotations chunkAnnotations = annotateWithIdleWorker(variants, marker);
+        writeAnnotations(chunkAnnotations);
+    }
+
+    private VepWorker.ChunkAnnotations annotateWithIdleWorker(List<? extends EnsemblVariant> variants, String marker) {
+        VepWorker worker = takeIdleWorker();
+        try {
+            VepInputSerializer input = worker.getInputSerializer();
+            serializeChunk(input, variants, marker);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (!worker.isHealthy()) {
+                        logger.warn("VEP worker {} is not running, restarting it", worker.getId());
+                        worker.restart();
+                    }
+                    VepWorker.ChunkAnnotations chunkAnnotations = worker.annotate(marker, input);
+                    logger.trace("VEP worker {} annotated {} variants", worker.getId(), variants.size());
+                    return chunkAnnotations;
+                } catch (ItemStreamException e) {
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw new ItemStreamException("VEP could not annotate a chunk of " + variants.size()
+                                                              + " variants after " + attempt + " attempts", e);
+                    }
+                    logger.warn("VEP worker " + worker.getId() + " failed, restarting it and retrying the chunk", e);
+                    worker.restart();
+                }
+            }
+        } finally {
+            idleWorkers.add(worker);
+        }
+    }
+
+    private VepWorker takeIdleWorker() {
+        try {
+            return idleWorkers.take();
+        } catch (InterruptedException e) {
+            throw new ItemStreamException("Interrupted while waiting for an idle VEP worker", e);
+        }
+    }
+
+    private void serializeChunk(VepInputSerializer input, List<? extends EnsemblVariant> variants, String marker) {
+        int bufferSize = chunkSize + 1;
+        int markers = bufferSize - (variants.size() % bufferSize);
+        EnsemblVariant last = variants.get(variants.size() - 1);
+
+        input.serialize(variants);
+        for (int i = 0; i < markers; i++) {
+            input.append(last, marker);
+        }
+    }
+
+    static boolean isMarker(String line) {
+        return line.startsWith(MARKER_PREFIX);
+    }
+
+    /**
+     * Writes the annotations of a chunk. Must be called from a thread of the step, as the annotation writers of the
+     * streamer are step scoped.
+     */
+    private void writeAnnotations(VepWorker.ChunkAnnotations chunkAnnotations) {
+        if (annotationStreamer != null) {
+            annotationStreamer.writeLines(chunkAnnotations.getAnnotations());
+        } else {
+            writeToOutput(chunkAnnotations);
+        }
+    }
+
+    /**
+     * Keeps the annotations that a worker wrote when its input was closed, which don't belong to a chunk. Called from
+     * the thread that reads the output of the worker.
+     */
+    void addRemainingAnnotations(VepWorker.ChunkAnnotations chunkAnnotations) {
+        if (annotationStreamer != null) {
+            chunkAnnotations.getAnnotations().forEach(annotationStreamer::addLine);
+        } else {
+            writeToOutput(chunkAnnotations);
+        }
+    }
+
+    private synchronized void writeToOutput(VepWorker.ChunkAnnotations chunkAnnotations) {
+        try {
+            if (!headerWritten && !chunkAnnotations.getHeader().isEmpty()) {
+                writeLines(chunkAnnotations.getHeader());
+                headerWritten = true;
+            }
+            writeLines(chunkAnnotations.getAnnotations());
+            output.flush();
+        } catch (IOException e) {
+            throw new ItemStreamException("Writing the VEP output to " + vepOutput
+                                                  + " failed. ", e);
+        }
+    }
+
+    private void writeLines(List<String> lines) throws IOException {
+        for (String line : lines) {
+            output.write(line);
+            output.write('\n');
+        }
+    }
+
+    /**
+     * Stops all the workers and closes the output file. It is safe to call this method several times; it's
+     * idempotent.
+     */
+    public void close() throws ItemStreamException {
+        if (!isOpen()) {
+            return;
+        }
+        ItemStreamException firstError = null;
+        try {
+            for (VepWorker worker : workers) {
+                try {
+                    worker.close();
+                } catch (ItemStreamException e) {
+                    logger.error("VEP worker " + worker.getId() + " could not finish properly", e);
+                    if (firstError == null) {
+                        firstError = e;
+                    }
+                }
+            }
+            if (annotationStreamer != null) {
+                annotationStreamer.writePendingAnnotations();
+                annotationStreamer.logCounters();
+            } else {
+                synchronized (this) {
+                    output.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not close the VEP output file " + vepOutput, e);
+        } finally {
+            open = false;
+            output = null;
+            workers.clear();
+            idleWorkers.clear();
+        }
+        if (firstError != null) {
+            throw firstError;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces a timeout on the writes to the standard input of VEP processes.
+ * <p>
+ * The writes run in the calling thread, and a single timer thread shared by all the processes kills the VEP process
+ * whose write is blocked for longer than the timeout, which makes the write fail. Killing the process is the only way
+ * to unblock a write into a pipe.
+ * <p>
+ * The number of writes, the number of timeouts and the time the writes were blocked are counted, to help choosing
+ * the timeout and the chunk size.
+ */
+public class VepWriteWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(VepWriteWatchdog.class);
+
+    private static final VepWriteWatchdog sharedInstance = new VepWriteWatchdog();
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final AtomicLong writes;
+
+    private final AtomicLong timeouts;
+
+    private final AtomicLong blockedNanos;
+
+    private final AtomicLong maxBlockedNanos;
+
+    @FunctionalInterface
+    public interface Write {
+        void run() throws IOException;
+    }
+
+    public VepWriteWatchdog() {
+        timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "vep-write-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        writes = new AtomicLong(0);
+        timeouts = new AtomicLong(0);
+        blockedNanos = new AtomicLong(0);
+        maxBlockedNanos = new AtomicLong(0);
+    }
+
+    public static VepWriteWatchdog getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Runs the write in the current thread, killing the process if the write doesn't finish in time.
+     *
+     * @throws ItemStreamException if the timeout was reached or the write failed
+     */
+    public void write(Process process, long timeoutInSeconds, Write write) throws ItemStreamException {
+        AtomicBoolean timedOut = new AtomicBoolean(false);
+        ScheduledFuture<?> alarm = timer.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, timeoutInSeconds, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        try {
+            write.run();
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                timeouts.incrementAndGet();
+                throw new ItemStreamException("Error writing to VEP: timeout reached", e);
+            }
+            throw new ItemStreamException("Error writing to VEP", e);
+        } finally {
+            alarm.cancel(false);
+            long blocked = System.nanoTime() - start;
+            writes.incrementAndGet();
+            blockedNanos.addAndGet(blocked);
+            maxBlockedNanos.accumulateAndGet(blocked, Math::max);
+        }
+
+        if (timedOut.get()) {
+            // the write finished just when the process was being killed
+            timeouts.incrementAndGet();
+            throw new ItemStreamException("Error writing to VEP: timeout reached");
+        }
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(blockedNanos.get());
+    }
+
+    public long getMaxBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxBlockedNanos.get());
+    }
+
+    public void logCounters() {
+        logger.debug("VEP input: {} writes, {} timeouts, blocked for {} ms in total and {} ms at most in a write",
+                     getWrites(), getTimeouts(), getBlockedMillis(), getMaxBlockedMillis());
+    }
+}
@@ -42,6 +42,11 @@ public class AggregatedVcfLineMapper implements LineMapper<List<Variant>> {
 
     public AggregatedVcfLineMapper(String fileId, String studyId, VariantSource.Aggregation aggregation,
                                    String mappingFilePath) throws IOException {
+        this(fileId, studyId, aggregation, mappingFilePath, SourceLinePolicy.FIRST_8_COLUMNS);
+    }
+
+    public AggregatedVcfLineMapper(String fileId, String studyId, VariantSource.Aggregation aggregation,
+                                   String mappingFilePath, SourceLinePolicy sourceLinePolicy) throws IOException {
         Assert.notNull(fileId);
         Assert.notNull(studyId);
         Assert.notNull(aggregation);
@@ -69,6 +74,7 @@ public class AggregatedVcfLineMapper implements LineMapper<List<Variant>> {
                         this.getClass().getSimpleName() + " should be used to read aggregated VCFs only, " +
                                 "but the VariantSource.Aggregation is set to NONE");
         }
+        factory.setSourceLinePolicy(sourceLinePolicy);
     }
 
     @Override
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+/**
+ * What is kept of the VCF line of every variant, as its "src" attribute.
+ */
+public enum SourceLinePolicy {
+
+    /**
+     * The source line is not stored
+     */
+    NONE,
+
+    /**
+     * Only the first 8 columns are stored, without the FORMAT and sample columns. All the variants split from a
+     * multiallelic line share the same string.
+     */
+    FIRST_8_COLUMNS;
+
+    /**
+     * @param fields the tokenized line
+     * @return the part of the line to store, or null if nothing has to be stored
+     */
+    String getSourceLine(VcfLineTokenizer fields, String line) {
+        switch (this) {
+            case NONE:
+                return null;
+            case FIRST_8_COLUMNS:
+                if (fields.getNumFields() > 8) {
+                    return line.substring(0, fields.getFieldEnd(7));
+                }
+                return line;
+            default:
+                throw new IllegalStateException("Unknown source line policy " + this);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package uk.ac.ebi.eva.pipeline.io.mappers;
 import org.opencb.biodata.models.feature.Genotype;
 import org.opencb.biodata.models.variant.exceptions.NonStandardCompliantSampleField;
 
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
 import uk.ac.ebi.eva.commons.models.data.VariantStats;
@@ -109,10 +110,11 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
     }
 
     @Override
-    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, String[] fields,
-                                        String[] alternateAlleles, String[] secondaryAlternates, int alternateAlleleIdx)
+    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, VcfLineTokenizer fields,
+                                        String[] alternateAlleles, String[] secondaryAlternates, int alternateAlleleIdx,
+                                        SamplesData firstAlternateSamplesData)
             throws NonStandardCompliantSampleField {
-        if (fields.length > 8) {
+        if (fields.getNumFields() > 8) {
             throw new IllegalArgumentException("Aggregated VCFs should not have column FORMAT nor " +
                     "further sample columns, i.e. there should be only 8 columns");
         }
@@ -121,7 +123,7 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
     @Override
     protected void setOtherFields(Variant variant, String fileId, String studyId, Set<String> ids, float quality,
                                   String filter, String info, String format, int numAllele, String[] alternateAlleles,
-                                  String line) {
+                                  String sourceLine) {
         // Fields not affected by the structure of REF and ALT fields
         variant.setIds(ids);
         VariantSourceEntry sourceEntry = variant.getSourceEntry(fileId, studyId);
@@ -135,7 +137,9 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
             parseInfo(variant, fileId, studyId, info, numAllele);
         }
         sourceEntry.setFormat(format);
-        sourceEntry.addAttribute("src", line);
+        if (sourceLine != null) {
+            sourceEntry.addAttribute("src", sourceLine);
+        }
 
 
         if (tagMap == null) {
@@ -150,13 +154,11 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
         VariantSourceEntry file = variant.getSourceEntry(fileId, studyId);
         VariantStats vs = new VariantStats(variant);
         Map<String, String> stats = new LinkedHashMap<>();
-        String[] splittedInfo = info.split(";");
-        for (String attribute : splittedInfo) {
-            String[] assignment = attribute.split("=");
-
-            if (assignment.length == 2 && (assignment[0].equals("AC") || assignment[0].equals("AN")
-                    || assignment[0].equals("AF") || assignment[0].equals("GTC") || assignment[0].equals("GTS"))) {
-                stats.put(assignment[0], assignment[1]);
+        VcfLineTokenizer.InfoEntries entries = new VcfLineTokenizer.InfoEntries(info);
+        while (entries.next()) {
+            if (entries.hasValue() && (entries.keyEquals("AC") || entries.keyEquals("AN") || entries.keyEquals("AF")
+                    || entries.keyEquals("GTC") || entries.keyEquals("GTS"))) {
+                stats.put(entries.getKey(), entries.getValue());
             }
         }
 
@@ -170,12 +172,10 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
         VariantSourceEntry file = variant.getSourceEntry(fileId, studyId);
         Map<String, Map<String, String>> cohortStats = new LinkedHashMap<>();
         // cohortName -> (statsName -> statsValue): EUR->(AC->3,2)
-        String[] splittedInfo = info.split(";");
-        for (String attribute : splittedInfo) {
-            String[] assignment = attribute.split("=");
-
-            if (assignment.length == 2 && reverseTagMap.containsKey(assignment[0])) {
-                String opencgaTag = reverseTagMap.get(assignment[0]);
+        VcfLineTokenizer.InfoEntries entries = new VcfLineTokenizer.InfoEntries(info);
+        while (entries.next()) {
+            String opencgaTag = entries.hasValue() ? reverseTagMap.get(entries.getKey()) : null;
+            if (opencgaTag != null) {
                 String[] tagSplit = opencgaTag.split("\\.");
                 String cohortName = tagSplit[0];
                 String statName = tagSplit[1];
@@ -184,7 +184,7 @@ public class VariantAggregatedVcfFactory extends VariantVcfFactory {
                     parsedValues = new LinkedHashMap<>();
                     cohortStats.put(cohortName, parsedValues);
                 }
-                parsedValues.put(statName, assignment[1]);
+                parsedValues.put(statName, entries.getValue());
             }
         }
 
@@ -74,7 +74,7 @@ public class VariantVcfEVSFactory extends VariantAggregatedVcfFactory {
     @Override
     protected void setOtherFields(Variant variant, String fileId, String studyId, Set<String> ids, float quality,
                                   String filter, String info, String format, int numAllele, String[] alternateAlleles,
-                                  String line) {
+                                  String sourceLine) {
         // Fields not affected by the structure of REF and ALT fields
         variant.setIds(ids);
         VariantSourceEntry sourceEntry = variant.getSourceEntry(fileId, studyId);
@@ -88,7 +88,9 @@ public class VariantVcfEVSFactory extends VariantAggregatedVcfFactory {
             parseInfo(variant, fileId, studyId, info, numAllele);
         }
         sourceEntry.setFormat(format);
-        sourceEntry.addAttribute("src", line);
+        if (sourceLine != null) {
+            sourceEntry.addAttribute("src", sourceLine);
+        }
 
 
         if (tagMap == null) {   // whether we can parse population stats or not
@@ -133,15 +133,14 @@ public class VariantVcfExacFactory extends VariantAggregatedVcfFactory {
     protected void parseCohortStats(Variant variant, String fileId, String studyId, int numAllele, String[] alternateAlleles,
                                     String info) {
         VariantSourceEntry sourceEntry = variant.getSourceEntry(fileId, studyId);
-        String[] attributes = info.split(";");
         Map<String, Integer> ans = new LinkedHashMap<>();
         Map<String, String[]> acs = new LinkedHashMap<>();
-        for (String attribute : attributes) {
-            String[] equalSplit = attribute.split("=");
-            if (equalSplit.length == 2) {
-                String mappedTag = reverseTagMap.get(equalSplit[0]);
-                String[] values = equalSplit[1].split(COMMA);
+        VcfLineTokenizer.InfoEntries entries = new VcfLineTokenizer.InfoEntries(info);
+        while (entries.next()) {
+            if (entries.hasValue()) {
+                String mappedTag = reverseTagMap.get(entries.getKey());
                 if (mappedTag != null) {
+                    String[] values = entries.getValues().toArray();
                     String[] opencgaTagSplit = mappedTag.split("\\.");   // a literal dot
                     String cohortName = opencgaTagSplit[0];
                     VariantStats cohortStats = sourceEntry.getCohortStats(cohortName);
@@ -22,6 +22,8 @@ import org.opencb.biodata.models.variant.VariantFactory;
 import org.opencb.biodata.models.variant.exceptions.NonStandardCompliantSampleField;
 import org.opencb.biodata.models.variant.exceptions.NotAVariantException;
 
+import uk.ac.ebi.eva.commons.models.data.GenotypeTable;
+import uk.ac.ebi.eva.commons.models.data.SamplesData;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
 
@@ -30,9 +32,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,6 +43,16 @@ import static java.lang.Math.max;
  */
 public class VariantVcfFactory {
 
+    private SourceLinePolicy sourceLinePolicy = SourceLinePolicy.FIRST_8_COLUMNS;
+
+    /**
+     * @param sourceLinePolicy what is stored of every line as the "src" attribute of its variants, by default the first
+     * 8 columns
+     */
+    public void setSourceLinePolicy(SourceLinePolicy sourceLinePolicy) {
+        this.sourceLinePolicy = sourceLinePolicy;
+    }
+
     /**
      * Creates a list of Variant objects using the fields in a record of a VCF
      * file. A new Variant object is created per allele, so several of them can
@@ -59,8 +69,8 @@ public class VariantVcfFactory {
      */
     public List<Variant> create(String fileId, String studyId,
                                 String line) throws IllegalArgumentException, NotAVariantException {
-        String[] fields = line.split("\t");
-        if (fields.length < 8) {
+        VcfLineTokenizer fields = new VcfLineTokenizer(line);
+        if (fields.getNumFields() < 8) {
             throw new IllegalArgumentException("Not enough fields provided (min 8)");
         }
 
@@ -73,11 +83,14 @@ public class VariantVcfFactory {
         String filter = getFilter(fields);
         String info = getInfo(fields);
         String format = getFormat(fields);
+        String sourceLine = sourceLinePolicy.getSourceLine(fields, line);
 
         List<VariantKeyFields> generatedKeyFields = buildVariantKeyFields(chromosome, position, reference,
                 alternateAlleles);
 
         List<Variant> variants = new LinkedList<>();
+        // The samples are only parsed for the first alternate, and copied for the rest
+        SamplesData firstAlternateSamplesData = null;
         // Now create all the Variant objects read from the VCF record
         for (int altAlleleIdx = 0; altAlleleIdx < alternateAlleles.length; altAlleleIdx++) {
             VariantKeyFields keyFields = generatedKeyFields.get(altAlleleIdx);
@@ -88,10 +101,14 @@ public class VariantVcfFactory {
             variant.addSourceEntry(file);
 
             try {
-                parseSplitSampleData(variant, fileId, studyId, fields, alternateAlleles, secondaryAlternates, altAlleleIdx);
+                parseSplitSampleData(variant, fileId, studyId, fields, alternateAlleles, secondaryAlternates, altAlleleIdx,
+                                     firstAlternateSamplesData);
+                if (altAlleleIdx == 0) {
+                    firstAlternateSamplesData = file.getSamplesData();
+                }
                 // Fill the rest of fields (after samples because INFO depends on them)
                 setOtherFields(variant, fileId, studyId, ids, quality, filter, info, format, keyFields.getNumAllele(),
-                               alternateAlleles, line);
+                               alternateAlleles, sourceLine);
                 variants.add(variant);
             } catch (NonStandardCompliantSampleField ex) {
                 Logger.getLogger(VariantFactory.class.getName())
@@ -108,51 +125,49 @@ public class VariantVcfFactory {
      * Replace "chr" references only at the beginning of the chromosome name.
      * For instance, tomato has SL2.40ch00 and that should be kept that way
      */
-    private String getChromosomeWithoutPrefix(String[] fields) {
-        String chromosome = fields[0];
-        boolean ignoreCase = true;
-        int startOffset = 0;
+    private String getChromosomeWithoutPrefix(VcfLineTokenizer fields) {
         String prefixToRemove = "chr";
-        if (chromosome.regionMatches(ignoreCase, startOffset, prefixToRemove, startOffset, prefixToRemove.length())) {
-            return chromosome.substring(prefixToRemove.length());
+        if (fields.fieldStartsWithIgnoreCase(0, prefixToRemove)) {
+            return fields.substring(fields.getFieldStart(0) + prefixToRemove.length(), fields.getFieldEnd(0));
         }
-        return chromosome;
+        return fields.getField(0);
     }
 
-    private int getPosition(String[] fields) {
-        return Integer.parseInt(fields[1]);
+    private int getPosition(VcfLineTokenizer fields) {
+        return fields.getIntField(1);
     }
 
-    private Set<String> getIds(String[] fields) {
+    private Set<String> getIds(VcfLineTokenizer fields) {
         Set<String> ids = new HashSet<>();
-        if (!fields[2].equals(".")) {    // note!: we store a "." as an empty set, not a set with an empty string
-            ids.addAll(Arrays.asList(fields[2].split(";")));
+        if (!fields.fieldEquals(2, ".")) {    // note!: we store a "." as an empty set, not a set with an empty string
+            ids.addAll(Arrays.asList(fields.getSubfields(2, VcfLineTokenizer.INFO_FIELD_SEPARATOR).toArray()));
         }
         return ids;
     }
 
-    private String getReference(String[] fields) {
-        return fields[3].equals(".") ? "" : fields[3];
+    private String getReference(VcfLineTokenizer fields) {
+        return fields.fieldEquals(3, ".") ? "" : fields.getField(3);
     }
 
-    private String[] getAlternateAlleles(String[] fields, String chromosome, int position, String reference) {
-        return fields[4].split(",");
+    private String[] getAlternateAlleles(VcfLineTokenizer fields, String chromosome, int position,
+                                         String reference) {
+        return fields.getSubfields(4, VcfLineTokenizer.VALUE_SEPARATOR).toArray();
     }
 
-    private float getQuality(String[] fields) {
-        return fields[5].equals(".") ? -1 : Float.parseFloat(fields[5]);
+    private float getQuality(VcfLineTokenizer fields) {
+        return fields.fieldEquals(5, ".") ? -1 : Float.parseFloat(fields.getField(5));
     }
 
-    private String getFilter(String[] fields) {
-        return fields[6].equals(".") ? "" : fields[6];
+    private String getFilter(VcfLineTokenizer fields) {
+        return fields.fieldEquals(6, ".") ? "" : fields.getField(6);
     }
 
-    private String getInfo(String[] fields) {
-        return fields[7].equals(".") ? "" : fields[7];
+    private String getInfo(VcfLineTokenizer fields) {
+        return fields.fieldEquals(7, ".") ? "" : fields.getField(7);
     }
 
-    private String getFormat(String[] fields) {
-        return (fields.length <= 8 || fields[8].equals(".")) ? "" : fields[8];
+    private String getFormat(VcfLineTokenizer fields) {
+        return (fields.getNumFields() <= 8 || fields.fieldEquals(8, ".")) ? "" : fields.getField(8);
     }
 
     private List<VariantKeyFields> buildVariantKeyFields(String chromosome, int position, String reference,
@@ -223,28 +238,54 @@ public class VariantVcfFactory {
         return secondaryAlternates;
     }
 
-    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, String[] fields,
+    /**
+     * Adds the data of every sample. Only the values of the samples are materialised as Strings; the columns are read
+     * as ranges of the line, and the values are stored by columns in the {@link SamplesData} of the entry.
+     * <p>
+     * The samples of the other alternates of a multiallelic line are not parsed again: the data of the first alternate
+     * is copied, changing only the allele indexes of each distinct genotype.
+     *
+     * @param firstAlternateSamplesData data of the samples already parsed for the first alternate of the line, or null
+     * if this is the first alternate
+     */
+    protected void parseSplitSampleData(Variant variant, String fileId, String studyId, VcfLineTokenizer fields,
                                         String[] alternateAlleles, String[] secondaryAlternates,
-                                        int alternateAlleleIdx) throws NonStandardCompliantSampleField {
-        String[] formatFields = variant.getSourceEntry(fileId, studyId).getFormat().split(":");
+                                        int alternateAlleleIdx, SamplesData firstAlternateSamplesData)
+            throws NonStandardCompliantSampleField {
+        VariantSourceEntry sourceEntry = variant.getSourceEntry(fileId, studyId);
+        if (firstAlternateSamplesData != null) {
+            sourceEntry.setSamplesData(firstAlternateSamplesData.copyWithGenotypes(
+                    genotype -> processGenotypeField(alternateAlleleIdx, genotype)));
+            return;
+        }
 
-        for (int i = 9; i < fields.length; i++) {
-            Map<String, String> map = new TreeMap<>();
+        SamplesData samplesData = sourceEntry.getSamplesData();
+        String[] formatFields = new VcfLineTokenizer.Subfields(sourceEntry.getFormat(),
+                                                               VcfLineTokenizer.SAMPLE_FIELD_SEPARATOR).toArray();
+        int[] keyIndexes = new int[formatFields.length];
+        for (int j = 0; j < formatFields.length; j++) {
+            keyIndexes[j] = samplesData.addKey(formatFields[j]);
+        }
 
-            // Fill map of a sample
-            String[] sampleFields = fields[i].split(":");
+        for (int i = 9; i < fields.getNumFields(); i++) {
+            int sampleIndex = samplesData.addSample();
+            VcfLineTokenizer.Subfields sampleFields = fields.getSubfields(i, VcfLineTokenizer.SAMPLE_FIELD_SEPARATOR);
 
             // Samples may remove the trailing fields (only GT is mandatory),
-            // so the loop iterates to sampleFields.length, not formatFields.length
-            for (int j = 0; j < sampleFields.length; j++) {
+            // so the loop iterates to the number of sample fields, not formatFields.length
+            for (int j = 0; sampleFields.next(); j++) {
                 String formatField = formatFields[j];
-                String sampleField = processSampleField(alternateAlleleIdx, formatField, sampleFields[j]);
+                String sampleField;
+                if (alternateAlleleIdx == 0 && formatField.equalsIgnoreCase("GT")) {
+                    // the genotypes of the first alternate are not changed, so they are looked up in the line
+                    sampleField = GenotypeTable.getGenotype(fields.getLine(), sampleFields.getStart(),
+                                                            sampleFields.getEnd());
+                } else {
+                    sampleField = processSampleField(alternateAlleleIdx, formatField, sampleFields.getValue());
+                }
 
-                map.put(formatField, sampleField);
+                samplesData.setValue(sampleIndex, keyIndexes[j], sampleField);
             }
-
-            // Add sample to the variant entry in the source file
-            variant.getSourceEntry(fileId, studyId).addSampleData(map);
         }
     }
 
@@ -266,19 +307,20 @@ public class VariantVcfFactory {
     }
 
     /**
-     * Intern the genotype String into the String pool to avoid storing lots of "0/0". In case that the variant is
-     * multiallelic and we are currently processing one of the secondary alternates (T is the only secondary alternate
-     * in a variant like A -> C,T), change the allele codes to represent the current alternate as allele 1. For details
-     * on changing this indexes, see {@link VariantVcfFactory#mapToMultiallelicIndex(int, int)}
+     * Take the genotype String from the {@link GenotypeTable}, or intern it into the String pool if it is not there,
+     * to avoid storing lots of "0/0". In case that the variant is multiallelic and we are currently processing one of
+     * the secondary alternates (T is the only secondary alternate in a variant like A -> C,T), change the allele codes
+     * to represent the current alternate as allele 1. For details on changing this indexes, see
+     * {@link VariantVcfFactory#mapToMultiallelicIndex(int, int)}
      *
      * @param alternateAlleleIdx current alternate being processed. 0 for first alternate, 1 or more for a secondary alternate.
      * @param genotype first field in the samples column, e.g. "0/0"
-     * @return the processed genotype string, as described above (interned and changed if multiallelic).
+     * @return the processed genotype string, as described above (canonical and changed if multiallelic).
      */
     private String processGenotypeField(int alternateAlleleIdx, String genotype) {
         boolean isNotTheFirstAlternate = alternateAlleleIdx >= 1;
         if (isNotTheFirstAlternate) {
-            Genotype parsedGenotype = new Genotype(genotype);
+            Genotype parsedGenotype = GenotypeTable.getParsedGenotype(genotype);
 
             StringBuilder genotypeStr = new StringBuilder();
             for (int allele : parsedGenotype.getAllelesIdx()) {
@@ -293,11 +335,12 @@ public class VariantVcfFactory {
             genotype = genotypeStr.substring(0, genotypeStr.length() - 1);
         }
 
-        return genotype.intern();
+        return GenotypeTable.getGenotype(genotype);
     }
 
     protected void setOtherFields(Variant variant, String fileId, String studyId, Set<String> ids, float quality, String filter,
-                                  String info, String format, int numAllele, String[] alternateAlleles, String line) {
+                                  String info, String format, int numAllele, String[] alternateAlleles,
+                                  String sourceLine) {
         // Fields not affected by the structure of REF and ALT fields
         variant.setIds(ids);
 
@@ -311,55 +354,55 @@ public class VariantVcfFactory {
         if (!info.isEmpty()) {
             parseInfo(variant, fileId, studyId, info, numAllele);
         }
-        variant.getSourceEntry(fileId, studyId).addAttribute("src", line);
+        if (sourceLine != null) {
+            variant.getSourceEntry(fileId, studyId).addAttribute("src", sourceLine);
+        }
     }
 
     protected void parseInfo(Variant variant, String fileId, String studyId, String info, int numAllele) {
         VariantSourceEntry file = variant.getSourceEntry(fileId, studyId);
 
-        for (String var : info.split(";")) {
-            String[] splits = var.split("=");
-            if (splits.length == 2) {
-                switch (splits[0]) {
+        VcfLineTokenizer.InfoEntries entries = new VcfLineTokenizer.InfoEntries(info);
+        while (entries.next()) {
+            String key = entries.getKey();
+            if (entries.hasValue()) {
+                switch (key) {
                     case "ACC":
                         // Managing accession ID for the allele
-                        String[] ids = splits[1].split(",");
-                        file.addAttribute(splits[0], ids[numAllele]);
+                        file.addAttribute(key, entries.getValues().get(numAllele));
                         break;
                     case "AC":
                         // TODO For now, only one alternate is supported
-                        String[] counts = splits[1].split(",");
-                        file.addAttribute(splits[0], counts[numAllele]);
+                        file.addAttribute(key, entries.getValues().get(numAllele));
                         break;
                     case "AF":
                         // TODO For now, only one alternate is supported
-                        String[] frequencies = splits[1].split(",");
-                        file.addAttribute(splits[0], frequencies[numAllele]);
+                        file.addAttribute(key, entries.getValues().get(numAllele));
                         break;
 //                    case "AN":
 //                        // TODO For now, only two alleles (reference and one alternate) are supported, but this should be changed
-//                        file.addAttribute(splits[0], "2");
+//                        file.addAttribute(key, "2");
 //                        break;
                     case "NS":
                         // Count the number of samples that are associated with the allele
-                        file.addAttribute(splits[0], String.valueOf(file.getSamplesData().size()));
+                        file.addAttribute(key, String.valueOf(file.getSamplesData().size()));
                         break;
                     case "DP":
                         int dp = 0;
-                        for (Map<String, String> sampleData : file.getSamplesData()) {
-                            String sampleDp = sampleData.get("DP");
+                        for (int i = 0; i < file.getSamplesData().size(); i++) {
+                            String sampleDp = file.getSamplesData().getValue(i, "DP");
                             if (StringUtils.isNumeric(sampleDp)) {
                                 dp += Integer.parseInt(sampleDp);
                             }
                         }
-                        file.addAttribute(splits[0], String.valueOf(dp));
+                        file.addAttribute(key, String.valueOf(dp));
                         break;
                     case "MQ":
                     case "MQ0":
                         int mq = 0;
                         int mq0 = 0;
-                        for (Map<String, String> sampleData : file.getSamplesData()) {
-                            String sampleGq = sampleData.get("GQ");
+                        for (int i = 0; i < file.getSamplesData().size(); i++) {
+                            String sampleGq = file.getSamplesData().getValue(i, "GQ");
                             if (StringUtils.isNumeric(sampleGq)) {
                                 int gq = Integer.parseInt(sampleGq);
                                 mq += gq * gq;
@@ -372,11 +415,11 @@ public class VariantVcfFactory {
                         file.addAttribute("MQ0", String.valueOf(mq0));
                         break;
                     default:
-                        file.addAttribute(splits[0], splits[1]);
+                        file.addAttribute(key, entries.getValue());
                         break;
                 }
             } else {
-                variant.getSourceEntry(fileId, studyId).addAttribute(splits[0], "");
+                file.addAttribute(key, "");
             }
         }
     }
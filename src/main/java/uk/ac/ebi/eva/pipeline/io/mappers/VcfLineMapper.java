@@ -34,9 +34,14 @@ public class VcfLineMapper implements LineMapper<List<Variant>> {
     private final VariantVcfFactory factory;
 
     public VcfLineMapper(String fileId, String studyId) {
+        this(fileId, studyId, SourceLinePolicy.FIRST_8_COLUMNS);
+    }
+
+    public VcfLineMapper(String fileId, String studyId, SourceLinePolicy sourceLinePolicy) {
         this.fileId = fileId;
         this.studyId = studyId;
         this.factory = new VariantVcfFactory();
+        this.factory.setSourceLinePolicy(sourceLinePolicy);
     }
 
     @Override
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits a VCF line into its tab-separated fields with a single scan, keeping only the offsets of every field.
+ * <p>
+ * Fields, and the subfields separated by ':', ';', '=' or ',' inside them, are accessed as ranges of the line, so
+ * Strings are only created for the values that have to be stored. Empty trailing fields and subfields are ignored,
+ * as {@link String#split(String)} does, so the result is the same as splitting the line.
+ */
+public class VcfLineTokenizer {
+
+    public static final char FIELD_SEPARATOR = '\t';
+
+    public static final char SAMPLE_FIELD_SEPARATOR = ':';
+
+    public static final char INFO_FIELD_SEPARATOR = ';';
+
+    public static final char KEY_VALUE_SEPARATOR = '=';
+
+    public static final char VALUE_SEPARATOR = ',';
+
+    private static final int INITIAL_NUMBER_OF_FIELDS = 16;
+
+    private static final int MAX_DIGITS_WITHOUT_OVERFLOW = 9;
+
+    private final CharSequence line;
+
+    /**
+     * Position of the separator after every field, or the end of the line for the last one.
+     */
+    private int[] fieldEnds;
+
+    private int numFields;
+
+    public VcfLineTokenizer(CharSequence line) {
+        this.line = line;
+        this.fieldEnds = new int[INITIAL_NUMBER_OF_FIELDS];
+        this.numFields = 0;
+        tokenize();
+    }
+
+    private void tokenize() {
+        int end = trimTrailingSeparators(line, 0, line.length(), FIELD_SEPARATOR);
+        if (end == 0 && line.length() > 0) {
+            return;
+        }
+        for (int i = 0; i < end; i++) {
+            if (line.charAt(i) == FIELD_SEPARATOR) {
+                addField(i);
+            }
+        }
+        addField(end);
+    }
+
+    private void addField(int end) {
+        if (numFields == fieldEnds.length) {
+            fieldEnds = Arrays.copyOf(fieldEnds, 2 * fieldEnds.length);
+        }
+        fieldEnds[numFields++] = end;
+    }
+
+    public CharSequence getLine() {
+        return line;
+    }
+
+    public int getNumFields() {
+        return numFields;
+    }
+
+    public int getFieldStart(int field) {
+        checkField(field);
+        return field == 0 ? 0 : fieldEnds[field - 1] + 1;
+    }
+
+    public int getFieldEnd(int field) {
+        checkField(field);
+        return fieldEnds[field];
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= numFields) {
+            throw new ArrayIndexOutOfBoundsException(field);
+        }
+    }
+
+    public String getField(int field) {
+        return substring(getFieldStart(field), getFieldEnd(field));
+    }
+
+    public boolean fieldEquals(int field, String value) {
+        return regionEquals(line, getFieldStart(field), getFieldEnd(field), value);
+    }
+
+    public boolean fieldStartsWithIgnoreCase(int field, String prefix) {
+        int start = getFieldStart(field);
+        return getFieldEnd(field) - start >= prefix.length()
+                && line.toString().regionMatches(true, start, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Parses a field as {@link Integer#parseInt(String)} would, without creating a String in the usual case of a
+     * short unsigned number.
+     */
+    public int getIntField(int field) {
+        int start = getFieldStart(field);
+        int end = getFieldEnd(field);
+        if (end > start && end - start <= MAX_DIGITS_WITHOUT_OVERFLOW) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Integer.parseInt(substring(start, end));
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+        return Integer.parseInt(substring(start, end));
+    }
+
+    /**
+     * @return the subfields of a field, e.g. the values in a sample column separated by ':'
+     */
+    public Subfields getSubfields(int field, char separator) {
+        return new Subfields(line, getFieldStart(field), getFieldEnd(field), separator);
+    }
+
+    public String substring(int start, int end) {
+        return line.subSequence(start, end).toString();
+    }
+
+    static boolean regionEquals(CharSequence text, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != value.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int trimTrailingSeparators(CharSequence text, int start, int end, char separator) {
+        while (end > start && text.charAt(end - 1) == separator) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Iterates over the parts of a range of text separated by a character. The current part is only available as
+     * offsets until {@link #getValue()} is called.
+     */
+    public static class Subfields {
+
+        private final CharSequence text;
+
+        private final int start;
+
+        private final int end;
+
+        private final char separator;
+
+        private int currentStart;
+
+        private int currentEnd;
+
+        public Subfields(CharSequence text, char separator) {
+            this(text, 0, text.length(), separator);
+        }
+
+        public Subfields(CharSequence text, int start, int end, char separator) {
+            this.text = text;
+            this.start = start;
+            int trimmedEnd = trimTrailingSeparators(text, start, end, separator);
+            // like String.split, a range made only of separators has no subfields, but an empty range has one
+            this.end = (trimmedEnd == start && end > start) ? -1 : trimmedEnd;
+            this.separator = separator;
+            reset();
+        }
+
+        /**
+         * Moves back to the position before the first subfield.
+         */
+        public void reset() {
+            currentStart = -1;
+            currentEnd = start - 1;
+        }
+
+        /**
+         * @return true if there was another subfield, which becomes the current one
+         */
+        public boolean next() {
+            if (currentEnd >= end) {
+                return false;
+            }
+            currentStart = currentEnd + 1;
+            currentEnd = currentStart;
+            while (currentEnd < end && text.charAt(currentEnd) != separator) {
+                currentEnd++;
+            }
+            return true;
+        }
+
+        public int getStart() {
+            return currentStart;
+        }
+
+        public int getEnd() {
+            return currentEnd;
+        }
+
+        public String getValue() {
+            return text.subSequence(currentStart, currentEnd).toString();
+        }
+
+        public boolean valueEquals(String value) {
+            return regionEquals(text, currentStart, currentEnd, value);
+        }
+
+        public boolean valueEqualsIgnoreCase(String value) {
+            return currentEnd - currentStart == value.length()
+                    && text.toString().regionMatches(true, currentStart, value, 0, value.length());
+        }
+
+        /**
+         * @return position of the character in the current subfield, or -1 if it is not there
+         */
+        public int indexOf(char character) {
+            for (int i = currentStart; i < currentEnd; i++) {
+                if (text.charAt(i) == character) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Materialises only the subfield at the given index, e.g. the value of an allele in "AC=3,5,1".
+         *
+         * @throws ArrayIndexOutOfBoundsException if there are not enough subfields, as indexing a split array would
+         */
+        public String get(int index) {
+            reset();
+            for (int i = 0; i <= index; i++) {
+                if (!next()) {
+                    throw new ArrayIndexOutOfBoundsException(index);
+                }
+            }
+            return getValue();
+        }
+
+        public int count() {
+            reset();
+            int count = 0;
+            while (next()) {
+                count++;
+            }
+            return count;
+        }
+
+        public String[] toArray() {
+            List<String> values = new ArrayList<>();
+            reset();
+            while (next()) {
+                values.add(getValue());
+            }
+            return values.toArray(new String[values.size()]);
+        }
+    }
+
+    /**
+     * Iterates over the "key=value" pairs of an INFO column.
+     * <p>
+     * Only the pairs whose value is well defined have a value: a key without '=', or whose value has another '=',
+     * is reported with no value, as the original "key=value".split("=") with a length other than 2 was.
+     */
+    public static class InfoEntries {
+
+        private final Subfields entries;
+
+        private int keyEnd;
+
+        private int valueStart;
+
+        private int valueEnd;
+
+        public InfoEntries(CharSequence info) {
+            this.entries = new Subfields(info, INFO_FIELD_SEPARATOR);
+        }
+
+        public boolean next() {
+            if (!entries.next()) {
+                return false;
+            }
+            keyEnd = entries.indexOf(KEY_VALUE_SEPARATOR);
+            if (keyEnd == -1) {
+                keyEnd = entries.getEnd();
+                valueStart = valueEnd = -1;
+            } else {
+                valueStart = keyEnd + 1;
+                valueEnd = trimTrailingSeparators(entries.text, valueStart, entries.getEnd(), KEY_VALUE_SEPARATOR);
+                if (valueEnd == valueStart || hasSeparator(valueStart, valueEnd)) {
+                    valueStart = valueEnd = -1;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasSeparator(int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (entries.text.charAt(i) == KEY_VALUE_SEPARATOR) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String getKey() {
+            return entries.text.subSequence(entries.getStart(), keyEnd).toString();
+        }
+
+        public boolean keyEquals(String key) {
+            return regionEquals(entries.text, entries.getStart(), keyEnd, key);
+        }
+
+        public boolean hasValue() {
+            return valueStart != -1;
+        }
+
+        public String getValue() {
+            return entries.text.subSequence(valueStart, valueEnd).toString();
+        }
+
+        /**
+         * @return the values separated by ',', e.g. the counts of every allele in "AC=3,5,1"
+         */
+        public Subfields getValues() {
+            return new Subfields(entries.text, valueStart, valueEnd, VALUE_SEPARATOR);
+        }
+    }
+}
@@ -15,14 +15,22 @@
  */
 package uk.ac.ebi.eva.pipeline.io.readers;
 
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.DefaultBufferedReaderFactory;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.core.io.Resource;
 
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.BgzfInputStream;
+import uk.ac.ebi.eva.pipeline.io.BgzfLineReader;
 import uk.ac.ebi.eva.pipeline.io.GzipLazyResource;
 import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 
 /**
  * Reader of VEP output annotation flat file. The file should be zipped.
@@ -33,16 +41,70 @@ import java.io.File;
  * 20_60419_A/G	20:60419	G	-	-	-	intergenic_variant	-	-	-	-	-	-
  * 20_60479_C/T	20:60479	T	-	-	-	intergenic_variant	-	-	-	-	-	rs149529999	GMAF=T:0.0018;AFR_MAF=T:0.01;AMR_MAF=T:0.0028
  * ...
+ * <p>
+ * If the file is BGZF, the position of the last committed line is saved in the execution context, so that a restarted
+ * step can seek to it instead of reading again all the previous lines.
+ * <p>
+ * The compressed bytes read so far are put in the execution context, so that
+ * {@link uk.ac.ebi.eva.pipeline.listeners.StepProgressListener} can log the progress of the step.
  */
 public class AnnotationFlatFileReader extends FlatFileItemReader<Annotation> {
 
+    private static final String VIRTUAL_OFFSET_KEY = "virtual.offset";
+
+    private final File file;
+
+    private final GzipLazyResource resource;
+
+    private BgzfLineReader bgzfLineReader;
+
+    private Long savedVirtualOffset;
+
     public AnnotationFlatFileReader(File file, String vepVersion, String vepCacheVersion) {
-        Resource resource = new GzipLazyResource(file);
+        this.file = file;
+        resource = new GzipLazyResource(file);
         setResource(resource);
         setLineMapper(new AnnotationLineMapper(vepVersion, vepCacheVersion));
+        setBufferedReaderFactory(this::createBufferedReader);
     }
 
     public AnnotationFlatFileReader(String string, String vepVersion, String vepCacheVersion) {
         this(new File(string), vepVersion, vepCacheVersion);
     }
+
+    private BufferedReader createBufferedReader(Resource resource, String encoding) throws IOException {
+        if (BgzfInputStream.isBgzf(file)) {
+            bgzfLineReader = new BgzfLineReader(new BgzfInputStream(file));
+            return bgzfLineReader;
+        }
+        bgzfLineReader = null;
+        return new DefaultBufferedReaderFactory().create(resource, encoding);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String key = getExecutionContextKey(VIRTUAL_OFFSET_KEY);
+        savedVirtualOffset = executionContext.containsKey(key) ? executionContext.getLong(key) : null;
+        super.open(executionContext);
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (bgzfLineReader != null && savedVirtualOffset != null) {
+            bgzfLineReader.seek(savedVirtualOffset);
+        } else {
+            super.jumpToItem(itemIndex);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState() && bgzfLineReader != null) {
+            executionContext.putLong(getExecutionContextKey(VIRTUAL_OFFSET_KEY), bgzfLineReader.getVirtualOffset());
+        }
+        long bytesRead = bgzfLineReader != null ? BgzfInputStream.getBlockAddress(bgzfLineReader.getVirtualOffset())
+                : resource.getBytesRead();
+        executionContext.putLong(ExecutionContextParametersNames.INPUT_BYTES_READ, bytesRead);
+    }
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.CountingFileSystemResource;
+import uk.ac.ebi.eva.pipeline.listeners.StepProgressListener;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.utils.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VCF file reader that parses the lines in several threads.
+ * <p>
+ * A thread reads the raw lines of the file in blocks, and every block is parsed by a pool of workers with the same
+ * {@link LineMapper} used by {@link VcfReader}. The parsed lines are returned in the same order as in the file, so
+ * the writer receives the same items as with a {@link VcfReader}, and the count of lines returned, which is saved in
+ * the {@link ExecutionContext}, is the count of lines that will not be read again if the step is restarted.
+ * <p>
+ * If a line can't be parsed, the error is thrown when that line would have been read, wrapped in a
+ * {@link FlatFileParseException} as {@link FlatFileItemReader} does.
+ */
+public class ParallelVcfReader extends AbstractItemCountingItemStreamItemReader<List<Variant>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelVcfReader.class);
+
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private final LineMapper<List<Variant>> lineMapper;
+
+    private final Resource resource;
+
+    private final int numThreads;
+
+    private final int blockSize;
+
+    private FlatFileItemReader<NumberedLine> lineReader;
+
+    private ExecutorService parsers;
+
+    private Thread readerThread;
+
+    private BlockingQueue<Future<Block>> parsedBlocks;
+
+    private Block currentBlock;
+
+    private int positionInBlock;
+
+    private int linesToSkip;
+
+    private volatile boolean closing;
+
+    private static class NumberedLine {
+
+        final String line;
+
+        final int lineNumber;
+
+        NumberedLine(String line, int lineNumber) {
+            this.line = line;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * Parsed lines of a block. If a line could not be parsed, the lines before it are kept along with the error,
+     * and the rest of the block is discarded. An empty block marks the end of the file.
+     */
+    private static class Block {
+
+        final List<List<Variant>> lines;
+
+        final RuntimeException error;
+
+        Block(List<List<Variant>> lines, RuntimeException error) {
+            this.lines = lines;
+            this.error = error;
+        }
+
+        boolean isEndOfFile() {
+            return lines.isEmpty() && error == null;
+        }
+    }
+
+    public ParallelVcfReader(LineMapper<List<Variant>> lineMapper, File file, int numThreads) throws IOException {
+        this(lineMapper, file, numThreads, DEFAULT_BLOCK_SIZE);
+    }
+
+    public ParallelVcfReader(LineMapper<List<Variant>> lineMapper, File file, int numThreads, int blockSize)
+            throws IOException {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("numThreads (" + numThreads + ") must be greater than 0");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize (" + blockSize + ") must be greater than 0");
+        }
+        this.lineMapper = lineMapper;
+        this.resource = FileUtils.getResource(file);
+        this.numThreads = numThreads;
+        this.blockSize = blockSize;
+        setName(ClassUtils.getShortName(ParallelVcfReader.class));
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        lineReader = new FlatFileItemReader<>();
+        lineReader.setResource(resource);
+        lineReader.setLineMapper(NumberedLine::new);
+        lineReader.setSaveState(false);
+        lineReader.open(new ExecutionContext());
+
+        AtomicInteger threadCount = new AtomicInteger(0);
+        parsers = Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, "vcf-parser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        parsedBlocks = new ArrayBlockingQueue<>(2 * numThreads);
+        currentBlock = null;
+        positionInBlock = 0;
+        linesToSkip = 0;
+        closing = false;
+    }
+
+    /**
+     * The lines already read before a restart are skipped by the reading thread, without parsing them.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        linesToSkip = itemIndex;
+    }
+
+    @Override
+    protected List<Variant> doRead() throws Exception {
+        if (readerThread == null) {
+            startReaderThread();
+        }
+        while (currentBlock == null || positionInBlock == currentBlock.lines.size()) {
+            if (currentBlock != null && currentBlock.error != null) {
+                throw currentBlock.error;
+            }
+            if (currentBlock != null && currentBlock.isEndOfFile()) {
+                return null;
+            }
+            currentBlock = takeParsedBlock();
+            positionInBlock = 0;
+        }
+        return currentBlock.lines.get(positionInBlock++);
+    }
+
+    private Block takeParsedBlock() throws InterruptedException {
+        try {
+            return parsedBlocks.take().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ItemStreamException("Could not read the VCF file " + resource.getDescription(), cause);
+        }
+    }
+
+    private void startReaderThread() {
+        readerThread = new Thread(this::readBlocks, "vcf-line-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        logger.debug("Parsing {} with {} threads, in blocks of {} lines", resource.getDescription(), numThreads,
+                     blockSize);
+    }
+
+    /**
+     * Runs in the reading thread: reads the lines in blocks and submits every block to the parsers, until the file
+     * ends, reading fails or the reader is closed.
+     */
+    private void readBlocks() {
+        try {
+            for (int i = 0; i < linesToSkip && lineReader.read() != null; i++) {
+                // skipped lines were already loaded before the restart
+            }
+            List<NumberedLine> lines;
+            do {
+                lines = readBlock();
+                List<NumberedLine> block = lines;
+                parsedBlocks.put(block.isEmpty() ? CompletableFuture.completedFuture(
+                        new Block(Collections.emptyList(), null)) : parsers.submit(() -> parseBlock(block)));
+            } while (!lines.isEmpty() && !closing);
+        } catch (InterruptedException e) {
+            // the reader is being closed
+        } catch (Exception e) {
+            CompletableFuture<Block> failedBlock = new CompletableFuture<>();
+            failedBlock.completeExceptionally(e);
+            try {
+                parsedBlocks.put(failedBlock);
+            } catch (InterruptedException interrupted) {
+                // the reader is being closed
+            }
+        }
+    }
+
+    private List<NumberedLine> readBlock() throws Exception {
+        List<NumberedLine> lines = new ArrayList<>(blockSize);
+        NumberedLine line;
+        while (lines.size() < blockSize && !closing && (line = lineReader.read()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private Block parseBlock(List<NumberedLine> lines) {
+        List<List<Variant>> parsedLines = new ArrayList<>(lines.size());
+        for (NumberedLine line : lines) {
+            try {
+                parsedLines.add(lineMapper.mapLine(line.line, line.lineNumber));
+            } catch (Exception e) {
+                return new Block(parsedLines, new FlatFileParseException(
+                        "Parsing error at line: " + line.lineNumber + " in resource=[" + resource.getDescription()
+                                + "], input=[" + line.line + "]", e, line.line, line.lineNumber));
+            }
+        }
+        return new Block(parsedLines, null);
+    }
+
+    /**
+     * Also puts in the execution context the bytes of the file read so far, that {@link StepProgressListener} uses
+     * to log the progress of the step. The lines read in advance by the reader thread are included.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (resource instanceof CountingFileSystemResource) {
+            executionContext.putLong(ExecutionContextParametersNames.INPUT_BYTES_READ,
+                                     ((CountingFileSystemResource) resource).getBytesRead());
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        closing = true;
+        try {
+            if (readerThread != null) {
+                readerThread.interrupt();
+                readerThread.join();
+            }
+        } finally {
+            readerThread = null;
+            if (parsers != null) {
+                parsers.shutdownNow();
+            }
+            if (parsedBlocks != null) {
+                parsedBlocks.clear();
+            }
+            currentBlock = null;
+            if (lineReader != null) {
+                lineReader.close();
+            }
+        }
+    }
+}
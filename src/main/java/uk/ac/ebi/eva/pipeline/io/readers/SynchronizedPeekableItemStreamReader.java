@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.PeekableItemReader;
+import org.springframework.batch.item.support.SingleItemPeekableItemReader;
+
+/**
+ * Thread safe reader that allows looking at the next item without consuming it, and remembers the last item that
+ * every thread has read.
+ * <p>
+ * It is meant for multi-threaded steps whose completion policy needs to compare the last item of a chunk with the next
+ * one. As the threads of the step read concurrently, the peeked item may end up in another chunk; that only affects
+ * where the chunks are split, not which items are read.
+ */
+public class SynchronizedPeekableItemStreamReader<T> implements ItemStreamReader<T>, PeekableItemReader<T> {
+
+    private final SingleItemPeekableItemReader<T> delegate;
+
+    private final ThreadLocal<T> lastRead;
+
+    /**
+     * @param delegate if it is an {@link org.springframework.batch.item.ItemStream}, it is opened, updated and closed
+     *                 along with this reader
+     */
+    public SynchronizedPeekableItemStreamReader(ItemReader<T> delegate) {
+        this.delegate = new SingleItemPeekableItemReader<>();
+        this.delegate.setDelegate(delegate);
+        this.lastRead = new ThreadLocal<>();
+    }
+
+    @Override
+    public synchronized T read() throws Exception {
+        T item = delegate.read();
+        lastRead.set(item);
+        return item;
+    }
+
+    @Override
+    public synchronized T peek() throws Exception {
+        return delegate.peek();
+    }
+
+    /**
+     * @return the last item read by the current thread, or null if it has not read any yet
+     */
+    public T getLastRead() {
+        return lastRead.get();
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.open(executionContext);
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        delegate.update(executionContext);
+    }
+
+    @Override
+    public synchronized void close() throws ItemStreamException {
+        delegate.close();
+    }
+}
@@ -20,6 +20,7 @@ import com.mongodb.BasicDBObjectBuilder;
 import com.mongodb.DBObject;
 import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.util.ClassUtils;
@@ -32,6 +33,9 @@ import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntry
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 
 import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ALTERNATE_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.CHROMOSOME_FIELD;
@@ -56,6 +60,8 @@ public class VariantsMongoReader
 
     private static final String FILE_KEY = VariantDocument.FILES_FIELD + "." + VariantSourceEntryMongo.FILEID_FIELD;
 
+    public static final String CHROMOSOME_SEPARATOR = ",";
+
     /**
      * @param studyId Can be the empty string or null, meaning to bring all non-annotated variants in the collection.
      *                If the studyId string is not empty, bring only non-annotated variants from that study.
@@ -67,11 +73,63 @@ public class VariantsMongoReader
      */
     public VariantsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String vepVersion,
                                String vepCacheVersion, String studyId, String fileId, boolean excludeAnnotated) {
+        this(mongoOperations, collectionVariantsName, vepVersion, vepCacheVersion, studyId, fileId, excludeAnnotated,
+             null);
+    }
+
+    /**
+     * @param chromosome Can be the empty string or null, meaning to bring variants from all the chromosomes. If not
+     *                   empty, bring only variants from that chromosome, or from any of several chromosomes separated
+     *                   by {@link #CHROMOSOME_SEPARATOR}.
+     * @see #VariantsMongoReader(MongoOperations, String, String, String, String, String, boolean)
+     */
+    public VariantsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String vepVersion,
+                               String vepCacheVersion, String studyId, String fileId, boolean excludeAnnotated,
+                               String chromosome) {
+        this(mongoOperations, collectionVariantsName, vepVersion, vepCacheVersion, studyId, fileId, excludeAnnotated,
+             chromosome, false);
+    }
+
+    /**
+     * @param sortByLocus bring the variants sorted by chromosome and start. The query planner chooses the index; with
+     *                    the compound index on chromosome, start and end it doesn't need to sort them in memory
+     * @see #VariantsMongoReader(MongoOperations, String, String, String, String, String, boolean, String)
+     */
+    public VariantsMongoReader(MongoOperations mongoOperations, String collectionVariantsName, String vepVersion,
+                               String vepCacheVersion, String studyId, String fileId, boolean excludeAnnotated,
+                               String chromosome, boolean sortByLocus) {
         setName(ClassUtils.getShortName(VariantsMongoReader.class));
         delegateReader = new MongoDbCursorItemReader();
         delegateReader.setTemplate(mongoOperations);
         delegateReader.setCollection(collectionVariantsName);
 
+        BasicDBObjectBuilder queryBuilder = buildQuery(vepVersion, vepCacheVersion, studyId, fileId, excludeAnnotated);
+        if (chromosome != null && !chromosome.isEmpty()) {
+            String[] chromosomes = chromosome.split(CHROMOSOME_SEPARATOR);
+            queryBuilder.add(CHROMOSOME_FIELD, chromosomes.length == 1 ?
+                    chromosome : new BasicDBObject("$in", Arrays.asList(chromosomes)));
+        }
+        delegateReader.setQuery(queryBuilder.get());
+
+        String[] fields = {CHROMOSOME_FIELD, START_FIELD, END_FIELD, REFERENCE_FIELD, ALTERNATE_FIELD};
+        delegateReader.setFields(fields);
+
+        if (sortByLocus) {
+            Map<String, Sort.Direction> sort = new LinkedHashMap<>();
+            sort.put(CHROMOSOME_FIELD, Sort.Direction.ASC);
+            sort.put(START_FIELD, Sort.Direction.ASC);
+            delegateReader.setSort(sort);
+        }
+
+        converter = mongoOperations.getConverter();
+    }
+
+    /**
+     * Builds the query of the variants to annotate, see the parameters of
+     * {@link #VariantsMongoReader(MongoOperations, String, String, String, String, String, boolean)}
+     */
+    public static BasicDBObjectBuilder buildQuery(String vepVersion, String vepCacheVersion, String studyId,
+                                                  String fileId, boolean excludeAnnotated) {
         BasicDBObjectBuilder queryBuilder = BasicDBObjectBuilder.start();
 
         if (studyId != null && !studyId.isEmpty()) {
@@ -91,12 +149,7 @@ public class VariantsMongoReader
                     new BasicDBObject("$not", new BasicDBObject("$elemMatch", annotationSubdocument));
             queryBuilder.add(VariantDocument.ANNOTATION_FIELD, noElementMatchesOurVersion);
         }
-        delegateReader.setQuery(queryBuilder.get());
-
-        String[] fields = {CHROMOSOME_FIELD, START_FIELD, END_FIELD, REFERENCE_FIELD, ALTERNATE_FIELD};
-        delegateReader.setFields(fields);
-
-        converter = mongoOperations.getConverter();
+        return queryBuilder;
     }
 
     @PostConstruct
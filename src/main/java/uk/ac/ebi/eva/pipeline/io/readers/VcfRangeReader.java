@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.ClassUtils;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.BgzfInputStream;
+import uk.ac.ebi.eva.pipeline.io.BgzfRangeSplitter;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Reads the lines of a BGZF-compressed VCF that start inside a range of virtual offsets, such as the ones built by
+ * {@link BgzfRangeSplitter}, parsing them with the same {@link LineMapper} used by {@link VcfReader}. Header lines are
+ * skipped.
+ * <p>
+ * The position of the last committed line is saved in the execution context, so that a restarted step can seek to it
+ * instead of reading again all the previous lines of the range.
+ */
+public class VcfRangeReader extends AbstractItemCountingItemStreamItemReader<List<Variant>> {
+
+    private static final String VIRTUAL_OFFSET_KEY = "virtual.offset";
+
+    private static final String COMMENT_PREFIX = "#";
+
+    private final LineMapper<List<Variant>> lineMapper;
+
+    private final File file;
+
+    private final long startOffset;
+
+    private final long endOffset;
+
+    private BgzfInputStream inputStream;
+
+    private Long savedVirtualOffset;
+
+    private int lineCount;
+
+    /**
+     * @param startOffset virtual offset of the first line of the range
+     * @param endOffset virtual offset of the first line after the range, or {@link Long#MAX_VALUE} to read until the
+     * end of the file
+     */
+    public VcfRangeReader(LineMapper<List<Variant>> lineMapper, File file, long startOffset, long endOffset) {
+        if (startOffset > endOffset) {
+            throw new IllegalArgumentException(
+                    "startOffset (" + startOffset + ") must not be greater than endOffset (" + endOffset + ")");
+        }
+        this.lineMapper = lineMapper;
+        this.file = file;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        setName(ClassUtils.getShortName(VcfRangeReader.class));
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String key = getExecutionContextKey(VIRTUAL_OFFSET_KEY);
+        savedVirtualOffset = executionContext.containsKey(key) ? executionContext.getLong(key) : null;
+        super.open(executionContext);
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        inputStream = new BgzfInputStream(file);
+        inputStream.seek(startOffset);
+        lineCount = 0;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (savedVirtualOffset != null) {
+            inputStream.seek(savedVirtualOffset);
+        } else {
+            super.jumpToItem(itemIndex);
+        }
+    }
+
+    @Override
+    protected List<Variant> doRead() throws Exception {
+        while (inputStream.getVirtualOffset() < endOffset) {
+            long lineOffset = inputStream.getVirtualOffset();
+            String line = inputStream.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineCount++;
+            if (line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            try {
+                return lineMapper.mapLine(line, lineCount);
+            } catch (Exception e) {
+                throw new FlatFileParseException(
+                        "Parsing error at line: " + lineCount + " of the range starting at virtual offset "
+                                + startOffset + " (line at virtual offset " + lineOffset + ") in file=[" + file
+                                + "], input=[" + line + "]", e, line, lineCount);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState() && inputStream != null) {
+            executionContext.putLong(getExecutionContextKey(VIRTUAL_OFFSET_KEY), inputStream.getVirtualOffset());
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+}
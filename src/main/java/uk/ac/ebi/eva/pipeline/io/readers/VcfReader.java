@@ -15,12 +15,17 @@
  */
 package uk.ac.ebi.eva.pipeline.io.readers;
 
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.file.FlatFileItemReader;
 import org.springframework.batch.item.file.LineMapper;
 import org.springframework.core.io.Resource;
 
 import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.CountingFileSystemResource;
 import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
+import uk.ac.ebi.eva.pipeline.listeners.StepProgressListener;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.utils.FileUtils;
 
 import java.io.File;
@@ -37,6 +42,10 @@ import java.util.List;
  */
 public class VcfReader extends FlatFileItemReader<List<Variant>> {
 
+    private final LineMapper<List<Variant>> lineMapper;
+
+    private final Resource resource;
+
     public VcfReader(String fileId, String studyId, String file)
             throws IOException {
         this(fileId, studyId, new File(file));
@@ -48,9 +57,27 @@ public class VcfReader extends FlatFileItemReader<List<Variant>> {
     }
 
     public VcfReader(LineMapper<List<Variant>> lineMapper, File file) throws IOException {
-        Resource resource = FileUtils.getResource(file);
+        resource = FileUtils.getResource(file);
         setResource(resource);
         setLineMapper(lineMapper);
+        this.lineMapper = lineMapper;
+    }
+
+    public LineMapper<List<Variant>> getLineMapper() {
+        return lineMapper;
+    }
+
+    /**
+     * Also puts in the execution context the bytes of the file read so far, that {@link StepProgressListener} uses
+     * to log the progress of the step.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (resource instanceof CountingFileSystemResource) {
+            executionContext.putLong(ExecutionContextParametersNames.INPUT_BYTES_READ,
+                                     ((CountingFileSystemResource) resource).getBytesRead());
+        }
     }
 
 }
@@ -33,6 +33,7 @@ import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.ConsequenceType;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.Xref;
 import uk.ac.ebi.eva.utils.MongoDBHelper;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -77,12 +78,21 @@ public class AnnotationMongoWriter implements ItemWriter<Annotation> {
     private final String collection;
 
     public AnnotationMongoWriter(MongoOperations mongoOperations, String collection) {
+        this(mongoOperations, collection, true);
+    }
+
+    /**
+     * @param createIndexes whether to create the indexes in {@link #getIndexes()} now, or leave it for after the load
+     */
+    public AnnotationMongoWriter(MongoOperations mongoOperations, String collection, boolean createIndexes) {
         Assert.notNull(mongoOperations);
         Assert.hasText(collection);
         this.mongoOperations = mongoOperations;
         this.collection = collection;
 
-        createIndexes();
+        if (createIndexes) {
+            createIndexes();
+        }
     }
 
     @Override
@@ -139,11 +149,17 @@ public class AnnotationMongoWriter implements ItemWriter<Annotation> {
     }
 
     private void createIndexes() {
-        mongoOperations.getCollection(collection).createIndex(
-                new BasicDBObject(ANNOTATION_XREF_ID_FIELD, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
-        mongoOperations.getCollection(collection).createIndex(
-                new BasicDBObject(ANNOTATION_CT_SO_FIELD, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
+        for (DBObject index : getIndexes()) {
+            mongoOperations.getCollection(collection).createIndex(index,
+                    new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
+        }
+    }
+
+    /**
+     * @return the keys of the indexes of the annotations collection
+     */
+    public static List<DBObject> getIndexes() {
+        return Arrays.asList(new BasicDBObject(ANNOTATION_XREF_ID_FIELD, 1),
+                             new BasicDBObject(ANNOTATION_CT_SO_FIELD, 1));
     }
 }
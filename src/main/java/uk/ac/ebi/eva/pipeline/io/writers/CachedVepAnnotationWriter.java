@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends to VEP only the variants whose annotation is not stored yet in the annotations collection.
+ * <p>
+ * The documents of the annotations collection are identified by the variant id plus the VEP and cache versions, so
+ * any variant annotated before with the same versions, in this or other study, is found there. Those annotations are
+ * copied into the variants with an annotation in variant writer, and the rest of variants are written into the
+ * wrapped VEP writer.
+ * <p>
+ * The number of hits and misses is kept in the execution context of the step, and logged when the writer is closed.
+ */
+public class CachedVepAnnotationWriter implements ItemStreamWriter<EnsemblVariant> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedVepAnnotationWriter.class);
+
+    private static final String ID_FIELD = "_id";
+
+    private final ItemStreamWriter<EnsemblVariant> vepAnnotationWriter;
+
+    private final ItemWriter<Annotation> annotationInVariantWriter;
+
+    private final MongoOperations mongoOperations;
+
+    private final String annotationsCollection;
+
+    private final String vepVersion;
+
+    private final String vepCacheVersion;
+
+    private final AtomicLong hits;
+
+    private final AtomicLong misses;
+
+    public CachedVepAnnotationWriter(ItemStreamWriter<EnsemblVariant> vepAnnotationWriter,
+                                     ItemWriter<Annotation> annotationInVariantWriter,
+                                     MongoOperations mongoOperations, String annotationsCollection,
+                                     String vepVersion, String vepCacheVersion) {
+        Assert.notNull(vepAnnotationWriter);
+        Assert.notNull(annotationInVariantWriter);
+        Assert.notNull(mongoOperations);
+        Assert.hasText(annotationsCollection);
+        Assert.hasText(vepVersion);
+        Assert.hasText(vepCacheVersion);
+
+        this.vepAnnotationWriter = vepAnnotationWriter;
+        this.annotationInVariantWriter = annotationInVariantWriter;
+        this.mongoOperations = mongoOperations;
+        this.annotationsCollection = annotationsCollection;
+        this.vepVersion = vepVersion;
+        this.vepCacheVersion = vepCacheVersion;
+        this.hits = new AtomicLong(0);
+        this.misses = new AtomicLong(0);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        hits.set(executionContext.getLong(ExecutionContextParametersNames.ANNOTATION_CACHE_HITS, 0));
+        misses.set(executionContext.getLong(ExecutionContextParametersNames.ANNOTATION_CACHE_MISSES, 0));
+        vepAnnotationWriter.open(executionContext);
+    }
+
+    @Override
+    public void write(List<? extends EnsemblVariant> variants) throws Exception {
+        Set<String> annotationIds = new HashSet<>();
+        for (EnsemblVariant variant : variants) {
+            annotationIds.add(buildAnnotationId(variant));
+        }
+
+        List<Annotation> cachedAnnotations = findCachedAnnotations(annotationIds);
+        Set<String> cachedIds = new HashSet<>();
+        for (Annotation annotation : cachedAnnotations) {
+            cachedIds.add(annotation.getId());
+        }
+
+        List<EnsemblVariant> notCachedVariants = new ArrayList<>();
+        for (EnsemblVariant variant : variants) {
+            if (!cachedIds.contains(buildAnnotationId(variant))) {
+                notCachedVariants.add(variant);
+            }
+        }
+
+        if (!cachedAnnotations.isEmpty()) {
+            annotationInVariantWriter.write(cachedAnnotations);
+        }
+        if (!notCachedVariants.isEmpty()) {
+            vepAnnotationWriter.write(notCachedVariants);
+        }
+
+        hits.addAndGet(variants.size() - notCachedVariants.size());
+        misses.addAndGet(notCachedVariants.size());
+    }
+
+    private String buildAnnotationId(EnsemblVariant variant) {
+        return Annotation.buildAnnotationId(variant.getChr(), variant.getStart(), variant.getReference(),
+                                            variant.getAlternate(), vepVersion, vepCacheVersion);
+    }
+
+    private List<Annotation> findCachedAnnotations(Set<String> annotationIds) {
+        Query query = new Query(Criteria.where(ID_FIELD).in(annotationIds));
+        return mongoOperations.find(query, Annotation.class, annotationsCollection);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(ExecutionContextParametersNames.ANNOTATION_CACHE_HITS, hits.get());
+        executionContext.putLong(ExecutionContextParametersNames.ANNOTATION_CACHE_MISSES, misses.get());
+        vepAnnotationWriter.update(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        long total = hits.get() + misses.get();
+        long hitPercentage = total == 0 ? 0 : hits.get() * 100 / total;
+        logger.info("Annotation cache hits = {}, misses = {} ({}% of the variants were already annotated)",
+                    hits.get(), misses.get(), hitPercentage);
+        vepAnnotationWriter.close();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import uk.ac.ebi.eva.pipeline.io.VepAnnotationStreamer;
+import uk.ac.ebi.eva.pipeline.io.VepChunkSizeController;
+import uk.ac.ebi.eva.pipeline.io.VepWorkerPool;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+
+import java.util.List;
+
+/**
+ * ItemStreamWriter that sends EnsemblVariants to a {@link VepWorkerPool}, whose VEP processes are started when the step
+ * opens the writer and reused for every chunk until the step closes it.
+ * <p>
+ * This writer is thread safe, so a multi-threaded step can annotate as many chunks concurrently as workers there are
+ * in the pool.
+ * <p>
+ * If a {@link VepChunkSizeController} is set, the time taken by the pool to annotate every chunk is reported to it. The
+ * VEP buffer size of the workers is fixed when they are started, so in that case the pool should be created with the
+ * minimum chunk size, and every chunk is padded to a multiple of it.
+ */
+public class PooledVepAnnotationFileWriter implements ItemStreamWriter<EnsemblVariant> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledVepAnnotationFileWriter.class);
+
+    private final VepWorkerPool vepWorkerPool;
+
+    private VepChunkSizeController chunkSizeController;
+
+    public PooledVepAnnotationFileWriter(AnnotationParameters annotationParameters, Integer chunkSize,
+                                         Long timeoutInSeconds, Integer numWorkers) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, numWorkers, annotationParameters.getVepOutput());
+    }
+
+    public PooledVepAnnotationFileWriter(AnnotationParameters annotationParameters, Integer chunkSize,
+                                         Long timeoutInSeconds, Integer numWorkers, String vepOutput) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, numWorkers, vepOutput, null);
+    }
+
+    /**
+     * @param annotationStreamer if not null, the annotations are written into the database instead of into vepOutput
+     */
+    public PooledVepAnnotationFileWriter(AnnotationParameters annotationParameters, Integer chunkSize,
+                                         Long timeoutInSeconds, Integer numWorkers, String vepOutput,
+                                         VepAnnotationStreamer annotationStreamer) {
+        this.vepWorkerPool = new VepWorkerPool(annotationParameters, chunkSize, timeoutInSeconds, numWorkers,
+                                               vepOutput, annotationStreamer);
+    }
+
+    public void setChunkSizeController(VepChunkSizeController chunkSizeController) {
+        this.chunkSizeController = chunkSizeController;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        vepWorkerPool.open();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        vepWorkerPool.close();
+    }
+
+    @Override
+    public void write(List<? extends EnsemblVariant> variantWrappers) throws Exception {
+        long start = System.nanoTime();
+        vepWorkerPool.annotate(variantWrappers);
+        if (chunkSizeController != null) {
+            chunkSizeController.recordChunk(variantWrappers.size(), System.nanoTime() - start);
+        }
+
+        if (variantWrappers.size() > 0) {
+            EnsemblVariant first = variantWrappers.get(0);
+            EnsemblVariant last = variantWrappers.get(variantWrappers.size() - 1);
+            logger.trace("VEP has annotated {} variants from {}:{} to {}:{}", variantWrappers.size(),
+                         first.getChr(), first.getStart(), last.getChr(), last.getStart());
+        }
+    }
+
+}
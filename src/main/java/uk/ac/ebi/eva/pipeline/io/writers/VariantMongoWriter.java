@@ -17,11 +17,19 @@ package uk.ac.ebi.eva.pipeline.io.writers;
 
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
 import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
 import org.springframework.batch.item.data.MongoItemWriter;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.util.Assert;
 import uk.ac.ebi.eva.commons.models.data.Variant;
@@ -31,11 +39,26 @@ import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
 import uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedVariant;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
 import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.utils.MongoDBHelper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.ANNOTATION_FIELD;
 import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.IDS_FIELD;
@@ -45,19 +68,103 @@ import static uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantAnno
 /**
  * Write a list of {@link Variant} into MongoDB
  * See also {@link org.opencb.opencga.storage.mongodb.variant.VariantMongoDBWriter}
+ * <p>
+ * The documents of the updates are built directly by the entities, instead of converting them by reflection with
+ * the {@link org.springframework.data.mongodb.core.convert.MongoConverter}. With {@link #setVerifyEncoding(boolean)}
+ * the converter is used as well, and the writing fails if any update is different.
+ * <p>
+ * The variants are written when the chunk is committed. By default, all the variants of a chunk are written in a
+ * single bulk operation. With {@link #setMaxBulksInFlight(int)}, the chunk is split into bulks of
+ * {@link #setBulkSize(int) bulkSize} variants, that are executed in a separate thread pool while the next bulks are
+ * being built. At most maxBulksInFlight bulks are executed at the same time, and the chunk isn't committed until all
+ * of them have finished, so a failed chunk is written again when the step is restarted.
+ * <p>
+ * With {@link #setInsertNewVariants(boolean)}, the ids of the variants of every bulk are looked up first, and the
+ * variants that are not in the collection are inserted as whole documents, instead of being upserted. If another
+ * writer inserts the same variant in the meantime, the insert fails with a duplicated key and the variant is upserted
+ * again.
+ * <p>
+ * The variants of a chunk with the same id, such as the repeated lines of a VCF, are merged before writing them, so
+ * that a single update adds all their files, ids and statistics. The number of variants received and merged is kept
+ * in the execution context of the step, and the ratio of merged variants is logged when the writer is closed.
+ * <p>
+ * The indexes in {@link #getIndexes()} are created by the constructor, unless the writer is told not to do it, so
+ * they can be built after the load, e.g. by a {@link uk.ac.ebi.eva.pipeline.jobs.steps.tasklets.CreateIndexesTasklet}.
  */
-public class VariantMongoWriter extends MongoItemWriter<Variant> {
+public class VariantMongoWriter extends MongoItemWriter<Variant>
+        implements ItemStreamWriter<Variant>, DisposableBean {
 
     private static final Logger logger = LoggerFactory.getLogger(VariantMongoWriter.class);
 
+    public static final int DEFAULT_BULK_SIZE = 250;
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
     private final MongoOperations mongoOperations;
 
     private final String collection;
     private final boolean includeStats;
     private final boolean includeSamples;
 
+    private boolean verifyEncoding;
+
+    private int bulkSize;
+
+    private ExecutorService bulkExecutor;
+
+    private Semaphore bulksInFlight;
+
+    private boolean insertNewVariants;
+
+    private final AtomicLong receivedVariants;
+
+    private final AtomicLong mergedVariants;
+
+    /**
+     * The query and the update of all the variants of a chunk with the same id
+     */
+    private static class VariantUpdate {
+
+        final BasicDBObject query;
+
+        final DBObject update;
+
+        VariantUpdate(BasicDBObject query, DBObject update) {
+            this.query = query;
+            this.update = update;
+        }
+    }
+
+    /**
+     * A bulk operation, and the updates of the variants inserted in it, by the index of their request in the bulk
+     */
+    private static class VariantBulk {
+
+        final BulkWriteOperation operation;
+
+        final int size;
+
+        final Map<Integer, VariantUpdate> insertedVariants;
+
+        VariantBulk(BulkWriteOperation operation, int size, Map<Integer, VariantUpdate> insertedVariants) {
+            this.operation = operation;
+            this.size = size;
+            this.insertedVariants = insertedVariants;
+        }
+    }
+
     public VariantMongoWriter(String collection, MongoOperations mongoOperations, boolean includeStats,
                               boolean includeSamples) {
+        this(collection, mongoOperations, includeStats, includeSamples, true);
+    }
+
+    /**
+     * @param createIndexes whether to create the indexes before writing, or leave it for later
+     */
+    public VariantMongoWriter(String collection, MongoOperations mongoOperations, boolean includeStats,
+                              boolean includeSamples, boolean createIndexes) {
         Assert.notNull(mongoOperations, "A Mongo instance is required");
         Assert.hasText(collection, "A collection name is required");
 
@@ -67,74 +174,365 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
         this.includeStats = includeStats;
         this.includeSamples = includeSamples;
 
-        createIndexes();
+        this.verifyEncoding = false;
+        this.bulkSize = DEFAULT_BULK_SIZE;
+        this.bulkExecutor = null;
+        this.bulksInFlight = null;
+        this.insertNewVariants = false;
+        this.receivedVariants = new AtomicLong(0);
+        this.mergedVariants = new AtomicLong(0);
+
+        if (createIndexes) {
+            createIndexes();
+        }
+    }
+
+    /**
+     * @param verifyEncoding whether to check that every update is the same that would be built with the
+     * {@link org.springframework.data.mongodb.core.convert.MongoConverter}, which is slower
+     */
+    public void setVerifyEncoding(boolean verifyEncoding) {
+        this.verifyEncoding = verifyEncoding;
+    }
+
+    /**
+     * @param maxBulksInFlight maximum number of bulk operations executed at the same time. If it's 1, the bulks are
+     * executed in the thread that writes, with all the variants of the chunk.
+     */
+    public void setMaxBulksInFlight(int maxBulksInFlight) {
+        Assert.isTrue(maxBulksInFlight > 0, "maxBulksInFlight must be greater than 0");
+        Assert.isNull(bulkExecutor, "maxBulksInFlight can only be set once");
+        if (maxBulksInFlight > 1) {
+            bulkExecutor = Executors.newFixedThreadPool(maxBulksInFlight, runnable -> {
+                Thread thread = new Thread(runnable, "variant-bulk-writer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            bulksInFlight = new Semaphore(maxBulksInFlight);
+        }
+    }
+
+    /**
+     * @param insertNewVariants whether to insert the variants that are not in the collection yet, instead of
+     * upserting all of them, which is faster when most of the variants are new
+     */
+    public void setInsertNewVariants(boolean insertNewVariants) {
+        this.insertNewVariants = insertNewVariants;
+    }
+
+    /**
+     * @param bulkSize maximum number of variants of every bulk operation, when more than one can be in flight
+     */
+    public void setBulkSize(int bulkSize) {
+        Assert.isTrue(bulkSize > 0, "bulkSize must be greater than 0");
+        this.bulkSize = bulkSize;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        receivedVariants.set(executionContext.getLong(ExecutionContextParametersNames.VARIANTS_RECEIVED, 0));
+        mergedVariants.set(executionContext.getLong(ExecutionContextParametersNames.VARIANTS_MERGED, 0));
     }
 
     @Override
     protected void doWrite(List<? extends Variant> variants) {
-        BulkWriteOperation bulk = mongoOperations.getCollection(collection).initializeUnorderedBulkOperation();
+        List<VariantUpdate> updates = mergeUpdates(variants);
+        if (bulkExecutor == null) {
+            executeBulk(buildBulk(updates, insertNewVariants));
+        } else {
+            writeBehind(updates);
+        }
+        receivedVariants.addAndGet(variants.size());
+        mergedVariants.addAndGet(variants.size() - updates.size());
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(ExecutionContextParametersNames.VARIANTS_RECEIVED, receivedVariants.get());
+        executionContext.putLong(ExecutionContextParametersNames.VARIANTS_MERGED, mergedVariants.get());
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        long received = receivedVariants.get();
+        long mergedPercentage = received == 0 ? 0 : mergedVariants.get() * 100 / received;
+        logger.info("Variants received = {}, merged = {} ({}% of the variants had the same id as a previous one in "
+                            + "their chunk)", received, mergedVariants.get(), mergedPercentage);
+    }
+
+    public long getReceivedVariants() {
+        return receivedVariants.get();
+    }
+
+    public long getMergedVariants() {
+        return mergedVariants.get();
+    }
+
+    /**
+     * Builds the update of every variant, merging the ones with the same id into the update of the first of them
+     */
+    private List<VariantUpdate> mergeUpdates(List<? extends Variant> variants) {
+        Map<String, VariantUpdate> updates = new LinkedHashMap<>();
         for (Variant variant : variants) {
             String id = VariantDocument.buildVariantId(variant.getChromosome(), variant.getStart(),
                     variant.getReference(), variant.getAlternate());
+            DBObject update = generateUpdate(variant);
+            VariantUpdate previousUpdate = updates.get(id);
+            if (previousUpdate == null) {
+                // the chromosome and start appear just as shard keys, in an unsharded cluster they wouldn't be needed
+                BasicDBObject query = new BasicDBObject("_id", id)
+                        .append(VariantDocument.CHROMOSOME_FIELD, variant.getChromosome())
+                        .append(VariantDocument.START_FIELD, variant.getStart());
+                updates.put(id, new VariantUpdate(query, update));
+            } else {
+                mergeAddToSet(previousUpdate.update, update);
+            }
+        }
+        return new ArrayList<>(updates.values());
+    }
 
-            // the chromosome and start appear just as shard keys, in an unsharded cluster they wouldn't be needed
-            BasicDBObject query = new BasicDBObject("_id", id)
-                    .append(VariantDocument.CHROMOSOME_FIELD, variant.getChromosome())
-                    .append(VariantDocument.START_FIELD, variant.getStart());
+    /**
+     * Adds the values of the $addToSet of an update to another, skipping the repeated ones as MongoDB would. The
+     * $setOnInsert of the other update is ignored, as it would be if it was executed after the first one.
+     */
+    private static void mergeAddToSet(DBObject update, DBObject otherUpdate) {
+        DBObject otherAddToSet = (DBObject) otherUpdate.get("$addToSet");
+        if (otherAddToSet == null) {
+            return;
+        }
+        DBObject addToSet = (DBObject) update.get("$addToSet");
+        if (addToSet == null) {
+            addToSet = new BasicDBObject();
+            update.put("$addToSet", addToSet);
+        }
+        for (String field : otherAddToSet.keySet()) {
+            BasicDBList values = getAddedValues(addToSet.get(field));
+            for (Object value : getAddedValues(otherAddToSet.get(field))) {
+                if (!values.contains(value)) {
+                    values.add(value);
+                }
+            }
+            addToSet.put(field, new BasicDBObject("$each", values));
+        }
+    }
 
-            bulk.find(query).upsert().updateOne(generateUpdate(variant));
+    /**
+     * @return a new list with the values that an $addToSet adds to a field, given with $each or alone
+     */
+    private static BasicDBList getAddedValues(Object addedValue) {
+        BasicDBList values = new BasicDBList();
+        if (addedValue instanceof DBObject && ((DBObject) addedValue).containsField("$each")) {
+            values.addAll((Collection<?>) ((DBObject) addedValue).get("$each"));
+        } else if (addedValue != null) {
+            values.add(addedValue);
+        }
+        return values;
+    }
 
+    /**
+     * Submits the bulks while they are built, blocking when there are too many of them in flight, and waits for all
+     * of them. If any fails, the first error is thrown after the rest have finished.
+     */
+    private void writeBehind(List<VariantUpdate> updates) {
+        List<Future<?>> pendingBulks = new ArrayList<>();
+        try {
+            for (int start = 0; start < updates.size(); start += bulkSize) {
+                List<VariantUpdate> bulkUpdates = updates.subList(start, Math.min(start + bulkSize, updates.size()));
+                VariantBulk bulk = buildBulk(bulkUpdates, insertNewVariants);
+                bulksInFlight.acquire();
+                try {
+                    pendingBulks.add(bulkExecutor.submit(() -> {
+                        try {
+                            executeBulk(bulk);
+                        } finally {
+                            bulksInFlight.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    bulksInFlight.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            waitForBulks(pendingBulks);
+            throw new IllegalStateException("Interrupted while writing the variants", e);
+        } catch (RuntimeException e) {
+            waitForBulks(pendingBulks);
+            throw e;
+        }
+        RuntimeException error = waitForBulks(pendingBulks);
+        if (error != null) {
+            throw error;
         }
+    }
 
-        executeBulk(bulk, variants.size());
+    /**
+     * @return the first error of the bulks, or null if all of them succeeded
+     */
+    private RuntimeException waitForBulks(List<Future<?>> pendingBulks) {
+        RuntimeException error = null;
+        boolean interrupted = false;
+        for (Future<?> pendingBulk : pendingBulks) {
+            while (true) {
+                try {
+                    pendingBulk.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // the bulks must finish before returning, otherwise they could be written after a rollback
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        Throwable cause = e.getCause();
+                        error = cause instanceof RuntimeException ? (RuntimeException) cause
+                                : new IllegalStateException("Could not write the variants", cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return error;
     }
 
-    private void executeBulk(BulkWriteOperation bulk, int currentBulkSize) {
-        if (currentBulkSize != 0) {
-            logger.trace("Execute bulk. BulkSize : " + currentBulkSize);
-            bulk.execute();
+    @Override
+    public void destroy() {
+        if (bulkExecutor != null) {
+            bulkExecutor.shutdown();
         }
     }
 
-    private void createIndexes() {
-        mongoOperations.getCollection(collection).createIndex(
-                new BasicDBObject(VariantDocument.CHROMOSOME_FIELD, 1)
-                        .append(VariantDocument.START_FIELD, 1).append(VariantDocument.END_FIELD, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
+    private VariantBulk buildBulk(List<VariantUpdate> updates, boolean insertNewVariants) {
+        DBCollection dbCollection = mongoOperations.getCollection(collection);
+        BulkWriteOperation bulk = dbCollection.initializeUnorderedBulkOperation();
+        Set<String> existingIds = null;
+        if (insertNewVariants) {
+            List<String> ids = new ArrayList<>(updates.size());
+            for (VariantUpdate variantUpdate : updates) {
+                ids.add((String) variantUpdate.query.get("_id"));
+            }
+            existingIds = findExistingIds(dbCollection, ids);
+        }
 
-        mongoOperations.getCollection(collection).createIndex(
-                new BasicDBObject(VariantDocument.IDS_FIELD, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
+        Map<Integer, VariantUpdate> insertedVariants = new HashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            VariantUpdate variantUpdate = updates.get(i);
+            if (existingIds != null && !existingIds.contains(variantUpdate.query.get("_id"))) {
+                bulk.insert(generateInsertedDocument(variantUpdate.query, variantUpdate.update));
+                insertedVariants.put(i, variantUpdate);
+            } else {
+                bulk.find(variantUpdate.query).upsert().updateOne(variantUpdate.update);
+            }
+        }
+        if (insertNewVariants) {
+            logger.trace("{} new variants inserted and {} upserted", insertedVariants.size(),
+                         updates.size() - insertedVariants.size());
+        }
+        return new VariantBulk(bulk, updates.size(), insertedVariants);
+    }
+
+    private Set<String> findExistingIds(DBCollection dbCollection, List<String> ids) {
+        Set<String> existingIds = new HashSet<>();
+        BasicDBObject query = new BasicDBObject("_id", new BasicDBObject("$in", ids));
+        try (DBCursor cursor = dbCollection.find(query, new BasicDBObject("_id", 1))) {
+            for (DBObject document : cursor) {
+                existingIds.add((String) document.get("_id"));
+            }
+        }
+        return existingIds;
+    }
 
+    /**
+     * Builds the document that the upsert would create if the variant was not in the collection
+     */
+    private DBObject generateInsertedDocument(BasicDBObject query, DBObject update) {
+        BasicDBObject document = new BasicDBObject(query);
+        document.putAll((DBObject) update.get("$setOnInsert"));
+        DBObject addToSet = (DBObject) update.get("$addToSet");
+        if (addToSet != null) {
+            for (String field : addToSet.keySet()) {
+                document.put(field, getAddedValues(addToSet.get(field)));
+            }
+        }
+        return document;
+    }
+
+    private void executeBulk(VariantBulk bulk) {
+        if (bulk.size == 0) {
+            return;
+        }
+        logger.trace("Execute bulk. BulkSize : " + bulk.size);
+        try {
+            bulk.operation.execute();
+        } catch (BulkWriteException e) {
+            List<VariantUpdate> collisions = new ArrayList<>();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                VariantUpdate variantUpdate = bulk.insertedVariants.get(error.getIndex());
+                if (variantUpdate == null || error.getCode() != DUPLICATE_KEY_ERROR_CODE) {
+                    throw e;
+                }
+                collisions.add(variantUpdate);
+            }
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+            logger.debug("{} variants were inserted by another writer, upserting them", collisions.size());
+            executeBulk(buildBulk(collisions, false));
+        }
+    }
+
+    private void createIndexes() {
+        for (DBObject index : getIndexes()) {
+            mongoOperations.getCollection(collection).createIndex(index,
+                    new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
+        }
+    }
+
+    /**
+     * @return the keys of the indexes of the variants collection
+     */
+    public static List<DBObject> getIndexes() {
         String filesStudyIdField = String.format("%s.%s", VariantDocument.FILES_FIELD,
                 VariantSourceEntryMongo.STUDYID_FIELD);
         String filesFileIdField = String.format("%s.%s", VariantDocument.FILES_FIELD,
                 VariantSourceEntryMongo.FILEID_FIELD);
-        mongoOperations.getCollection(collection).createIndex(
-                new BasicDBObject(filesStudyIdField, 1).append(filesFileIdField, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
 
-        mongoOperations.getCollection(collection).createIndex(
+        return Arrays.asList(
+                new BasicDBObject(VariantDocument.CHROMOSOME_FIELD, 1)
+                        .append(VariantDocument.START_FIELD, 1).append(VariantDocument.END_FIELD, 1),
+                new BasicDBObject(VariantDocument.IDS_FIELD, 1),
+                new BasicDBObject(filesStudyIdField, 1).append(filesFileIdField, 1),
                 new BasicDBObject(ANNOTATION_FIELD + "." + XREFS_FIELD, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
-        mongoOperations.getCollection(collection).createIndex(
-                new BasicDBObject(ANNOTATION_FIELD + "." + SO_ACCESSION_FIELD, 1),
-                new BasicDBObject(MongoDBHelper.BACKGROUND_INDEX, true));
+                new BasicDBObject(ANNOTATION_FIELD + "." + SO_ACCESSION_FIELD, 1));
     }
 
     private DBObject generateUpdate(Variant variant) {
         Assert.notNull(variant, "Variant should not be null. Please provide a valid Variant object");
         logger.trace("Convert variant {} into mongo object", variant);
 
+        DBObject update = generateUpdate(variant, false);
+        if (verifyEncoding) {
+            DBObject convertedUpdate = generateUpdate(variant, true);
+            if (!update.equals(convertedUpdate)) {
+                throw new IllegalStateException("The update " + update + " for variant " + variant
+                                                        + " is different from the converted one: " + convertedUpdate);
+            }
+        }
+        return update;
+    }
+
+    private DBObject generateUpdate(Variant variant, boolean useConverter) {
         BasicDBObject addToSet = new BasicDBObject();
 
         if (!variant.getSourceEntries().isEmpty()) {
             VariantSourceEntry variantSourceEntry = variant.getSourceEntries().values().iterator().next();
 
-            addToSet.put(VariantDocument.FILES_FIELD, convert(variantSourceEntry));
+            addToSet.put(VariantDocument.FILES_FIELD, convert(variantSourceEntry, useConverter));
 
             if (includeStats) {
-                BasicDBList basicDBList = convertStatistics(variantSourceEntry);
+                BasicDBList basicDBList = convertStatistics(variantSourceEntry, useConverter);
                 addToSet.put(VariantDocument.STATS_FIELD, new BasicDBObject("$each", basicDBList));
             }
         }
@@ -147,12 +545,12 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
         if (!addToSet.isEmpty()) {
             update.put("$addToSet", addToSet);
         }
-        update.append("$setOnInsert", convert(variant));
+        update.append("$setOnInsert", convert(variant, useConverter));
 
         return update;
     }
 
-    private BasicDBList convertStatistics(VariantSourceEntry variantSourceEntry) {
+    private BasicDBList convertStatistics(VariantSourceEntry variantSourceEntry, boolean useConverter) {
         List<VariantStatsMongo> variantStats = new ArrayList<>();
         for (Map.Entry<String, VariantStats> variantStatsEntry : variantSourceEntry.getCohortStats().entrySet()) {
             variantStats.add(new VariantStatsMongo(
@@ -162,10 +560,17 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                     variantStatsEntry.getValue()
             ));
         }
-        return (BasicDBList) mongoOperations.getConverter().convertToMongoType(variantStats);
+        if (useConverter) {
+            return (BasicDBList) mongoOperations.getConverter().convertToMongoType(variantStats);
+        }
+        BasicDBList statsList = new BasicDBList();
+        for (VariantStatsMongo stats : variantStats) {
+            statsList.add(stats.toDBObject());
+        }
+        return statsList;
     }
 
-    private DBObject convert(VariantSourceEntry variantSourceEntry) {
+    private DBObject convert(VariantSourceEntry variantSourceEntry, boolean useConverter) {
         VariantSourceEntryMongo variantSource = null;
         if (includeSamples) {
             variantSource = new VariantSourceEntryMongo(
@@ -184,10 +589,13 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                     variantSourceEntry.getAttributes()
             );
         }
-        return (DBObject) mongoOperations.getConverter().convertToMongoType(variantSource);
+        if (useConverter) {
+            return (DBObject) mongoOperations.getConverter().convertToMongoType(variantSource);
+        }
+        return variantSource.toDBObject();
     }
 
-    private DBObject convert(Variant variant) {
+    private DBObject convert(Variant variant, boolean useConverter) {
         SimplifiedVariant simplifiedVariant = new SimplifiedVariant(
                 variant.getType(),
                 variant.getChromosome(),
@@ -197,6 +605,9 @@ public class VariantMongoWriter extends MongoItemWriter<Variant> {
                 variant.getReference(),
                 variant.getAlternate(),
                 variant.getHgvs());
-        return (DBObject) mongoOperations.getConverter().convertToMongoType(simplifiedVariant);
+        if (useConverter) {
+            return (DBObject) mongoOperations.getConverter().convertToMongoType(simplifiedVariant);
+        }
+        return simplifiedVariant.toDBObject();
     }
 }
\ No newline at end of file
@@ -17,8 +17,12 @@ package uk.ac.ebi.eva.pipeline.io.writers;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
 
+import uk.ac.ebi.eva.pipeline.io.VepAnnotationStreamer;
+import uk.ac.ebi.eva.pipeline.io.VepChunkSizeController;
+import uk.ac.ebi.eva.pipeline.io.VepInputSerializer;
 import uk.ac.ebi.eva.pipeline.io.VepProcess;
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
 import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
@@ -27,9 +31,16 @@ import java.util.List;
 
 /**
  * ItemStreamWriter that takes VariantWrappers and serialize them into a {@link VepProcess}, which will be responsible
- * for annotating the variants and writing them to a file.
+ * for annotating the variants and writing them to a file. A new VEP process is launched for every chunk, see
+ * {@link PooledVepAnnotationFileWriter} to reuse the processes.
+ * <p>
+ * If a {@link VepAnnotationStreamer} is provided, the annotations of each chunk are written into the database instead
+ * of into the file.
+ * <p>
+ * If a {@link VepChunkSizeController} is set, the time taken by VEP to annotate every chunk is reported to it, and the
+ * VEP buffer size follows the chunk size that it chooses.
  */
-public class VepAnnotationFileWriter implements ItemWriter<EnsemblVariant> {
+public class VepAnnotationFileWriter extends AbstractItemStreamItemWriter<EnsemblVariant> {
 
     private static final Logger logger = LoggerFactory.getLogger(VepAnnotationFileWriter.class);
 
@@ -39,22 +50,47 @@ public class VepAnnotationFileWriter implements ItemWriter<EnsemblVariant> {
 
     private final Long timeoutInSeconds;
 
+    private final String vepOutput;
+
+    private final VepAnnotationStreamer annotationStreamer;
+
+    private final VepInputSerializer inputSerializer;
+
+    private VepChunkSizeController chunkSizeController;
+
     public VepAnnotationFileWriter(AnnotationParameters annotationParameters, Integer chunkSize, Long timeoutInSeconds) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, annotationParameters.getVepOutput());
+    }
+
+    public VepAnnotationFileWriter(AnnotationParameters annotationParameters, Integer chunkSize, Long timeoutInSeconds,
+                                   String vepOutput) {
+        this(annotationParameters, chunkSize, timeoutInSeconds, vepOutput, null);
+    }
+
+    public VepAnnotationFileWriter(AnnotationParameters annotationParameters, Integer chunkSize, Long timeoutInSeconds,
+                                   String vepOutput, VepAnnotationStreamer annotationStreamer) {
         this.annotationParameters = annotationParameters;
+        this.vepOutput = vepOutput;
         this.chunkSize = chunkSize;
         this.timeoutInSeconds = timeoutInSeconds;
+        this.annotationStreamer = annotationStreamer;
+        this.inputSerializer = new VepInputSerializer();
+    }
+
+    public void setChunkSizeController(VepChunkSizeController chunkSizeController) {
+        this.chunkSizeController = chunkSizeController;
     }
 
     @Override
     public void write(List<? extends EnsemblVariant> variantWrappers) throws Exception {
-        VepProcess vepProcess = new VepProcess(annotationParameters, chunkSize, timeoutInSeconds);
+        long start = System.nanoTime();
+        int bufferSize = chunkSizeController == null ? chunkSize : chunkSizeController.getChunkSize();
+        VepProcess vepProcess = new VepProcess(annotationParameters, bufferSize, timeoutInSeconds, vepOutput,
+                                               annotationStreamer);
         vepProcess.open();
 
-        for (EnsemblVariant ensemblVariant : variantWrappers) {
-            String line = getVariantInVepInputFormat(ensemblVariant);
-            vepProcess.write(line.getBytes());
-            vepProcess.write(System.lineSeparator().getBytes());
-        }
+        inputSerializer.serialize(variantWrappers);
+        vepProcess.write(inputSerializer.getBuffer(), 0, inputSerializer.getLength());
 
         if (variantWrappers.size() > 0) {
             EnsemblVariant first = variantWrappers.get(0);
@@ -65,15 +101,18 @@ public class VepAnnotationFileWriter implements ItemWriter<EnsemblVariant> {
 
         vepProcess.flush();
         vepProcess.close();
+
+        if (chunkSizeController != null) {
+            chunkSizeController.recordChunk(variantWrappers.size(), System.nanoTime() - start);
+        }
     }
 
-    private String getVariantInVepInputFormat(EnsemblVariant ensemblVariant) {
-        return String.join("\t",
-                           ensemblVariant.getChr(),
-                           Integer.toString(ensemblVariant.getStart()),
-                           Integer.toString(ensemblVariant.getEnd()),
-                           ensemblVariant.getRefAlt(),
-                           ensemblVariant.getStrand());
+    @Override
+    public void close() throws ItemStreamException {
+        if (annotationStreamer != null) {
+            annotationStreamer.logCounters();
+        }
+        super.close();
     }
 
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.deciders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+
+/**
+ * Decider used to run the steps that create the indexes of a collection only when its writer was told to defer them.
+ * Otherwise the writer already created them, and the flow goes on as if those steps didn't exist.
+ */
+public class DeferredIndexesDecider implements JobExecutionDecider {
+    private static final Logger logger = LoggerFactory.getLogger(DeferredIndexesDecider.class);
+
+    public static final String DEFERRED = "DEFERRED";
+
+    public static final String NOT_DEFERRED = "NOT_DEFERRED";
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        if (Boolean.parseBoolean(jobExecution.getJobParameters().getString(JobParametersNames.DB_DEFER_INDEXES))) {
+            logger.info("Creating the indexes deferred due to {} enabled", JobParametersNames.DB_DEFER_INDEXES);
+            return new FlowExecutionStatus(DEFERRED);
+        }
+        return new FlowExecutionStatus(NOT_DEFERRED);
+    }
+
+}
@@ -23,6 +23,7 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.job.flow.FlowExecutionStatus;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.utils.URLHelper;
 
@@ -32,7 +33,11 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 
 /**
- * Decider used to skip step(s) if the file vepOutput is empty
+ * Decider used to skip step(s) if the file vepOutput is empty.
+ * <p>
+ * If the annotations were streamed into the database, there is no file to load, so the loading step is skipped, and
+ * the subsequent steps are skipped if no variant was annotated. The loading step is skipped too when the file is empty
+ * because the annotations of all the variants were already stored, but the subsequent steps still run.
  */
 public class EmptyVepOutputDecider implements JobExecutionDecider {
     private static final Logger logger = LoggerFactory.getLogger(EmptyVepOutputDecider.class);
@@ -41,18 +46,55 @@ public class EmptyVepOutputDecider implements JobExecutionDecider {
 
     public static final String CONTINUE_FLOW = "CONTINUE_FLOW";
 
+    public static final String ANNOTATIONS_STREAMED = "ANNOTATIONS_STREAMED";
+
+    public static final String ANNOTATIONS_CACHED = "ANNOTATIONS_CACHED";
+
     @Override
     public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        if (Boolean.parseBoolean(jobExecution.getJobParameters().getString(JobParametersNames.ANNOTATION_STREAMING))) {
+            return decideStreamed(stepExecution);
+        }
+
         String vepOutput = getVepOutput(jobExecution);
 
         if (getFileSize(vepOutput) > 0) {
             return new FlowExecutionStatus(CONTINUE_FLOW);
         }
 
+        long cacheHits = getCacheHits(jobExecution);
+        if (cacheHits > 0) {
+            logger.info("File {} is empty, but the annotations of {} variants were already stored", vepOutput,
+                        cacheHits);
+            return new FlowExecutionStatus(ANNOTATIONS_CACHED);
+        }
+
         logger.info("File {} is empty so subsequent steps will not run", vepOutput);
         return new FlowExecutionStatus(STOP_FLOW);
     }
 
+    private FlowExecutionStatus decideStreamed(StepExecution stepExecution) {
+        if (stepExecution != null && stepExecution.getWriteCount() > 0) {
+            return new FlowExecutionStatus(ANNOTATIONS_STREAMED);
+        }
+
+        logger.info("No variants were annotated so subsequent steps will not run");
+        return new FlowExecutionStatus(STOP_FLOW);
+    }
+
+    /**
+     * @return number of variants whose annotation was found in the annotations collection instead of sending them to
+     * VEP, added over the steps of the job and its partitions
+     */
+    private long getCacheHits(JobExecution jobExecution) {
+        long cacheHits = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            cacheHits += stepExecution.getExecutionContext().getLong(
+                    ExecutionContextParametersNames.ANNOTATION_CACHE_HITS, 0);
+        }
+        return cacheHits;
+    }
+
     private String getVepOutput(JobExecution jobExecution) {
         JobParameters jobParameters = jobExecution.getJobParameters();
 
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.deciders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+
+/**
+ * Decider used to choose between loading all the variants of the VCF in a single step, or in partitions by ranges of
+ * the file, when the number of partitions is specified.
+ */
+public class LoadVariantsPartitionsDecider implements JobExecutionDecider {
+    private static final Logger logger = LoggerFactory.getLogger(LoadVariantsPartitionsDecider.class);
+
+    public static final String PARTITIONED = "PARTITIONED";
+
+    public static final String NOT_PARTITIONED = "NOT_PARTITIONED";
+
+    @Override
+    public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+        String numPartitions = jobExecution.getJobParameters().getString(JobParametersNames.INPUT_VCF_NUM_PARTITIONS);
+        if (numPartitions != null && Integer.parseInt(numPartitions) > 0) {
+            logger.info("Loading up to {} ranges of the VCF concurrently", numPartitions);
+            return new FlowExecutionStatus(PARTITIONED);
+        }
+        return new FlowExecutionStatus(NOT_PARTITIONED);
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.pipeline.io.readers.VariantsMongoReader;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.utils.URLHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument.CHROMOSOME_FIELD;
+
+/**
+ * Splits the variants to annotate in partitions by chromosome. The chromosomes are taken from the index on
+ * chromosome and start, regardless of whether their variants are annotated already: a partition without variants to
+ * annotate just reads nothing. Every partition writes the annotations into its own output shard, which
+ * {@link VepAnnotationShardsAggregator} merges into the VEP output when the partitions finish.
+ * <p>
+ * There is a partition per chromosome unless there are more chromosomes than partitions allowed, as in assemblies
+ * with thousands of scaffolds. Then consecutive chromosomes are grouped in partitions of a similar number of variants,
+ * counted up to {@link #MAX_COUNTED_VARIANTS} per chromosome, which is enough to tell the small contigs apart.
+ * <p>
+ * The header of the VEP output must appear only once, and VEP processes don't write it if the output file exists
+ * already, so the shards of all the partitions but the first one are created empty in advance.
+ */
+public class ChromosomePartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChromosomePartitioner.class);
+
+    static final String PARTITION_PREFIX = "partition";
+
+    static final String PARTITION_INDEX = "partitionIndex";
+
+    static final long MAX_COUNTED_VARIANTS = 100000;
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionVariantsName;
+
+    private final int numPartitions;
+
+    private final String vepOutput;
+
+    /**
+     * @param numPartitions number of partitions that will run concurrently
+     * @param vepOutput file where the shards of the partitions will be merged
+     */
+    public ChromosomePartitioner(MongoOperations mongoOperations, String collectionVariantsName, int numPartitions,
+                                 String vepOutput) {
+        this.mongoOperations = mongoOperations;
+        this.collectionVariantsName = collectionVariantsName;
+        this.numPartitions = numPartitions;
+        this.vepOutput = vepOutput;
+    }
+
+    /**
+     * @param gridSize there will be at most as many partitions as the greatest of the grid size and the number of
+     *                 partitions that run concurrently
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<String> chromosomes = getChromosomes();
+        List<List<String>> groups = groupChromosomes(chromosomes, Math.max(Math.max(gridSize, numPartitions), 1));
+        logger.info("Annotating variants from {} chromosomes in {} partitions", chromosomes.size(), groups.size());
+
+        boolean headerWritten = new File(vepOutput).exists();
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            String shard = URLHelper.resolveVepOutputShard(vepOutput, i);
+            if (headerWritten || i > 0) {
+                createIfAbsent(shard);
+            }
+
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putString(ExecutionContextParametersNames.CHROMOSOME,
+                                       String.join(VariantsMongoReader.CHROMOSOME_SEPARATOR, groups.get(i)));
+            executionContext.putString(ExecutionContextParametersNames.VEP_OUTPUT, shard);
+            executionContext.putInt(PARTITION_INDEX, i);
+            partitions.put(PARTITION_PREFIX + i, executionContext);
+        }
+        return partitions;
+    }
+
+    /**
+     * Without a query, the distinct is answered from the index on chromosome and start.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> getChromosomes() {
+        List<Object> chromosomes = mongoOperations.getCollection(collectionVariantsName).distinct(CHROMOSOME_FIELD);
+        return chromosomes.stream().map(Object::toString).sorted().collect(Collectors.toList());
+    }
+
+    private List<List<String>> groupChromosomes(List<String> chromosomes, int maxPartitions) {
+        if (chromosomes.size() <= maxPartitions) {
+            return chromosomes.stream().map(Collections::singletonList).collect(Collectors.toList());
+        }
+
+        long[] sizes = new long[chromosomes.size()];
+        long totalSize = 0;
+        DBCollection collection = mongoOperations.getCollection(collectionVariantsName);
+        for (int i = 0; i < chromosomes.size(); i++) {
+            sizes[i] = collection.getCount(new BasicDBObject(CHROMOSOME_FIELD, chromosomes.get(i)), null,
+                                           MAX_COUNTED_VARIANTS, 0);
+            totalSize += sizes[i];
+        }
+
+        long partitionSize = (totalSize + maxPartitions - 1) / maxPartitions;
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>();
+        long groupSize = 0;
+        for (int i = 0; i < chromosomes.size(); i++) {
+            group.add(chromosomes.get(i));
+            groupSize += sizes[i];
+            boolean lastPartition = groups.size() == maxPartitions - 1;
+            if (groupSize >= partitionSize && !lastPartition) {
+                groups.add(group);
+                group = new ArrayList<>();
+                groupSize = 0;
+            }
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private void createIfAbsent(String shard) {
+        try {
+            new File(shard).createNewFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create the VEP output shard " + shard, e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.InputParameters;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a list of VCFs in one partition per VCF. The VCF is put in the execution context of its partition, where
+ * {@link InputParameters} takes it from instead of the job parameters, so the steps that process a single VCF can
+ * run as the workers of the partitions.
+ */
+public class VcfListPartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VcfListPartitioner.class);
+
+    static final String PARTITION_PREFIX = "partition";
+
+    static final String PARTITION_INDEX = "partitionIndex";
+
+    private final List<String> vcfs;
+
+    public VcfListPartitioner(List<String> vcfs) {
+        this.vcfs = vcfs;
+    }
+
+    /**
+     * @param gridSize ignored, there will be a partition per VCF
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        logger.info("Processing {} VCFs in separate partitions", vcfs.size());
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i < vcfs.size(); i++) {
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putString(ExecutionContextParametersNames.VCF, vcfs.get(i));
+            executionContext.putInt(PARTITION_INDEX, i);
+            partitions.put(PARTITION_PREFIX + i, executionContext);
+        }
+        return partitions;
+    }
+}
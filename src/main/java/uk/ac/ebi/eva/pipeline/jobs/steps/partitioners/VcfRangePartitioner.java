@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.io.BgzfInputStream;
+import uk.ac.ebi.eva.pipeline.io.BgzfRangeSplitter;
+import uk.ac.ebi.eva.pipeline.io.readers.VcfRangeReader;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a BGZF-compressed VCF into ranges of lines, using {@link BgzfRangeSplitter}, so that every range is loaded
+ * by a {@link VcfRangeReader} in its own partition. The virtual offsets where every range starts and ends are put in
+ * the execution context of its partition.
+ * <p>
+ * Files that are not BGZF can't be read from the middle, so they are loaded in a single partition without offsets,
+ * that reads the whole file.
+ */
+public class VcfRangePartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VcfRangePartitioner.class);
+
+    static final String PARTITION_PREFIX = "partition";
+
+    static final String PARTITION_INDEX = "partitionIndex";
+
+    private final File vcf;
+
+    private final int numPartitions;
+
+    public VcfRangePartitioner(String vcf, int numPartitions) {
+        this.vcf = new File(vcf);
+        this.numPartitions = numPartitions;
+    }
+
+    /**
+     * @param gridSize ignored, the number of partitions is the one given in the constructor
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<Long> starts;
+        try {
+            if (!BgzfInputStream.isBgzf(vcf)) {
+                logger.info("{} is not BGZF-compressed, it will be loaded in a single partition", vcf);
+                ExecutionContext executionContext = new ExecutionContext();
+                executionContext.putInt(PARTITION_INDEX, 0);
+                return Collections.singletonMap(PARTITION_PREFIX + 0, executionContext);
+            }
+            starts = new BgzfRangeSplitter(vcf).split(numPartitions);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not split " + vcf + " into ranges", e);
+        }
+        logger.info("Loading {} in {} partitions", vcf, starts.size());
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i < starts.size(); i++) {
+            long end = i + 1 < starts.size() ? starts.get(i + 1) : Long.MAX_VALUE;
+
+            ExecutionContext executionContext = new ExecutionContext();
+            executionContext.putLong(ExecutionContextParametersNames.VCF_START_OFFSET, starts.get(i));
+            executionContext.putLong(ExecutionContextParametersNames.VCF_END_OFFSET, end);
+            executionContext.putInt(PARTITION_INDEX, i);
+            partitions.put(PARTITION_PREFIX + i, executionContext);
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.utils.URLHelper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates the partitions of the VEP annotation step, and appends the output shard of every completed partition to
+ * the VEP output, in the order of the partitions. The shards are gzipped files, and the concatenation of gzipped files
+ * is a valid gzipped file, so they don't need to be decompressed.
+ * <p>
+ * The shards of failed partitions are not merged, so that they are annotated again if the step is restarted.
+ */
+public class VepAnnotationShardsAggregator implements StepExecutionAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(VepAnnotationShardsAggregator.class);
+
+    private final StepExecutionAggregator delegate;
+
+    public VepAnnotationShardsAggregator() {
+        delegate = new DefaultStepExecutionAggregator();
+    }
+
+    @Override
+    public void aggregate(StepExecution result, Collection<StepExecution> executions) {
+        delegate.aggregate(result, executions);
+
+        List<ExecutionContext> completedShards = executions.stream()
+                .filter(execution -> execution.getStatus() == BatchStatus.COMPLETED)
+                .map(StepExecution::getExecutionContext)
+                .filter(context -> context.containsKey(ExecutionContextParametersNames.VEP_OUTPUT))
+                .sorted(Comparator.comparingInt(context -> context.getInt(ChromosomePartitioner.PARTITION_INDEX)))
+                .collect(Collectors.toList());
+
+        if (!completedShards.isEmpty()) {
+            merge(getVepOutput(result.getJobExecution().getJobParameters()), completedShards);
+        }
+    }
+
+    private void merge(String vepOutput, List<ExecutionContext> shards) {
+        try (OutputStream output = new FileOutputStream(vepOutput, true)) {
+            for (ExecutionContext context : shards) {
+                File shard = new File(context.getString(ExecutionContextParametersNames.VEP_OUTPUT));
+                if (shard.exists()) {
+                    logger.debug("Merging {} into {}", shard, vepOutput);
+                    Files.copy(shard.toPath(), output);
+                    Files.delete(shard.toPath());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not merge the VEP output shards into " + vepOutput, e);
+        }
+        logger.info("Merged {} VEP output shards into {}", shards.size(), vepOutput);
+    }
+
+    /**
+     * Same as {@link uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters#getVepOutput()}
+     */
+    private String getVepOutput(JobParameters jobParameters) {
+        return URLHelper.resolveVepOutput(
+                jobParameters.getString(JobParametersNames.OUTPUT_DIR_ANNOTATION),
+                jobParameters.getString(JobParametersNames.INPUT_STUDY_ID, ""),
+                jobParameters.getString(JobParametersNames.INPUT_VCF_ID, ""));
+    }
+}
@@ -40,7 +40,6 @@ import uk.ac.ebi.eva.utils.URLHelper;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.Paths;
 
 /**
  * Tasklet that calculates statistics. See {@link org.opencb.biodata.models.variant.stats.VariantStats} for a list of
@@ -123,7 +122,7 @@ public class CalculateStatisticsTasklet implements Tasklet {
 
     private VariantSource getVariantSource() {
         return new VariantSource(
-                    Paths.get(inputParameters.getVcf()).getFileName().toString(),
+                    inputParameters.getVcfFileName(),
                     inputParameters.getVcfId(),
                     inputParameters.getStudyId(),
                     inputParameters.getStudyName(),
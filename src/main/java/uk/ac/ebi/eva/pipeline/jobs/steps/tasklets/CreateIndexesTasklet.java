@@ -0,0 +1,261 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.tasklets;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.CommandResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import uk.ac.ebi.eva.utils.MongoDBHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates the indexes of a collection whose writer was told not to create them, so that the documents were loaded
+ * without maintaining them.
+ * <p>
+ * The indexes that already exist are skipped, which lets a restarted step build only the ones that were missing. An
+ * index that another operation is still building is not considered to exist: the step waits for that build to finish
+ * first. The rest are built in the foreground with a single createIndexes command, so that the collection is scanned
+ * once for all of them, logging the progress that MongoDB reports every {@link #PROGRESS_INTERVAL_SECONDS} seconds.
+ * Every index built counts as a write of the step.
+ */
+public class CreateIndexesTasklet implements Tasklet {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateIndexesTasklet.class);
+
+    static final long PROGRESS_INTERVAL_SECONDS = 30;
+
+    static final long BUILDS_IN_PROGRESS_POLL_SECONDS = 5;
+
+    private static final String INDEX_BUILD_MESSAGE_PREFIX = "Index Build";
+
+    private static final String CREATE_INDEXES = "createIndexes";
+
+    private static final String INDEXES = "indexes";
+
+    private static final String KEY = "key";
+
+    private static final String NAME = "name";
+
+    private static final String MESSAGE = "msg";
+
+    private static final String QUERY = "query";
+
+    private static final String COMMAND = "command";
+
+    private final MongoOperations mongoOperations;
+
+    private final String collection;
+
+    private final List<DBObject> indexes;
+
+    public CreateIndexesTasklet(MongoOperations mongoOperations, String collection, List<DBObject> indexes) {
+        this.mongoOperations = mongoOperations;
+        this.collection = collection;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        DBCollection dbCollection = mongoOperations.getCollection(collection);
+        waitForBuildsInProgress(dbCollection);
+
+        List<DBObject> missingIndexes = findMissingIndexes(dbCollection);
+        if (missingIndexes.isEmpty()) {
+            logger.info("All the indexes of collection {} already exist", collection);
+            return RepeatStatus.FINISHED;
+        }
+        logger.info("Building {} indexes of collection {}: {}", missingIndexes.size(), collection, missingIndexes);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            waitForBuild(dbCollection, executor.submit(() -> buildIndexes(dbCollection, missingIndexes)));
+            logger.info("Indexes of collection {} built", collection);
+            contribution.incrementWriteCount(missingIndexes.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    private void buildIndexes(DBCollection dbCollection, List<DBObject> missingIndexes) {
+        BasicDBList indexSpecifications = new BasicDBList();
+        for (DBObject index : missingIndexes) {
+            indexSpecifications.add(new BasicDBObject(KEY, index)
+                                            .append(NAME, DBCollection.genIndexName(index))
+                                            .append(MongoDBHelper.BACKGROUND_INDEX, false));
+        }
+        dbCollection.getDB().command(new BasicDBObject(CREATE_INDEXES, collection)
+                                             .append(INDEXES, indexSpecifications))
+                    .throwOnError();
+    }
+
+    private void waitForBuildsInProgress(DBCollection dbCollection) throws InterruptedException {
+        List<DBObject> buildsInProgress;
+        while (!(buildsInProgress = findBuildsInProgress(dbCollection)).isEmpty()) {
+            for (DBObject build : buildsInProgress) {
+                logger.info("Waiting for an index build in progress on collection {}: {}", collection,
+                            build.get(MESSAGE));
+            }
+            TimeUnit.SECONDS.sleep(BUILDS_IN_PROGRESS_POLL_SECONDS);
+        }
+    }
+
+    /**
+     * @return the operations building any of our indexes on the collection. Builds whose keys are not reported are
+     * assumed to be building one of them.
+     */
+    private List<DBObject> findBuildsInProgress(DBCollection dbCollection) {
+        List<DBObject> buildsInProgress = new ArrayList<>();
+        for (DBObject build : findIndexBuilds(dbCollection)) {
+            List<DBObject> keys = getKeysBeingBuilt(build);
+            if (keys.isEmpty() || keys.stream().anyMatch(
+                    key -> indexes.stream().anyMatch(index -> haveSameKeys(index, key)))) {
+                buildsInProgress.add(build);
+            }
+        }
+        return buildsInProgress;
+    }
+
+    private List<DBObject> getKeysBeingBuilt(DBObject build) {
+        List<DBObject> keys = new ArrayList<>();
+        for (String field : Arrays.asList(QUERY, COMMAND)) {
+            Object command = build.get(field);
+            Object indexSpecifications = command instanceof DBObject ? ((DBObject) command).get(INDEXES) : null;
+            if (indexSpecifications instanceof List) {
+                for (Object indexSpecification : (List<?>) indexSpecifications) {
+                    if (indexSpecification instanceof DBObject
+                            && ((DBObject) indexSpecification).get(KEY) instanceof DBObject) {
+                        keys.add((DBObject) ((DBObject) indexSpecification).get(KEY));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private List<DBObject> findMissingIndexes(DBCollection dbCollection) {
+        List<DBObject> existingIndexes = new ArrayList<>();
+        for (DBObject indexInfo : dbCollection.getIndexInfo()) {
+            existingIndexes.add((DBObject) indexInfo.get(KEY));
+        }
+
+        List<DBObject> missingIndexes = new ArrayList<>();
+        for (DBObject index : indexes) {
+            if (existingIndexes.stream().noneMatch(existingIndex -> haveSameKeys(index, existingIndex))) {
+                missingIndexes.add(index);
+            }
+        }
+        return missingIndexes;
+    }
+
+    /**
+     * The directions of the keys may be stored as integers or doubles, so numbers are compared by value
+     */
+    static boolean haveSameKeys(DBObject index, DBObject otherIndex) {
+        if (!new ArrayList<>(index.keySet()).equals(new ArrayList<>(otherIndex.keySet()))) {
+            return false;
+        }
+        for (String key : index.keySet()) {
+            Object value = index.get(key);
+            Object otherValue = otherIndex.get(key);
+            boolean same = value instanceof Number && otherValue instanceof Number ?
+                    ((Number) value).doubleValue() == ((Number) otherValue).doubleValue() : value.equals(otherValue);
+            if (!same) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void waitForBuild(DBCollection dbCollection, Future<?> build) throws Exception {
+        while (true) {
+            try {
+                build.get(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException e) {
+                logProgress(dbCollection);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+    }
+
+    private void logProgress(DBCollection dbCollection) {
+        for (DBObject build : findIndexBuilds(dbCollection)) {
+            logger.info("Collection {}: {}", collection, build.get(MESSAGE));
+        }
+    }
+
+    /**
+     * @return the index builds on the collection that MongoDB reports as in progress, or an empty list if they can't
+     * be retrieved
+     */
+    private List<DBObject> findIndexBuilds(DBCollection dbCollection) {
+        List<DBObject> builds = new ArrayList<>();
+        try {
+            CommandResult result = dbCollection.getDB().getSisterDB("admin").command(
+                    new BasicDBObject("currentOp", 1));
+            if (!result.ok()) {
+                logger.debug("Could not get the index builds in progress: {}", result.getErrorMessage());
+                return builds;
+            }
+            for (Object operation : (List<?>) result.get("inprog")) {
+                DBObject dbOperation = (DBObject) operation;
+                Object message = dbOperation.get(MESSAGE);
+                if (isOnCollection(dbCollection, dbOperation) && message instanceof String
+                        && ((String) message).startsWith(INDEX_BUILD_MESSAGE_PREFIX)) {
+                    builds.add(dbOperation);
+                }
+            }
+        } catch (MongoException e) {
+            logger.debug("Could not get the index builds in progress", e);
+        }
+        return builds;
+    }
+
+    /**
+     * Index builds started with the createIndexes command are reported in the namespace of the database's commands
+     */
+    private boolean isOnCollection(DBCollection dbCollection, DBObject operation) {
+        for (String field : Arrays.asList(QUERY, COMMAND)) {
+            Object command = operation.get(field);
+            if (command instanceof DBObject && collection.equals(((DBObject) command).get(CREATE_INDEXES))) {
+                return true;
+            }
+        }
+        return dbCollection.getFullName().equals(operation.get("ns"));
+    }
+}
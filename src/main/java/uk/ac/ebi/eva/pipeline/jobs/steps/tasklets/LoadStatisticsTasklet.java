@@ -51,7 +51,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.UnknownHostException;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -141,7 +140,7 @@ public class LoadStatisticsTasklet implements Tasklet {
 
     private VariantSource getVariantSource() {
         return new VariantSource(
-                    Paths.get(inputParameters.getVcf()).getFileName().toString(),
+                    inputParameters.getVcfFileName(),
                     inputParameters.getVcfId(),
                     inputParameters.getStudyId(),
                     inputParameters.getStudyName(),
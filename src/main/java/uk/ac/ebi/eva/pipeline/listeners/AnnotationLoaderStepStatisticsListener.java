@@ -27,8 +27,11 @@ import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.utils.FileWithHeaderNumberOfLinesEstimator;
 import uk.ac.ebi.eva.utils.URLHelper;
 
+import java.io.File;
+
 /**
- * - Estimate the number of lines in the VEP annotation file before the step. This will be used in {@link StepProgressListener}
+ * - Estimate the number of lines and get the size of the VEP annotation file before the step. This will be used in
+ * {@link StepProgressListener}
  * - Log a statistics summary after the step
  */
 public class AnnotationLoaderStepStatisticsListener implements StepExecutionListener {
@@ -48,6 +51,8 @@ public class AnnotationLoaderStepStatisticsListener implements StepExecutionList
                 .estimateNumberOfLines(vepAnnotationFilePath);
         stepExecution.getExecutionContext()
                 .put(ExecutionContextParametersNames.NUMBER_OF_LINES, estimatedTotalNumberOfLines);
+        stepExecution.getExecutionContext()
+                .put(ExecutionContextParametersNames.INPUT_SIZE, new File(vepAnnotationFilePath).length());
     }
 
     @Override
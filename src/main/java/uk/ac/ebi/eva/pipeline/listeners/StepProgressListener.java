@@ -22,9 +22,14 @@ import org.springframework.batch.core.scope.context.ChunkContext;
 
 import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 
+import java.util.Map;
+
 /**
  * Log the number of read, write and skip items for each chunk.
  * Should be wired into a {@link org.springframework.batch.core.Step}
+ * <p>
+ * The percentage of completion is the bytes of the input file read by the reader out of the size of the file, when
+ * both are in the step execution context. Otherwise, it is the items read out of the estimated number of lines.
  */
 public class StepProgressListener implements ChunkListener {
     private static final Logger logger = LoggerFactory.getLogger(StepProgressListener.class);
@@ -35,8 +40,11 @@ public class StepProgressListener implements ChunkListener {
 
     @Override
     public void afterChunk(ChunkContext context) {
-        long estimatedTotalNumberOfLines = (long) context.getStepContext().getStepExecutionContext()
+        Map<String, Object> stepExecutionContext = context.getStepContext().getStepExecutionContext();
+        long estimatedTotalNumberOfLines = (long) stepExecutionContext
                 .getOrDefault(ExecutionContextParametersNames.NUMBER_OF_LINES, 0L);
+        long inputSize = (long) stepExecutionContext.getOrDefault(ExecutionContextParametersNames.INPUT_SIZE, 0L);
+        Long inputBytesRead = (Long) stepExecutionContext.get(ExecutionContextParametersNames.INPUT_BYTES_READ);
 
         long read = context.getStepContext().getStepExecution().getReadCount();
         long write = context.getStepContext().getStepExecution().getWriteCount();
@@ -47,7 +55,10 @@ public class StepProgressListener implements ChunkListener {
         String chunkStatisticsMessage = "Items read = " + read + ", items written = " + write + ", items skipped = " + skip;
         String stepName = context.getStepContext().getStepName() + ": ";
 
-        if (estimatedTotalNumberOfLines != 0) {
+        if (inputSize != 0 && inputBytesRead != null) {
+            int percent = (int) Math.min((inputBytesRead * 100) / inputSize, 100);
+            logger.info(stepName + percent + "% complete: " + chunkStatisticsMessage);
+        } else if (estimatedTotalNumberOfLines != 0) {
             int percent = (int) ((read * 100) / estimatedTotalNumberOfLines);
             logger.info(stepName + percent + "% complete: " + chunkStatisticsMessage);
         } else {
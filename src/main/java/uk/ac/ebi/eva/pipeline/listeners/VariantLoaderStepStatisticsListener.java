@@ -25,8 +25,11 @@ import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.utils.FileWithHeaderNumberOfLinesEstimator;
 
+import java.io.File;
+
 /**
- * - Estimate the number of lines in the VCF file before the step. This will be used in {@link StepProgressListener}
+ * - Estimate the number of lines and get the size of the VCF file before the step. This will be used in
+ * {@link StepProgressListener}
  * - Log a statistics summary after the step
  */
 public class VariantLoaderStepStatisticsListener implements StepExecutionListener {
@@ -34,9 +37,13 @@ public class VariantLoaderStepStatisticsListener implements StepExecutionListene
 
     @Override
     public void beforeStep(StepExecution stepExecution) {
-        String vcfFilePath = stepExecution.getJobExecution().getJobParameters().getString(JobParametersNames.INPUT_VCF);
+        // in a job that loads a list of VCFs, every partition has its own VCF
+        String vcfFilePath = stepExecution.getExecutionContext().getString(ExecutionContextParametersNames.VCF,
+                stepExecution.getJobExecution().getJobParameters().getString(JobParametersNames.INPUT_VCF));
         long estimatedTotalNumberOfLines = new FileWithHeaderNumberOfLinesEstimator().estimateNumberOfLines(vcfFilePath);
         stepExecution.getExecutionContext().put(ExecutionContextParametersNames.NUMBER_OF_LINES, estimatedTotalNumberOfLines);
+        stepExecution.getExecutionContext()
+                .put(ExecutionContextParametersNames.INPUT_SIZE, new File(vcfFilePath).length());
     }
 
     @Override
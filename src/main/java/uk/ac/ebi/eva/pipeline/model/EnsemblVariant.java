@@ -69,6 +69,14 @@ public class EnsemblVariant {
         return end;
     }
 
+    public String getReference() {
+        return reference;
+    }
+
+    public String getAlternate() {
+        return alternate;
+    }
+
     public String getRefAlt() {
         return String.format("%s/%s", reference, alternate);
     }
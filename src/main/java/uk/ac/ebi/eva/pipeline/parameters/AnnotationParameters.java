@@ -19,8 +19,13 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import uk.ac.ebi.eva.pipeline.io.NearbyVariantsCompletionPolicy;
+import uk.ac.ebi.eva.pipeline.io.VepChunkSizeController;
+import uk.ac.ebi.eva.pipeline.io.VepOutputCopier;
 import uk.ac.ebi.eva.utils.URLHelper;
 
+import java.util.zip.Deflater;
+
 /**
  * Service that holds access to the values for annotatation steps like VEP etc.
  *
@@ -35,6 +40,7 @@ public class AnnotationParameters {
     private static final String PARAMETER = "#{jobParameters['";
     private static final String END = "']}";
     private static final String OR_EMPTY = "']?:''}";
+    private static final String OR_ZERO = "']?:0}";
 
     @Value(PARAMETER + JobParametersNames.OUTPUT_DIR_ANNOTATION + END)
     private String outputDirAnnotation;
@@ -66,12 +72,45 @@ public class AnnotationParameters {
     @Value(PARAMETER + JobParametersNames.APP_VEP_TIMEOUT + END)
     private Long timeout;
 
+    @Value(PARAMETER + JobParametersNames.APP_VEP_NUM_WORKERS + OR_ZERO)
+    private Integer vepNumWorkers;
+
+    @Value(PARAMETER + JobParametersNames.APP_VEP_NUM_PARTITIONS + OR_ZERO)
+    private Integer vepNumPartitions;
+
+    @Value(PARAMETER + JobParametersNames.APP_VEP_OUTPUT_COMPRESSION_LEVEL + "']?:-1}")
+    private Integer vepOutputCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    @Value(PARAMETER + JobParametersNames.APP_VEP_OUTPUT_BUFFER_SIZE + "']?:65536}")
+    private Integer vepOutputBufferSize = VepOutputCopier.DEFAULT_BUFFER_SIZE;
+
+    @Value(PARAMETER + JobParametersNames.APP_VEP_ADAPTIVE_CHUNK_SIZE + "']?:false}")
+    private Boolean vepAdaptiveChunkSize = false;
+
+    @Value(PARAMETER + JobParametersNames.APP_VEP_MIN_CHUNK_SIZE + "']?:100}")
+    private Integer vepMinChunkSize = VepChunkSizeController.DEFAULT_MIN_CHUNK_SIZE;
+
+    @Value(PARAMETER + JobParametersNames.APP_VEP_MAX_CHUNK_SIZE + "']?:10000}")
+    private Integer vepMaxChunkSize = VepChunkSizeController.DEFAULT_MAX_CHUNK_SIZE;
+
     @Value(PARAMETER + JobParametersNames.INPUT_FASTA + END)
     private String inputFasta;
 
     @Value(PARAMETER + JobParametersNames.ANNOTATION_OVERWRITE + "']?:false}")
     private Boolean overwriteAnnotation;
 
+    @Value(PARAMETER + JobParametersNames.ANNOTATION_STREAMING + "']?:false}")
+    private Boolean streaming;
+
+    @Value(PARAMETER + JobParametersNames.ANNOTATION_CACHE + "']?:false}")
+    private Boolean cache;
+
+    @Value(PARAMETER + JobParametersNames.ANNOTATION_LOCUS_ORDER + "']?:false}")
+    private Boolean locusOrder = false;
+
+    @Value(PARAMETER + JobParametersNames.ANNOTATION_COALESCE_DISTANCE + "']?:10000}")
+    private Integer coalesceDistance = NearbyVariantsCompletionPolicy.DEFAULT_MAX_DISTANCE;
+
     public String getVepPath() {
         return vepPath;
     }
@@ -100,6 +139,57 @@ public class AnnotationParameters {
         return timeout;
     }
 
+    /**
+     * @return number of long-lived VEP processes that annotate chunks concurrently, or 0 to launch one VEP process
+     * per chunk
+     */
+    public Integer getVepNumWorkers() {
+        return vepNumWorkers;
+    }
+
+    /**
+     * @return number of chromosomes annotated concurrently, each one into its own output shard, or 0 to annotate all
+     * the variants together
+     */
+    public Integer getVepNumPartitions() {
+        return vepNumPartitions;
+    }
+
+    /**
+     * @return level used to compress the VEP output file, from 0 to 9, or -1 for the default compression
+     */
+    public Integer getVepOutputCompressionLevel() {
+        return vepOutputCompressionLevel;
+    }
+
+    /**
+     * @return size in bytes of the blocks in which the VEP output is read and compressed
+     */
+    public Integer getVepOutputBufferSize() {
+        return vepOutputBufferSize;
+    }
+
+    /**
+     * @return true if the size of the chunks sent to VEP is tuned during the step according to the measured throughput
+     */
+    public Boolean getVepAdaptiveChunkSize() {
+        return vepAdaptiveChunkSize;
+    }
+
+    /**
+     * @return lower bound of the chunk size when it is tuned adaptively
+     */
+    public Integer getVepMinChunkSize() {
+        return vepMinChunkSize;
+    }
+
+    /**
+     * @return upper bound of the chunk size when it is tuned adaptively
+     */
+    public Integer getVepMaxChunkSize() {
+        return vepMaxChunkSize;
+    }
+
     public String getInputFasta() {
         return inputFasta;
     }
@@ -108,6 +198,38 @@ public class AnnotationParameters {
         return overwriteAnnotation;
     }
 
+    /**
+     * @return true if the annotations are written into the database as VEP generates them, instead of into the VEP
+     * output file
+     */
+    public Boolean getStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @return true if the annotations already stored in the annotations collection for the same VEP and cache versions
+     * are reused, instead of annotating those variants again
+     */
+    public Boolean getCache() {
+        return cache;
+    }
+
+    /**
+     * @return true if the variants are sent to VEP sorted by chromosome and start, and nearby variants are kept in the
+     * same chunk
+     */
+    public Boolean getLocusOrder() {
+        return locusOrder;
+    }
+
+    /**
+     * @return maximum distance in bases between two variants for them to be kept in the same chunk when the variants
+     * are sorted by locus
+     */
+    public Integer getCoalesceDistance() {
+        return coalesceDistance;
+    }
+
     public String getVepOutput() {
         return URLHelper.resolveVepOutput(outputDirAnnotation, studyId, fileId);
     }
@@ -148,9 +270,53 @@ public class AnnotationParameters {
         this.timeout = timeout;
     }
 
+    public void setVepNumWorkers(Integer vepNumWorkers) {
+        this.vepNumWorkers = vepNumWorkers;
+    }
+
+    public void setVepNumPartitions(Integer vepNumPartitions) {
+        this.vepNumPartitions = vepNumPartitions;
+    }
+
+    public void setVepOutputCompressionLevel(Integer vepOutputCompressionLevel) {
+        this.vepOutputCompressionLevel = vepOutputCompressionLevel;
+    }
+
+    public void setVepOutputBufferSize(Integer vepOutputBufferSize) {
+        this.vepOutputBufferSize = vepOutputBufferSize;
+    }
+
+    public void setVepAdaptiveChunkSize(Boolean vepAdaptiveChunkSize) {
+        this.vepAdaptiveChunkSize = vepAdaptiveChunkSize;
+    }
+
+    public void setVepMinChunkSize(Integer vepMinChunkSize) {
+        this.vepMinChunkSize = vepMinChunkSize;
+    }
+
+    public void setVepMaxChunkSize(Integer vepMaxChunkSize) {
+        this.vepMaxChunkSize = vepMaxChunkSize;
+    }
+
     public void setInputFasta(String inputFasta) {
         this.inputFasta = inputFasta;
     }
+
+    public void setStreaming(Boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public void setCache(Boolean cache) {
+        this.cache = cache;
+    }
+
+    public void setLocusOrder(Boolean locusOrder) {
+        this.locusOrder = locusOrder;
+    }
+
+    public void setCoalesceDistance(Integer coalesceDistance) {
+        this.coalesceDistance = coalesceDistance;
+    }
 }
 
 
@@ -49,6 +49,18 @@ public class DatabaseParameters {
     @Value(PARAMETER + JobParametersNames.DB_COLLECTIONS_ANNOTATIONS_NAME + END)
     private String collectionAnnotationsName;
 
+    @Value(PARAMETER + JobParametersNames.DB_VERIFY_ENCODING + "']?:false}")
+    private boolean verifyEncoding;
+
+    @Value(PARAMETER + JobParametersNames.DB_BULKS_IN_FLIGHT + "']?:1}")
+    private int bulksInFlight;
+
+    @Value(PARAMETER + JobParametersNames.DB_INSERT_NEW_VARIANTS + "']?:false}")
+    private boolean insertNewVariants;
+
+    @Value(PARAMETER + JobParametersNames.DB_DEFER_INDEXES + "']?:false}")
+    private boolean deferIndexes;
+
     @Autowired
     private MongoConnection mongoConnection;
 
@@ -79,4 +91,20 @@ public class DatabaseParameters {
     public String getCollectionAnnotationsName() {
         return collectionAnnotationsName;
     }
+
+    public boolean isVerifyEncoding() {
+        return verifyEncoding;
+    }
+
+    public int getBulksInFlight() {
+        return bulksInFlight;
+    }
+
+    public boolean isInsertNewVariants() {
+        return insertNewVariants;
+    }
+
+    public boolean isDeferIndexes() {
+        return deferIndexes;
+    }
 }
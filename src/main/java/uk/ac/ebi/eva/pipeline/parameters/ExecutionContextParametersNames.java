@@ -20,4 +20,26 @@ package uk.ac.ebi.eva.pipeline.parameters;
  */
 public class ExecutionContextParametersNames {
     public static final String NUMBER_OF_LINES = "line";
+
+    public static final String INPUT_SIZE = "inputSize";
+
+    public static final String INPUT_BYTES_READ = "inputBytesRead";
+
+    public static final String CHROMOSOME = "chromosome";
+
+    public static final String VEP_OUTPUT = "vepOutput";
+
+    public static final String VCF = "vcf";
+
+    public static final String VCF_START_OFFSET = "vcfStartOffset";
+
+    public static final String VCF_END_OFFSET = "vcfEndOffset";
+
+    public static final String ANNOTATION_CACHE_HITS = "annotationCacheHits";
+
+    public static final String ANNOTATION_CACHE_MISSES = "annotationCacheMisses";
+
+    public static final String VARIANTS_RECEIVED = "variantsReceived";
+
+    public static final String VARIANTS_MERGED = "variantsMerged";
 }
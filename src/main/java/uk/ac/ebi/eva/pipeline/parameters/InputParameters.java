@@ -21,6 +21,14 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import uk.ac.ebi.eva.pipeline.io.mappers.SourceLinePolicy;
+import uk.ac.ebi.eva.utils.FileUtils;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Service that holds access to Job input parameters.
  */
@@ -32,6 +40,7 @@ public class InputParameters {
     private static final String END = "']}";
     private static final String OR_NULL = "']?:null}";
     private static final String OR_EMPTY = "']?:''}";
+    private static final String OR_ZERO = "']?:0}";
 
     @Value(PARAMETER + JobParametersNames.INPUT_STUDY_ID + END)
     private String studyId;
@@ -39,7 +48,11 @@ public class InputParameters {
     @Value(PARAMETER + JobParametersNames.INPUT_VCF_ID + OR_EMPTY)
     private String vcfId;
 
-    @Value(PARAMETER + JobParametersNames.INPUT_VCF + END)
+    /**
+     * In the partitions of a job that loads a list of VCFs, the VCF of the partition
+     */
+    @Value("#{stepExecutionContext['" + ExecutionContextParametersNames.VCF + "']?:jobParameters['"
+            + JobParametersNames.INPUT_VCF + END)
     private String vcf;
 
     @Value(PARAMETER + JobParametersNames.INPUT_GTF + END)
@@ -60,10 +73,60 @@ public class InputParameters {
     @Value(PARAMETER + JobParametersNames.INPUT_VCF_AGGREGATION_MAPPING_PATH + OR_NULL)
     private String aggregatedMappingFile;
 
+    @Value(PARAMETER + JobParametersNames.INPUT_VCF_PARSING_THREADS + "']?:1}")
+    private Integer vcfParsingThreads = 1;
+
+    @Value(PARAMETER + JobParametersNames.INPUT_VCF_NUM_PARTITIONS + OR_ZERO)
+    private Integer vcfNumPartitions = 0;
+
+    @Value(PARAMETER + JobParametersNames.INPUT_VCF_SOURCE_LINE + "']?:'FIRST_8_COLUMNS'}")
+    private String vcfSourceLine = SourceLinePolicy.FIRST_8_COLUMNS.name();
+
+    @Value(PARAMETER + JobParametersNames.INPUT_VCF_LIST + OR_NULL)
+    private String vcfList;
+
+    @Value(PARAMETER + JobParametersNames.INPUT_VCF_LIST_THREADS + "']?:4}")
+    private Integer vcfListThreads = 4;
+
+    /**
+     * @return the VCF to process. In a job that loads a list of VCFs, it is the VCF of the current partition, and
+     * null in the steps that process all of them together.
+     */
     public String getVcf() {
         return vcf;
     }
 
+    /**
+     * @return the file name of the VCF, or the file names of every VCF of the list, separated by commas, in the steps
+     * that process all of them together
+     */
+    public String getVcfFileName() {
+        List<String> vcfs = vcf == null ? getVcfList() : Collections.singletonList(vcf);
+        return vcfs.stream().map(file -> Paths.get(file).getFileName().toString()).collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the VCFs of the list, with the glob patterns expanded
+     * @see FileUtils#expandFilePatterns(String)
+     */
+    public List<String> getVcfList() {
+        return vcfList == null ? Collections.emptyList() : FileUtils.expandFilePatterns(vcfList);
+    }
+
+    /**
+     * @return number of VCFs of the list that are loaded concurrently
+     */
+    public Integer getVcfListThreads() {
+        return vcfListThreads;
+    }
+
+    /**
+     * @return what is stored of every line of the VCF as the "src" attribute of its variants
+     */
+    public SourceLinePolicy getVcfSourceLine() {
+        return SourceLinePolicy.valueOf(vcfSourceLine);
+    }
+
     public VariantSource.Aggregation getVcfAggregation() {
         return VariantSource.Aggregation.valueOf(vcfAggregation);
     }
@@ -95,4 +158,19 @@ public class InputParameters {
     public String getAggregatedMappingFile() {
         return aggregatedMappingFile;
     }
+
+    /**
+     * @return number of threads that parse the lines of the VCF; with only one, the lines are parsed by the thread
+     * that reads them
+     */
+    public Integer getVcfParsingThreads() {
+        return vcfParsingThreads;
+    }
+
+    /**
+     * @return number of ranges of the VCF loaded concurrently; with 0, the whole file is loaded in a single step
+     */
+    public Integer getVcfNumPartitions() {
+        return vcfNumPartitions;
+    }
 }
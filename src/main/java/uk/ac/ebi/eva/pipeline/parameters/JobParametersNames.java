@@ -43,6 +43,16 @@ public class JobParametersNames {
 
     public static final String INPUT_VCF_AGGREGATION_MAPPING_PATH = "input.vcf.aggregation.mapping-path";
 
+    public static final String INPUT_VCF_PARSING_THREADS = "input.vcf.parsing-threads";
+
+    public static final String INPUT_VCF_NUM_PARTITIONS = "input.vcf.num-partitions";
+
+    public static final String INPUT_VCF_SOURCE_LINE = "input.vcf.source-line";
+
+    public static final String INPUT_VCF_LIST = "input.vcf.list";
+
+    public static final String INPUT_VCF_LIST_THREADS = "input.vcf.list.threads";
+
     /*
      * Output
      */
@@ -87,6 +97,14 @@ public class JobParametersNames {
 
     public static final String DB_COLLECTIONS_ANNOTATIONS_NAME = "db.collections.annotations.name";
 
+    public static final String DB_VERIFY_ENCODING = "db.verify-encoding";
+
+    public static final String DB_BULKS_IN_FLIGHT = "db.bulks-in-flight";
+
+    public static final String DB_INSERT_NEW_VARIANTS = "db.insert-new-variants";
+
+    public static final String DB_DEFER_INDEXES = "db.defer-indexes";
+
 
     /*
      * Skip and overwrite steps
@@ -100,6 +118,14 @@ public class JobParametersNames {
 
     public static final String ANNOTATION_OVERWRITE = "annotation.overwrite";
 
+    public static final String ANNOTATION_STREAMING = "annotation.streaming";
+
+    public static final String ANNOTATION_CACHE = "annotation.cache";
+
+    public static final String ANNOTATION_LOCUS_ORDER = "annotation.locus-order";
+
+    public static final String ANNOTATION_COALESCE_DISTANCE = "annotation.coalesce-distance";
+
 
     /*
      * OpenCGA (parameters read from OpenCGA "conf" folder)
@@ -140,6 +166,20 @@ public class JobParametersNames {
 
     public static final String APP_VEP_TIMEOUT = "app.vep.timeout";
 
+    public static final String APP_VEP_NUM_WORKERS = "app.vep.num-workers";
+
+    public static final String APP_VEP_NUM_PARTITIONS = "app.vep.num-partitions";
+
+    public static final String APP_VEP_OUTPUT_COMPRESSION_LEVEL = "app.vep.output.compression-level";
+
+    public static final String APP_VEP_OUTPUT_BUFFER_SIZE = "app.vep.output.buffer-size";
+
+    public static final String APP_VEP_ADAPTIVE_CHUNK_SIZE = "app.vep.adaptive-chunk-size";
+
+    public static final String APP_VEP_MIN_CHUNK_SIZE = "app.vep.min-chunk-size";
+
+    public static final String APP_VEP_MAX_CHUNK_SIZE = "app.vep.max-chunk-size";
+
 
     /*
      * Other configuration
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.parameters.validation;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.JobParametersValidator;
+
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.utils.FileUtils;
+
+import java.util.List;
+
+/**
+ * Checks that the list of VCFs, once the glob patterns are expanded, has existing and readable files
+ *
+ * @throws JobParametersInvalidException If the list is empty, or any of the files doesn't exist or is not readable
+ */
+public class InputVcfListValidator implements JobParametersValidator {
+
+    @Override
+    public void validate(JobParameters parameters) throws JobParametersInvalidException {
+        String vcfList = parameters.getString(JobParametersNames.INPUT_VCF_LIST);
+        ParametersValidatorUtil.checkIsNotNullString(vcfList, JobParametersNames.INPUT_VCF_LIST);
+
+        List<String> vcfs = FileUtils.expandFilePatterns(vcfList);
+        if (vcfs.isEmpty()) {
+            throw new JobParametersInvalidException(
+                    String.format("%s in %s doesn't match any file", vcfList, JobParametersNames.INPUT_VCF_LIST));
+        }
+        for (String vcf : vcfs) {
+            ParametersValidatorUtil.checkFileExists(vcf, JobParametersNames.INPUT_VCF_LIST);
+            ParametersValidatorUtil.checkFileIsReadable(vcf, JobParametersNames.INPUT_VCF_LIST);
+        }
+    }
+}
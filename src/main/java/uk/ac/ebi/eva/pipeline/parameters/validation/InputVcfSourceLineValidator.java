@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.parameters.validation;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.JobParametersValidator;
+
+import uk.ac.ebi.eva.pipeline.io.mappers.SourceLinePolicy;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+
+/**
+ * Checks that the policy to store the VCF lines is one of {@link SourceLinePolicy}
+ *
+ * @throws JobParametersInvalidException If the policy is null, empty or unknown
+ */
+public class InputVcfSourceLineValidator implements JobParametersValidator {
+
+    @Override
+    public void validate(JobParameters parameters) throws JobParametersInvalidException {
+        ParametersValidatorUtil.checkIsValidString(
+                parameters.getString(JobParametersNames.INPUT_VCF_SOURCE_LINE),
+                JobParametersNames.INPUT_VCF_SOURCE_LINE);
+        try {
+            SourceLinePolicy.valueOf(parameters.getString(JobParametersNames.INPUT_VCF_SOURCE_LINE));
+        } catch (IllegalArgumentException e) {
+            throw new JobParametersInvalidException(e.getMessage());
+        }
+    }
+}
@@ -146,4 +146,15 @@ public class ParametersValidatorUtil {
                     String.format("%s is %s, please provide a positive number", jobParametersName, numberToValidate));
         }
     }
+
+    static void checkIsIntegerInRange(String numberToValidate, int min, int max,
+                                      String jobParametersName) throws JobParametersInvalidException {
+        int integer = checkIsInteger(numberToValidate, jobParametersName);
+
+        if (integer < min || integer > max) {
+            throw new JobParametersInvalidException(
+                    String.format("%s is %s, please provide a number between %d and %d", jobParametersName,
+                                  numberToValidate, min, max));
+        }
+    }
 }
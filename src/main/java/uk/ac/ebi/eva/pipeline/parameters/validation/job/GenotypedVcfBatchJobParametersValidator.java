@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.parameters.validation.job;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.job.DefaultJobParametersValidator;
+
+import uk.ac.ebi.eva.pipeline.configuration.jobs.GenotypedVcfBatchJobConfiguration;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfListThreadsValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfListValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.OptionalValidator;
+import uk.ac.ebi.eva.utils.FileUtils;
+
+/**
+ * Validates the job parameters necessary to execute an {@link GenotypedVcfBatchJobConfiguration}.
+ * <p>
+ * Apart from the list of VCFs, the parameters are the same as in a {@link GenotypedVcfJobParametersValidator}, which
+ * validates them as if the job loaded each VCF of the list.
+ */
+public class GenotypedVcfBatchJobParametersValidator extends DefaultJobParametersValidator {
+
+    @Override
+    public void validate(JobParameters parameters) throws JobParametersInvalidException {
+        new InputVcfListValidator().validate(parameters);
+        new OptionalValidator(new InputVcfListThreadsValidator(), JobParametersNames.INPUT_VCF_LIST_THREADS)
+                .validate(parameters);
+
+        for (String vcf : FileUtils.expandFilePatterns(parameters.getString(JobParametersNames.INPUT_VCF_LIST))) {
+            JobParameters vcfParameters = new JobParametersBuilder(parameters)
+                    .addString(JobParametersNames.INPUT_VCF, vcf)
+                    .toJobParameters();
+            new GenotypedVcfJobParametersValidator().validate(vcfParameters);
+        }
+    }
+
+}
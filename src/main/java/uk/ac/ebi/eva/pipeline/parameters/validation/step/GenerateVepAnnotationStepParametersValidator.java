@@ -23,7 +23,11 @@ import org.springframework.batch.core.job.DefaultJobParametersValidator;
 
 import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.GenerateVepAnnotationStepConfiguration;
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.validation.AnnotationCacheValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.AnnotationCoalesceDistanceValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.AnnotationLocusOrderValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.AnnotationOverwriteValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.AnnotationStreamingValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkSizeValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsVariantsNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
@@ -32,10 +36,17 @@ import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.OptionalValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.OutputDirAnnotationValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepAdaptiveChunkSizeValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepCachePathValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepCacheSpeciesValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepCacheVersionValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepNumForksValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepNumPartitionsValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepNumWorkersValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepMaxChunkSizeValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepMinChunkSizeValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepOutputBufferSizeValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.VepOutputCompressionLevelValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepPathValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.VepTimeoutValidator;
 
@@ -89,7 +100,22 @@ public class GenerateVepAnnotationStepParametersValidator extends DefaultJobPara
                 new VepNumForksValidator(),
                 new VepPathValidator(),
                 new VepTimeoutValidator(),
-                new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE)
+                new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE),
+                new OptionalValidator(new VepNumWorkersValidator(), JobParametersNames.APP_VEP_NUM_WORKERS),
+                new OptionalValidator(new VepNumPartitionsValidator(), JobParametersNames.APP_VEP_NUM_PARTITIONS),
+                new OptionalValidator(new VepOutputCompressionLevelValidator(),
+                                      JobParametersNames.APP_VEP_OUTPUT_COMPRESSION_LEVEL),
+                new OptionalValidator(new VepOutputBufferSizeValidator(),
+                                      JobParametersNames.APP_VEP_OUTPUT_BUFFER_SIZE),
+                new OptionalValidator(new VepAdaptiveChunkSizeValidator(),
+                                      JobParametersNames.APP_VEP_ADAPTIVE_CHUNK_SIZE),
+                new OptionalValidator(new VepMinChunkSizeValidator(), JobParametersNames.APP_VEP_MIN_CHUNK_SIZE),
+                new OptionalValidator(new VepMaxChunkSizeValidator(), JobParametersNames.APP_VEP_MAX_CHUNK_SIZE),
+                new OptionalValidator(new AnnotationStreamingValidator(), JobParametersNames.ANNOTATION_STREAMING),
+                new OptionalValidator(new AnnotationCacheValidator(), JobParametersNames.ANNOTATION_CACHE),
+                new OptionalValidator(new AnnotationLocusOrderValidator(), JobParametersNames.ANNOTATION_LOCUS_ORDER),
+                new OptionalValidator(new AnnotationCoalesceDistanceValidator(),
+                                      JobParametersNames.ANNOTATION_COALESCE_DISTANCE)
         );
 
         if (isStudyIdRequired) {
@@ -25,12 +25,19 @@ import uk.ac.ebi.eva.pipeline.configuration.jobs.steps.LoadVariantsStepConfigura
 import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkSizeValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigRestartabilityAllowValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbBulksInFlightValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsVariantsNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbDeferIndexesValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbInsertNewVariantsValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbVerifyEncodingValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfAggregationMappingPathValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfAggregationValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfIdValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfNumPartitionsValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfParsingThreadsValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfSourceLineValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.OptionalValidator;
 
@@ -70,6 +77,15 @@ public class LoadVariantsStepParametersValidator extends DefaultJobParametersVal
                 new InputVcfAggregationValidator(),
                 new OptionalValidator(new InputVcfAggregationMappingPathValidator(),
                         JobParametersNames.INPUT_VCF_AGGREGATION_MAPPING_PATH),
+                new OptionalValidator(new InputVcfParsingThreadsValidator(),
+                        JobParametersNames.INPUT_VCF_PARSING_THREADS),
+                new OptionalValidator(new InputVcfNumPartitionsValidator(),
+                        JobParametersNames.INPUT_VCF_NUM_PARTITIONS),
+                new OptionalValidator(new InputVcfSourceLineValidator(), JobParametersNames.INPUT_VCF_SOURCE_LINE),
+                new OptionalValidator(new DbVerifyEncodingValidator(), JobParametersNames.DB_VERIFY_ENCODING),
+                new OptionalValidator(new DbBulksInFlightValidator(), JobParametersNames.DB_BULKS_IN_FLIGHT),
+                new OptionalValidator(new DbInsertNewVariantsValidator(), JobParametersNames.DB_INSERT_NEW_VARIANTS),
+                new OptionalValidator(new DbDeferIndexesValidator(), JobParametersNames.DB_DEFER_INDEXES),
                 new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE),
                 new OptionalValidator(new ConfigRestartabilityAllowValidator(),
                         JobParametersNames.CONFIG_RESTARTABILITY_ALLOW)
@@ -27,6 +27,7 @@ import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigChunkSizeValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.ConfigRestartabilityAllowValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsAnnotationsNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbCollectionsVariantsNameValidator;
+import uk.ac.ebi.eva.pipeline.parameters.validation.DbDeferIndexesValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.DbNameValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputStudyIdValidator;
 import uk.ac.ebi.eva.pipeline.parameters.validation.InputVcfIdValidator;
@@ -68,7 +69,8 @@ public class LoadVepAnnotationStepParametersValidator extends DefaultJobParamete
                 new OutputDirAnnotationValidator(),
                 new OptionalValidator(new ConfigRestartabilityAllowValidator(),
                         JobParametersNames.CONFIG_RESTARTABILITY_ALLOW),
-                new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE)
+                new OptionalValidator(new ConfigChunkSizeValidator(), JobParametersNames.CONFIG_CHUNK_SIZE),
+                new OptionalValidator(new DbDeferIndexesValidator(), JobParametersNames.DB_DEFER_INDEXES)
         );
 
         if (isStudyIdRequired) {
@@ -15,46 +15,77 @@
  */
 package uk.ac.ebi.eva.utils;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
-import java.util.zip.ZipException;
 
 /**
  * Utility methods to work with compressed files.
  */
 public class CompressionHelper {
 
+    /**
+     * Magic number and deflate method, without flags, modification time nor extra flags, as written by
+     * {@link GZIPOutputStream}
+     */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    private static final int DEFLATE_BUFFER_SIZE = 512;
+
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(
+            () -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
     public static boolean isGzip(String file) throws IOException {
         return isGzip(new File(file));
     }
 
+    /**
+     * Checks only the magic number at the start of the file, without decompressing anything.
+     */
     public static boolean isGzip(File file) throws IOException {
-        try {
-            GZIPInputStream inputStream = new GZIPInputStream(new FileInputStream(file));
-            inputStream.close();
-        } catch (ZipException exception) {
-            return false;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return inputStream.read() == (GZIP_HEADER[0] & 0xff) && inputStream.read() == (GZIP_HEADER[1] & 0xff);
         }
-        return true;
     }
 
+    /**
+     * Compresses a text in gzip format. The same deflater is reused in every call from a thread, instead of creating
+     * a GZIPOutputStream every time, which is expensive when small texts are compressed one by one, as the source
+     * lines of the variants.
+     */
     public static byte[] gzip(String text) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        BufferedOutputStream bufos = new BufferedOutputStream(new GZIPOutputStream(bos));
+        byte[] input = text.getBytes();
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
 
-        try {
-            bufos.write(text.getBytes());
-        } finally {
-            bufos.close();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(GZIP_HEADER.length + input.length + GZIP_TRAILER_SIZE);
+        bos.write(GZIP_HEADER);
+        byte[] buffer = new byte[DEFLATE_BUFFER_SIZE];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            bos.write(buffer, 0, length);
         }
 
-        byte[] retval = bos.toByteArray();
-        bos.close();
-        return retval;
+        CRC32 crc = new CRC32();
+        crc.update(input);
+        writeIntLittleEndian(bos, (int) crc.getValue());
+        writeIntLittleEndian(bos, input.length);
+        return bos.toByteArray();
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream bos, int value) {
+        bos.write(value);
+        bos.write(value >>> 8);
+        bos.write(value >>> 16);
+        bos.write(value >>> 24);
     }
 }
@@ -17,9 +17,9 @@ package uk.ac.ebi.eva.utils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 
+import uk.ac.ebi.eva.pipeline.io.CountingFileSystemResource;
 import uk.ac.ebi.eva.pipeline.io.GzipLazyResource;
 
 import java.io.File;
@@ -31,13 +31,26 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.zip.GZIPOutputStream;
 
 public abstract class FileUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(FileUtils.class);
 
+    private static final String PATH_SEPARATOR = ",";
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
     public static void validateDirectoryPath(String path, boolean emptyIsValid) throws FileNotFoundException {
         if (emptyIsValid && (path == null || path.isEmpty())) {
             return;
@@ -61,7 +74,7 @@ public abstract class FileUtils {
         if (CompressionHelper.isGzip(file)) {
             resource = new GzipLazyResource(file);
         } else {
-            resource = new FileSystemResource(file);
+            resource = new CountingFileSystemResource(file);
         }
         return resource;
     }
@@ -96,4 +109,47 @@ public abstract class FileUtils {
         }
         return tempFile;
     }
+
+    /**
+     * Expands a comma-separated list of paths, whose file names (but not their directories) can be glob patterns such
+     * as {@code /data/chr*.vcf.gz}. The files that match a pattern are sorted by name, and a pattern that doesn't
+     * match any file is ignored.
+     *
+     * @return the paths of the files, without duplicates, in the order they appear in the list
+     */
+    public static List<String> expandFilePatterns(String paths) {
+        Set<String> files = new LinkedHashSet<>();
+        for (String path : paths.split(PATH_SEPARATOR)) {
+            path = path.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            File file = new File(path);
+            if (!isGlobPattern(file.getName())) {
+                files.add(path);
+                continue;
+            }
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + file.getName());
+            File[] matches = file.getAbsoluteFile().getParentFile().listFiles(
+                    match -> match.isFile() && matcher.matches(Paths.get(match.getName())));
+            if (matches == null || matches.length == 0) {
+                logger.warn("No files match '{}'", path);
+                continue;
+            }
+            Arrays.sort(matches, Comparator.comparing(File::getName));
+            for (File match : matches) {
+                files.add(new File(file.getParentFile(), match.getName()).getPath());
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static boolean isGlobPattern(String fileName) {
+        for (char globCharacter : GLOB_CHARACTERS.toCharArray()) {
+            if (fileName.indexOf(globCharacter) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
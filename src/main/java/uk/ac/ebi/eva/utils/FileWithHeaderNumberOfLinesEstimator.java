@@ -18,18 +18,19 @@ package uk.ac.ebi.eva.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.ac.ebi.eva.pipeline.io.CountingInputStream;
+
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.util.Scanner;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
- * Estimate the number of lines in a file.
+ * Estimate the number of lines in a file, compressed with gzip (or BGZF) or not.
  */
 public class FileWithHeaderNumberOfLinesEstimator {
     private static final Logger logger = LoggerFactory.getLogger(FileWithHeaderNumberOfLinesEstimator.class);
@@ -38,20 +39,17 @@ public class FileWithHeaderNumberOfLinesEstimator {
 
     private static final String HEADER_PREFIX = "#";
 
-    private File bodyFile;
-
-    private File headFile;
-
     /**
-     * Given that a file with header could be VERY big then we estimate the number of lines using the following steps:
-     * 1) retrieve the size in bytes of the whole zipped file (fileSize)
-     * 2) retrieve the size in bytes of the head of the file in a zipped file (headFileSize)
-     * 3) retrieve the size in bytes of the first MAX_NUMBER_OF_LINES lines of the file in a zipped file and divide the
-     * value by MAX_NUMBER_OF_LINES to obtain the size of a single line (singleLineSize)
-     * 4) calculate the (fileSize - headFileSize) / singleLineSize to estimate the total number of line in the file.
+     * Given that a file with header could be VERY big then we estimate the number of lines using the following steps,
+     * reading only the head and the first MAX_NUMBER_OF_LINES lines of the body:
+     * 1) while the lines are read, count the compressed bytes consumed and the uncompressed bytes produced, to
+     * obtain the compression ratio of the file (1 if it's not compressed)
+     * 2) estimate the uncompressed size of the whole file (fileSize * compressionRatio)
+     * 3) subtract the uncompressed size of the head, and divide by the average uncompressed size of a line in the
+     * body to estimate the total number of lines in the file.
      * <p>
-     * Why MAX_NUMBER_OF_LINES in point 3?
-     * Tested on a file with 157049 lines, MAX_NUMBER_OF_LINES is the best and minimum number of lines to compress. This
+     * Why MAX_NUMBER_OF_LINES?
+     * Tested on a file with 157049 lines, MAX_NUMBER_OF_LINES is the best and minimum number of lines to read. This
      * should generate an estimated total number of lines similar to the real one.
      * <p>
      * In case of small files the MAX_NUMBER_OF_LINES will be the actual number of lines.
@@ -61,15 +59,40 @@ public class FileWithHeaderNumberOfLinesEstimator {
      */
     public long estimateNumberOfLines(String filePath) {
         logger.debug("Estimating the number of lines in file {}", filePath);
+        File file = new File(filePath);
 
-        long linesInBody = copyHeadAndBody(filePath);
+        long headBytes = 0;
+        long bodyBytes = 0;
+        long linesInBody = 0;
+        double compressionRatio;
+        try (CountingInputStream compressedInputStream = new CountingInputStream(new FileInputStream(file));
+             CountingInputStream inputStream = new CountingInputStream(decompress(file, compressedInputStream));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while (linesInBody < MAX_NUMBER_OF_LINES && (line = reader.readLine()) != null) {
+                // the line terminator is counted as a single byte
+                long lineBytes = line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (line.startsWith(HEADER_PREFIX)) {
+                    headBytes += lineBytes;
+                } else {
+                    linesInBody++;
+                    bodyBytes += lineBytes;
+                }
+            }
+            compressionRatio = (double) inputStream.getCount() / compressedInputStream.getCount();
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading file " + filePath, e);
+        }
 
         long estimatedTotalNumberOfLines;
         if (skipEstimation(linesInBody)) {
             estimatedTotalNumberOfLines = linesInBody;
             logger.info("Number of lines in file {}: {} lines", filePath, estimatedTotalNumberOfLines);
         } else {
-            estimatedTotalNumberOfLines = getEstimatedTotalNumberOfLines(filePath);
+            double estimatedUncompressedSize = file.length() * compressionRatio;
+            double singleLineSize = (double) bodyBytes / linesInBody;
+            estimatedTotalNumberOfLines = Math.max(linesInBody,
+                                                   (long) ((estimatedUncompressedSize - headBytes) / singleLineSize));
             logger.info("Estimated number of lines in file {}: {} lines", filePath, estimatedTotalNumberOfLines);
         }
 
@@ -80,51 +103,11 @@ public class FileWithHeaderNumberOfLinesEstimator {
         return linesReadInBody < MAX_NUMBER_OF_LINES;
     }
 
-    /**
-     * @return lines in the body. It will be min(MAX_NUMBER_OF_LINES, actualLinesInTheBody)
-     */
-    private long copyHeadAndBody(String filePath) {
-        long linesInBody = 0;
-        try {
-            headFile = File.createTempFile("headFile", ".gz");
-            bodyFile = File.createTempFile("bodyFile", ".gz");
-        } catch (IOException e) {
-            throw new RuntimeException("Error creating file", e);
-        }
-
-        try (Writer head = getOutputStreamWriter(headFile); Writer body = getOutputStreamWriter(bodyFile);
-             Scanner scanner = new Scanner(new GZIPInputStream(new FileInputStream(filePath)))) {
-            while (scanner.hasNextLine() && linesInBody < MAX_NUMBER_OF_LINES) {
-                String line = scanner.nextLine();
-                if (line.startsWith(HEADER_PREFIX)) {
-                    head.write(line);
-                    head.write("\n");
-                } else {
-                    linesInBody++;
-                    body.write(line);
-                    body.write("\n");
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Error writing to file", e);
+    private InputStream decompress(File file, InputStream compressedInputStream) throws IOException {
+        if (CompressionHelper.isGzip(file)) {
+            return new GZIPInputStream(compressedInputStream);
         }
-        return linesInBody;
-    }
-
-    private OutputStreamWriter getOutputStreamWriter(File file) throws IOException {
-        return new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), "UTF-8");
-    }
-
-    private long getEstimatedTotalNumberOfLines(String filePath) {
-        long fileSize = new File(filePath).length();
-        long singleLineSize = bodyFile.length() / MAX_NUMBER_OF_LINES;
-        long headFileSize = headFile.length();
-
-        headFile.deleteOnExit();
-        bodyFile.deleteOnExit();
-
-        long estimatedTotalNumberOfLines = ((fileSize - headFileSize) / singleLineSize);
-        return estimatedTotalNumberOfLines;
+        return compressedInputStream;
     }
 
 }
@@ -27,6 +27,8 @@ public class URLHelper {
 
     public static final String ANNOTATED_VARIANTS_SUFFIX = "_vep_annotation.tsv.gz";
 
+    private static final String ANNOTATED_VARIANTS_SHARD_INFIX = "_shard";
+
     public static URI createUri(String input) throws URISyntaxException {
         URI sourceUri = new URI(input);
         if (sourceUri.getScheme() == null || sourceUri.getScheme().isEmpty()) {
@@ -57,4 +59,13 @@ public class URLHelper {
     public static String resolveVepOutput(String outputDirAnnotation, String studyId, String vcfId) {
         return outputDirAnnotation + "/" + studyId + "_" + vcfId + ANNOTATED_VARIANTS_SUFFIX;
     }
+
+    /**
+     * @return the file of the given partition of the VEP annotation, which will be merged into vepOutput
+     */
+    public static String resolveVepOutputShard(String vepOutput, int partition) {
+        String prefix = vepOutput.endsWith(ANNOTATED_VARIANTS_SUFFIX) ?
+                vepOutput.substring(0, vepOutput.length() - ANNOTATED_VARIANTS_SUFFIX.length()) : vepOutput;
+        return prefix + ANNOTATED_VARIANTS_SHARD_INFIX + partition + ANNOTATED_VARIANTS_SUFFIX;
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.converters.data;
+
+import com.mongodb.DBObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.opencb.biodata.models.feature.Genotype;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.commons.models.mongo.entity.projections.SimplifiedVariant;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantSourceEntryMongo;
+import uk.ac.ebi.eva.commons.models.mongo.entity.subdocuments.VariantStatsMongo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests that the documents built directly by the entities are the same that the automatic conversion builds, using
+ * a converter configured like the one in {@link uk.ac.ebi.eva.pipeline.configuration.MongoConfiguration}
+ */
+public class DirectDBObjectEncodingTest {
+
+    private MappingMongoConverter converter;
+
+    private VariantSourceEntry sourceEntry;
+
+    @Before
+    public void setUp() {
+        converter = new MappingMongoConverter(mock(DbRefResolver.class), new MongoMappingContext());
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        converter.setMapKeyDotReplacement("£");
+        converter.afterPropertiesSet();
+
+        sourceEntry = new VariantSourceEntry("f1", "s1", new String[]{"G", "GT"}, "GT:DP");
+        sourceEntry.addAttribute("QUAL", "0.01");
+        sourceEntry.addAttribute("MAX.PROC", "2");
+        sourceEntry.addAttribute("src", "1\t1000\trs666\tA\tC,G,GT\t100\tPASS\t.\tGT:DP\t0/1:4\t0/0:5");
+        String[] genotypes = {"0/0", "0/1", "0/0", "./.", "1/2", "0/0"};
+        for (String genotype : genotypes) {
+            Map<String, String> sampleData = new HashMap<>();
+            sampleData.put("GT", genotype);
+            sampleData.put("DP", "4");
+            sourceEntry.addSampleData(sampleData);
+        }
+
+        VariantStats stats = new VariantStats(null, -1, null, null, Variant.VariantType.SNV, 0.1f, 0.01f, "A", "A/A",
+                                              10, 5, -1, -1, -1, -1, -1);
+        stats.addGenotype(new Genotype("0/0"), 100);
+        stats.addGenotype(new Genotype("0/1"), 50);
+        stats.addGenotype(new Genotype("./."), 10);
+        sourceEntry.setCohortStats("ALL", stats);
+    }
+
+    @Test
+    public void simplifiedVariantShouldBeEncodedLikeTheConverter() {
+        Map<String, Set<String>> hgvs = new HashMap<>();
+        hgvs.put("genomic", new HashSet<>(Arrays.asList("1:g.1000A>C", "1:g.1000A>G")));
+        SimplifiedVariant variant = new SimplifiedVariant(Variant.VariantType.SNV, "1", 1000, 1000, 1, "A", "C",
+                                                          hgvs);
+        assertEncodedLikeTheConverter(variant, variant.toDBObject());
+
+        SimplifiedVariant variantWithoutHgvs = new SimplifiedVariant(Variant.VariantType.INDEL, "X", 5, 7, 3, "",
+                                                                     "TTT", Collections.emptyMap());
+        assertEncodedLikeTheConverter(variantWithoutHgvs, variantWithoutHgvs.toDBObject());
+    }
+
+    @Test
+    public void sourceEntryWithSamplesShouldBeEncodedLikeTheConverter() {
+        VariantSourceEntryMongo entry = new VariantSourceEntryMongo(sourceEntry.getFileId(), sourceEntry.getStudyId(),
+                                                                    sourceEntry.getSecondaryAlternates(),
+                                                                    sourceEntry.getAttributes(),
+                                                                    sourceEntry.getFormat(),
+                                                                    sourceEntry.getSamplesData());
+        assertEncodedLikeTheConverter(entry, entry.toDBObject());
+    }
+
+    @Test
+    public void sourceEntryWithoutSamplesShouldBeEncodedLikeTheConverter() {
+        VariantSourceEntryMongo entry = new VariantSourceEntryMongo(sourceEntry.getFileId(), sourceEntry.getStudyId(),
+                                                                    sourceEntry.getSecondaryAlternates(),
+                                                                    sourceEntry.getAttributes());
+        assertEncodedLikeTheConverter(entry, entry.toDBObject());
+
+        VariantSourceEntryMongo emptyEntry = new VariantSourceEntryMongo("f2", "s2", null, Collections.emptyMap());
+        assertEncodedLikeTheConverter(emptyEntry, emptyEntry.toDBObject());
+    }
+
+    @Test
+    public void statsShouldBeEncodedLikeTheConverter() {
+        VariantStatsMongo stats = new VariantStatsMongo(sourceEntry.getStudyId(), sourceEntry.getFileId(), "ALL",
+                                                        sourceEntry.getCohortStats("ALL"));
+        assertEncodedLikeTheConverter(stats, stats.toDBObject());
+    }
+
+    private void assertEncodedLikeTheConverter(Object entity, DBObject encoded) {
+        assertEquals(converter.convertToMongoType(entity), encoded);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import org.junit.Test;
+import org.opencb.biodata.models.feature.Genotype;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class GenotypeTableTest {
+
+    @Test
+    public void commonGenotypesHaveDifferentCodes() {
+        Set<Integer> codes = new HashSet<>();
+        String[] genotypes = {"0/0", "0|0", "0/1", "1/0", "./.", ".|.", "3|3", "0", "1", "."};
+        for (String genotype : genotypes) {
+            int code = GenotypeTable.getCode(genotype);
+            assertNotEquals(GenotypeTable.NOT_IN_TABLE, code);
+            codes.add(code);
+        }
+        assertEquals(genotypes.length, codes.size());
+    }
+
+    @Test
+    public void genotypesAreLookedUpInsideATextWithoutCopyingThem() {
+        String line = "GT:DP\t0|1:7\t./.:0";
+
+        String first = GenotypeTable.getGenotype(line, 6, 9);
+        String second = GenotypeTable.getGenotype(line, 12, 15);
+
+        assertEquals("0|1", first);
+        assertSame(first, GenotypeTable.getGenotype(new String("0|1")));
+        assertEquals("./.", second);
+        assertSame(second, GenotypeTable.getGenotype(new String("./.")));
+    }
+
+    @Test
+    public void genotypesThatAreNotInTheTableAreInterned() {
+        String[] genotypes = {"0/10", "4/4", "0/1/2", "0-1", "", "A/T"};
+        for (String genotype : genotypes) {
+            assertEquals(GenotypeTable.NOT_IN_TABLE, GenotypeTable.getCode(genotype));
+            assertSame(genotype.intern(), GenotypeTable.getGenotype(new String(genotype)));
+        }
+    }
+
+    @Test
+    public void parsedGenotypesAreShared() {
+        Genotype genotype = GenotypeTable.getParsedGenotype("1|0");
+
+        assertSame(genotype, GenotypeTable.getParsedGenotype(new String("1|0")));
+        assertEquals(new Genotype("1|0"), genotype);
+        assertEquals("1|0", genotype.toString());
+    }
+
+    @Test
+    public void genotypesThatAreNotInTheTableAreParsed() {
+        Genotype genotype = GenotypeTable.getParsedGenotype("5/12");
+
+        assertNotSame(genotype, GenotypeTable.getParsedGenotype("5/12"));
+        assertEquals(new Genotype("5/12"), genotype);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.commons.models.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SamplesDataTest {
+
+    @Test
+    public void samplesWithTheSameGenotypeShareItsCode() {
+        SamplesData samplesData = new SamplesData();
+        int gt = samplesData.addKey("GT");
+        for (String genotype : Arrays.asList("0/0", "0/1", "0/0", "1/1", "0/0")) {
+            samplesData.setValue(samplesData.addSample(), gt, genotype);
+        }
+
+        assertEquals(5, samplesData.size());
+        assertEquals(Arrays.asList("0/0", "0/1", "1/1"), samplesData.getGenotypes());
+        assertEquals(0, samplesData.getGenotypeCode(2));
+        assertEquals(2, samplesData.getGenotypeCode(3));
+        assertEquals("0/1", samplesData.getGenotype(1));
+    }
+
+    @Test
+    public void otherFieldsAreOnlyStoredForTheSamplesThatHaveThem() {
+        SamplesData samplesData = new SamplesData();
+        int gt = samplesData.addKey("GT");
+        int dp = samplesData.addKey("DP");
+        int first = samplesData.addSample();
+        samplesData.setValue(first, gt, "0/1");
+        samplesData.setValue(first, dp, "10");
+        int second = samplesData.addSample();
+        samplesData.setValue(second, gt, "0/0");
+
+        assertEquals("10", samplesData.getValue(first, "DP"));
+        assertNull(samplesData.getValue(second, "DP"));
+        assertNull(samplesData.getValue(second, "GQ"));
+        assertEquals(map("GT", "0/1", "DP", "10"), samplesData.get(first));
+        assertEquals(map("GT", "0/0"), samplesData.get(second));
+    }
+
+    @Test
+    public void samplesWithoutGenotype() {
+        SamplesData samplesData = new SamplesData();
+        int dp = samplesData.addKey("DP");
+        samplesData.setValue(samplesData.addSample(), dp, "7");
+
+        assertEquals(SamplesData.NO_GENOTYPE, samplesData.getGenotypeCode(0));
+        assertNull(samplesData.getGenotype(0));
+        assertEquals(map("DP", "7"), samplesData.get(0));
+    }
+
+    @Test
+    public void samplesAddedAsMapsAreEqualToTheMaps() {
+        List<Map<String, String>> maps = Arrays.asList(map("GT", "0|1", "GQ", "20"), map("GT", "1|1"),
+                                                       map("GQ", "5", "DS", "0.5"));
+        SamplesData samplesData = new SamplesData(maps);
+
+        assertEquals(maps, samplesData);
+        assertEquals(maps.hashCode(), samplesData.hashCode());
+    }
+
+    @Test
+    public void copyWithGenotypesMapsEveryDistinctGenotypeOnce() {
+        SamplesData samplesData = new SamplesData(Arrays.asList(map("GT", "0/1", "DP", "3"), map("GT", "0/2"),
+                                                                map("DP", "4"), map("GT", "0/1")));
+        List<String> mappedGenotypes = new ArrayList<>();
+
+        SamplesData copy = samplesData.copyWithGenotypes(genotype -> {
+            mappedGenotypes.add(genotype);
+            return genotype.replace('2', '9');
+        });
+
+        assertEquals(Arrays.asList("0/1", "0/2"), mappedGenotypes);
+        assertEquals(Arrays.asList(map("GT", "0/1", "DP", "3"), map("GT", "0/9"), map("DP", "4"),
+                                   map("GT", "0/1")), copy);
+    }
+
+    @Test
+    public void copyWithGenotypesDoesNotChangeTheOriginal() {
+        SamplesData samplesData = new SamplesData(Arrays.asList(map("GT", "0/1", "DP", "3"), map("GT", "1/1")));
+
+        SamplesData copy = samplesData.copyWithGenotypes(genotype -> "1/1".equals(genotype) ? null : genotype);
+        copy.setValue(0, copy.addKey("DP"), "8");
+        copy.setValue(copy.addSample(), copy.addKey("GT"), "0/0");
+
+        assertEquals(Arrays.asList(map("GT", "0/1", "DP", "3"), map("GT", "1/1")), samplesData);
+        assertEquals(Arrays.asList(map("GT", "0/1", "DP", "8"), map(), map("GT", "0/0")), copy);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void missingSampleThrowsException() {
+        new SamplesData().get(0);
+    }
+
+    private Map<String, String> map(String... keysAndValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
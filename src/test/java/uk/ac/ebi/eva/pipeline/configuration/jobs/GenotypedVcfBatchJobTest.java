@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.configuration.jobs;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.opencb.opencga.lib.common.Config;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.test.configuration.BatchTestConfiguration;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
+import uk.ac.ebi.eva.test.utils.GenotypedVcfJobTestUtils;
+import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static uk.ac.ebi.eva.test.utils.JobTestUtils.assertCompleted;
+
+/**
+ * Test for {@link GenotypedVcfBatchJobConfiguration}
+ * <p>
+ * The VCF used in {@link GenotypedVcfJobTest} is split in two files, that should load the same variants.
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles({Application.VARIANT_WRITER_MONGO_PROFILE, Application.VARIANT_ANNOTATION_MONGO_PROFILE})
+@TestPropertySource({"classpath:common-configuration.properties", "classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {GenotypedVcfBatchJobConfiguration.class, BatchTestConfiguration.class})
+public class GenotypedVcfBatchJobTest {
+
+    private static final int NUM_VCFS = 2;
+
+    @Rule
+    public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Autowired
+    private JobLauncherTestUtils jobLauncherTestUtils;
+
+    @Before
+    public void setUp() throws Exception {
+        Config.setOpenCGAHome(GenotypedVcfJobTestUtils.getDefaultOpencgaHome());
+    }
+
+    @Test
+    public void allVcfsOfTheListAreLoaded() throws Exception {
+        String vcfList = splitInputFile();
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .annotationSkip(true)
+                .collectionFilesName(GenotypedVcfJobTestUtils.COLLECTION_FILES_NAME)
+                .collectionVariantsName(GenotypedVcfJobTestUtils.COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputStudyId(GenotypedVcfJobTestUtils.INPUT_STUDY_ID)
+                .inputStudyName("inputStudyName")
+                .inputStudyType("COLLECTION")
+                .inputVcfList(vcfList)
+                .inputVcfListThreads(String.valueOf(NUM_VCFS))
+                .inputVcfAggregation("NONE")
+                .inputVcfId(GenotypedVcfJobTestUtils.INPUT_VCF_ID)
+                .statisticsSkip(true)
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(jobParameters);
+
+        assertCompleted(jobExecution);
+
+        GenotypedVcfJobTestUtils.checkLoadStep(mongoRule, databaseName);
+
+        assertEquals(NUM_VCFS,
+                     mongoRule.getCollection(databaseName, GenotypedVcfJobTestUtils.COLLECTION_FILES_NAME).count());
+    }
+
+    @Test
+    public void statisticsAndAnnotationAreCalculatedOnceForAllVcfs() throws Exception {
+        String vcfList = splitInputFile();
+        File mockVep = GenotypedVcfJobTestUtils.getMockVep();
+        String databaseName = mongoRule.getRandomTemporaryDatabaseName();
+
+        String outputDirStats = temporaryFolderRule.newFolder().getAbsolutePath();
+        String outputDirAnnotation = temporaryFolderRule.newFolder().getAbsolutePath();
+
+        File variantsStatsFile = GenotypedVcfJobTestUtils.getVariantsStatsFile(outputDirStats);
+        File sourceStatsFile = GenotypedVcfJobTestUtils.getSourceStatsFile(outputDirStats);
+
+        File vepOutputFile = GenotypedVcfJobTestUtils.getVepOutputFile(outputDirAnnotation);
+
+        File fasta = temporaryFolderRule.newFile();
+
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .annotationOverwrite("false")
+                .collectionAnnotationMetadataName(GenotypedVcfJobTestUtils.COLLECTION_ANNOTATION_METADATA_NAME)
+                .collectionAnnotationsName(GenotypedVcfJobTestUtils.COLLECTION_ANNOTATIONS_NAME)
+                .collectionFilesName(GenotypedVcfJobTestUtils.COLLECTION_FILES_NAME)
+                .collectionVariantsName(GenotypedVcfJobTestUtils.COLLECTION_VARIANTS_NAME)
+                .databaseName(databaseName)
+                .inputFasta(fasta.getAbsolutePath())
+                .inputStudyId(GenotypedVcfJobTestUtils.INPUT_STUDY_ID)
+                .inputStudyName("inputStudyName")
+                .inputStudyType("COLLECTION")
+                .inputVcfList(vcfList)
+                .inputVcfListThreads(String.valueOf(NUM_VCFS))
+                .inputVcfAggregation("NONE")
+                .inputVcfId(GenotypedVcfJobTestUtils.INPUT_VCF_ID)
+                .outputDirAnnotation(outputDirAnnotation)
+                .outputDirStats(outputDirStats)
+                .vepCachePath("")
+                .vepCacheSpecies("human")
+                .vepCacheVersion("1")
+                .vepNumForks("1")
+                .vepPath(mockVep.getPath())
+                .vepTimeout("60")
+                .vepVersion("1")
+                .toJobParameters();
+
+        JobExecution jobExecution = jobLauncherTestUtils.launchJob(jobParameters);
+
+        assertCompleted(jobExecution);
+
+        GenotypedVcfJobTestUtils.checkLoadStep(mongoRule, databaseName);
+
+        GenotypedVcfJobTestUtils.checkCreateStatsStep(variantsStatsFile, sourceStatsFile);
+
+        GenotypedVcfJobTestUtils.checkLoadStatsStep(mongoRule, databaseName);
+
+        GenotypedVcfJobTestUtils.checkAnnotationCreateStep(vepOutputFile);
+
+        GenotypedVcfJobTestUtils.checkOutputFileLength(vepOutputFile);
+
+        GenotypedVcfJobTestUtils.checkLoadedAnnotation(mongoRule, databaseName);
+    }
+
+    /**
+     * Writes the header of the input VCF in every file, and each of its lines in one of them
+     *
+     * @return a wildcard that matches all the files
+     */
+    private String splitInputFile() throws IOException {
+        StringBuilder header = new StringBuilder();
+        StringBuilder[] bodies = new StringBuilder[NUM_VCFS];
+        for (int i = 0; i < NUM_VCFS; i++) {
+            bodies[i] = new StringBuilder();
+        }
+        File inputFile = GenotypedVcfJobTestUtils.getInputFile();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(new FileInputStream(inputFile))))) {
+            int lines = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    header.append(line).append('\n');
+                } else {
+                    bodies[lines++ % NUM_VCFS].append(line).append('\n');
+                }
+            }
+        }
+
+        for (int i = 0; i < NUM_VCFS; i++) {
+            temporaryFolderRule.newGzipFile(header.toString() + bodies[i], "part" + i + ".vcf.gz");
+        }
+        return new File(temporaryFolderRule.getRoot(), "part*.vcf.gz").getAbsolutePath();
+    }
+}
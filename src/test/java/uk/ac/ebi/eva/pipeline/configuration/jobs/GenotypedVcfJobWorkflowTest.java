@@ -149,6 +149,35 @@ public class GenotypedVcfJobWorkflowTest {
         assertEquals(EXPECTED_REQUIRED_STEP_NAMES, names);
     }
 
+    @Test
+    public void deferredIndexesShouldBeCreatedAfterEachLoad() throws Exception {
+        EvaJobParameterBuilder builder = initVariantConfigurationJob();
+        JobParameters jobParameters = builder.dbDeferIndexes("true").statisticsSkip(true).toJobParameters();
+
+        JobExecution execution = jobLauncherTestUtils.launchJob(jobParameters);
+        assertCompleted(execution);
+
+        Map<String, StepExecution> nameToStepExecution = execution.getStepExecutions().stream().collect(
+                Collectors.toMap(StepExecution::getStepName, Function.identity()));
+
+        Set<String> stepNamesToCheck = new TreeSet<>();
+        stepNamesToCheck.addAll(EXPECTED_REQUIRED_STEP_NAMES);
+        stepNamesToCheck.addAll(EXPECTED_ANNOTATION_STEP_NAMES);
+        stepNamesToCheck.add(BeanNames.CREATE_VARIANTS_INDEXES_STEP);
+        stepNamesToCheck.add(BeanNames.CREATE_ANNOTATIONS_INDEXES_STEP);
+
+        assertEquals(stepNamesToCheck, nameToStepExecution.keySet());
+
+        assertTrue(nameToStepExecution.get(BeanNames.LOAD_VARIANTS_STEP).getEndTime()
+                .before(nameToStepExecution.get(BeanNames.CREATE_VARIANTS_INDEXES_STEP).getStartTime()));
+        assertTrue(nameToStepExecution.get(BeanNames.CREATE_VARIANTS_INDEXES_STEP).getEndTime()
+                .before(nameToStepExecution.get(BeanNames.LOAD_FILE_STEP).getStartTime()));
+        assertTrue(nameToStepExecution.get(BeanNames.LOAD_VEP_ANNOTATION_STEP).getEndTime()
+                .before(nameToStepExecution.get(BeanNames.CREATE_ANNOTATIONS_INDEXES_STEP).getStartTime()));
+        assertTrue(nameToStepExecution.get(BeanNames.CREATE_ANNOTATIONS_INDEXES_STEP).getEndTime()
+                .before(nameToStepExecution.get(BeanNames.LOAD_ANNOTATION_METADATA_STEP).getStartTime()));
+    }
+
     @Test
     public void statsStepsShouldBeSkipped() throws Exception {
         EvaJobParameterBuilder builder = initVariantConfigurationJob();
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BgzfInputStream} and {@link BgzfOutputStream}
+ * input: bytes and lines written in several BGZF blocks
+ * output: the same bytes and lines, read from the start or from a saved virtual offset
+ */
+public class BgzfInputStreamTest {
+
+    private static final int SMALL_BLOCK_SIZE = 100;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void bytesAreReadInTheSameOrder() throws Exception {
+        byte[] content = new byte[5 * BgzfBlocks.MAX_BLOCK_DATA_SIZE + 123];
+        new Random(17).nextBytes(content);
+        File file = writeBgzf(content, Deflater.DEFAULT_COMPRESSION, BgzfBlocks.MAX_BLOCK_DATA_SIZE);
+
+        assertTrue(BgzfInputStream.isBgzf(file));
+        try (InputStream inputStream = new BgzfInputStream(file)) {
+            assertArrayEquals(content, readAll(inputStream));
+        }
+    }
+
+    @Test
+    public void bgzfFilesCanBeReadAsGzip() throws Exception {
+        String content = buildLines(1000);
+        File file = writeBgzf(content.getBytes(StandardCharsets.UTF_8), Deflater.BEST_SPEED, SMALL_BLOCK_SIZE);
+
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(file))) {
+            assertEquals(content, new String(readAll(inputStream), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void linesCanSpanSeveralBlocks() throws Exception {
+        String content = buildLines(1000) + "unterminated";
+        File file = writeBgzf(content.getBytes(StandardCharsets.UTF_8), Deflater.DEFAULT_COMPRESSION, 7);
+
+        try (BgzfInputStream inputStream = new BgzfInputStream(file)) {
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(buildLine(i), inputStream.readLine());
+            }
+            assertEquals("unterminated", inputStream.readLine());
+            assertNull(inputStream.readLine());
+        }
+    }
+
+    @Test
+    public void seekToSavedVirtualOffsets() throws Exception {
+        File file = writeBgzf(buildLines(1000).getBytes(StandardCharsets.UTF_8), Deflater.DEFAULT_COMPRESSION,
+                              SMALL_BLOCK_SIZE);
+
+        List<Long> virtualOffsets = new ArrayList<>();
+        try (BgzfInputStream inputStream = new BgzfInputStream(file)) {
+            for (int i = 0; i < 1000; i++) {
+                virtualOffsets.add(inputStream.getVirtualOffset());
+                inputStream.readLine();
+            }
+        }
+
+        try (BgzfInputStream inputStream = new BgzfInputStream(file)) {
+            for (int i = 999; i >= 0; i -= 37) {
+                inputStream.seek(virtualOffsets.get(i));
+                assertEquals(buildLine(i), inputStream.readLine());
+            }
+            inputStream.seek(virtualOffsets.get(500));
+            for (int i = 500; i < 1000; i++) {
+                assertEquals(buildLine(i), inputStream.readLine());
+            }
+            assertNull(inputStream.readLine());
+        }
+    }
+
+    @Test
+    public void incompressibleBlocksAreStored() throws Exception {
+        byte[] content = new byte[3 * BgzfBlocks.MAX_BLOCK_DATA_SIZE];
+        new Random(3).nextBytes(content);
+        File file = writeBgzf(content, Deflater.BEST_COMPRESSION, BgzfBlocks.MAX_BLOCK_DATA_SIZE);
+
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(file))) {
+            assertArrayEquals(content, readAll(inputStream));
+        }
+    }
+
+    @Test
+    public void appendedFilesAreStillBgzf() throws Exception {
+        File file = temporaryFolderRule.newFile();
+        for (int i = 0; i < 3; i++) {
+            try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(file, true),
+                                                                  Deflater.DEFAULT_COMPRESSION, SMALL_BLOCK_SIZE)) {
+                outputStream.write(buildLine(i).getBytes(StandardCharsets.UTF_8));
+                outputStream.write('\n');
+            }
+        }
+
+        try (BgzfInputStream inputStream = new BgzfInputStream(file)) {
+            assertEquals(buildLine(0), inputStream.readLine());
+            assertEquals(buildLine(1), inputStream.readLine());
+            assertEquals(buildLine(2), inputStream.readLine());
+            assertNull(inputStream.readLine());
+        }
+    }
+
+    @Test
+    public void plainGzipAndEmptyFilesAreNotBgzf() throws Exception {
+        assertFalse(BgzfInputStream.isBgzf(temporaryFolderRule.newGzipFile(buildLines(10))));
+        assertFalse(BgzfInputStream.isBgzf(temporaryFolderRule.newFile()));
+    }
+
+    private File writeBgzf(byte[] content, int compressionLevel, int blockDataSize) throws IOException {
+        File file = temporaryFolderRule.newFile();
+        try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(file), compressionLevel,
+                                                              blockDataSize)) {
+            outputStream.write(content);
+        }
+        return file;
+    }
+
+    private byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+
+    private String buildLines(int count) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            lines.append(buildLine(i)).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private String buildLine(int i) {
+        return "20_" + (60000 + i) + "_G/A\t20:" + (60000 + i) + "\tA\t-\tintergenic_variant";
+    }
+}
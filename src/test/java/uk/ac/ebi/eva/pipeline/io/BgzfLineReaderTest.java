@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link BgzfLineReader}
+ * input: lines written in several BGZF blocks
+ * output: the same lines, read as characters or as whole lines
+ */
+public class BgzfLineReaderTest {
+
+    private static final int SMALL_BLOCK_SIZE = 100;
+
+    private static final String CONTENT = "first line\r\nsecond line\nthird line\nunterminated";
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void charactersAreReadWithNewlineTerminators() throws Exception {
+        try (BgzfLineReader reader = new BgzfLineReader(new BgzfInputStream(writeBgzf(CONTENT)))) {
+            StringBuilder read = new StringBuilder();
+            char[] buffer = new char[7];
+            int length;
+            while ((length = reader.read(buffer, 0, buffer.length)) != -1) {
+                read.append(buffer, 0, length);
+            }
+            assertEquals("first line\nsecond line\nthird line\nunterminated\n", read.toString());
+        }
+    }
+
+    @Test
+    public void charactersAndLinesCanBeMixed() throws Exception {
+        try (BgzfLineReader reader = new BgzfLineReader(new BgzfInputStream(writeBgzf(CONTENT)))) {
+            assertEquals('f', reader.read());
+            assertEquals("irst line", reader.readLine());
+            assertEquals(6, reader.skip(6));
+            assertEquals(" line", reader.readLine());
+            char[] buffer = new char[10];
+            assertEquals(10, reader.read(buffer, 0, buffer.length));
+            assertEquals("third line", new String(buffer));
+            assertEquals("", reader.readLine());
+            assertEquals("unterminated", reader.readLine());
+            assertNull(reader.readLine());
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    @Test
+    public void virtualOffsetPointsToTheFirstLineNotCompletelyRead() throws Exception {
+        try (BgzfLineReader reader = new BgzfLineReader(new BgzfInputStream(writeBgzf(CONTENT)))) {
+            reader.readLine();
+            long secondLine = reader.getVirtualOffset();
+            reader.read();
+            assertEquals(secondLine, reader.getVirtualOffset());
+
+            reader.readLine();
+            reader.seek(secondLine);
+            assertEquals("second line", reader.readLine());
+        }
+    }
+
+    private File writeBgzf(String content) throws IOException {
+        File file = temporaryFolderRule.newFile();
+        try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(file), Deflater.DEFAULT_COMPRESSION,
+                                                              SMALL_BLOCK_SIZE)) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+}
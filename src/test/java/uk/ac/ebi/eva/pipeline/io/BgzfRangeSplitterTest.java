@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BgzfRangeSplitter}
+ * input: a BGZF file, with or without a tabix or CSI index
+ * output: the virtual offsets where the ranges start, all of them at the start of a line
+ */
+public class BgzfRangeSplitterTest {
+
+    private static final int NUM_LINES = 2000;
+
+    private static final int BLOCK_DATA_SIZE = 1000;
+
+    private static final int TABIX_PSEUDO_BIN = 37450;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void rangesStartAtLinesInsideTheBlocks() throws Exception {
+        File file = writeBgzf("lines.txt.gz");
+        List<Long> lineOffsets = readLineOffsets(file);
+
+        List<Long> starts = new BgzfRangeSplitter(file).split(8);
+
+        assertEquals(8, starts.size());
+        assertEquals(0L, (long) starts.get(0));
+        assertStartsAreSortedLineStarts(starts, lineOffsets);
+    }
+
+    @Test
+    public void smallFilesHaveFewerRanges() throws Exception {
+        File file = temporaryFolderRule.newFile("small.txt.gz");
+        try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(file),
+                                                              Deflater.DEFAULT_COMPRESSION, BLOCK_DATA_SIZE)) {
+            outputStream.write((buildLine(0) + "\n" + buildLine(1) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<Long> starts = new BgzfRangeSplitter(file).split(4);
+
+        assertEquals(1, starts.size());
+        assertEquals(0L, (long) starts.get(0));
+    }
+
+    @Test
+    public void rangesStartAtTheOffsetsOfATabixIndex() throws Exception {
+        File file = writeBgzf("lines.txt.gz");
+        List<Long> lineOffsets = readLineOffsets(file);
+        List<Long> indexedOffsets = everyNth(lineOffsets, 100);
+        writeIndex(new File(file.getPath() + BgzfRangeSplitter.TABIX_EXTENSION), false, indexedOffsets);
+
+        List<Long> starts = new BgzfRangeSplitter(file).split(5);
+
+        assertEquals(5, starts.size());
+        assertEquals(0L, (long) starts.get(0));
+        assertTrue(indexedOffsets.containsAll(starts.subList(1, starts.size())));
+        assertStartsAreSortedLineStarts(starts, lineOffsets);
+    }
+
+    @Test
+    public void rangesStartAtTheOffsetsOfACsiIndex() throws Exception {
+        File file = writeBgzf("lines.txt.gz");
+        List<Long> lineOffsets = readLineOffsets(file);
+        List<Long> indexedOffsets = everyNth(lineOffsets, 300);
+        writeIndex(new File(file.getPath() + BgzfRangeSplitter.CSI_EXTENSION), true, indexedOffsets);
+
+        List<Long> starts = new BgzfRangeSplitter(file).split(20);
+
+        assertEquals(indexedOffsets.size() + 1, starts.size());
+        assertEquals(indexedOffsets, starts.subList(1, starts.size()));
+    }
+
+    private void assertStartsAreSortedLineStarts(List<Long> starts, List<Long> lineOffsets) {
+        for (int i = 1; i < starts.size(); i++) {
+            assertTrue(starts.get(i) > starts.get(i - 1));
+            assertTrue(lineOffsets.contains(starts.get(i)));
+        }
+    }
+
+    private File writeBgzf(String name) throws IOException {
+        File file = temporaryFolderRule.newFile(name);
+        try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(file),
+                                                              Deflater.DEFAULT_COMPRESSION, BLOCK_DATA_SIZE)) {
+            for (int i = 0; i < NUM_LINES; i++) {
+                outputStream.write((buildLine(i) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return file;
+    }
+
+    private List<Long> readLineOffsets(File file) throws IOException {
+        List<Long> lineOffsets = new ArrayList<>();
+        try (BgzfInputStream inputStream = new BgzfInputStream(file)) {
+            long offset = inputStream.getVirtualOffset();
+            while (inputStream.readLine() != null) {
+                lineOffsets.add(offset);
+                offset = inputStream.getVirtualOffset();
+            }
+        }
+        assertEquals(NUM_LINES, lineOffsets.size());
+        return lineOffsets;
+    }
+
+    private List<Long> everyNth(List<Long> offsets, int n) {
+        List<Long> selected = new ArrayList<>();
+        for (int i = n; i < offsets.size(); i += n) {
+            selected.add(offsets.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Writes an index with a single reference, a bin with a chunk for every offset, and the pseudo-bin, whose values
+     * are not offsets of the file.
+     */
+    private void writeIndex(File index, boolean csi, List<Long> chunkBegins) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024 + 16 * chunkBegins.size()).order(ByteOrder.LITTLE_ENDIAN);
+        if (csi) {
+            buffer.put(new byte[]{'C', 'S', 'I', 1});
+            buffer.putInt(14).putInt(5).putInt(0);
+            buffer.putInt(1);
+        } else {
+            buffer.put(new byte[]{'T', 'B', 'I', 1});
+            buffer.putInt(1);
+            buffer.putInt(2).putInt(1).putInt(2).putInt(0).putInt('#').putInt(0);
+            byte[] names = "20\0".getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(names.length).put(names);
+        }
+        buffer.putInt(2);
+        buffer.putInt(4681);
+        if (csi) {
+            buffer.putLong(chunkBegins.get(0));
+        }
+        buffer.putInt(chunkBegins.size());
+        for (Long chunkBegin : chunkBegins) {
+            buffer.putLong(chunkBegin).putLong(chunkBegin + 1);
+        }
+        buffer.putInt(TABIX_PSEUDO_BIN);
+        if (csi) {
+            buffer.putLong(0);
+        }
+        buffer.putInt(2);
+        buffer.putLong(1).putLong(2).putLong(NUM_LINES).putLong(0);
+        if (!csi) {
+            buffer.putInt(0);
+        }
+
+        try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(index),
+                                                              Deflater.DEFAULT_COMPRESSION,
+                                                              BgzfBlocks.MAX_BLOCK_DATA_SIZE)) {
+            outputStream.write(buffer.array(), 0, buffer.position());
+        }
+    }
+
+    private String buildLine(int i) {
+        return "20\t" + (60000 + i) + "\t.\tG\tA\t100\tPASS\tAC=" + i;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * {@link CountingInputStream}
+ * <p>
+ * input: a stream of bytes
+ * <p>
+ * output: the number of bytes read or skipped from it
+ */
+public class CountingInputStreamTest {
+
+    @Test
+    public void shouldCountReadAndSkippedBytes() throws IOException {
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(new byte[100]));
+        assertEquals(0, inputStream.getCount());
+
+        inputStream.read();
+        assertEquals(1, inputStream.getCount());
+
+        assertEquals(10, inputStream.read(new byte[10], 0, 10));
+        assertEquals(11, inputStream.getCount());
+
+        assertEquals(20, inputStream.skip(20));
+        assertEquals(31, inputStream.getCount());
+
+        assertEquals(69, inputStream.read(new byte[200]));
+        assertEquals(100, inputStream.getCount());
+    }
+
+    @Test
+    public void endOfStreamShouldNotChangeTheCount() throws IOException {
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(new byte[5]));
+        inputStream.read(new byte[5]);
+
+        assertEquals(-1, inputStream.read());
+        assertEquals(-1, inputStream.read(new byte[5], 0, 5));
+        assertEquals(5, inputStream.getCount());
+        assertFalse(inputStream.markSupported());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Test;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.NonTransientResourceException;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import uk.ac.ebi.eva.pipeline.io.readers.SynchronizedPeekableItemStreamReader;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link NearbyVariantsCompletionPolicy}
+ * input: variants sorted by chromosome and start
+ * output: chunks of at least the chunk size, extended with the next variants while they are nearby
+ */
+public class NearbyVariantsCompletionPolicyTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private static final int MAX_DISTANCE = 1000;
+
+    @Test
+    public void nearbyVariantsAreKeptInTheSameChunk() throws Exception {
+        List<List<Integer>> chunks = readChunks(Arrays.asList(variant("20", 100), variant("20", 200),
+                                                              variant("20", 1000), variant("20", 1900),
+                                                              variant("20", 50000), variant("20", 50001)), 10);
+
+        assertEquals(Arrays.asList(Arrays.asList(100, 200, 1000, 1900), Arrays.asList(50000, 50001)), chunks);
+    }
+
+    @Test
+    public void chunksEndWhenTheChromosomeChanges() throws Exception {
+        List<List<Integer>> chunks = readChunks(Arrays.asList(variant("1", 100), variant("1", 200),
+                                                              variant("2", 201), variant("2", 202)), 10);
+
+        assertEquals(Arrays.asList(Arrays.asList(100, 200), Arrays.asList(201, 202)), chunks);
+    }
+
+    @Test
+    public void chunksAreExtendedUpToTheMaximum() throws Exception {
+        List<List<Integer>> chunks = readChunks(Arrays.asList(variant("20", 1), variant("20", 2), variant("20", 3),
+                                                              variant("20", 4), variant("20", 5)), 1);
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5)), chunks);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void distanceMustNotBeNegative() {
+        new NearbyVariantsCompletionPolicy(new SimpleCompletionPolicy(CHUNK_SIZE), null, -1, 0);
+    }
+
+    @Test(expected = NonTransientResourceException.class)
+    public void errorsReadingTheNextVariantArePropagated() throws Exception {
+        ItemReader<EnsemblVariant> failingReader = new ItemReader<EnsemblVariant>() {
+            private final Iterator<EnsemblVariant> variants = Arrays.asList(variant("20", 100), variant("20", 200))
+                                                                    .iterator();
+
+            @Override
+            public EnsemblVariant read() throws Exception {
+                if (variants.hasNext()) {
+                    return variants.next();
+                }
+                throw new IOException("Connection closed");
+            }
+        };
+        SynchronizedPeekableItemStreamReader<EnsemblVariant> reader =
+                new SynchronizedPeekableItemStreamReader<>(failingReader);
+        NearbyVariantsCompletionPolicy policy = new NearbyVariantsCompletionPolicy(
+                new SimpleCompletionPolicy(CHUNK_SIZE), reader, MAX_DISTANCE, 10);
+
+        RepeatContext context = policy.start(null);
+        while (!policy.isComplete(context)) {
+            reader.read();
+            policy.update(context);
+        }
+    }
+
+    /**
+     * Reads chunks the same way as a chunk oriented step, and returns the start of the variants in every chunk
+     */
+    private List<List<Integer>> readChunks(List<EnsemblVariant> variants, int maxExtraVariants) throws Exception {
+        SynchronizedPeekableItemStreamReader<EnsemblVariant> reader =
+                new SynchronizedPeekableItemStreamReader<>(new ListItemReader<>(variants));
+        NearbyVariantsCompletionPolicy policy = new NearbyVariantsCompletionPolicy(
+                new SimpleCompletionPolicy(CHUNK_SIZE), reader, MAX_DISTANCE, maxExtraVariants);
+
+        List<List<Integer>> chunks = new ArrayList<>();
+        EnsemblVariant variant = null;
+        do {
+            RepeatContext context = policy.start(null);
+            List<Integer> chunk = new ArrayList<>();
+            while (!policy.isComplete(context) && (variant = reader.read()) != null) {
+                chunk.add(variant.getStart());
+                policy.update(context);
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+        } while (variant != null);
+        return chunks;
+    }
+
+    private EnsemblVariant variant(String chromosome, int start) {
+        return new EnsemblVariant(chromosome, start, start, "A", "T");
+    }
+}
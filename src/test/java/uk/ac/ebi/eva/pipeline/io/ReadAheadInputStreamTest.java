@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link ReadAheadInputStream}
+ * <p>
+ * input: a stream of bytes
+ * <p>
+ * output: the same bytes, in the same order, read in a background thread
+ */
+public class ReadAheadInputStreamTest {
+
+    private static final int BUFFER_SIZE = 100;
+
+    private static final int BUFFERS_AHEAD = 2;
+
+    @Test
+    public void bytesAreReadInTheSameOrder() throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE * 10 + 7];
+        new Random(7).nextBytes(bytes);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream inputStream = new ReadAheadInputStream(new ByteArrayInputStream(bytes), BUFFER_SIZE,
+                                                                BUFFERS_AHEAD)) {
+            output.write(inputStream.read());
+            byte[] buffer = new byte[33];
+            int read;
+            while ((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            assertEquals(-1, inputStream.read());
+        }
+
+        assertArrayEquals(bytes, output.toByteArray());
+    }
+
+    @Test
+    public void errorsAreThrownAfterTheBytesReadBefore() throws IOException {
+        InputStream failingStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken stream");
+            }
+        };
+        byte[] bytes = new byte[BUFFER_SIZE * 3];
+        InputStream source = new SequenceInputStream(new ByteArrayInputStream(bytes), failingStream);
+
+        int read = 0;
+        try (InputStream inputStream = new ReadAheadInputStream(source, BUFFER_SIZE, BUFFERS_AHEAD)) {
+            while (inputStream.read() != -1) {
+                read++;
+            }
+            fail("An IOException should have been thrown");
+        } catch (IOException e) {
+            assertEquals(bytes.length, read);
+        }
+    }
+
+    @Test
+    public void sourcePositionCountsOnlyTheBytesConsumed() throws Exception {
+        byte[] bytes = new byte[BUFFER_SIZE * 4];
+        ByteArrayInputStream source = new ByteArrayInputStream(bytes);
+        // the source is the stream itself, so its position is the number of bytes taken by the background thread
+        try (ReadAheadInputStream inputStream = new ReadAheadInputStream(
+                source, BUFFER_SIZE, BUFFERS_AHEAD, () -> bytes.length - source.available())) {
+            assertEquals(0, inputStream.getSourcePosition());
+
+            int consumed = BUFFER_SIZE + BUFFER_SIZE / 2;
+            for (int i = 0; i < consumed; i++) {
+                inputStream.read();
+            }
+            assertEquals(consumed, inputStream.getSourcePosition());
+
+            while (inputStream.read() != -1) {
+            }
+            assertEquals(bytes.length, inputStream.getSourcePosition());
+        }
+    }
+
+    @Test
+    public void closeStopsReadingAhead() throws IOException {
+        InputStream endlessStream = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+        };
+        InputStream inputStream = new ReadAheadInputStream(endlessStream, BUFFER_SIZE, BUFFERS_AHEAD);
+        assertEquals(0, inputStream.read());
+        inputStream.close();
+        inputStream.close();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ItemStreamException;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.test.data.VepOutputContent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VepAnnotationStreamerTest {
+
+    private static final String VEP_VERSION = "1";
+
+    private static final String VEP_CACHE_VERSION = "1";
+
+    private static final String HEADER = "## ENSEMBL VARIANT EFFECT PREDICTOR v78";
+
+    private List<List<? extends Annotation>> writtenChunks;
+
+    private VepAnnotationStreamer streamer;
+
+    @Before
+    public void setUp() throws Exception {
+        writtenChunks = new ArrayList<>();
+        streamer = new VepAnnotationStreamer(writtenChunks::add, VEP_VERSION, VEP_CACHE_VERSION);
+    }
+
+    @Test
+    public void pendingAnnotationsAreWrittenTogether() throws Exception {
+        String[] lines = VepOutputContent.vepOutputContent.split("\n");
+        streamer.addLine(HEADER);
+        for (String line : lines) {
+            streamer.addLine(line);
+        }
+        assertTrue(writtenChunks.isEmpty());
+
+        streamer.writePendingAnnotations();
+
+        assertEquals(1, writtenChunks.size());
+        assertEquals(lines.length, writtenChunks.get(0).size());
+        assertEquals(VEP_VERSION, writtenChunks.get(0).get(0).getVepVersion());
+        assertEquals(lines.length, streamer.getWrittenAnnotations());
+
+        streamer.writePendingAnnotations();
+        assertEquals(1, writtenChunks.size());
+    }
+
+    @Test
+    public void pendingAnnotationsAreWrittenInBoundedBatches() throws Exception {
+        String[] lines = VepOutputContent.vepOutputContent.split("\n");
+        int repetitions = VepAnnotationStreamer.MAX_ANNOTATIONS_PER_WRITE / lines.length + 1;
+        streamer.addLine(HEADER);
+        for (int i = 0; i < repetitions; i++) {
+            for (String line : lines) {
+                streamer.addLine(line);
+            }
+        }
+
+        streamer.writePendingAnnotations();
+
+        assertEquals(2, writtenChunks.size());
+        assertEquals(VepAnnotationStreamer.MAX_ANNOTATIONS_PER_WRITE, writtenChunks.get(0).size());
+        assertEquals(repetitions * lines.length, streamer.getWrittenAnnotations());
+    }
+
+    @Test
+    public void linesAreWrittenInTheCallingThread() throws Exception {
+        String[] lines = VepOutputContent.vepOutputContent.split("\n");
+        List<String> chunk = new ArrayList<>(Arrays.asList(lines));
+        chunk.add(0, HEADER);
+
+        streamer.writeLines(chunk);
+
+        assertEquals(1, writtenChunks.size());
+        assertEquals(lines.length, writtenChunks.get(0).size());
+    }
+
+    @Test
+    public void malformedLinesAreSkipped() throws Exception {
+        streamer.writeLines(Arrays.asList(VepOutputContent.vepOutputContentMalformedCoordinates,
+                                          VepOutputContent.vepOutputContentTranscriptFields));
+
+        assertEquals(1, writtenChunks.get(0).size());
+        assertEquals(1, streamer.getSkippedLines());
+    }
+
+    @Test(expected = ItemStreamException.class)
+    public void tooManyMalformedLinesFail() throws Exception {
+        for (int i = 0; i <= VepAnnotationStreamer.MAX_SKIPPED_LINES; i++) {
+            streamer.addLine(VepOutputContent.vepOutputContentMalformedCoordinates);
+        }
+    }
+}
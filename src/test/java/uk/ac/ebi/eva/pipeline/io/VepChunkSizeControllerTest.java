@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Test;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VepChunkSizeController}
+ * input: the time VEP took to annotate every chunk
+ * output: a chunk size within the bounds, that grows while the throughput improves, set in the completion policy
+ */
+public class VepChunkSizeControllerTest {
+
+    @Test
+    public void initialChunkSizeIsKeptWithinBounds() {
+        SimpleCompletionPolicy completionPolicy = new SimpleCompletionPolicy();
+        assertEquals(100, new VepChunkSizeController(completionPolicy, 10, 100, 1000).getChunkSize());
+        assertEquals(1000, new VepChunkSizeController(completionPolicy, 5000, 100, 1000).getChunkSize());
+        assertEquals(500, new VepChunkSizeController(completionPolicy, 500, 100, 1000).getChunkSize());
+    }
+
+    @Test
+    public void chunkSizeGrowsWhileThroughputImproves() {
+        VepChunkSizeController controller = new VepChunkSizeController(new SimpleCompletionPolicy(), 100, 100, 1000);
+
+        recordRound(controller, 100);
+        assertEquals(150, controller.getChunkSize());
+
+        recordRound(controller, 200);
+        assertEquals(225, controller.getChunkSize());
+    }
+
+    @Test
+    public void chunkSizeShrinksWhenThroughputGetsWorse() {
+        VepChunkSizeController controller = new VepChunkSizeController(new SimpleCompletionPolicy(), 300, 100, 1000);
+
+        recordRound(controller, 200);
+        assertEquals(450, controller.getChunkSize());
+
+        recordRound(controller, 100);
+        assertEquals(300, controller.getChunkSize());
+    }
+
+    @Test
+    public void chunkSizeTurnsBackAtTheBounds() {
+        VepChunkSizeController controller = new VepChunkSizeController(new SimpleCompletionPolicy(), 1000, 100, 1000);
+
+        recordRound(controller, 100);
+        assertEquals(666, controller.getChunkSize());
+    }
+
+    @Test
+    public void chunkSizeIsSetInTheCompletionPolicy() {
+        SimpleCompletionPolicy completionPolicy = new SimpleCompletionPolicy();
+        VepChunkSizeController controller = new VepChunkSizeController(completionPolicy, 2, 2, 10);
+        assertTrue(isCompleteAfter(completionPolicy, 2));
+
+        recordRound(controller, 100);
+        assertEquals(3, controller.getChunkSize());
+        assertFalse(isCompleteAfter(completionPolicy, 2));
+        assertTrue(isCompleteAfter(completionPolicy, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minimumMustNotBeGreaterThanMaximum() {
+        new VepChunkSizeController(new SimpleCompletionPolicy(), 100, 1000, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minimumMustBePositive() {
+        new VepChunkSizeController(new SimpleCompletionPolicy(), 100, 0, 100);
+    }
+
+    private void recordRound(VepChunkSizeController controller, long variantsPerSecond) {
+        int chunkSize = controller.getChunkSize();
+        long elapsedNanos = TimeUnit.SECONDS.toNanos(chunkSize) / variantsPerSecond;
+        for (int i = 0; i < VepChunkSizeController.CHUNKS_PER_ROUND; i++) {
+            controller.recordChunk(chunkSize, elapsedNanos);
+        }
+    }
+
+    private boolean isCompleteAfter(SimpleCompletionPolicy completionPolicy, int items) {
+        RepeatContext context = completionPolicy.start(new RepeatContextSupport(null));
+        for (int i = 0; i < items; i++) {
+            completionPolicy.update(context);
+        }
+        return completionPolicy.isComplete(context);
+    }
+}
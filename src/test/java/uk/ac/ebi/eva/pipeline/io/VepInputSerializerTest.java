@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Test;
+
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class VepInputSerializerTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    @Test
+    public void serializeInVepDefaultFormat() throws Exception {
+        VepInputSerializer serializer = new VepInputSerializer();
+        serializer.serialize(Arrays.asList(new EnsemblVariant("20", 60343, 60343, "G", "A"),
+                                           new EnsemblVariant("1", 12601, 12601, "", "C"),
+                                           new EnsemblVariant("X", 3, 5, "CGT", "")));
+
+        assertEquals("20\t60343\t60343\tG/A\t+" + NEW_LINE
+                             + "1\t12601\t12600\t-/C\t+" + NEW_LINE
+                             + "X\t3\t5\tCGT/-\t+" + NEW_LINE,
+                     asString(serializer));
+    }
+
+    @Test
+    public void serializeSameAsRefAlt() throws Exception {
+        VepInputSerializer serializer = new VepInputSerializer();
+        for (int start : new int[]{0, 9, 10, 99, 100, 123456789, Integer.MAX_VALUE - 10}) {
+            EnsemblVariant variant = new EnsemblVariant("22", start, start, "AC", "T");
+            serializer.serialize(Arrays.asList(variant));
+            assertEquals(String.join("\t", variant.getChr(), Integer.toString(variant.getStart()),
+                                     Integer.toString(variant.getEnd()), variant.getRefAlt(), variant.getStrand())
+                                 + NEW_LINE,
+                         asString(serializer));
+        }
+    }
+
+    @Test
+    public void appendIdentifier() throws Exception {
+        VepInputSerializer serializer = new VepInputSerializer();
+        serializer.append(new EnsemblVariant("20", 60343, 60343, "G", "A"), "marker");
+        assertEquals("20\t60343\t60343\tG/A\t+\tmarker" + NEW_LINE, asString(serializer));
+    }
+
+    @Test
+    public void bufferIsReusedAndGrows() throws Exception {
+        VepInputSerializer serializer = new VepInputSerializer();
+        List<EnsemblVariant> variants = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            variants.add(new EnsemblVariant("20", 60000 + i, 60000 + i, "G", "A"));
+        }
+        serializer.serialize(variants);
+        String expectedLine = "20\t69999\t69999\tG/A\t+" + NEW_LINE;
+        assertEquals(expectedLine, asString(serializer).substring(serializer.getLength() - expectedLine.length()));
+
+        serializer.serialize(Arrays.asList(new EnsemblVariant("1", 1, 1, "A", "T")));
+        assertEquals("1\t1\t1\tA/T\t+" + NEW_LINE, asString(serializer));
+    }
+
+    private String asString(VepInputSerializer serializer) {
+        return new String(serializer.getBuffer(), 0, serializer.getLength());
+    }
+}
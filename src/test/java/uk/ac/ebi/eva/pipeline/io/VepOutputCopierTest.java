@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VepOutputCopierTest {
+
+    private static final String HEADER = "## ENSEMBL VARIANT EFFECT PREDICTOR v78\n#Uploaded_variation\tLocation\n";
+
+    private static final String ANNOTATIONS = "20_60343_G/A\t20:60343\tA\t-\n20_60419_A/G\t20:60419\tG\t-\n";
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void commentsAreCopiedIfNotSkipped() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long lines = new VepOutputCopier(VepOutputCopier.DEFAULT_BUFFER_SIZE).copy(toStream(HEADER + ANNOTATIONS),
+                                                                                   output, false, () -> {});
+
+        assertEquals(HEADER + ANNOTATIONS, toString(output));
+        assertEquals(4, lines);
+    }
+
+    @Test
+    public void commentsAreSkipped() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long lines = new VepOutputCopier(VepOutputCopier.DEFAULT_BUFFER_SIZE).copy(toStream(HEADER + ANNOTATIONS),
+                                                                                   output, true, () -> {});
+
+        assertEquals(ANNOTATIONS, toString(output));
+        assertEquals(2, lines);
+    }
+
+    @Test
+    public void linesAndCommentsCanSpanSeveralBlocks() throws Exception {
+        for (int bufferSize = 1; bufferSize < 20; bufferSize++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            AtomicInteger blocks = new AtomicInteger();
+            long lines = new VepOutputCopier(bufferSize).copy(toStream(HEADER + ANNOTATIONS), output, true,
+                                                              blocks::incrementAndGet);
+
+            assertEquals(ANNOTATIONS, toString(output));
+            assertEquals(2, lines);
+            assertTrue(blocks.get() >= (HEADER + ANNOTATIONS).length() / bufferSize);
+        }
+    }
+
+    @Test
+    public void lastLineIsTerminated() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        String unterminated = ANNOTATIONS.substring(0, ANNOTATIONS.length() - 1);
+        long lines = new VepOutputCopier(VepOutputCopier.DEFAULT_BUFFER_SIZE).copy(toStream(unterminated), output,
+                                                                                   true, () -> {});
+
+        assertEquals(ANNOTATIONS, toString(output));
+        assertEquals(2, lines);
+    }
+
+    @Test
+    public void lastLineIsKeptIfItFitsInABlock() throws Exception {
+        VepOutputCopier copier = new VepOutputCopier(VepOutputCopier.DEFAULT_BUFFER_SIZE);
+        copier.copy(toStream(HEADER + ANNOTATIONS), new ByteArrayOutputStream(), true, () -> {});
+        assertEquals("20_60419_A/G\t20:60419\tG\t-", copier.getLastLine());
+
+        copier = new VepOutputCopier(4);
+        copier.copy(toStream(HEADER + ANNOTATIONS), new ByteArrayOutputStream(), true, () -> {});
+        assertNull(copier.getLastLine());
+    }
+
+    @Test
+    public void compressedOutputIsAppended() throws Exception {
+        File output = new File(temporaryFolderRule.getRoot(), "vep_output.tsv.gz");
+        VepOutputCopier copier = new VepOutputCopier(VepOutputCopier.DEFAULT_BUFFER_SIZE);
+
+        try (OutputStream outputStream = VepOutputCopier.openCompressedOutput(output.getAbsolutePath(), true,
+                                                                               Deflater.BEST_SPEED, 1024)) {
+            copier.copy(toStream(HEADER + ANNOTATIONS), outputStream, false, () -> {});
+        }
+        try (OutputStream outputStream = VepOutputCopier.openCompressedOutput(output.getAbsolutePath(), true,
+                                                                               Deflater.BEST_COMPRESSION, 1024)) {
+            copier.copy(toStream(HEADER + ANNOTATIONS), outputStream, true, () -> {});
+        }
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        new VepOutputCopier(VepOutputCopier.DEFAULT_BUFFER_SIZE).copy(
+                new GZIPInputStream(new FileInputStream(output)), decompressed, false, () -> {});
+        assertEquals(HEADER + ANNOTATIONS + ANNOTATIONS, toString(decompressed));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferSizeMustBePositive() throws Exception {
+        new VepOutputCopier(0);
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toString(ByteArrayOutputStream output) throws IOException {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VepWriteWatchdogTest {
+
+    private static final long TIMEOUT_IN_SECONDS = 1L;
+
+    private VepWriteWatchdog watchdog;
+
+    private Process process;
+
+    @Before
+    public void setUp() throws Exception {
+        watchdog = new VepWriteWatchdog();
+        // a process that never reads its input, so that writes block once the pipe is full
+        process = new ProcessBuilder("sleep", "30").start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        process.destroyForcibly();
+    }
+
+    @Test
+    public void writesInTimeAreCounted() throws Exception {
+        OutputStream input = process.getOutputStream();
+        watchdog.write(process, TIMEOUT_IN_SECONDS, () -> input.write(new byte[]{'a', '\n'}));
+        watchdog.write(process, TIMEOUT_IN_SECONDS, input::flush);
+
+        assertEquals(2, watchdog.getWrites());
+        assertEquals(0, watchdog.getTimeouts());
+        assertTrue(process.isAlive());
+    }
+
+    @Test
+    public void blockedWriteKillsTheProcess() throws Exception {
+        OutputStream input = process.getOutputStream();
+        byte[] moreThanThePipeCapacity = new byte[10 * 1024 * 1024];
+        try {
+            watchdog.write(process, TIMEOUT_IN_SECONDS, () -> {
+                input.write(moreThanThePipeCapacity);
+                input.flush();
+            });
+            fail("the write should have reached the timeout");
+        } catch (ItemStreamException e) {
+            assertEquals("Error writing to VEP: timeout reached", e.getMessage());
+        }
+
+        process.waitFor();
+        assertFalse(process.isAlive());
+        assertEquals(1, watchdog.getWrites());
+        assertEquals(1, watchdog.getTimeouts());
+        assertTrue(watchdog.getMaxBlockedMillis() >= TIMEOUT_IN_SECONDS * 1000);
+    }
+
+    @Test(expected = ItemStreamException.class)
+    public void failedWriteIsNotATimeout() throws Exception {
+        try {
+            watchdog.write(process, TIMEOUT_IN_SECONDS, () -> {
+                throw new IOException("broken pipe");
+            });
+        } finally {
+            assertEquals(0, watchdog.getTimeouts());
+        }
+    }
+}
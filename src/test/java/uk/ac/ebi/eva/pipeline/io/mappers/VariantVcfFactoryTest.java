@@ -31,6 +31,8 @@ import java.util.Set;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 /**
  * {@link VariantVcfFactory}
@@ -578,4 +580,27 @@ public class VariantVcfFactoryTest {
         assertEquals(expResult, result);
         assertEquals(emptySet, result.get(0).getIds());
     }
+
+    @Test
+    public void sourceLineKeepsTheFirst8Columns() {
+        String line = "1\t1000\t.\tT\tG,C\t.\t.\tNS=2\tGT\t0|1\t1|2";
+
+        List<Variant> result = factory.create(FILE_ID, STUDY_ID, line);
+
+        assertEquals(2, result.size());
+        String sourceLine = result.get(0).getSourceEntry(FILE_ID, STUDY_ID).getAttribute("src");
+        assertEquals("1\t1000\t.\tT\tG,C\t.\t.\tNS=2", sourceLine);
+        assertSame(sourceLine, result.get(1).getSourceEntry(FILE_ID, STUDY_ID).getAttribute("src"));
+    }
+
+    @Test
+    public void sourceLineIsNotStoredWithPolicyNone() {
+        VariantVcfFactory factoryWithoutSourceLine = new VariantVcfFactory();
+        factoryWithoutSourceLine.setSourceLinePolicy(SourceLinePolicy.NONE);
+        String line = "1\t1000\t.\tT\tG\t.\t.\tNS=2\tGT\t0|1\t1|1";
+
+        List<Variant> result = factoryWithoutSourceLine.create(FILE_ID, STUDY_ID, line);
+
+        assertFalse(result.get(0).getSourceEntry(FILE_ID, STUDY_ID).getAttributes().containsKey("src"));
+    }
 }
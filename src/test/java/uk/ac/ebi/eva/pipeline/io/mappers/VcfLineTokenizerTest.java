@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.mappers;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VcfLineTokenizerTest {
+
+    private static final String LINE = "chr1\t1000\t.\tT\tG,C\t.\tPASS\tAC=3,5;AF=0.1,0.2;DB\tGT:DP\t0/1:10\t1/2";
+
+    @Test
+    public void fieldsAreTheSameAsSplittingTheLine() {
+        assertFields(LINE);
+        assertFields("1\t1000\t.\tT\tG\t.\t.\t.\t\t");
+        assertFields("1\t\t.\tT");
+        assertFields("");
+        assertFields("\t\t");
+    }
+
+    private void assertFields(String line) {
+        VcfLineTokenizer tokenizer = new VcfLineTokenizer(line);
+        String[] expected = line.split("\t");
+        String[] fields = new String[tokenizer.getNumFields()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = tokenizer.getField(i);
+        }
+        assertArrayEquals(expected, fields);
+    }
+
+    @Test
+    public void subfieldsAreTheSameAsSplittingTheField() {
+        assertSubfields("0/1:10:", ':');
+        assertSubfields("0/1::10", ':');
+        assertSubfields("0/1", ':');
+        assertSubfields("", ':');
+        assertSubfields("::", ':');
+        assertSubfields("G,C", ',');
+    }
+
+    private void assertSubfields(String text, char separator) {
+        VcfLineTokenizer.Subfields subfields = new VcfLineTokenizer.Subfields(text, separator);
+        String[] expected = text.split(String.valueOf(separator));
+        assertArrayEquals(expected, subfields.toArray());
+        assertEquals(expected.length, subfields.count());
+    }
+
+    @Test
+    public void fieldsCanBeComparedWithoutMaterialisingThem() {
+        VcfLineTokenizer tokenizer = new VcfLineTokenizer(LINE);
+        assertTrue(tokenizer.fieldStartsWithIgnoreCase(0, "CHR"));
+        assertFalse(tokenizer.fieldStartsWithIgnoreCase(1, "chr"));
+        assertTrue(tokenizer.fieldEquals(2, "."));
+        assertFalse(tokenizer.fieldEquals(6, "."));
+        assertEquals(1000, tokenizer.getIntField(1));
+    }
+
+    @Test
+    public void intFieldsAreParsedAsIntegerParseInt() {
+        assertEquals(-5, new VcfLineTokenizer("-5").getIntField(0));
+        assertEquals(Integer.MAX_VALUE, new VcfLineTokenizer(String.valueOf(Integer.MAX_VALUE)).getIntField(0));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void invalidIntFieldsThrowNumberFormatException() {
+        new VcfLineTokenizer("1\t10a").getIntField(1);
+    }
+
+    @Test
+    public void subfieldsOfTheSamples() {
+        VcfLineTokenizer tokenizer = new VcfLineTokenizer(LINE);
+        VcfLineTokenizer.Subfields sample = tokenizer.getSubfields(10, VcfLineTokenizer.SAMPLE_FIELD_SEPARATOR);
+        assertTrue(sample.next());
+        assertTrue(sample.valueEquals("1/2"));
+        assertEquals("1/2", sample.getValue());
+        assertFalse(sample.next());
+        assertEquals("C", tokenizer.getSubfields(4, VcfLineTokenizer.VALUE_SEPARATOR).get(1));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void missingSubfieldThrowsException() {
+        new VcfLineTokenizer.Subfields("3,5", VcfLineTokenizer.VALUE_SEPARATOR).get(2);
+    }
+
+    @Test
+    public void infoEntriesAreSplitIntoKeysAndValues() {
+        Map<String, String> entries = readInfo("AC=3,5;AF=0.1,0.2;DB;X=1=2;Y=;=Z;W=4=");
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("AC", "3,5");
+        expected.put("AF", "0.1,0.2");
+        expected.put("DB", null);
+        expected.put("X", null);
+        expected.put("Y", null);
+        expected.put("", "Z");
+        expected.put("W", "4");
+        assertEquals(expected, entries);
+    }
+
+    @Test
+    public void valuesOfAnInfoEntry() {
+        VcfLineTokenizer.InfoEntries entries = new VcfLineTokenizer.InfoEntries("AC=3,5");
+        assertTrue(entries.next());
+        assertTrue(entries.keyEquals("AC"));
+        assertEquals("5", entries.getValues().get(1));
+        assertFalse(entries.next());
+    }
+
+    private Map<String, String> readInfo(String info) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        VcfLineTokenizer.InfoEntries infoEntries = new VcfLineTokenizer.InfoEntries(info);
+        while (infoEntries.next()) {
+            entries.put(infoEntries.getKey(), infoEntries.hasValue() ? infoEntries.getValue() : null);
+        }
+        return entries;
+    }
+}
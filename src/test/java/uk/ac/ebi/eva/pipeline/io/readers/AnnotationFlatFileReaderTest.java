@@ -22,12 +22,18 @@ import org.springframework.batch.item.file.FlatFileParseException;
 import org.springframework.batch.test.MetaDataInstanceFactory;
 
 import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.pipeline.io.VepOutputCopier;
 import uk.ac.ebi.eva.test.data.VepOutputContent;
 import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
 import uk.ac.ebi.eva.test.utils.JobTestUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
@@ -77,6 +83,38 @@ public class AnnotationFlatFileReaderTest {
         assertEquals(expectedCount, count);
     }
 
+    @Test
+    public void restartedReaderShouldSeekToTheLastSavedLineInBgzfFiles() throws Exception {
+        File file = temporaryFolderRule.newFile();
+        try (OutputStream outputStream = VepOutputCopier.openCompressedOutput(file.getAbsolutePath(), false,
+                                                                               Deflater.DEFAULT_COMPRESSION, 500)) {
+            outputStream.write(VepOutputContent.vepOutputContent.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<String> allIds = readIds(file, new ExecutionContext(), Integer.MAX_VALUE);
+
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        List<String> restartedIds = readIds(file, executionContext, 5);
+        restartedIds.addAll(readIds(file, executionContext, Integer.MAX_VALUE));
+
+        assertEquals(allIds, restartedIds);
+        assertEquals(JobTestUtils.getLines(new GZIPInputStream(new FileInputStream(file))), allIds.size());
+    }
+
+    private List<String> readIds(File file, ExecutionContext executionContext, int maxItems) throws Exception {
+        AnnotationFlatFileReader annotationFlatFileReader = new AnnotationFlatFileReader(file, VEP_VERSION,
+                VEP_CACHE_VERSION);
+        annotationFlatFileReader.open(executionContext);
+        List<String> ids = new ArrayList<>();
+        Annotation annotation;
+        while (ids.size() < maxItems && (annotation = annotationFlatFileReader.read()) != null) {
+            ids.add(annotation.getId());
+        }
+        annotationFlatFileReader.update(executionContext);
+        annotationFlatFileReader.close();
+        return ids;
+    }
+
     // Missing ':' in 20_63351 (should be 20:63351)
     @Test(expected = FlatFileParseException.class)
     public void malformedCoordinatesAnnotationLinesShouldBeSkipped() throws Exception {
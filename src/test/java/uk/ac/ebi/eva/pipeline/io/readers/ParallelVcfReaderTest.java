@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * {@link ParallelVcfReader}
+ * <p>
+ * input: a Vcf file
+ * <p>
+ * output: the same lists of variants, in the same order, as a {@link VcfReader}
+ */
+public class ParallelVcfReaderTest {
+
+    private static final String INPUT_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String INPUT_WRONG_FILE_PATH = "/input-files/vcf/wrong_same_ref_alt.vcf.gz";
+
+    private static final String FILE_ID = "5";
+
+    private static final String STUDY_ID = "7";
+
+    private static final int NUM_THREADS = 4;
+
+    private static final int BLOCK_SIZE = 7;
+
+    @Test
+    public void shouldReadTheSameLinesInOrder() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        List<List<Variant>> expected = readAll(new VcfReader(FILE_ID, STUDY_ID, input), new ExecutionContext());
+
+        ParallelVcfReader reader = new ParallelVcfReader(new VcfLineMapper(FILE_ID, STUDY_ID), input, NUM_THREADS,
+                                                         BLOCK_SIZE);
+        List<List<Variant>> lines = readAll(reader, new ExecutionContext());
+
+        assertTrue(expected.size() > BLOCK_SIZE * NUM_THREADS);
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    public void restartShouldNotReadLinesAgain() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        List<List<Variant>> expected = readAll(new VcfReader(FILE_ID, STUDY_ID, input), new ExecutionContext());
+        int linesBeforeRestart = BLOCK_SIZE * 3 + 2;
+
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        ParallelVcfReader reader = new ParallelVcfReader(new VcfLineMapper(FILE_ID, STUDY_ID), input, NUM_THREADS,
+                                                         BLOCK_SIZE);
+        reader.open(executionContext);
+        List<List<Variant>> lines = new ArrayList<>();
+        for (int i = 0; i < linesBeforeRestart; i++) {
+            lines.add(reader.read());
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        ParallelVcfReader restartedReader = new ParallelVcfReader(new VcfLineMapper(FILE_ID, STUDY_ID), input,
+                                                                  NUM_THREADS, BLOCK_SIZE);
+        lines.addAll(readAll(restartedReader, executionContext));
+
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    public void invalidLineShouldFailAfterThePreviousLines() throws Exception {
+        File input = getResource(INPUT_WRONG_FILE_PATH);
+        int expectedLines = countLinesBeforeError(new VcfReader(FILE_ID, STUDY_ID, input));
+
+        ParallelVcfReader reader = new ParallelVcfReader(new VcfLineMapper(FILE_ID, STUDY_ID), input, NUM_THREADS,
+                                                         BLOCK_SIZE);
+        assertEquals(expectedLines, countLinesBeforeError(reader));
+    }
+
+    private int countLinesBeforeError(ItemStreamReader<List<Variant>> reader) throws Exception {
+        reader.open(new ExecutionContext());
+        int lines = 0;
+        try {
+            while (reader.read() != null) {
+                lines++;
+            }
+            fail("A FlatFileParseException should have been thrown");
+        } catch (FlatFileParseException e) {
+            // expected
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+
+    private List<List<Variant>> readAll(ItemStreamReader<List<Variant>> reader, ExecutionContext executionContext)
+            throws Exception {
+        List<List<Variant>> lines = new ArrayList<>();
+        reader.open(executionContext);
+        try {
+            List<Variant> line;
+            while ((line = reader.read()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}
@@ -16,6 +16,7 @@
 
 package uk.ac.ebi.eva.pipeline.io.readers;
 
+import com.mongodb.BasicDBObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,6 +30,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
 import uk.ac.ebi.eva.pipeline.Application;
 import uk.ac.ebi.eva.pipeline.configuration.MongoConfiguration;
 import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
@@ -41,6 +43,7 @@ import java.util.Arrays;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * {@link VariantsMongoReader}
@@ -130,6 +133,40 @@ public class VariantsMongoReaderTest {
         checkVariantsRead(EXPECTED_NO_VARIANTS, STUDY_ID, "nonExistingFile", false);
     }
 
+    @Test
+    public void shouldReadVariantsInLocusOrder() throws Exception {
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, Arrays.asList(
+                VariantData.getVariantWithAnnotation(),
+                VariantData.getVariantWithoutAnnotation(),
+                VariantData.getVariantWithoutAnnotationOtherStudy()));
+
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(databaseName, mongoConnection,
+                                                                                mongoMappingContext);
+        mongoOperations.getCollection(COLLECTION_VARIANTS_NAME).createIndex(
+                new BasicDBObject(VariantDocument.CHROMOSOME_FIELD, 1).append(VariantDocument.START_FIELD, 1)
+                                                                      .append(VariantDocument.END_FIELD, 1));
+
+        VariantsMongoReader mongoItemReader = new VariantsMongoReader(
+                mongoOperations, COLLECTION_VARIANTS_NAME, VEP_VERSION, VEP_CACHE_VERSION, ALL_IDS, ALL_IDS, false,
+                null, true);
+        mongoItemReader.open(executionContext);
+
+        int itemCount = 0;
+        EnsemblVariant previous = null;
+        EnsemblVariant ensemblVariant;
+        while ((ensemblVariant = mongoItemReader.read()) != null) {
+            itemCount++;
+            if (previous != null) {
+                int chromosomeOrder = previous.getChr().compareTo(ensemblVariant.getChr());
+                assertTrue(chromosomeOrder < 0
+                                   || (chromosomeOrder == 0 && previous.getStart() <= ensemblVariant.getStart()));
+            }
+            previous = ensemblVariant;
+        }
+        assertEquals(EXPECTED_VARIANTS_IN_DB, itemCount);
+        mongoItemReader.close();
+    }
 
     private void checkVariantsRead(int expectedVariants, String study, String file, boolean excludeAnnotated)
             throws Exception {
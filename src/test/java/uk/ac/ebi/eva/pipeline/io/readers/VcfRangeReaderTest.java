@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.readers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import uk.ac.ebi.eva.commons.models.data.Variant;
+import uk.ac.ebi.eva.pipeline.io.BgzfOutputStream;
+import uk.ac.ebi.eva.pipeline.io.BgzfRangeSplitter;
+import uk.ac.ebi.eva.pipeline.io.mappers.VcfLineMapper;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * {@link VcfRangeReader}
+ * <p>
+ * input: a BGZF-compressed Vcf file split in ranges
+ * <p>
+ * output: all the ranges together have the same lists of variants, in the same order, as a {@link VcfReader}
+ */
+public class VcfRangeReaderTest {
+
+    private static final String INPUT_FILE_PATH = "/input-files/vcf/genotyped.vcf.gz";
+
+    private static final String FILE_ID = "5";
+
+    private static final String STUDY_ID = "7";
+
+    private static final int NUM_RANGES = 5;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void rangesHaveAllTheLinesOnce() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        List<List<Variant>> expected = readAll(new VcfReader(FILE_ID, STUDY_ID, input), new ExecutionContext());
+
+        File bgzfInput = copyAsBgzf(input);
+        List<Long> starts = new BgzfRangeSplitter(bgzfInput).split(NUM_RANGES);
+        assertEquals(NUM_RANGES, starts.size());
+
+        List<List<Variant>> lines = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            long end = i + 1 < starts.size() ? starts.get(i + 1) : Long.MAX_VALUE;
+            List<List<Variant>> range = readAll(new VcfRangeReader(new VcfLineMapper(FILE_ID, STUDY_ID), bgzfInput,
+                                                                   starts.get(i), end), new ExecutionContext());
+            assertTrue(range.size() > 0);
+            lines.addAll(range);
+        }
+
+        assertEquals(expected, lines);
+    }
+
+    @Test
+    public void restartShouldNotReadLinesAgain() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        List<List<Variant>> expected = readAll(new VcfReader(FILE_ID, STUDY_ID, input), new ExecutionContext());
+        File bgzfInput = copyAsBgzf(input);
+        int linesBeforeRestart = 123;
+
+        ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+        VcfRangeReader reader = new VcfRangeReader(new VcfLineMapper(FILE_ID, STUDY_ID), bgzfInput, 0,
+                                                   Long.MAX_VALUE);
+        reader.open(executionContext);
+        List<List<Variant>> lines = new ArrayList<>();
+        for (int i = 0; i < linesBeforeRestart; i++) {
+            lines.add(reader.read());
+        }
+        reader.update(executionContext);
+        reader.close();
+
+        VcfRangeReader restartedReader = new VcfRangeReader(new VcfLineMapper(FILE_ID, STUDY_ID), bgzfInput, 0,
+                                                            Long.MAX_VALUE);
+        lines.addAll(readAll(restartedReader, executionContext));
+
+        assertEquals(expected, lines);
+    }
+
+    private File copyAsBgzf(File gzipFile) throws Exception {
+        File bgzfFile = temporaryFolderRule.newFile("genotyped.vcf.gz");
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(gzipFile));
+             OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(bgzfFile),
+                                                              Deflater.DEFAULT_COMPRESSION, 0xff00)) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        return bgzfFile;
+    }
+
+    private List<List<Variant>> readAll(ItemStreamReader<List<Variant>> reader, ExecutionContext executionContext)
+            throws Exception {
+        List<List<Variant>> lines = new ArrayList<>();
+        reader.open(executionContext);
+        try {
+            List<Variant> line;
+            while ((line = reader.read()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}
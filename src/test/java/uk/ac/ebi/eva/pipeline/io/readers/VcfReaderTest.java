@@ -9,6 +9,7 @@ import org.springframework.batch.test.MetaDataInstanceFactory;
 
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
 import uk.ac.ebi.eva.test.utils.JobTestUtils;
 
@@ -91,6 +92,29 @@ public class VcfReaderTest {
         consumeReader(input, vcfReader);
     }
 
+    @Test
+    public void shouldPutTheBytesReadInTheExecutionContext() throws Exception {
+        File input = getResource(INPUT_FILE_PATH);
+        File uncompressedInput = temporaryFolderRule.newFile();
+        JobTestUtils.uncompress(input.getAbsolutePath(), uncompressedInput);
+
+        for (File file : new File[]{input, uncompressedInput}) {
+            ExecutionContext executionContext = MetaDataInstanceFactory.createStepExecution().getExecutionContext();
+            VcfReader vcfReader = new VcfReader(FILE_ID, STUDY_ID, file);
+            vcfReader.open(executionContext);
+            vcfReader.update(executionContext);
+            long bytesReadAtStart = executionContext.getLong(ExecutionContextParametersNames.INPUT_BYTES_READ);
+
+            while (vcfReader.read() != null) {
+            }
+            vcfReader.update(executionContext);
+            vcfReader.close();
+
+            assertTrue(bytesReadAtStart < file.length());
+            assertEquals(file.length(), executionContext.getLong(ExecutionContextParametersNames.INPUT_BYTES_READ));
+        }
+    }
+
     private void consumeReader(File inputFile, VcfReader vcfReader) throws Exception {
         List<Variant> variants;
         int count = 0;
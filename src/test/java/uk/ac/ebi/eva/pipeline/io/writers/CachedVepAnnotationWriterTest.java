@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.DBObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.commons.models.mongo.entity.Annotation;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
+import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.pipeline.configuration.MongoConfiguration;
+import uk.ac.ebi.eva.pipeline.io.mappers.AnnotationLineMapper;
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.MongoConnection;
+import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static uk.ac.ebi.eva.test.data.VepOutputContent.vepOutputContent;
+import static uk.ac.ebi.eva.test.utils.TestFileUtils.getResourceUrl;
+
+/**
+ * {@link CachedVepAnnotationWriter}
+ * input: a chunk of variants, some of them already in the annotations collection
+ * output: the cached annotations are copied into the variants, and only the rest of variants are sent to VEP
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles(Application.VARIANT_ANNOTATION_MONGO_PROFILE)
+@TestPropertySource({"classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {MongoConnection.class, MongoMappingContext.class})
+public class CachedVepAnnotationWriterTest {
+
+    private static final String MONGO_DUMP = "/dump/VariantStatsConfigurationTest_vl";
+
+    private static final String COLLECTION_VARIANTS_NAME = "variants";
+
+    private static final String COLLECTION_ANNOTATIONS_NAME = "annotations";
+
+    private static final String VEP_VERSION = "1";
+
+    private static final String VEP_CACHE_VERSION = "2";
+
+    private static final EnsemblVariant CACHED_VARIANT = new EnsemblVariant("20", 63360, 63360, "C", "T");
+
+    private static final EnsemblVariant NOT_CACHED_VARIANT = new EnsemblVariant("20", 70000, 70000, "A", "C");
+
+    @Autowired
+    private MongoConnection mongoConnection;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @Rule
+    public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
+
+    private String databaseName;
+
+    private MongoOperations mongoOperations;
+
+    private List<EnsemblVariant> variantsSentToVep;
+
+    private CachedVepAnnotationWriter writer;
+
+    @Before
+    public void setUp() throws Exception {
+        databaseName = mongoRule.restoreDumpInTemporaryDatabase(getResourceUrl(MONGO_DUMP));
+        mongoOperations = MongoConfiguration.getMongoOperations(databaseName, mongoConnection, mongoMappingContext);
+
+        AnnotationLineMapper lineMapper = new AnnotationLineMapper(VEP_VERSION, VEP_CACHE_VERSION);
+        List<Annotation> cachedAnnotations = new ArrayList<>();
+        for (String line : vepOutputContent.split("\n")) {
+            cachedAnnotations.add(lineMapper.mapLine(line, 0));
+        }
+        new AnnotationMongoWriter(mongoOperations, COLLECTION_ANNOTATIONS_NAME).write(cachedAnnotations);
+
+        variantsSentToVep = new ArrayList<>();
+        writer = new CachedVepAnnotationWriter(new RecordingVepWriter(variantsSentToVep),
+                                               new AnnotationInVariantMongoWriter(mongoOperations,
+                                                                                  COLLECTION_VARIANTS_NAME,
+                                                                                  VEP_VERSION, VEP_CACHE_VERSION),
+                                               mongoOperations, COLLECTION_ANNOTATIONS_NAME, VEP_VERSION,
+                                               VEP_CACHE_VERSION);
+    }
+
+    @Test
+    public void onlyVariantsNotCachedShouldBeSentToVep() throws Exception {
+        writer.open(new ExecutionContext());
+        writer.write(Arrays.asList(CACHED_VARIANT, NOT_CACHED_VARIANT));
+        writer.close();
+
+        assertEquals(Arrays.asList(NOT_CACHED_VARIANT), variantsSentToVep);
+        assertEquals(1, writer.getHits());
+        assertEquals(1, writer.getMisses());
+    }
+
+    @Test
+    public void cachedAnnotationsShouldBeCopiedIntoTheVariants() throws Exception {
+        writer.open(new ExecutionContext());
+        writer.write(Arrays.asList(CACHED_VARIANT));
+        writer.close();
+
+        DBObject variant = mongoRule.getCollection(databaseName, COLLECTION_VARIANTS_NAME)
+                                    .findOne(VariantDocument.buildVariantId("20", 63360, "C", "T"));
+        assertNotNull(variant);
+        assertEquals(1, ((BasicDBList) variant.get(VariantDocument.ANNOTATION_FIELD)).size());
+    }
+
+    @Test
+    public void countersShouldBeKeptInTheExecutionContext() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.putLong(ExecutionContextParametersNames.ANNOTATION_CACHE_HITS, 10);
+
+        writer.open(executionContext);
+        writer.write(Arrays.asList(CACHED_VARIANT, NOT_CACHED_VARIANT, NOT_CACHED_VARIANT));
+        writer.update(executionContext);
+        writer.close();
+
+        assertEquals(11, executionContext.getLong(ExecutionContextParametersNames.ANNOTATION_CACHE_HITS));
+        assertEquals(2, executionContext.getLong(ExecutionContextParametersNames.ANNOTATION_CACHE_MISSES));
+    }
+
+    private static class RecordingVepWriter implements ItemStreamWriter<EnsemblVariant> {
+
+        private final List<EnsemblVariant> writtenVariants;
+
+        RecordingVepWriter(List<EnsemblVariant> writtenVariants) {
+            this.writtenVariants = writtenVariants;
+        }
+
+        @Override
+        public void open(ExecutionContext executionContext) {
+        }
+
+        @Override
+        public void update(ExecutionContext executionContext) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void write(List<? extends EnsemblVariant> variants) {
+            writtenVariants.addAll(variants);
+        }
+    }
+}
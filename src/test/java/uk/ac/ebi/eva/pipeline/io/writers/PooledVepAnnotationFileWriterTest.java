@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.io.writers;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import uk.ac.ebi.eva.pipeline.model.EnsemblVariant;
+import uk.ac.ebi.eva.pipeline.parameters.AnnotationParameters;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.test.utils.JobTestUtils.getLines;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+public class PooledVepAnnotationFileWriterTest {
+
+    private static final long TIMEOUT_IN_SECONDS = 5L;
+
+    private static final int HEADER_LINES = 2;
+
+    private static final int NUM_WORKERS = 2;
+
+    private final EnsemblVariant VARIANT_WRAPPER = new EnsemblVariant("1", 100, 105, "A", "T");
+
+    private AnnotationParameters annotationParameters;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolder = new PipelineTemporaryFolderRule();
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Before
+    public void setUp() throws Exception {
+        annotationParameters = new AnnotationParameters();
+        annotationParameters.setFileId("fid");
+        annotationParameters.setStudyId("sid");
+        annotationParameters.setVepCacheVersion("1");
+        annotationParameters.setVepCachePath("cache");
+        annotationParameters.setVepPath(getResource("/mockvep_pool.pl").getAbsolutePath());
+        annotationParameters.setVepCacheSpecies("hsapiens");
+        annotationParameters.setInputFasta(new File(temporaryFolder.getRoot(), "fasta").getAbsolutePath());
+        annotationParameters.setVepNumForks(4);
+
+        File annotationFolder = temporaryFolder.newFolder();
+        annotationParameters.setOutputDirAnnotation(annotationFolder.getAbsolutePath());
+    }
+
+    @Test
+    public void severalChunksAreAnnotatedByTheSameWorkers() throws Exception {
+        int chunkSize = 5;
+        int chunks = 4;
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, chunkSize,
+                                                                                 TIMEOUT_IN_SECONDS, NUM_WORKERS);
+        writer.open(new ExecutionContext());
+        for (int i = 0; i < chunks; i++) {
+            writer.write(buildChunk(chunkSize));
+        }
+        writer.close();
+
+        File vepOutputFile = new File(annotationParameters.getVepOutput());
+        assertTrue(vepOutputFile.exists());
+        assertEquals(chunkSize * chunks, getLines(new GZIPInputStream(new FileInputStream(vepOutputFile))));
+        assertHeaderIsWrittenOnce(vepOutputFile);
+    }
+
+    @Test
+    public void lastSmallerChunkIsAnnotated() throws Exception {
+        int chunkSize = 10;
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, chunkSize,
+                                                                                 TIMEOUT_IN_SECONDS, NUM_WORKERS);
+        writer.open(new ExecutionContext());
+        writer.write(buildChunk(chunkSize));
+        writer.write(buildChunk(3));
+        writer.close();
+
+        File vepOutputFile = new File(annotationParameters.getVepOutput());
+        assertEquals(chunkSize + 3, getLines(new GZIPInputStream(new FileInputStream(vepOutputFile))));
+    }
+
+    @Test
+    public void chunksCanBeAnnotatedConcurrently() throws Exception {
+        int chunkSize = 7;
+        int chunks = 10;
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, chunkSize,
+                                                                                 TIMEOUT_IN_SECONDS, NUM_WORKERS);
+        writer.open(new ExecutionContext());
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_WORKERS);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            futures.add(executorService.submit(() -> {
+                writer.write(buildChunk(chunkSize));
+                return null;
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        writer.close();
+
+        File vepOutputFile = new File(annotationParameters.getVepOutput());
+        assertEquals(chunkSize * chunks, getLines(new GZIPInputStream(new FileInputStream(vepOutputFile))));
+        assertHeaderIsWrittenOnce(vepOutputFile);
+    }
+
+    @Test
+    public void crashedWorkerIsRestartedAndTheChunkIsRetried() throws Exception {
+        int chunkSize = 5;
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, chunkSize,
+                                                                                 TIMEOUT_IN_SECONDS, 1);
+        writer.open(new ExecutionContext());
+        writer.write(buildChunk(chunkSize));
+        List<EnsemblVariant> crashingChunk = buildChunk(chunkSize - 1);
+        crashingChunk.add(new EnsemblVariant("crash", 100, 100, "A", "T"));
+        writer.write(crashingChunk);
+        writer.write(buildChunk(chunkSize));
+        writer.close();
+
+        File vepOutputFile = new File(annotationParameters.getVepOutput());
+        assertEquals(chunkSize * 3, getLines(new GZIPInputStream(new FileInputStream(vepOutputFile))));
+        assertHeaderIsWrittenOnce(vepOutputFile);
+    }
+
+    @Test
+    public void annotationsOfAChunkThatTimedOutAreWrittenOnlyOnce() throws Exception {
+        // enough variants to fill the pipe to the stuck process, so that the write of the chunk blocks
+        int chunkSize = 10000;
+        int variantsAnnotatedBeforeHanging = 100;
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, chunkSize,
+                                                                                 1L, 1);
+        writer.open(new ExecutionContext());
+        List<EnsemblVariant> hangingChunk = buildChunk(chunkSize - 1);
+        hangingChunk.add(variantsAnnotatedBeforeHanging, new EnsemblVariant("hang", 100, 100, "A", "T"));
+        writer.write(hangingChunk);
+        writer.close();
+
+        File vepOutputFile = new File(annotationParameters.getVepOutput());
+        assertEquals(chunkSize, getLines(new GZIPInputStream(new FileInputStream(vepOutputFile))));
+        Set<String> annotations = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(vepOutputFile))))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) {
+                    assertTrue("Repeated annotation: " + line, annotations.add(line));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void markerLinesAreNotWritten() throws Exception {
+        int chunkSize = 3;
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, chunkSize,
+                                                                                 TIMEOUT_IN_SECONDS, NUM_WORKERS);
+        writer.open(new ExecutionContext());
+        writer.write(Collections.singletonList(VARIANT_WRAPPER));
+        writer.close();
+
+        File vepOutputFile = new File(annotationParameters.getVepOutput());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(vepOutputFile))))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                assertFalse(line.contains("EVA_CHUNK_END"));
+            }
+        }
+    }
+
+    @Test
+    public void writeBeforeOpenFails() throws Exception {
+        PooledVepAnnotationFileWriter writer = new PooledVepAnnotationFileWriter(annotationParameters, 1,
+                                                                                 TIMEOUT_IN_SECONDS, NUM_WORKERS);
+        exception.expect(IllegalStateException.class);
+        writer.write(Collections.singletonList(VARIANT_WRAPPER));
+    }
+
+    @Test
+    public void timeoutMustBePositive() throws Exception {
+        exception.expect(IllegalArgumentException.class);
+        new PooledVepAnnotationFileWriter(annotationParameters, 1, 0L, NUM_WORKERS);
+    }
+
+    private List<EnsemblVariant> buildChunk(int size) {
+        List<EnsemblVariant> chunk = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            chunk.add(new EnsemblVariant(VARIANT_WRAPPER.getChr(), VARIANT_WRAPPER.getStart() + i,
+                                         VARIANT_WRAPPER.getEnd() + i, "A", "T"));
+        }
+        return chunk;
+    }
+
+    private void assertHeaderIsWrittenOnce(File vepOutputFile) throws Exception {
+        assertEquals(HEADER_LINES, VepAnnotationFileWriterTest.getCommentLines(
+                new GZIPInputStream(new FileInputStream(vepOutputFile))));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(vepOutputFile))))) {
+            for (int i = 0; i < HEADER_LINES; i++) {
+                assertEquals('#', reader.readLine().charAt(0));
+            }
+        }
+    }
+
+}
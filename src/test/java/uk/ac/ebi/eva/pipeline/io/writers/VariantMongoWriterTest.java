@@ -18,11 +18,13 @@ package uk.ac.ebi.eva.pipeline.io.writers;
 
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
 import com.mongodb.DBCollection;
 import com.mongodb.DBObject;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
@@ -32,7 +34,9 @@ import org.springframework.test.context.junit4.SpringRunner;
 import uk.ac.ebi.eva.commons.models.data.Variant;
 import uk.ac.ebi.eva.commons.models.data.VariantSourceEntry;
 import uk.ac.ebi.eva.commons.models.data.VariantStats;
+import uk.ac.ebi.eva.commons.models.mongo.entity.VariantDocument;
 import uk.ac.ebi.eva.pipeline.configuration.MongoConfiguration;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
 import uk.ac.ebi.eva.pipeline.parameters.MongoConnection;
 import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
 import uk.ac.ebi.eva.utils.MongoDBHelper;
@@ -52,6 +56,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 /**
  * Testing {@link VariantMongoWriter}
@@ -251,6 +256,130 @@ public class VariantMongoWriterTest {
         assertNull(storedVariant.get("ids"));
     }
 
+    @Test
+    public void directEncodingShouldBeTheSameAsTheConverted() throws Exception {
+        Variant variant = buildVariant("12", 3, 4, "A", "T", "fileId", "studyId");
+        variant.setIds(new HashSet<>(Arrays.asList("a", "b", "c")));
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                mongoMappingContext);
+
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(collectionName, mongoOperations, true, true);
+        variantMongoWriter.setVerifyEncoding(true);
+        variantMongoWriter.write(Collections.singletonList(variant));
+
+        DBCollection dbCollection = mongoOperations.getCollection(collectionName);
+        assertEquals(1, dbCollection.count());
+        final DBObject storedVariant = dbCollection.findOne();
+        assertNotNull(storedVariant.get("st"));
+        assertNotNull(storedVariant.get("ids"));
+    }
+
+    @Test
+    public void bulksInFlightShouldWriteAllTheVariantsBeforeReturning() throws Exception {
+        List<Variant> variants = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            variants.add(buildVariant("12", 3 + i, 4 + i, "A", "T", "fileId", "studyId"));
+        }
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                mongoMappingContext);
+
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(collectionName, mongoOperations, false, true);
+        variantMongoWriter.setMaxBulksInFlight(3);
+        variantMongoWriter.setBulkSize(2);
+        variantMongoWriter.write(variants);
+        variantMongoWriter.write(variants.subList(0, 3));
+        variantMongoWriter.destroy();
+
+        DBCollection dbCollection = mongoOperations.getCollection(collectionName);
+        assertEquals(variants.size(), dbCollection.count());
+    }
+
+    @Test
+    public void insertedVariantsShouldBeTheSameAsTheUpserted() throws Exception {
+        Variant variant = buildVariant("12", 3, 4, "A", "T", "fileId", "studyId");
+        variant.setIds(new HashSet<>(Arrays.asList("a", "b", "c")));
+        Variant otherFileVariant = buildVariant("12", 3, 4, "A", "T", "otherFileId", "studyId");
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                mongoMappingContext);
+
+        VariantMongoWriter upsertingWriter = new VariantMongoWriter(collectionName, mongoOperations, true, true);
+        upsertingWriter.write(Collections.singletonList(variant));
+        DBCollection dbCollection = mongoOperations.getCollection(collectionName);
+        DBObject upsertedVariant = dbCollection.findOne();
+        dbCollection.drop();
+
+        VariantMongoWriter insertingWriter = new VariantMongoWriter(collectionName, mongoOperations, true, true);
+        insertingWriter.setInsertNewVariants(true);
+        insertingWriter.write(Collections.singletonList(variant));
+        assertEquals(1, dbCollection.count());
+        DBObject insertedVariant = dbCollection.findOne();
+        for (String field : upsertedVariant.keySet()) {
+            assertEquals(upsertedVariant.get(field), insertedVariant.get(field));
+        }
+
+        insertingWriter.write(Arrays.asList(otherFileVariant, otherFileVariant));
+        assertEquals(1, dbCollection.count());
+        assertEquals(2, ((BasicDBList) dbCollection.findOne().get("files")).size());
+    }
+
+    @Test
+    public void variantsWithTheSameIdInAChunkShouldBeMerged() throws Exception {
+        Variant variant = buildVariant("12", 3, 4, "A", "T", "fileId", "studyId");
+        variant.setIds(new HashSet<>(Arrays.asList("a", "b")));
+        Variant otherFileVariant = buildVariant("12", 3, 4, "A", "T", "otherFileId", "studyId");
+        otherFileVariant.setIds(new HashSet<>(Arrays.asList("b", "c")));
+        Variant otherVariant = buildVariant("12", 5, 6, "A", "T", "fileId", "studyId");
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                mongoMappingContext);
+
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(collectionName, mongoOperations, true, true);
+        ExecutionContext executionContext = new ExecutionContext();
+        variantMongoWriter.open(executionContext);
+        variantMongoWriter.write(Arrays.asList(variant, otherVariant, otherFileVariant, variant));
+        variantMongoWriter.update(executionContext);
+        variantMongoWriter.close();
+
+        DBCollection dbCollection = mongoOperations.getCollection(collectionName);
+        assertEquals(2, dbCollection.count());
+        DBObject storedVariant = dbCollection.findOne(new BasicDBObject(VariantDocument.START_FIELD, 3));
+        assertEquals(2, ((BasicDBList) storedVariant.get(VariantDocument.FILES_FIELD)).size());
+        assertEquals(2, ((BasicDBList) storedVariant.get(VariantDocument.STATS_FIELD)).size());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")),
+                     new HashSet<>((BasicDBList) storedVariant.get(VariantDocument.IDS_FIELD)));
+
+        assertEquals(4, executionContext.getLong(ExecutionContextParametersNames.VARIANTS_RECEIVED));
+        assertEquals(2, executionContext.getLong(ExecutionContextParametersNames.VARIANTS_MERGED));
+    }
+
+    @Test
+    public void variantsShouldNotBeCountedIfTheWriteFails() throws Exception {
+        Variant variant = buildVariant("12", 3, 4, "A", "T", "fileId", "studyId");
+        Variant otherVariant = buildVariant("12", 5, 6, "A", "T", "fileId", "studyId");
+
+        String dbName = mongoRule.getRandomTemporaryDatabaseName();
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(dbName, mongoConnection,
+                mongoMappingContext);
+        mongoOperations.getCollection(collectionName).createIndex(
+                new BasicDBObject(VariantDocument.CHROMOSOME_FIELD, 1), new BasicDBObject("unique", true));
+
+        VariantMongoWriter variantMongoWriter = new VariantMongoWriter(collectionName, mongoOperations, true, true);
+        try {
+            variantMongoWriter.write(Arrays.asList(variant, otherVariant, variant));
+            fail("The second variant should collide with the first one in the unique index");
+        } catch (BulkWriteException e) {
+            assertEquals(0, variantMongoWriter.getReceivedVariants());
+            assertEquals(0, variantMongoWriter.getMergedVariants());
+        }
+    }
+
     private Variant buildVariant(String chromosome, int start, int end, String reference, String alternate,
                                  String fileId, String studyId) {
         Variant variant = new Variant(chromosome, start, end, reference, alternate);
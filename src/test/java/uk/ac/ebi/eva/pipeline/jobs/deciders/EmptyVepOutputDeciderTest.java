@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.deciders;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
+import uk.ac.ebi.eva.utils.URLHelper;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link EmptyVepOutputDecider}
+ * input: the VEP output file, and the annotation cache hits of the steps of the job
+ * output: whether the annotations are loaded, the flow goes on without loading them, or it stops
+ */
+public class EmptyVepOutputDeciderTest {
+
+    private static final String STUDY_ID = "studyId";
+
+    private static final String VCF_ID = "vcfId";
+
+    private static final String GENERATE_STEP = "generate";
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void nonEmptyOutputIsLoaded() throws Exception {
+        JobExecution jobExecution = createJobExecution();
+        File vepOutput = getVepOutput(jobExecution);
+        Files.write(vepOutput.toPath(), "20_60343_G/A\t20:60343\tA".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(EmptyVepOutputDecider.CONTINUE_FLOW, decide(jobExecution));
+    }
+
+    @Test
+    public void emptyOutputWithoutCacheHitsStopsTheFlow() throws Exception {
+        JobExecution jobExecution = createJobExecution();
+        jobExecution.createStepExecution(GENERATE_STEP);
+
+        assertEquals(EmptyVepOutputDecider.STOP_FLOW, decide(jobExecution));
+    }
+
+    @Test
+    public void emptyOutputWithCacheHitsSkipsOnlyTheLoad() throws Exception {
+        JobExecution jobExecution = createJobExecution();
+        jobExecution.createStepExecution(GENERATE_STEP);
+        StepExecution partition = jobExecution.createStepExecution(GENERATE_STEP + ":partition0");
+        partition.getExecutionContext().putLong(ExecutionContextParametersNames.ANNOTATION_CACHE_HITS, 3);
+
+        assertEquals(EmptyVepOutputDecider.ANNOTATIONS_CACHED, decide(jobExecution));
+    }
+
+    private JobExecution createJobExecution() throws Exception {
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .inputStudyId(STUDY_ID)
+                .inputVcfId(VCF_ID)
+                .outputDirAnnotation(temporaryFolderRule.newFolder().getAbsolutePath())
+                .toJobParameters();
+        return new JobExecution(1L, jobParameters);
+    }
+
+    private File getVepOutput(JobExecution jobExecution) {
+        JobParameters jobParameters = jobExecution.getJobParameters();
+        return new File(URLHelper.resolveVepOutput(jobParameters.getString(JobParametersNames.OUTPUT_DIR_ANNOTATION), STUDY_ID,
+                                                   VCF_ID));
+    }
+
+    private String decide(JobExecution jobExecution) {
+        return new EmptyVepOutputDecider().decide(jobExecution, null).getName();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import com.mongodb.DBObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import uk.ac.ebi.eva.pipeline.Application;
+import uk.ac.ebi.eva.pipeline.configuration.MongoConfiguration;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.pipeline.parameters.MongoConnection;
+import uk.ac.ebi.eva.test.data.VariantData;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+import uk.ac.ebi.eva.test.rules.TemporaryMongoRule;
+import uk.ac.ebi.eva.utils.URLHelper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.test.utils.JobTestUtils.constructDbo;
+
+/**
+ * {@link ChromosomePartitioner}
+ * input: a variants collection address
+ * output: a partition for each chromosome, or group of chromosomes if there are more than partitions
+ */
+@RunWith(SpringRunner.class)
+@ActiveProfiles(Application.VARIANT_ANNOTATION_MONGO_PROFILE)
+@TestPropertySource({"classpath:test-mongo.properties"})
+@ContextConfiguration(classes = {MongoConnection.class, MongoMappingContext.class})
+public class ChromosomePartitionerTest {
+
+    private static final String COLLECTION_VARIANTS_NAME = "variants";
+
+    private static final String STUDY_ID = "7";
+
+    private static final String FILE_ID = "5";
+
+    private static final int NUM_PARTITIONS = 2;
+
+    private static final String OTHER_CHROMOSOME = "1";
+
+    @Autowired
+    private MongoConnection mongoConnection;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @Rule
+    public TemporaryMongoRule mongoRule = new TemporaryMongoRule();
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void shouldCreateAPartitionPerChromosome() throws Exception {
+        String vepOutput = getVepOutput();
+        Map<String, ExecutionContext> partitions = buildPartitioner(vepOutput).partition(1);
+
+        assertEquals(2, partitions.size());
+        ExecutionContext first = partitions.get(ChromosomePartitioner.PARTITION_PREFIX + 0);
+        ExecutionContext second = partitions.get(ChromosomePartitioner.PARTITION_PREFIX + 1);
+        assertEquals(OTHER_CHROMOSOME, first.getString(ExecutionContextParametersNames.CHROMOSOME));
+        assertEquals("20", second.getString(ExecutionContextParametersNames.CHROMOSOME));
+        assertEquals(URLHelper.resolveVepOutputShard(vepOutput, 1),
+                     second.getString(ExecutionContextParametersNames.VEP_OUTPUT));
+
+        // only the first shard will have a header
+        assertFalse(new File(first.getString(ExecutionContextParametersNames.VEP_OUTPUT)).exists());
+        assertTrue(new File(second.getString(ExecutionContextParametersNames.VEP_OUTPUT)).exists());
+    }
+
+    @Test
+    public void shouldPartitionChromosomesWithoutVariantsToAnnotate() throws Exception {
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, Arrays.asList(
+                VariantData.getVariantWithAnnotation(),
+                buildVariantWithoutAnnotation(OTHER_CHROMOSOME, 60343)));
+        ChromosomePartitioner partitioner = buildPartitioner(databaseName, NUM_PARTITIONS, getVepOutput());
+
+        assertEquals(2, partitioner.partition(1).size());
+    }
+
+    @Test
+    public void shouldGroupChromosomesIfThereAreMoreThanPartitions() throws Exception {
+        List<String> variants = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            variants.add(buildVariantWithoutAnnotation("2", 100 + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            variants.add(buildVariantWithoutAnnotation("scaffold" + i, 100));
+        }
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, variants);
+        Map<String, ExecutionContext> partitions = buildPartitioner(databaseName, NUM_PARTITIONS, getVepOutput())
+                .partition(1);
+
+        assertEquals(NUM_PARTITIONS, partitions.size());
+        ExecutionContext first = partitions.get(ChromosomePartitioner.PARTITION_PREFIX + 0);
+        ExecutionContext second = partitions.get(ChromosomePartitioner.PARTITION_PREFIX + 1);
+        assertEquals("2", first.getString(ExecutionContextParametersNames.CHROMOSOME));
+        assertEquals("scaffold0,scaffold1,scaffold2,scaffold3,scaffold4",
+                     second.getString(ExecutionContextParametersNames.CHROMOSOME));
+    }
+
+    @Test
+    public void gridSizeShouldAllowMorePartitions() throws Exception {
+        List<String> variants = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            variants.add(buildVariantWithoutAnnotation("scaffold" + i, 100));
+        }
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, variants);
+
+        assertEquals(5, buildPartitioner(databaseName, NUM_PARTITIONS, getVepOutput()).partition(5).size());
+    }
+
+    @Test
+    public void shouldNotWriteHeaderIfTheOutputExists() throws Exception {
+        String vepOutput = getVepOutput();
+        assertTrue(new File(vepOutput).createNewFile());
+
+        Map<String, ExecutionContext> partitions = buildPartitioner(vepOutput).partition(1);
+
+        for (ExecutionContext partition : partitions.values()) {
+            assertTrue(new File(partition.getString(ExecutionContextParametersNames.VEP_OUTPUT)).exists());
+        }
+    }
+
+    private ChromosomePartitioner buildPartitioner(String vepOutput) throws Exception {
+        String databaseName = mongoRule.createDBAndInsertDocuments(COLLECTION_VARIANTS_NAME, Arrays.asList(
+                VariantData.getVariantWithAnnotation(),
+                VariantData.getVariantWithoutAnnotation(),
+                buildVariantWithoutAnnotation(OTHER_CHROMOSOME, 60343)));
+        return buildPartitioner(databaseName, NUM_PARTITIONS, vepOutput);
+    }
+
+    private ChromosomePartitioner buildPartitioner(String databaseName, int numPartitions, String vepOutput)
+            throws Exception {
+        MongoOperations mongoOperations = MongoConfiguration.getMongoOperations(databaseName, mongoConnection,
+                                                                                mongoMappingContext);
+        return new ChromosomePartitioner(mongoOperations, COLLECTION_VARIANTS_NAME, numPartitions, vepOutput);
+    }
+
+    private String buildVariantWithoutAnnotation(String chromosome, int start) throws Exception {
+        DBObject variant = constructDbo(VariantData.getVariantWithoutAnnotation());
+        variant.put("_id", chromosome + "_" + start + "_G_A");
+        variant.put("chr", chromosome);
+        variant.put("start", start);
+        variant.put("end", start);
+        return variant.toString();
+    }
+
+    private String getVepOutput() {
+        return URLHelper.resolveVepOutput(temporaryFolderRule.getRoot().getAbsolutePath(), STUDY_ID, FILE_ID);
+    }
+}
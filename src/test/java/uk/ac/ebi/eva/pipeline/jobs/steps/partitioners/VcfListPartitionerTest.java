@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link VcfListPartitioner}
+ * input: a list of VCFs
+ * output: a partition for each VCF
+ */
+public class VcfListPartitionerTest {
+
+    @Test
+    public void everyVcfIsInItsOwnPartition() {
+        List<String> vcfs = Arrays.asList("/data/chr1.vcf.gz", "/data/chr2.vcf.gz", "/data/chrX.vcf.gz");
+
+        Map<String, ExecutionContext> partitions = new VcfListPartitioner(vcfs).partition(1);
+
+        assertEquals(vcfs.size(), partitions.size());
+        for (int i = 0; i < vcfs.size(); i++) {
+            ExecutionContext executionContext = partitions.get(VcfListPartitioner.PARTITION_PREFIX + i);
+            assertEquals(i, executionContext.getInt(VcfListPartitioner.PARTITION_INDEX));
+            assertEquals(vcfs.get(i), executionContext.getString(ExecutionContextParametersNames.VCF));
+        }
+    }
+}
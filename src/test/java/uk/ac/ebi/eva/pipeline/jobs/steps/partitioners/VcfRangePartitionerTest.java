@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import uk.ac.ebi.eva.pipeline.io.BgzfOutputStream;
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VcfRangePartitioner}
+ * input: a VCF file
+ * output: a partition for each range of the file, or a single partition for the whole file if it is not BGZF
+ */
+public class VcfRangePartitionerTest {
+
+    private static final int NUM_PARTITIONS = 4;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void rangesOfTheFileAreContiguous() throws Exception {
+        File vcf = temporaryFolderRule.newFile("input.vcf.gz");
+        try (OutputStream outputStream = new BgzfOutputStream(new FileOutputStream(vcf),
+                                                              Deflater.DEFAULT_COMPRESSION, 500)) {
+            outputStream.write(buildLines(1000).getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, ExecutionContext> partitions = new VcfRangePartitioner(vcf.getPath(), NUM_PARTITIONS)
+                .partition(1);
+
+        assertEquals(NUM_PARTITIONS, partitions.size());
+        long expectedStart = 0;
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            ExecutionContext executionContext = partitions.get(VcfRangePartitioner.PARTITION_PREFIX + i);
+            assertEquals(i, executionContext.getInt(VcfRangePartitioner.PARTITION_INDEX));
+            assertEquals(expectedStart, executionContext.getLong(ExecutionContextParametersNames.VCF_START_OFFSET));
+            expectedStart = executionContext.getLong(ExecutionContextParametersNames.VCF_END_OFFSET);
+        }
+        assertEquals(Long.MAX_VALUE, expectedStart);
+    }
+
+    @Test
+    public void filesThatAreNotBgzfAreLoadedInASinglePartition() throws Exception {
+        File vcf = temporaryFolderRule.newGzipFile(buildLines(1000), "input.vcf.gz");
+
+        Map<String, ExecutionContext> partitions = new VcfRangePartitioner(vcf.getPath(), NUM_PARTITIONS)
+                .partition(1);
+
+        assertEquals(1, partitions.size());
+        ExecutionContext executionContext = partitions.get(VcfRangePartitioner.PARTITION_PREFIX + 0);
+        assertFalse(executionContext.containsKey(ExecutionContextParametersNames.VCF_START_OFFSET));
+        assertTrue(executionContext.containsKey(VcfRangePartitioner.PARTITION_INDEX));
+    }
+
+    private String buildLines(int count) {
+        StringBuilder lines = new StringBuilder("##fileformat=VCFv4.1\n#CHROM\tPOS\tID\tREF\tALT\n");
+        for (int i = 0; i < count; i++) {
+            lines.append("20\t").append(60000 + i).append("\t.\tG\tA\n");
+        }
+        return lines.toString();
+    }
+}
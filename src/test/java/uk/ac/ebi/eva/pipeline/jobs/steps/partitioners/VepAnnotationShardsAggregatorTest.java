@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.jobs.steps.partitioners;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import uk.ac.ebi.eva.pipeline.parameters.ExecutionContextParametersNames;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+import uk.ac.ebi.eva.utils.EvaJobParameterBuilder;
+import uk.ac.ebi.eva.utils.URLHelper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VepAnnotationShardsAggregator}
+ * input: the partitions of the VEP annotation step, with their output shards
+ * output: the shards of the completed partitions appended to the VEP output, in partition order
+ */
+public class VepAnnotationShardsAggregatorTest {
+
+    private static final String STUDY_ID = "7";
+
+    private static final String FILE_ID = "5";
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void shouldMergeShardsInPartitionOrder() throws Exception {
+        JobExecution jobExecution = buildJobExecution();
+        String vepOutput = getVepOutput();
+
+        StepExecution second = buildPartition(jobExecution, 1, "22\tsecond\n", BatchStatus.COMPLETED);
+        StepExecution first = buildPartition(jobExecution, 0, "#header\n1\tfirst\n", BatchStatus.COMPLETED);
+
+        new VepAnnotationShardsAggregator().aggregate(jobExecution.createStepExecution("master"),
+                                                      Arrays.asList(second, first));
+
+        assertEquals(Arrays.asList("#header", "1\tfirst", "22\tsecond"), readGzipLines(new File(vepOutput)));
+        assertFalse(new File(URLHelper.resolveVepOutputShard(vepOutput, 0)).exists());
+        assertFalse(new File(URLHelper.resolveVepOutputShard(vepOutput, 1)).exists());
+    }
+
+    @Test
+    public void shouldNotMergeShardsOfFailedPartitions() throws Exception {
+        JobExecution jobExecution = buildJobExecution();
+        String vepOutput = getVepOutput();
+
+        StepExecution first = buildPartition(jobExecution, 0, "#header\n1\tfirst\n", BatchStatus.COMPLETED);
+        StepExecution failed = buildPartition(jobExecution, 1, "22\tsecond\n", BatchStatus.FAILED);
+
+        StepExecution master = jobExecution.createStepExecution("master");
+        new VepAnnotationShardsAggregator().aggregate(master, Arrays.asList(first, failed));
+
+        assertEquals(BatchStatus.FAILED, master.getStatus());
+        assertEquals(Arrays.asList("#header", "1\tfirst"), readGzipLines(new File(vepOutput)));
+        assertTrue(new File(URLHelper.resolveVepOutputShard(vepOutput, 1)).exists());
+    }
+
+    @Test
+    public void shouldNotCreateOutputWithoutPartitions() throws Exception {
+        JobExecution jobExecution = buildJobExecution();
+
+        new VepAnnotationShardsAggregator().aggregate(jobExecution.createStepExecution("master"),
+                                                      Arrays.asList(jobExecution.createStepExecution("partition")));
+
+        assertFalse(new File(getVepOutput()).exists());
+    }
+
+    private JobExecution buildJobExecution() {
+        JobParameters jobParameters = new EvaJobParameterBuilder()
+                .outputDirAnnotation(temporaryFolderRule.getRoot().getAbsolutePath())
+                .inputStudyId(STUDY_ID)
+                .inputVcfId(FILE_ID)
+                .toJobParameters();
+        return MetaDataInstanceFactory.createJobExecution("job", 1L, 1L, jobParameters);
+    }
+
+    private String getVepOutput() {
+        return URLHelper.resolveVepOutput(temporaryFolderRule.getRoot().getAbsolutePath(), STUDY_ID, FILE_ID);
+    }
+
+    private StepExecution buildPartition(JobExecution jobExecution, int index, String content, BatchStatus status)
+            throws IOException {
+        String shard = URLHelper.resolveVepOutputShard(getVepOutput(), index);
+        File shardFile = temporaryFolderRule.newGzipFile(content, new File(shard).getName());
+
+        StepExecution partition = jobExecution.createStepExecution("partition" + index);
+        partition.setStatus(status);
+        partition.getExecutionContext().putString(ExecutionContextParametersNames.VEP_OUTPUT,
+                                                  shardFile.getAbsolutePath());
+        partition.getExecutionContext().putInt(ChromosomePartitioner.PARTITION_INDEX, index);
+        return partition;
+    }
+
+    private List<String> readGzipLines(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new GZIPInputStream(new FileInputStream(file))))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
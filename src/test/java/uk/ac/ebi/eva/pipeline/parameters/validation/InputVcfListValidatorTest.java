@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.parameters.validation;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.JobParametersInvalidException;
+
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.IOException;
+
+public class InputVcfListValidatorTest {
+
+    private InputVcfListValidator validator;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolder = new PipelineTemporaryFolderRule();
+
+    @Before
+    public void setUp() throws Exception {
+        validator = new InputVcfListValidator();
+    }
+
+    @Test
+    public void inputVcfListIsValid() throws JobParametersInvalidException, IOException {
+        String first = temporaryFolder.newFile("chr1.vcf.gz").getCanonicalPath();
+        String second = temporaryFolder.newFile("chr2.vcf.gz").getCanonicalPath();
+
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(JobParametersNames.INPUT_VCF_LIST, first + "," + second);
+        validator.validate(jobParametersBuilder.toJobParameters());
+    }
+
+    @Test
+    public void inputVcfListIsAGlobPattern() throws JobParametersInvalidException, IOException {
+        temporaryFolder.newFile("chr1.vcf.gz");
+        temporaryFolder.newFile("chr2.vcf.gz");
+
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(JobParametersNames.INPUT_VCF_LIST,
+                                       temporaryFolder.getRoot().getCanonicalPath() + "/chr*.vcf.gz");
+        validator.validate(jobParametersBuilder.toJobParameters());
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListHasAFileThatDoesNotExist() throws JobParametersInvalidException, IOException {
+        String first = temporaryFolder.newFile("chr1.vcf.gz").getCanonicalPath();
+
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(JobParametersNames.INPUT_VCF_LIST, first + ",file://path/to/file.vcf");
+        validator.validate(jobParametersBuilder.toJobParameters());
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListGlobPatternDoesNotMatchAnyFile() throws JobParametersInvalidException, IOException {
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(JobParametersNames.INPUT_VCF_LIST,
+                                       temporaryFolder.getRoot().getCanonicalPath() + "/chr*.vcf.gz");
+        validator.validate(jobParametersBuilder.toJobParameters());
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListIsEmpty() throws JobParametersInvalidException {
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(JobParametersNames.INPUT_VCF_LIST, " , ");
+        validator.validate(jobParametersBuilder.toJobParameters());
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListIsNull() throws JobParametersInvalidException {
+        JobParametersBuilder jobParametersBuilder = new JobParametersBuilder();
+        jobParametersBuilder.addString(JobParametersNames.INPUT_VCF_LIST, null);
+        validator.validate(jobParametersBuilder.toJobParameters());
+    }
+}
@@ -242,4 +242,20 @@ public class ParametersValidatorUtilTest {
     public void integerStringIsNull() throws JobParametersInvalidException {
         ParametersValidatorUtil.checkIsPositiveInteger(null, JOB_PARAMETER_NAME);
     }
+
+    @Test
+    public void integerStringIsInRange() throws JobParametersInvalidException {
+        ParametersValidatorUtil.checkIsIntegerInRange("0", 0, 9, JOB_PARAMETER_NAME);
+        ParametersValidatorUtil.checkIsIntegerInRange("9", 0, 9, JOB_PARAMETER_NAME);
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void integerStringIsBelowRange() throws JobParametersInvalidException {
+        ParametersValidatorUtil.checkIsIntegerInRange("-1", 0, 9, JOB_PARAMETER_NAME);
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void integerStringIsAboveRange() throws JobParametersInvalidException {
+        ParametersValidatorUtil.checkIsIntegerInRange("10", 0, 9, JOB_PARAMETER_NAME);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.pipeline.parameters.validation.job;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+
+import uk.ac.ebi.eva.pipeline.configuration.jobs.GenotypedVcfBatchJobConfiguration;
+import uk.ac.ebi.eva.pipeline.parameters.JobParametersNames;
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tests that the arguments necessary to run a {@link GenotypedVcfBatchJobConfiguration} are
+ * correctly validated
+ */
+public class GenotypedVcfBatchJobParametersValidatorTest {
+
+    private GenotypedVcfBatchJobParametersValidator validator;
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolder = new PipelineTemporaryFolderRule();
+
+    private Map<String, JobParameter> requiredParameters;
+
+    private Map<String, JobParameter> optionalParameters;
+
+    @Before
+    public void setUp() throws Exception {
+        validator = new GenotypedVcfBatchJobParametersValidator();
+        temporaryFolder.newFile("chr1.vcf.gz");
+        temporaryFolder.newFile("chr2.vcf.gz");
+
+        requiredParameters = new TreeMap<>();
+
+        // variant load step
+        requiredParameters.put(JobParametersNames.DB_NAME, new JobParameter("database"));
+        requiredParameters.put(JobParametersNames.DB_COLLECTIONS_VARIANTS_NAME, new JobParameter("variants"));
+        requiredParameters.put(JobParametersNames.INPUT_STUDY_ID, new JobParameter("inputStudyId"));
+        requiredParameters.put(JobParametersNames.INPUT_VCF_ID, new JobParameter("inputVcfId"));
+        requiredParameters.put(JobParametersNames.INPUT_VCF_AGGREGATION, new JobParameter("NONE"));
+        requiredParameters.put(JobParametersNames.INPUT_VCF_LIST,
+                new JobParameter(new File(temporaryFolder.getRoot(), "chr*.vcf.gz").getCanonicalPath()));
+
+        // file load step
+        requiredParameters.put(JobParametersNames.DB_COLLECTIONS_FILES_NAME, new JobParameter("collectionsFilesName"));
+        requiredParameters.put(JobParametersNames.INPUT_STUDY_NAME, new JobParameter("inputStudyName"));
+        requiredParameters.put(JobParametersNames.INPUT_STUDY_TYPE, new JobParameter("COLLECTION"));
+
+        // skips
+        requiredParameters.put(JobParametersNames.ANNOTATION_SKIP, new JobParameter("true"));
+        requiredParameters.put(JobParametersNames.STATISTICS_SKIP, new JobParameter("true"));
+
+        // optionals
+        optionalParameters = new TreeMap<>();
+        optionalParameters.put(JobParametersNames.INPUT_VCF_LIST_THREADS, new JobParameter("2"));
+        optionalParameters.put(JobParametersNames.CONFIG_CHUNK_SIZE, new JobParameter("100"));
+    }
+
+    @Test
+    public void allJobParametersAreValid() throws JobParametersInvalidException {
+        Map<String, JobParameter> parameters = new TreeMap<>();
+        parameters.putAll(requiredParameters);
+        parameters.putAll(optionalParameters);
+        validator.validate(new JobParameters(parameters));
+    }
+
+    @Test
+    public void allRequiredJobParametersAreValid() throws JobParametersInvalidException {
+        validator.validate(new JobParameters(requiredParameters));
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListIsRequired() throws JobParametersInvalidException {
+        Map<String, JobParameter> parameters = new TreeMap<>();
+        parameters.putAll(requiredParameters);
+        parameters.remove(JobParametersNames.INPUT_VCF_LIST);
+        validator.validate(new JobParameters(parameters));
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListMustMatchSomeFile() throws JobParametersInvalidException {
+        Map<String, JobParameter> parameters = new TreeMap<>();
+        parameters.putAll(requiredParameters);
+        parameters.put(JobParametersNames.INPUT_VCF_LIST,
+                new JobParameter(new File(temporaryFolder.getRoot(), "chrX*.vcf.gz").getPath()));
+        validator.validate(new JobParameters(parameters));
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void inputVcfListThreadsMustBePositive() throws JobParametersInvalidException {
+        Map<String, JobParameter> parameters = new TreeMap<>();
+        parameters.putAll(requiredParameters);
+        parameters.put(JobParametersNames.INPUT_VCF_LIST_THREADS, new JobParameter("0"));
+        validator.validate(new JobParameters(parameters));
+    }
+
+    @Test(expected = JobParametersInvalidException.class)
+    public void parametersOfTheGenotypedVcfJobAreValidated() throws JobParametersInvalidException {
+        Map<String, JobParameter> parameters = new TreeMap<>();
+        parameters.putAll(requiredParameters);
+        parameters.remove(JobParametersNames.DB_NAME);
+        validator.validate(new JobParameters(parameters));
+    }
+}
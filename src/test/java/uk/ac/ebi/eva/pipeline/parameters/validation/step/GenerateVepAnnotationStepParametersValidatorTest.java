@@ -72,6 +72,17 @@ public class GenerateVepAnnotationStepParametersValidatorTest {
 
         optionalParameters = new TreeMap<>();
         optionalParameters.put(JobParametersNames.CONFIG_CHUNK_SIZE, new JobParameter("100"));
+        optionalParameters.put(JobParametersNames.APP_VEP_NUM_WORKERS, new JobParameter("4"));
+        optionalParameters.put(JobParametersNames.APP_VEP_NUM_PARTITIONS, new JobParameter("2"));
+        optionalParameters.put(JobParametersNames.APP_VEP_OUTPUT_COMPRESSION_LEVEL, new JobParameter("1"));
+        optionalParameters.put(JobParametersNames.APP_VEP_OUTPUT_BUFFER_SIZE, new JobParameter("1048576"));
+        optionalParameters.put(JobParametersNames.APP_VEP_ADAPTIVE_CHUNK_SIZE, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.APP_VEP_MIN_CHUNK_SIZE, new JobParameter("200"));
+        optionalParameters.put(JobParametersNames.APP_VEP_MAX_CHUNK_SIZE, new JobParameter("5000"));
+        optionalParameters.put(JobParametersNames.ANNOTATION_STREAMING, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.ANNOTATION_LOCUS_ORDER, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.ANNOTATION_COALESCE_DISTANCE, new JobParameter("5000"));
+        optionalParameters.put(JobParametersNames.ANNOTATION_CACHE, new JobParameter("true"));
     }
 
     @Test
@@ -62,6 +62,13 @@ public class LoadVariantsStepParametersValidatorTest {
                                new JobParameter(temporaryFolderRule.newFile().getCanonicalPath()));
 
         optionalParameters = new TreeMap<>();
+        optionalParameters.put(JobParametersNames.INPUT_VCF_PARSING_THREADS, new JobParameter("4"));
+        optionalParameters.put(JobParametersNames.INPUT_VCF_NUM_PARTITIONS, new JobParameter("8"));
+        optionalParameters.put(JobParametersNames.INPUT_VCF_SOURCE_LINE, new JobParameter("NONE"));
+        optionalParameters.put(JobParametersNames.DB_VERIFY_ENCODING, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.DB_BULKS_IN_FLIGHT, new JobParameter("4"));
+        optionalParameters.put(JobParametersNames.DB_INSERT_NEW_VARIANTS, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.DB_DEFER_INDEXES, new JobParameter("true"));
         optionalParameters.put(JobParametersNames.CONFIG_CHUNK_SIZE, new JobParameter("100"));
         optionalParameters.put(JobParametersNames.CONFIG_RESTARTABILITY_ALLOW, new JobParameter("true"));
     }
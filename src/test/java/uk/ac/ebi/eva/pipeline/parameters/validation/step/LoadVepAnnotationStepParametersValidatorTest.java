@@ -63,6 +63,7 @@ public class LoadVepAnnotationStepParametersValidatorTest {
         optionalParameters = new TreeMap<>();
         optionalParameters.put(JobParametersNames.CONFIG_CHUNK_SIZE, new JobParameter("100"));
         optionalParameters.put(JobParametersNames.CONFIG_RESTARTABILITY_ALLOW, new JobParameter("true"));
+        optionalParameters.put(JobParametersNames.DB_DEFER_INDEXES, new JobParameter("true"));
     }
 
     @Test
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.ac.ebi.eva.utils.FileUtils.getResource;
+
+/**
+ * {@link CompressionHelper#gzip(String)}
+ * input: a text
+ * output: the text compressed in gzip format
+ * <p>
+ * {@link CompressionHelper#isGzip(File)}
+ * input: a file
+ * output: whether the file starts with the gzip magic number
+ */
+public class CompressionHelperTest {
+
+    private static final String SOURCE_LINE = "20\t60343\trs527639301\tG\tA\t100\tPASS\tAC=1;AF=0.0001;AN=5008";
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void compressedTextCanBeDecompressed() throws IOException {
+        assertEquals(SOURCE_LINE, gunzip(CompressionHelper.gzip(SOURCE_LINE)));
+    }
+
+    @Test
+    public void deflaterIsResetBetweenCalls() throws IOException {
+        CompressionHelper.gzip("a previous text");
+        assertEquals("", gunzip(CompressionHelper.gzip("")));
+        assertEquals(SOURCE_LINE, gunzip(CompressionHelper.gzip(SOURCE_LINE)));
+    }
+
+    @Test
+    public void gzipFilesAreDetected() throws IOException {
+        assertTrue(CompressionHelper.isGzip(getResource("/input-files/vcf/genotyped.vcf.gz")));
+        assertTrue(CompressionHelper.isGzip(temporaryFolderRule.newGzipFile(SOURCE_LINE)));
+    }
+
+    @Test
+    public void plainTextAndEmptyFilesAreNotGzip() throws IOException {
+        File plainText = temporaryFolderRule.newFile();
+        try (FileWriter writer = new FileWriter(plainText)) {
+            writer.write(SOURCE_LINE);
+        }
+        assertFalse(CompressionHelper.isGzip(plainText));
+        assertFalse(CompressionHelper.isGzip(temporaryFolderRule.newFile()));
+    }
+
+    private String gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return output.toString();
+    }
+}
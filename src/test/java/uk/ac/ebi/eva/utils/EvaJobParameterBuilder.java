@@ -30,6 +30,26 @@ public class EvaJobParameterBuilder extends JobParametersBuilder {
         return this;
     }
 
+    public EvaJobParameterBuilder annotationStreaming(String annotationStreaming) {
+        addParameter(JobParametersNames.ANNOTATION_STREAMING, new JobParameter(annotationStreaming));
+        return this;
+    }
+
+    public EvaJobParameterBuilder annotationCache(String annotationCache) {
+        addParameter(JobParametersNames.ANNOTATION_CACHE, new JobParameter(annotationCache));
+        return this;
+    }
+
+    public EvaJobParameterBuilder annotationLocusOrder(String annotationLocusOrder) {
+        addParameter(JobParametersNames.ANNOTATION_LOCUS_ORDER, new JobParameter(annotationLocusOrder));
+        return this;
+    }
+
+    public EvaJobParameterBuilder annotationCoalesceDistance(String annotationCoalesceDistance) {
+        addParameter(JobParametersNames.ANNOTATION_COALESCE_DISTANCE, new JobParameter(annotationCoalesceDistance));
+        return this;
+    }
+
     public EvaJobParameterBuilder inputStudyId(String inputStudyId) {
         addParameter(JobParametersNames.INPUT_STUDY_ID, new JobParameter(inputStudyId));
         return this;
@@ -60,6 +80,31 @@ public class EvaJobParameterBuilder extends JobParametersBuilder {
         return this;
     }
 
+    public EvaJobParameterBuilder inputVcfParsingThreads(String inputVcfParsingThreads) {
+        addParameter(JobParametersNames.INPUT_VCF_PARSING_THREADS, new JobParameter(inputVcfParsingThreads));
+        return this;
+    }
+
+    public EvaJobParameterBuilder inputVcfNumPartitions(String inputVcfNumPartitions) {
+        addParameter(JobParametersNames.INPUT_VCF_NUM_PARTITIONS, new JobParameter(inputVcfNumPartitions));
+        return this;
+    }
+
+    public EvaJobParameterBuilder inputVcfSourceLine(String inputVcfSourceLine) {
+        addParameter(JobParametersNames.INPUT_VCF_SOURCE_LINE, new JobParameter(inputVcfSourceLine));
+        return this;
+    }
+
+    public EvaJobParameterBuilder inputVcfList(String inputVcfList) {
+        addParameter(JobParametersNames.INPUT_VCF_LIST, new JobParameter(inputVcfList));
+        return this;
+    }
+
+    public EvaJobParameterBuilder inputVcfListThreads(String inputVcfListThreads) {
+        addParameter(JobParametersNames.INPUT_VCF_LIST_THREADS, new JobParameter(inputVcfListThreads));
+        return this;
+    }
+
     public EvaJobParameterBuilder timestamp() {
         addParameter("timestamp", new JobParameter(new Timestamp(new Date().getTime())));
         return this;
@@ -96,6 +141,26 @@ public class EvaJobParameterBuilder extends JobParametersBuilder {
         return this;
     }
 
+    public EvaJobParameterBuilder dbVerifyEncoding(String dbVerifyEncoding) {
+        addParameter(JobParametersNames.DB_VERIFY_ENCODING, new JobParameter(dbVerifyEncoding));
+        return this;
+    }
+
+    public EvaJobParameterBuilder dbBulksInFlight(String dbBulksInFlight) {
+        addParameter(JobParametersNames.DB_BULKS_IN_FLIGHT, new JobParameter(dbBulksInFlight));
+        return this;
+    }
+
+    public EvaJobParameterBuilder dbInsertNewVariants(String dbInsertNewVariants) {
+        addParameter(JobParametersNames.DB_INSERT_NEW_VARIANTS, new JobParameter(dbInsertNewVariants));
+        return this;
+    }
+
+    public EvaJobParameterBuilder dbDeferIndexes(String dbDeferIndexes) {
+        addParameter(JobParametersNames.DB_DEFER_INDEXES, new JobParameter(dbDeferIndexes));
+        return this;
+    }
+
     public EvaJobParameterBuilder vepPath(String vepPath) {
         addParameter(JobParametersNames.APP_VEP_PATH, new JobParameter(vepPath));
         return this;
@@ -131,6 +196,41 @@ public class EvaJobParameterBuilder extends JobParametersBuilder {
         return this;
     }
 
+    public EvaJobParameterBuilder vepNumWorkers(String vepNumWorkers) {
+        addParameter(JobParametersNames.APP_VEP_NUM_WORKERS, new JobParameter(vepNumWorkers));
+        return this;
+    }
+
+    public EvaJobParameterBuilder vepNumPartitions(String vepNumPartitions) {
+        addParameter(JobParametersNames.APP_VEP_NUM_PARTITIONS, new JobParameter(vepNumPartitions));
+        return this;
+    }
+
+    public EvaJobParameterBuilder vepOutputCompressionLevel(String vepOutputCompressionLevel) {
+        addParameter(JobParametersNames.APP_VEP_OUTPUT_COMPRESSION_LEVEL, new JobParameter(vepOutputCompressionLevel));
+        return this;
+    }
+
+    public EvaJobParameterBuilder vepOutputBufferSize(String vepOutputBufferSize) {
+        addParameter(JobParametersNames.APP_VEP_OUTPUT_BUFFER_SIZE, new JobParameter(vepOutputBufferSize));
+        return this;
+    }
+
+    public EvaJobParameterBuilder vepAdaptiveChunkSize(String vepAdaptiveChunkSize) {
+        addParameter(JobParametersNames.APP_VEP_ADAPTIVE_CHUNK_SIZE, new JobParameter(vepAdaptiveChunkSize));
+        return this;
+    }
+
+    public EvaJobParameterBuilder vepMinChunkSize(String vepMinChunkSize) {
+        addParameter(JobParametersNames.APP_VEP_MIN_CHUNK_SIZE, new JobParameter(vepMinChunkSize));
+        return this;
+    }
+
+    public EvaJobParameterBuilder vepMaxChunkSize(String vepMaxChunkSize) {
+        addParameter(JobParametersNames.APP_VEP_MAX_CHUNK_SIZE, new JobParameter(vepMaxChunkSize));
+        return this;
+    }
+
     public EvaJobParameterBuilder inputFasta(String inputFasta) {
         addParameter(JobParametersNames.INPUT_FASTA, new JobParameter(inputFasta));
         return this;
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016-2017 EMBL - European Bioinformatics Institute
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.eva.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link FileUtils#expandFilePatterns(String)}
+ * input: a comma-separated list of paths, some of them with wildcards in the file name
+ * output: the paths of the files, in the order they are listed, and sorted by name if they match a wildcard
+ */
+public class FileUtilsTest {
+
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
+    @Test
+    public void pathsWithoutWildcardsAreKeptInOrder() throws Exception {
+        File first = temporaryFolderRule.newFile("chr2.vcf");
+        File second = temporaryFolderRule.newFile("chr1.vcf");
+
+        assertEquals(Arrays.asList(first.getPath(), second.getPath()),
+                     FileUtils.expandFilePatterns(first.getPath() + " , " + second.getPath()));
+    }
+
+    @Test
+    public void wildcardsAreExpandedInAlphabeticalOrder() throws Exception {
+        File second = temporaryFolderRule.newFile("chr2.vcf.gz");
+        File first = temporaryFolderRule.newFile("chr1.vcf.gz");
+        temporaryFolderRule.newFile("chr1.vcf.gz.tbi");
+        String pattern = new File(temporaryFolderRule.getRoot(), "chr*.vcf.gz").getPath();
+
+        assertEquals(Arrays.asList(first.getPath(), second.getPath()), FileUtils.expandFilePatterns(pattern));
+    }
+
+    @Test
+    public void duplicatedFilesAreOnlyReturnedOnce() throws Exception {
+        File first = temporaryFolderRule.newFile("chr1.vcf");
+        File second = temporaryFolderRule.newFile("chr2.vcf");
+        String pattern = new File(temporaryFolderRule.getRoot(), "*.vcf").getPath();
+
+        assertEquals(Arrays.asList(second.getPath(), first.getPath()),
+                     FileUtils.expandFilePatterns(second.getPath() + "," + pattern));
+    }
+
+    @Test
+    public void wildcardsWithoutMatchesAreIgnored() throws Exception {
+        String pattern = new File(temporaryFolderRule.getRoot(), "*.vcf").getPath();
+
+        assertEquals(Collections.emptyList(), FileUtils.expandFilePatterns(pattern));
+    }
+}
@@ -16,8 +16,17 @@
 package uk.ac.ebi.eva.utils;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 
+import uk.ac.ebi.eva.test.rules.PipelineTemporaryFolderRule;
+import uk.ac.ebi.eva.test.utils.JobTestUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
 import static org.junit.Assert.assertEquals;
 import static uk.ac.ebi.eva.utils.FileUtils.getResource;
 
@@ -35,6 +44,9 @@ public class FileWithHeaderNumberOfLinesEstimatorTest {
 
     private static final int PERCENTAGE_SIMILARITY = 20;
 
+    @Rule
+    public PipelineTemporaryFolderRule temporaryFolderRule = new PipelineTemporaryFolderRule();
+
     private FileWithHeaderNumberOfLinesEstimator numberOfLinesEstimator;
 
     @Before
@@ -80,4 +92,29 @@ public class FileWithHeaderNumberOfLinesEstimatorTest {
                      expectedNumberOfLines * (PERCENTAGE_SIMILARITY / 100.0));
     }
 
+    @Test
+    public void uncompressedVcfNumberOfLines() throws Exception {
+        File uncompressedVcf = temporaryFolderRule.newFile();
+        JobTestUtils.uncompress(getResource(SMALL_VCF).getAbsolutePath(), uncompressedVcf);
+        long estimatedNumberOfLines = numberOfLinesEstimator.estimateNumberOfLines(uncompressedVcf.getAbsolutePath());
+
+        assertEquals(21, estimatedNumberOfLines);
+    }
+
+    @Test
+    public void predictedBigUncompressedFileNumberOfLines() throws IOException {
+        File bigFile = temporaryFolderRule.newFile();
+        int expectedNumberOfLines = 50000;
+        try (Writer writer = new FileWriter(bigFile)) {
+            writer.write("##header\n#CHROM\tPOS\n");
+            for (int i = 0; i < expectedNumberOfLines; i++) {
+                writer.write("20\t" + (60000 + i) + "\n");
+            }
+        }
+        long estimatedNumberOfLines = numberOfLinesEstimator.estimateNumberOfLines(bigFile.getAbsolutePath());
+
+        assertEquals(expectedNumberOfLines, estimatedNumberOfLines,
+                     expectedNumberOfLines * (PERCENTAGE_SIMILARITY / 100.0));
+    }
+
 }
@@ -0,0 +1,68 @@
+# mockvep_pool.pl
+#
+# This file is a mock for VEP used by the pool of VEP workers. Like VEP, the first column of each annotation is the
+# identifier of the variant (6th column of the input) if present. A variant in chromosome "crash" makes the process
+# exit with an error unless the --fasta file exists, which is created before exiting, so that only the first process
+# crashes and the restarted one can annotate the variant. Likewise, a variant in chromosome "hang" makes the first
+# process write the annotations it has buffered and then stop reading its input, as if it had got stuck. Its output is
+# kept open for a while after it is killed, like a VEP fork would, so that it is read after the chunk has failed.
+
+use warnings;
+use strict;
+use IO::File;
+
+use Getopt::Long;
+my $batchSize = 2;
+my $fasta = "";
+my $result = GetOptions (
+        "buffer_size=i" => \$batchSize, # -b integer
+        "fasta=s" => \$fasta
+        );
+
+my $fileHandle = IO::Handle->new();
+$fileHandle->fdopen(fileno(STDOUT),"w");
+
+print $fileHandle "## This line acts as the beginning of the header\n";
+print $fileHandle "# This line acts as the end of the header\n";
+$fileHandle->flush();
+my @buffer = ();
+my $line;
+while ($line = <STDIN>) {
+    chomp ($line);
+    my @columns = split("\t", $line);
+    if ($columns[0] eq "crash" && ! -e $fasta) {
+        open(my $flag, ">", $fasta);
+        close($flag);
+        print STDERR "crashing as requested\n";
+        exit 1;
+    }
+    if ($columns[0] eq "hang" && ! -e $fasta) {
+        open(my $flag, ">", $fasta);
+        close($flag);
+        foreach my $bufferLine (@buffer) {
+            print $fileHandle $bufferLine;
+        }
+        $fileHandle->flush();
+        if (fork() == 0) {
+            close(STDIN);
+            select(undef, undef, undef, 1.5);
+            exit 0;
+        }
+        sleep;
+    }
+    my $id = scalar(@columns) > 5 ? $columns[5] : "$columns[0]_$columns[1]_$columns[3]";
+    push (@buffer, "$id\t$line annotated\n");
+    my $bufferSize = scalar (@buffer);
+    if ($bufferSize == $batchSize) {
+        foreach my $bufferLine (@buffer) {
+            print $fileHandle $bufferLine;
+        }
+        @buffer = ();
+        $fileHandle->flush();
+    }
+}
+
+foreach my $bufferLine (@buffer) {
+    print $fileHandle $bufferLine;
+}
+$fileHandle->close();